@@ -35,4 +35,26 @@ public interface EventDeliveryService extends EventDispatcher, EventSinkRegistry
      */
     long getDispatchTimeLimit();
 
+    /**
+     * Sets the number of threads over which each category of events is
+     * sharded. Events about the same subject are always delivered in order
+     * by the same thread; events whose subject has no stable identity are
+     * all delivered by the first thread of their category. Implementations
+     * with a single dispatch thread per category may ignore this.
+     *
+     * @param shards number of dispatch threads per event category
+     */
+    default void setDispatchShards(int shards) {
+    }
+
+    /**
+     * Returns the number of threads over which each category of events is
+     * sharded.
+     *
+     * @return number of dispatch threads per event category
+     */
+    default int getDispatchShards() {
+        return 1;
+    }
+
 }
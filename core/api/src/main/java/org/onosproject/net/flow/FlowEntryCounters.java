@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Counters of a flow entry as reported by a device, identified by the ID of
+ * the flow rather than by the full rule.
+ */
+public final class FlowEntryCounters {
+
+    private final FlowId flowId;
+    private final long life;
+    private final long packets;
+    private final long bytes;
+
+    /**
+     * Creates flow entry counters.
+     *
+     * @param flowId flow identifier
+     * @param life time the flow has been on the device
+     * @param lifeTimeUnit unit of the life time
+     * @param packets number of packets matched by the flow
+     * @param bytes number of bytes matched by the flow
+     */
+    public FlowEntryCounters(FlowId flowId, long life, TimeUnit lifeTimeUnit,
+                             long packets, long bytes) {
+        this.flowId = checkNotNull(flowId);
+        this.life = lifeTimeUnit.toNanos(life);
+        this.packets = packets;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Returns the identifier of the flow.
+     *
+     * @return flow identifier
+     */
+    public FlowId flowId() {
+        return flowId;
+    }
+
+    /**
+     * Returns the time the flow has been on the device.
+     *
+     * @param unit time unit of the returned value
+     * @return life time of the flow
+     */
+    public long life(TimeUnit unit) {
+        return unit.convert(life, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of packets matched by the flow.
+     *
+     * @return number of packets
+     */
+    public long packets() {
+        return packets;
+    }
+
+    /**
+     * Returns the number of bytes matched by the flow.
+     *
+     * @return number of bytes
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(flowId, life, packets, bytes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof FlowEntryCounters) {
+            FlowEntryCounters that = (FlowEntryCounters) obj;
+            return Objects.equals(flowId, that.flowId)
+                    && life == that.life
+                    && packets == that.packets
+                    && bytes == that.bytes;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("flowId", flowId)
+                .add("life", life)
+                .add("packets", packets)
+                .add("bytes", bytes)
+                .toString();
+    }
+}
@@ -16,10 +16,14 @@
 package org.onosproject.net.flow;
 
 import java.util.List;
+import java.util.Set;
 
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.provider.ProviderService;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
 /**
  * Service through which flow rule providers can inject information into
  * the core.
@@ -51,6 +55,27 @@ public interface FlowRuleProviderService extends ProviderService<FlowRuleProvide
      */
     void pushFlowMetricsWithoutFlowMissing(DeviceId deviceId, Iterable<FlowEntry> flowEntries);
 
+    /**
+     * Pushes the flow entries currently applied on the given device, where
+     * the entries the provider already reported in full and which have not
+     * changed on the device since are only given by their counters.
+     * <p>
+     * Counters refer to flows by identifier. Identifiers the core cannot
+     * resolve to a single stored entry are returned; the provider is expected
+     * to report those flows in full from then on.
+     * </p>
+     *
+     * @param deviceId device identifier
+     * @param flowEntries flow entries reported in full
+     * @param counters counters of the flow entries reported by identifier
+     * @return identifiers of the counters that could not be applied
+     */
+    default Set<FlowId> pushFlowCounters(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                         Iterable<FlowEntryCounters> counters) {
+        pushFlowMetricsWithoutFlowMissing(deviceId, flowEntries);
+        return ImmutableSet.copyOf(Iterables.transform(counters, FlowEntryCounters::flowId));
+    }
+
     /**
      * Pushes the collection of table statistics entries currently extracted
      * from the given device.
@@ -16,6 +16,7 @@
 package org.onosproject.net.flow;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEvent;
@@ -92,6 +93,25 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     FlowRuleEvent addOrUpdateFlowRule(FlowEntry rule);
 
+    /**
+     * Updates the counters of a stored flow entry with those reported by
+     * the device.
+     * <p>
+     * Unlike {@link #addOrUpdateFlowRule(FlowEntry)}, the entry is neither
+     * rebuilt nor compared; stores may skip replicating counters that have
+     * not changed.
+     * </p>
+     *
+     * @param entry stored flow entry
+     * @param counters counters reported by the device
+     * @return flow_added or flow_updated event, or null if the entry is gone
+     */
+    default FlowRuleEvent updateFlowCounters(FlowEntry entry, FlowEntryCounters counters) {
+        return addOrUpdateFlowRule(new DefaultFlowEntry(entry, entry.state(),
+                                                        counters.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS,
+                                                        entry.liveType(), counters.packets(), counters.bytes()));
+    }
+
     /**
      * @param rule the flow entry to remove
      * @return flow_removed event, or null if nothing removed
@@ -15,6 +15,13 @@
  */
 package org.onosproject.net.packet;
 
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformSnapshot;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.flow.TrafficSelector;
+
+import java.util.Set;
+
 /**
  * Packet processor entry tracking the processor, its priority and
  * time consumption.
@@ -55,4 +62,23 @@ public interface PacketProcessorEntry {
      * @return average time in nanos
      */
     long averageNanos();
+
+    /**
+     * Returns the selectors of the packets given to the processor.
+     *
+     * @return set of selectors; empty if the processor is given all packets
+     */
+    default Set<TrafficSelector> selectors() {
+        return ImmutableSet.of();
+    }
+
+    /**
+     * Returns the distribution of the time, in nanoseconds, spent processing
+     * individual packets.
+     *
+     * @return snapshot of the processing latencies
+     */
+    default Snapshot latencySnapshot() {
+        return new UniformSnapshot(new long[0]);
+    }
 }
@@ -21,6 +21,7 @@ import org.onosproject.net.flow.TrafficSelector;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for intercepting data plane packets and for emitting synthetic
@@ -42,7 +43,21 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * given only the packets matching any of the given selectors, typically
+     * those the processor's application requests via
+     * {@link #requestPackets(TrafficSelector, PacketPriority, ApplicationId)}.
+     * An empty set of selectors gives the processor all packets.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selectors selectors of the packets to be processed
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> selectors) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -70,4 +70,20 @@ public class HopCountLinkWeigher implements LinkWeigher {
         return ScalarWeight.NON_VIABLE_WEIGHT;
     }
 
+    @Override
+    public int hashCode() {
+        return indirectLinkCost.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj != null && getClass() == obj.getClass()) {
+            return indirectLinkCost.equals(((HopCountLinkWeigher) obj).indirectLinkCost);
+        }
+        return false;
+    }
+
 }
@@ -15,10 +15,14 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -79,6 +83,29 @@ public interface ClusterCommunicationService {
             Function<M, byte[]> encoder,
             NodeId toNodeId);
 
+    /**
+     * Sends a message to the specified controller node, with the message
+     * written by the given encoder on the calling thread. Implementations may
+     * have it written straight into the buffer the message is framed from.
+     *
+     * @param message message to send
+     * @param subject message subject
+     * @param encoder function for writing the message to a stream
+     * @param toNodeId destination node identifier
+     * @param <M> message type
+     * @return future that is completed when the message is sent
+     */
+    default <M> CompletableFuture<Void> unicastStreamed(M message,
+            MessageSubject subject,
+            BiConsumer<M, OutputStream> encoder,
+            NodeId toNodeId) {
+        return unicast(message, subject, m -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            encoder.accept(m, bytes);
+            return bytes.toByteArray();
+        }, toNodeId);
+    }
+
     /**
      * Multicasts a message to a set of controller nodes.
      *
@@ -157,10 +184,39 @@ public interface ClusterCommunicationService {
             Consumer<M> handler,
             Executor executor);
 
+    /**
+     * Adds a new subscriber for the specified message subject whose decoder
+     * reads incoming messages straight out of the receive buffer.
+     * The buffer is only valid while the decoder runs and must not be retained;
+     * it may be backed by a larger shared receive buffer held until then.
+     *
+     * @param subject message subject
+     * @param decoder decoder for resurrecting incoming message
+     * @param handler handler for handling message
+     * @param executor executor to run this handler on
+     * @param <M> incoming message type
+     */
+    default <M> void addBufferSubscriber(MessageSubject subject,
+            Function<ByteBuffer, M> decoder,
+            Consumer<M> handler,
+            Executor executor) {
+        addSubscriber(subject, bytes -> decoder.apply(ByteBuffer.wrap(bytes)), handler, executor);
+    }
+
     /**
      * Removes a subscriber for the specified message subject.
      *
      * @param subject message subject
      */
     void removeSubscriber(MessageSubject subject);
+
+    /**
+     * Sets the priority of the messages of the specified subject sent by this node.
+     * Messages of subjects without a priority are of {@link MessagePriority#NORMAL normal} priority.
+     *
+     * @param subject message subject
+     * @param priority message priority
+     */
+    default void setPriority(MessageSubject subject, MessagePriority priority) {
+    }
 }
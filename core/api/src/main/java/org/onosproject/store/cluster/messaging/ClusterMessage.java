@@ -31,6 +31,9 @@ import com.google.common.base.MoreObjects;
  */
 public class ClusterMessage {
 
+    // payload length of messages whose payload runs to the end of the message
+    private static final int TRAILING_PAYLOAD = -1;
+
     private final NodeId sender;
     private final MessageSubject subject;
     private final byte[] payload;
@@ -145,7 +148,8 @@ public class ClusterMessage {
         buffer.get(senderBytes);
         byte[] subjectBytes = new byte[buffer.getInt()];
         buffer.get(subjectBytes);
-        byte[] payloadBytes = new byte[buffer.getInt()];
+        int payloadLength = buffer.getInt();
+        byte[] payloadBytes = new byte[payloadLength == TRAILING_PAYLOAD ? buffer.remaining() : payloadLength];
         buffer.get(payloadBytes);
 
         return new ClusterMessage(new NodeId(new String(senderBytes, Charsets.UTF_8)),
@@ -153,6 +157,44 @@ public class ClusterMessage {
                 payloadBytes);
     }
 
+    /**
+     * Returns the payload of an encoded ClusterMessage without copying it.
+     * @param buffer buffer holding the raw bytes
+     * @return buffer view of the message payload
+     */
+    public static ByteBuffer payloadOf(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        int senderLength = view.getInt();
+        view.position(view.position() + senderLength);
+        int subjectLength = view.getInt();
+        view.position(view.position() + subjectLength);
+        int payloadLength = view.getInt();
+        if (payloadLength != TRAILING_PAYLOAD) {
+            view.limit(view.position() + payloadLength);
+        }
+        return view.slice();
+    }
+
+    /**
+     * Returns the envelope of a message whose payload is written after it,
+     * up to the end of the message, for payloads of unknown length that are
+     * streamed rather than encoded into a byte[] first.
+     * @param sender  message sender
+     * @param subject message subject
+     * @return envelope bytes to precede the payload
+     */
+    public static byte[] headerBytes(NodeId sender, MessageSubject subject) {
+        byte[] senderBytes = sender.toString().getBytes(Charsets.UTF_8);
+        byte[] subjectBytes = subject.value().getBytes(Charsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(12 + senderBytes.length + subjectBytes.length);
+        buffer.putInt(senderBytes.length);
+        buffer.put(senderBytes);
+        buffer.putInt(subjectBytes.length);
+        buffer.put(subjectBytes);
+        buffer.putInt(TRAILING_PAYLOAD);
+        return buffer.array();
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(sender, subject, Arrays.hashCode(payload));
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging;
+
+/**
+ * Priority class of the messages of a subject.
+ * <p>
+ * Messages of different priorities travel over separate connections, so that bulk transfers
+ * do not hold up time sensitive messages such as heartbeats.
+ * </p>
+ */
+public enum MessagePriority {
+
+    /**
+     * Time sensitive control messages, such as heartbeats and elections. They are never
+     * refused for backpressure.
+     */
+    HIGH,
+
+    /**
+     * Regular messages.
+     */
+    NORMAL,
+
+    /**
+     * Bulk transfers, such as backups, that may be delayed in favor of other messages.
+     */
+    LOW
+}
@@ -64,4 +64,13 @@ public class MessagingException extends IOException {
             super("Failed to process message due to invalid message structure");
         }
     }
+
+    /**
+     * Exception indicating a message was refused as too many bytes are awaiting delivery to the remote endpoint.
+     */
+    public static class Backpressure extends MessagingException {
+        public Backpressure() {
+            super("Too many bytes outstanding to the remote endpoint");
+        }
+    }
 }
@@ -15,10 +15,14 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Interface for low level messaging primitives.
@@ -35,6 +39,23 @@ public interface MessagingService {
      */
     CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] payload);
 
+    /**
+     * Sends a message asynchronously to the specified communication end point,
+     * with a payload written by the given writer on the calling thread.
+     * Implementations may have the payload written straight into the buffer the
+     * message is framed from, sparing the intermediate byte[] of
+     * {@link #sendAsync(Endpoint, String, byte[])}.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param payloadWriter writes the message payload to the given stream.
+     * @return future that is completed when the message is sent
+     */
+    default CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        payloadWriter.accept(payload);
+        return sendAsync(ep, type, payload.toByteArray());
+    }
+
     /**
      * Sends a message asynchronously and expects a response.
      * @param ep end point to send the message to.
@@ -62,6 +83,22 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor);
 
+    /**
+     * Registers a new message handler for message type that reads the payload
+     * straight out of the receive buffer instead of a copy of it.
+     * The buffer is only valid for the duration of the handler call and
+     * must not be retained. Implementations may back it by a larger shared
+     * receive buffer that is held until the handler returns, so handlers
+     * should not block.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        registerHandler(type, (BiConsumer<Endpoint, byte[]>) (ep, bytes) -> handler.accept(ep, ByteBuffer.wrap(bytes)),
+                        executor);
+    }
+
     /**
      * Registers a new message handler for message type.
      * @param type message type.
@@ -82,4 +119,14 @@ public interface MessagingService {
      * @param type message type
      */
     void unregisterHandler(String type);
+
+    /**
+     * Sets the priority of the messages of a type sent by this node.
+     * Messages of types without a priority are of {@link MessagePriority#NORMAL normal} priority.
+     * Implementations not distinguishing priorities ignore it.
+     * @param type message type
+     * @param priority message priority
+     */
+    default void setPriority(String type, MessagePriority priority) {
+    }
 }
@@ -90,6 +90,11 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
         return complete(asyncMap.getOrDefault(key, defaultValue));
     }
 
+    @Override
+    public Map<K, Versioned<V>> getAll(Set<K> keys) {
+        return complete(asyncMap.getAll(keys));
+    }
+
     @Override
     public Versioned<V> computeIfAbsent(K key,
             Function<? super K, ? extends V> mappingFunction) {
@@ -133,6 +138,16 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
         return complete(asyncMap.remove(key));
     }
 
+    @Override
+    public void putAll(Map<K, V> entries) {
+        complete(asyncMap.putAll(entries));
+    }
+
+    @Override
+    public void removeAll(Set<K> keys) {
+        complete(asyncMap.removeAll(keys));
+    }
+
     @Override
     public void clear() {
         complete(asyncMap.clear());
@@ -208,6 +223,16 @@ public class DefaultConsistentMap<K, V> extends Synchronous<AsyncConsistentMap<K
         return asyncMap.statusChangeListeners();
     }
 
+    @Override
+    public long nearCacheHitCount() {
+        return asyncMap.nearCacheHitCount();
+    }
+
+    @Override
+    public long nearCacheMissCount() {
+        return asyncMap.nearCacheMissCount();
+    }
+
     @Override
     public Map<K, V> asJavaMap() {
         synchronized (this) {
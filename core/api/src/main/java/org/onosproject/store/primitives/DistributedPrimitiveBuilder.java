@@ -35,6 +35,7 @@ public abstract class DistributedPrimitiveBuilder<B extends DistributedPrimitive
     private boolean meteringDisabled = false;
     private boolean readOnly = false;
     private boolean relaxedReadConsistency = false;
+    private boolean localReads = false;
 
     public DistributedPrimitiveBuilder(DistributedPrimitive.Type type) {
         this.type = type;
@@ -102,6 +103,21 @@ public abstract class DistributedPrimitiveBuilder<B extends DistributedPrimitive
         return (B) this;
     }
 
+    /**
+     * Serves read operations from the replica held by this node, when it holds one.
+     * <p>
+     * Reads remain sequentially consistent: each reader observes the updates in
+     * order, and its own updates, but may observe them after other nodes do.
+     * Reading from the local replica spreads the read load of a partition across
+     * all of its members instead of the members sessions are connected to.
+     * </p>
+     * @return this builder
+     */
+    public B withLocalReads() {
+        this.localReads = true;
+        return (B) this;
+    }
+
     /**
      * Returns if metering is enabled.
      *
@@ -138,6 +154,15 @@ public abstract class DistributedPrimitiveBuilder<B extends DistributedPrimitive
         return relaxedReadConsistency;
     }
 
+    /**
+     * Returns if read operations are served from the local replica.
+     *
+     * @return {@code true} if yes; {@code false} otherwise
+     */
+    public final boolean localReads() {
+        return localReads;
+    }
+
     /**
      * Returns the serializer.
      *
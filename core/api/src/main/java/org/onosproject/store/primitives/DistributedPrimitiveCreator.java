@@ -49,7 +49,21 @@ public interface DistributedPrimitiveCreator {
      * @param <V> value type
      * @return map
      */
-    <K, V> AsyncConsistentMap<K, V> newAsyncConsistentMap(String name, Serializer serializer);
+    default <K, V> AsyncConsistentMap<K, V> newAsyncConsistentMap(String name, Serializer serializer) {
+        return newAsyncConsistentMap(name, serializer, false);
+    }
+
+    /**
+     * Creates a new {@code AsyncConsistentMap}.
+     *
+     * @param name map name
+     * @param serializer serializer to use for serializing/deserializing map entries
+     * @param localReads whether reads are to be served by the local replica, if any
+     * @param <K> key type
+     * @param <V> value type
+     * @return map
+     */
+    <K, V> AsyncConsistentMap<K, V> newAsyncConsistentMap(String name, Serializer serializer, boolean localReads);
 
     /**
      * Creates a new {@code AsyncConsistentTreeMap}.
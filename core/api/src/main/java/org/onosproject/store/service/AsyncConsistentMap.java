@@ -17,15 +17,18 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.onosproject.store.primitives.DefaultConsistentMap;
 import org.onosproject.store.primitives.MapUpdate;
@@ -119,6 +122,29 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive, Transact
      */
     CompletableFuture<Versioned<V>> getOrDefault(K key, V defaultValue);
 
+    /**
+     * Returns the values (and versions) to which the specified keys are mapped.
+     * Keys with no mapping in this map are absent from the returned map.
+     * <p>
+     * Implementations may read the keys in bulk, but the values are not
+     * guaranteed to be read at the same point in time.
+     * </p>
+     *
+     * @param keys the keys whose associated values (and versions) are to be returned
+     * @return a future map of the mapped keys to their values (and versions)
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = new ConcurrentHashMap<>();
+        return CompletableFuture.allOf(keys.stream()
+                .map(key -> get(key).thenAccept(value -> {
+                    if (value != null) {
+                        values.put(key, value);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new))
+                .thenApply(v -> ImmutableMap.copyOf(values));
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null),
      * attempts to compute its value using the given mapping function and enters it into
@@ -219,6 +245,44 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive, Transact
      */
     CompletableFuture<Void> clear();
 
+    /**
+     * Associates each of the specified keys with its value in this map.
+     * <p>
+     * Implementations may apply the updates in bulk, but the updates are not
+     * guaranteed to be applied atomically. If any of the keys is locked by a
+     * transaction, the returned future will be completed exceptionally with
+     * ConcurrentModificationException and some of the updates may not have
+     * been applied.
+     * </p>
+     *
+     * @param entries the keys and values to be associated
+     * @return a future to be completed once all updates have been applied
+     */
+    default CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(entries.entrySet().stream()
+                .map(entry -> put(entry.getKey(), entry.getValue()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map.
+     * <p>
+     * Implementations may apply the removals in bulk, but the removals are
+     * not guaranteed to be applied atomically. If any of the keys is locked
+     * by a transaction, the returned future will be completed exceptionally
+     * with ConcurrentModificationException and some of the removals may not
+     * have been applied.
+     * </p>
+     *
+     * @param keys the keys whose mappings are to be removed
+     * @return a future to be completed once all removals have been applied
+     */
+    default CompletableFuture<Void> removeAll(Set<K> keys) {
+        return CompletableFuture.allOf(keys.stream()
+                .map(this::remove)
+                .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Returns a Set view of the keys contained in this map.
      * This method differs from the behavior of java.util.Map.keySet() in that
@@ -344,6 +408,24 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive, Transact
      */
     CompletableFuture<Void> removeListener(MapEventListener<K, V> listener);
 
+    /**
+     * Returns the number of reads this node served from a near cache of the map.
+     *
+     * @return near cache hit count; 0 if the map is not near cached
+     */
+    default long nearCacheHitCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of reads this node had to serve from the map despite a near cache.
+     *
+     * @return near cache miss count; 0 if the map is not near cached
+     */
+    default long nearCacheMissCount() {
+        return 0;
+    }
+
     /**
      * Returns a new {@link ConsistentMap} that is backed by this instance.
      *
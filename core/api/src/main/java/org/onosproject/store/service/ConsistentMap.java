@@ -17,6 +17,7 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -90,6 +91,24 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     Versioned<V> getOrDefault(K key, V defaultValue);
 
+    /**
+     * Returns the values (and versions) to which the specified keys are mapped.
+     * Keys with no mapping in this map are absent from the returned map.
+     *
+     * @param keys the keys whose associated values (and versions) are to be returned
+     * @return a map of the mapped keys to their values (and versions)
+     */
+    default Map<K, Versioned<V>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = new HashMap<>();
+        for (K key : keys) {
+            Versioned<V> value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null),
      * attempts to compute its value using the given mapping function and enters it into
@@ -180,6 +199,26 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     Versioned<V> remove(K key);
 
+    /**
+     * Associates each of the specified keys with its value in this map.
+     * The updates are not guaranteed to be applied atomically.
+     *
+     * @param entries the keys and values to be associated
+     */
+    default void putAll(Map<K, V> entries) {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map.
+     * The removals are not guaranteed to be applied atomically.
+     *
+     * @param keys the keys whose mappings are to be removed
+     */
+    default void removeAll(Set<K> keys) {
+        keys.forEach(this::remove);
+    }
+
     /**
      * Removes all of the mappings from this map (optional operation).
      * The map will be empty after this call returns.
@@ -307,6 +346,24 @@ public interface ConsistentMap<K, V> extends DistributedPrimitive {
      */
     void removeListener(MapEventListener<K, V> listener);
 
+    /**
+     * Returns the number of reads this node served from a near cache of the map.
+     *
+     * @return near cache hit count; 0 if the map is not near cached
+     */
+    default long nearCacheHitCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of reads this node had to serve from the map despite a near cache.
+     *
+     * @return near cache miss count; 0 if the map is not near cached
+     */
+    default long nearCacheMissCount() {
+        return 0;
+    }
+
     /**
      * Returns a java.util.Map instance backed by this ConsistentMap.
      * @return java.util.Map
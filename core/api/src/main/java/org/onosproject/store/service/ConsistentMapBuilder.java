@@ -17,6 +17,11 @@ package org.onosproject.store.service;
 
 import org.onosproject.store.primitives.DistributedPrimitiveBuilder;
 
+import java.time.Duration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -28,6 +33,8 @@ public abstract class ConsistentMapBuilder<K, V>
 
     private boolean nullValues = false;
     private boolean purgeOnUninstall = false;
+    private int nearCacheSize = 0;
+    private Duration nearCacheExpiration = Duration.ZERO;
 
     public ConsistentMapBuilder() {
         super(DistributedPrimitive.Type.CONSISTENT_MAP);
@@ -53,6 +60,34 @@ public abstract class ConsistentMapBuilder<K, V>
         return this;
     }
 
+    /**
+     * Enables a near cache holding up to the given number of map entries.
+     * <p>
+     * The near cache serves reads, including key, value and entry set
+     * snapshots, locally and is kept up to date by the map update events.
+     * Reads issued after an update through the same map observe that update.
+     * </p>
+     *
+     * @param maxSize maximum number of cached entries
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withNearCache(int maxSize) {
+        checkArgument(maxSize > 0, "Near cache size must be positive");
+        nearCacheSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Sets the time after which near cache entries are reloaded from the map.
+     *
+     * @param expiration expiration time; {@link Duration#ZERO} for no expiration
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withNearCacheExpiration(Duration expiration) {
+        nearCacheExpiration = checkNotNull(expiration);
+        return this;
+    }
+
     /**
      * Returns whether null values are supported by the map.
      *
@@ -70,6 +105,24 @@ public abstract class ConsistentMapBuilder<K, V>
         return purgeOnUninstall;
     }
 
+    /**
+     * Returns the maximum number of entries held by the near cache.
+     *
+     * @return near cache size; 0 if the near cache is disabled
+     */
+    public int nearCacheSize() {
+        return nearCacheSize;
+    }
+
+    /**
+     * Returns the time after which near cache entries are reloaded.
+     *
+     * @return near cache expiration; {@link Duration#ZERO} for no expiration
+     */
+    public Duration nearCacheExpiration() {
+        return nearCacheExpiration;
+    }
+
     /**
      * Builds an async consistent map based on the configuration options
      * supplied to this builder.
@@ -190,6 +190,22 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withPersistence();
 
+    /**
+     * Configure the map to keep its values serialized outside of the Java heap.
+     * <p>
+     * Values are decoded on access, with a small number of recently accessed
+     * values kept decoded. Suited to large maps whose values would otherwise
+     * take up a significant part of the old generation. Cannot be combined with
+     * persistence.
+     * </p>
+     * <p>
+     * The default behavior is to keep values on the heap.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withOffHeapValues();
+
     /**
      * Builds an eventually consistent map based on the configuration options
      * supplied to this builder.
@@ -15,9 +15,12 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 import org.onosproject.cluster.NodeId;
 
+import com.google.common.primitives.Bytes;
 import com.google.common.testing.EqualsTester;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -79,4 +82,15 @@ public class ClusterMessageTest {
         ClusterMessage message = ClusterMessage.fromBytes(fromBytes);
         assertThat(message, is(message3));
     }
+
+    /**
+     * Tests decoding messages whose payload follows the envelope header.
+     */
+    @Test
+    public void testTrailingPayload() {
+        byte[] bytes = Bytes.concat(ClusterMessage.headerBytes(nodeId, subject2), payload1);
+        assertThat(ClusterMessage.fromBytes(bytes), is(message3));
+        ByteBuffer payload = ClusterMessage.payloadOf(ByteBuffer.wrap(bytes));
+        assertThat(payload, is(ByteBuffer.wrap(payload1)));
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.persistence.PersistenceServiceAdapter;
+import org.onosproject.store.primitives.impl.EventuallyConsistentMapBuilderImpl;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.WallClockTimestamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Benchmarks local updates and reads of an {@link EventuallyConsistentMap}
+ * on a single node cluster, so that gossip costs are excluded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventuallyConsistentMapBenchmark {
+
+    private static final NodeId LOCAL = new NodeId("1");
+
+    /**
+     * Number of keys held by the map.
+     */
+    @Param({"1000", "100000"})
+    public int keys;
+
+    private EventuallyConsistentMap<DeviceId, String> map;
+    private DeviceId[] deviceIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        map = new EventuallyConsistentMapBuilderImpl<DeviceId, String>(
+                LOCAL, new ClusterCommunicationServiceAdapter(), new PersistenceServiceAdapter(),
+                ImmutableList::of, ImmutableList::of)
+                .withName("benchmark")
+                .withSerializer(KryoNamespaces.API)
+                .withTimestampProvider((k, v) -> new WallClockTimestamp())
+                .build();
+        deviceIds = new DeviceId[keys];
+        for (int i = 0; i < keys; i++) {
+            deviceIds[i] = DeviceId.deviceId(String.format("of:%016x", i));
+            map.put(deviceIds[i], deviceIds[i].toString());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        map.destroy();
+    }
+
+    private DeviceId nextKey() {
+        next = (next + 1) % keys;
+        return deviceIds[next];
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public void put() {
+        DeviceId key = nextKey();
+        map.put(key, key.toString());
+    }
+}
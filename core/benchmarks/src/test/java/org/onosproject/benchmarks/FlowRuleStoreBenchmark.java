@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.MplsLabel;
+import org.onlab.packet.VlanId;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.core.CoreServiceAdapter;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleStore;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.flow.ReplicaInfo;
+import org.onosproject.store.flow.ReplicaInfoEventListener;
+import org.onosproject.store.flow.ReplicaInfoService;
+import org.onosproject.store.flow.impl.ECFlowRuleStore;
+import org.onosproject.store.persistence.PersistenceServiceAdapter;
+import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.trivial.SimpleFlowRuleStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import static org.onlab.junit.TestUtils.setField;
+import static org.onosproject.net.NetTestTools.APP_ID;
+
+/**
+ * Benchmarks flow table operations of the trivial and the distributed
+ * flow rule stores, with the local node mastering every device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowRuleStoreBenchmark {
+
+    private static final NodeId LOCAL = new NodeId("1");
+    private static final DeviceId DEVICE = DeviceId.deviceId("of:0000000000000001");
+
+    @Param({"SIMPLE", "EC"})
+    public String store;
+
+    /**
+     * Number of flows installed in the table before measuring.
+     */
+    @Param({"1000", "100000"})
+    public int flows;
+
+    private FlowRuleStore flowStore;
+    private Runnable deactivator;
+    private List<FlowEntry> entries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        if (store.equals("SIMPLE")) {
+            SimpleFlowRuleStore simple = new SimpleFlowRuleStore();
+            simple.activate();
+            flowStore = simple;
+            deactivator = simple::deactivate;
+        } else {
+            flowStore = createEcStore();
+        }
+
+        entries = Lists.newArrayListWithCapacity(flows);
+        List<FlowRuleBatchEntry> ops = Lists.newArrayListWithCapacity(flows);
+        for (int i = 0; i < flows; i++) {
+            FlowRule rule = rule(i);
+            entries.add(new DefaultFlowEntry(rule, FlowEntry.FlowEntryState.ADDED, 1, 10, 1000));
+            ops.add(new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, rule));
+        }
+        flowStore.storeBatch(new FlowRuleBatchOperation(ops, DEVICE, 1));
+        entries.forEach(flowStore::addOrUpdateFlowRule);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deactivator.run();
+    }
+
+    private FlowRuleStore createEcStore() {
+        ECFlowRuleStore ecStore = new ECFlowRuleStore();
+        setField(ecStore, "storageService", new TestStorageService());
+        setField(ecStore, "replicaInfoManager", new NoBackupReplicaInfoService());
+        setField(ecStore, "clusterService", new LocalClusterService());
+        setField(ecStore, "clusterCommunicator", new ClusterCommunicationServiceAdapter());
+        setField(ecStore, "mastershipService", new MasterOfAll());
+        setField(ecStore, "deviceService", new DeviceServiceAdapter());
+        setField(ecStore, "coreService", new CoreServiceAdapter());
+        setField(ecStore, "configService", new ComponentConfigAdapter());
+        setField(ecStore, "persistenceService", new PersistenceServiceAdapter());
+        ecStore.activate(null);
+        deactivator = () -> ecStore.deactivate(null);
+        return ecStore;
+    }
+
+    private static FlowRule rule(int i) {
+        return DefaultFlowRule.builder()
+                .forDevice(DEVICE)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(i % 48 + 1))
+                                      .matchVlanId(VlanId.vlanId((short) (i % 4000 + 1)))
+                                      .matchMplsLabel(MplsLabel.mplsLabel(i))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber(1))
+                                       .build())
+                .withPriority(100)
+                .makePermanent()
+                .fromApp(APP_ID)
+                .build();
+    }
+
+    private FlowEntry nextEntry() {
+        next = (next + 1) % flows;
+        return entries.get(next);
+    }
+
+    @Benchmark
+    public FlowEntry getFlowEntry() {
+        return flowStore.getFlowEntry(nextEntry());
+    }
+
+    @Benchmark
+    public Object updateFlowEntry() {
+        return flowStore.addOrUpdateFlowRule(nextEntry());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Iterable<FlowEntry> getFlowEntries() {
+        return flowStore.getFlowEntries(DEVICE);
+    }
+
+    private static final class MasterOfAll extends MastershipServiceAdapter {
+        @Override
+        public MastershipRole getLocalRole(DeviceId deviceId) {
+            return MastershipRole.MASTER;
+        }
+
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return LOCAL;
+        }
+    }
+
+    private static final class LocalClusterService extends ClusterServiceAdapter {
+        private final ControllerNode local = new DefaultControllerNode(LOCAL, Ip4Address.valueOf("127.0.0.1"));
+
+        @Override
+        public ControllerNode getLocalNode() {
+            return local;
+        }
+    }
+
+    private static final class NoBackupReplicaInfoService implements ReplicaInfoService {
+        @Override
+        public ReplicaInfo getReplicaInfoFor(DeviceId deviceId) {
+            return new ReplicaInfo(LOCAL, ImmutableList.of());
+        }
+
+        @Override
+        public void addListener(ReplicaInfoEventListener listener) {
+        }
+
+        @Override
+        public void removeListener(ReplicaInfoEventListener listener) {
+        }
+    }
+}
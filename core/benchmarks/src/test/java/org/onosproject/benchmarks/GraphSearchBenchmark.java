@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.GraphPathSearch;
+import org.onlab.graph.SuurballeGraphSearch;
+import org.onosproject.common.DefaultTopologyGraph;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyVertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Sets;
+
+import static org.onosproject.net.NetTestTools.link;
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
+
+/**
+ * Benchmarks shortest and disjoint path searches over a grid-shaped
+ * {@link DefaultTopologyGraph}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphSearchBenchmark {
+
+    /**
+     * Number of devices along each side of the grid.
+     */
+    @Param({"10", "30"})
+    public int side;
+
+    private DefaultTopologyGraph graph;
+    private TopologyVertex src;
+    private TopologyVertex dst;
+
+    private final DijkstraGraphSearch<TopologyVertex, TopologyEdge> dijkstra =
+            new DijkstraGraphSearch<>();
+    private final SuurballeGraphSearch<TopologyVertex, TopologyEdge> suurballe =
+            new SuurballeGraphSearch<>();
+
+    @Setup
+    public void setUp() {
+        TopologyVertex[][] grid = new TopologyVertex[side][side];
+        Set<TopologyVertex> vertexes = Sets.newHashSet();
+        Set<TopologyEdge> edges = Sets.newHashSet();
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                grid[i][j] = new DefaultTopologyVertex(DeviceId.deviceId(name(i, j)));
+                vertexes.add(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                if (i + 1 < side) {
+                    connect(edges, grid[i][j], grid[i + 1][j]);
+                }
+                if (j + 1 < side) {
+                    connect(edges, grid[i][j], grid[i][j + 1]);
+                }
+            }
+        }
+        graph = new DefaultTopologyGraph(vertexes, edges);
+        // the number of equal-cost paths between opposite corners grows
+        // combinatorially, so pick a destination with only a few of them
+        src = grid[0][0];
+        dst = grid[1][side - 1];
+    }
+
+    private static String name(int i, int j) {
+        return String.format("of:%08x%08x", i, j);
+    }
+
+    private static void connect(Set<TopologyEdge> edges, TopologyVertex a, TopologyVertex b) {
+        String as = a.deviceId().toString().substring(3);
+        String bs = b.deviceId().toString().substring(3);
+        edges.add(new DefaultTopologyEdge(a, b, link(as, 1, bs, 2)));
+        edges.add(new DefaultTopologyEdge(b, a, link(bs, 2, as, 1)));
+    }
+
+    @Benchmark
+    public GraphPathSearch.Result<TopologyVertex, TopologyEdge> dijkstraSinglePath() {
+        return dijkstra.search(graph, src, dst, DEFAULT_HOP_COUNT_WEIGHER, 1);
+    }
+
+    @Benchmark
+    public GraphPathSearch.Result<TopologyVertex, TopologyEdge> dijkstraAllPaths() {
+        return dijkstra.search(graph, src, dst, DEFAULT_HOP_COUNT_WEIGHER, GraphPathSearch.ALL_PATHS);
+    }
+
+    @Benchmark
+    public GraphPathSearch.Result<TopologyVertex, TopologyEdge> dijkstraAllDestinations() {
+        return dijkstra.search(graph, src, null, DEFAULT_HOP_COUNT_WEIGHER, 1);
+    }
+
+    @Benchmark
+    public GraphPathSearch.Result<TopologyVertex, TopologyEdge> suurballeDisjointPaths() {
+        return suurballe.search(graph, src, dst, DEFAULT_HOP_COUNT_WEIGHER, GraphPathSearch.ALL_PATHS);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.link;
+
+/**
+ * Benchmarks serialization of common API types through {@link KryoNamespaces#API}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KryoNamespaceBenchmark {
+
+    @Param({"DEVICE_ID", "CONNECT_POINT", "LINK", "FLOW_ENTRY"})
+    public String type;
+
+    private KryoNamespace namespace;
+    private Object object;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        namespace = KryoNamespaces.API;
+        object = create(type);
+        bytes = namespace.serialize(object);
+    }
+
+    private static Object create(String type) {
+        switch (type) {
+            case "DEVICE_ID":
+                return DeviceId.deviceId("of:0000000000000001");
+            case "CONNECT_POINT":
+                return new ConnectPoint(DeviceId.deviceId("of:0000000000000001"), PortNumber.portNumber(1));
+            case "LINK":
+                return link("1", 1, "2", 2);
+            case "FLOW_ENTRY":
+                return flowEntry();
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    private static FlowEntry flowEntry() {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                .forDevice(DeviceId.deviceId("of:0000000000000001"))
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(1))
+                                      .matchEthDst(MacAddress.valueOf("00:00:00:00:00:01"))
+                                      .matchEthType((short) 0x0800)
+                                      .matchIPDst(Ip4Prefix.valueOf("10.0.0.0/24"))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber(2))
+                                       .build())
+                .withPriority(100)
+                .makePermanent()
+                .fromApp(APP_ID)
+                .build(), FlowEntry.FlowEntryState.ADDED, 10, 1000, 64000);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return namespace.serialize(object);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return namespace.deserialize(bytes);
+    }
+}
@@ -18,6 +18,9 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
@@ -33,7 +36,6 @@ import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
 import org.onlab.graph.TarjanGraphSearch;
-import org.onlab.graph.TarjanGraphSearch.SccResult;
 import org.onlab.graph.Weight;
 import org.onosproject.net.AbstractModel;
 import org.onosproject.net.ConnectPoint;
@@ -59,10 +61,19 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -93,9 +104,24 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private static final LazyKShortestPathsSearch<TopologyVertex, TopologyEdge> LAZY_KSHORTEST =
             new LazyKShortestPathsSearch<>();
 
+    // Pool for computing independent parts of the topology in parallel
+    private static final ForkJoinPool COMPUTE_POOL =
+            new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+                ForkJoinWorkerThread thread =
+                        ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("onos-topology-compute-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+
+    private static final int DEFAULT_PATH_CACHE_SIZE = 10_000;
+
+    // Stands in for the topology's own hop-count weigher in the path keys
+    private static final Object HOP_COUNT_KEY = new Object();
 
     private static LinkWeigher defaultLinkWeigher = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
+    private static volatile int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+    private static volatile boolean shortestPathTrees = false;
 
     private final long time;
     private final long creationTime;
@@ -104,13 +130,17 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterData> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
 
+    private final Cache<PathKey, Set<Path>> paths;
+    private final Cache<PathKey, Set<DisjointPath>> disjointPaths;
+    private final Cache<PathKey, Result<TopologyVertex, TopologyEdge>> pathTrees;
+
     /**
      * Sets the default link-weight to be used when computing paths. If null is
      * specified, the builtin default link-weight measuring hop-counts will be
@@ -135,6 +165,30 @@ public class DefaultTopology extends AbstractModel implements Topology {
         defaultGraphPathSearch = graphPathSearch;
     }
 
+    /**
+     * Sets the maximum number of computed paths each topology retains for
+     * reuse. Zero disables the caching of paths.
+     *
+     * @param size maximum number of cached path sets
+     */
+    public static synchronized void setPathCacheSize(int size) {
+        checkArgument(size >= 0, "Path cache size cannot be negative");
+        log.info("Setting new path cache size to {}", size);
+        pathCacheSize = size;
+    }
+
+    /**
+     * Sets whether all-paths shortest path searches should compute and
+     * retain the whole shortest-path tree of the source device, so that
+     * the paths to other destinations are built from it.
+     *
+     * @param enabled true to use shortest-path trees
+     */
+    public static synchronized void setShortestPathTrees(boolean enabled) {
+        log.info("Setting shortest-path trees to {}", enabled);
+        shortestPathTrees = enabled;
+    }
+
 
     /**
      * Creates a topology descriptor attributed to the specified provider.
@@ -145,6 +199,27 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving it from the previous topology where possible.
+     * <p>
+     * Clusters not affected by the differences between the two graphs are
+     * carried over and only clusters which may have been split by removed
+     * devices or links are searched again, in parallel. If the change may
+     * have merged clusters, the whole graph is searched instead.
+     * </p>
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -154,14 +229,37 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
 
-        this.clusterResults = Suppliers.memoize(this::searchForClusters);
+        // Derive the clusters eagerly, so that the previous topology is not
+        // retained past the construction of this one.
+        boolean sameGraph = previous != null && hasSameGraph(previous);
+        if (previous == null) {
+            this.clusterResults = Suppliers.memoize(this::searchForClusters);
+        } else if (sameGraph) {
+            this.clusterResults = Suppliers.ofInstance(
+                    withClusterEdges(previous.clusterResults.get().clusterVertexes));
+        } else {
+            ClusterData derived = deriveClusters(previous);
+            this.clusterResults = Suppliers.ofInstance(derived != null ? derived : searchForClusters());
+        }
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
 
         this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
 
         this.hopCountWeigher = new HopCountLinkWeigher(graph.getVertexes().size());
-        this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
+        if (sameGraph && broadcastFunction == previous.broadcastFunction) {
+            this.broadcastSets = Suppliers.ofInstance(previous.broadcastSets.get());
+        } else {
+            this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
+        }
         this.infrastructurePoints = Suppliers.memoize(this::findInfrastructurePoints);
+
+        int cacheSize = pathCacheSize;
+        this.paths = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        this.disjointPaths = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        this.pathTrees = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        if (previous != null && cacheSize > 0) {
+            carryOverPaths(previous);
+        }
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
 
@@ -384,13 +482,29 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weigher, maxPaths);
-        ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
-        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
-            builder.add(networkPath(path));
+        GraphPathSearch<TopologyVertex, TopologyEdge> search = graphPathSearch();
+        PathKey key = pathKey(src, dst, weigher, search, maxPaths);
+        Set<Path> cached = key != null ? paths.getIfPresent(key) : null;
+        if (cached != null) {
+            return cached;
         }
-        return builder.build();
+
+        Set<Path> found;
+        if (shortestPathTrees && search == DIJKSTRA && maxPaths == ALL_PATHS) {
+            found = treePaths(pathTree(srcV, weigher), srcV, dstV);
+        } else {
+            GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
+                    search.search(graph, srcV, dstV, weigher, maxPaths);
+            ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
+            for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+                builder.add(networkPath(path));
+            }
+            found = builder.build();
+        }
+        if (key != null) {
+            paths.put(key, found);
+        }
+        return found;
     }
 
     /**
@@ -506,6 +620,12 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
+        PathKey key = pathKey(src, dst, weigher, SUURBALLE, ALL_PATHS);
+        Set<DisjointPath> cached = key != null ? disjointPaths.getIfPresent(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
                 SUURBALLE.search(graph, srcV, dstV, weigher, ALL_PATHS);
         ImmutableSet.Builder<DisjointPath> builder = ImmutableSet.builder();
@@ -516,7 +636,11 @@ public class DefaultTopology extends AbstractModel implements Topology {
                 builder.add(disjointPath);
             }
         }
-        return builder.build();
+        Set<DisjointPath> found = builder.build();
+        if (key != null) {
+            disjointPaths.put(key, found);
+        }
+        return found;
     }
 
     /**
@@ -607,6 +731,116 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return getDisjointPaths(src, dst, linkWeight(), riskProfile);
     }
 
+    // Returns the shortest-path tree rooted at the given source vertex,
+    // searching for it if it has not been retained yet.
+    private Result<TopologyVertex, TopologyEdge> pathTree(TopologyVertex srcV,
+                                                         LinkWeigher weigher) {
+        PathKey key = pathKey(srcV.deviceId(), null, weigher, DIJKSTRA, ALL_PATHS);
+        Result<TopologyVertex, TopologyEdge> tree = key != null ? pathTrees.getIfPresent(key) : null;
+        if (tree == null) {
+            tree = DIJKSTRA.searchTree(graph, srcV, weigher);
+            if (key != null) {
+                pathTrees.put(key, tree);
+            }
+        }
+        return tree;
+    }
+
+    // Builds all shortest paths to the destination by walking back along the
+    // parent edges of the shortest-path tree.
+    private Set<Path> treePaths(Result<TopologyVertex, TopologyEdge> tree,
+                                TopologyVertex srcV, TopologyVertex dstV) {
+        Weight cost = tree.costs().get(dstV);
+        if (cost == null || srcV.equals(dstV)) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
+        walkBack(tree.parents(), srcV, dstV, cost, new ArrayDeque<>(), new HashSet<>(), builder);
+        return builder.build();
+    }
+
+    private void walkBack(Map<TopologyVertex, Set<TopologyEdge>> parents,
+                          TopologyVertex srcV, TopologyVertex vertex, Weight cost,
+                          Deque<Link> links, Set<TopologyVertex> visited,
+                          ImmutableSet.Builder<Path> builder) {
+        if (vertex.equals(srcV)) {
+            builder.add(new DefaultPath(CORE_PROVIDER_ID, ImmutableList.copyOf(links), cost));
+            return;
+        }
+        Set<TopologyEdge> edges = parents.get(vertex);
+        if (edges == null || !visited.add(vertex)) {
+            return;
+        }
+        for (TopologyEdge edge : edges) {
+            links.addFirst(edge.link());
+            walkBack(parents, srcV, edge.src(), cost, links, visited, builder);
+            links.removeFirst();
+        }
+        visited.remove(vertex);
+    }
+
+    // Returns the key under which the results of the given search are cached,
+    // or null if they are not to be cached. Only searches with the default
+    // weighers are; arbitrary weighers are often created per request and
+    // without equality, and would only fill the cache with entries which
+    // can never be hit again.
+    private PathKey pathKey(DeviceId src, DeviceId dst, LinkWeigher weigher,
+                            Object search, int maxPaths) {
+        Object weigherKey;
+        if (weigher == hopCountWeigher) {
+            weigherKey = HOP_COUNT_KEY;
+        } else if (weigher instanceof HopCountLinkWeigher || weigher == defaultLinkWeigher) {
+            weigherKey = weigher;
+        } else {
+            return null;
+        }
+        return new PathKey(src, dst, weigherKey, search, maxPaths);
+    }
+
+    // Carries over the paths and shortest-path trees of the previous topology
+    // which are still valid. This holds only if links were merely removed or
+    // deactivated, none of which are used by the paths, and only for the
+    // hop-count weighers, which depend on nothing but the link state and type.
+    private void carryOverPaths(DefaultTopology previous) {
+        if (!graph.getVertexes().equals(previous.graph.getVertexes())) {
+            return;
+        }
+        Map<Link, Link.State> states = linkStates(graph);
+        Map<Link, Link.State> priorStates = linkStates(previous.graph);
+        for (Map.Entry<Link, Link.State> entry : states.entrySet()) {
+            Link.State prior = priorStates.get(entry.getKey());
+            if (prior == null || (prior == INACTIVE && entry.getValue() != INACTIVE)) {
+                return;
+            }
+        }
+        Predicate<Link> unchanged =
+                link -> states.get(link) == link.state();
+
+        previous.paths.asMap().forEach((key, value) -> {
+            if (isHopCount(key) && value.stream()
+                    .allMatch(path -> path.links().stream().allMatch(unchanged))) {
+                paths.put(key, value);
+            }
+        });
+        previous.disjointPaths.asMap().forEach((key, value) -> {
+            if (isHopCount(key) && value.stream()
+                    .allMatch(path -> path.primary().links().stream().allMatch(unchanged) &&
+                            path.backup().links().stream().allMatch(unchanged))) {
+                disjointPaths.put(key, value);
+            }
+        });
+        previous.pathTrees.asMap().forEach((key, value) -> {
+            if (isHopCount(key) && value.parents().values().stream()
+                    .allMatch(edges -> edges.stream().allMatch(edge -> unchanged.test(edge.link())))) {
+                pathTrees.put(key, value);
+            }
+        });
+    }
+
+    private static boolean isHopCount(PathKey key) {
+        return key.weigher == HOP_COUNT_KEY || key.weigher instanceof HopCountLinkWeigher;
+    }
+
     // Converts graph path to a network path with the same cost.
     private Path networkPath(org.onlab.graph.Path<TopologyVertex, TopologyEdge> path) {
         List<Link> links = path.edges().stream().map(TopologyEdge::link)
@@ -629,23 +863,146 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    private ClusterData searchForClusters() {
+        TarjanGraphSearch.SccResult<TopologyVertex, TopologyEdge> result =
+                TARJAN.search(graph, new NoIndirectLinksWeigher());
+        return new ClusterData(result.clusterVertexes(), result.clusterEdges());
+    }
+
+    // Searches for SCC clusters among the specified vertexes, using only the
+    // links between them.
+    private List<Set<TopologyVertex>> searchForClusters(Set<TopologyVertex> vertexes) {
+        Set<TopologyVertex> survivors = vertexes.stream()
+                .filter(graph.getVertexes()::contains)
+                .collect(Collectors.toSet());
+        TopologyGraph subgraph = new DefaultTopologyGraph(survivors, findClusterEdges(survivors));
+        return TARJAN.search(subgraph, new NoIndirectLinksWeigher()).clusterVertexes();
+    }
+
+    // Derives the SCC clusters from those of the previous topology. Removed
+    // vertexes and links can only split the clusters which contained them,
+    // so only those are searched again; returns null if added vertexes or
+    // links may have merged clusters.
+    private ClusterData deriveClusters(DefaultTopology previous) {
+        ClusterData prior = previous.clusterResults.get();
+        Map<TopologyVertex, Integer> priorIndex = new HashMap<>();
+        for (int i = 0; i < prior.clusterVertexes.size(); i++) {
+            for (TopologyVertex vertex : prior.clusterVertexes.get(i)) {
+                priorIndex.put(vertex, i);
+            }
+        }
+
+        Set<TopologyEdge> viable = findViableEdges(graph);
+        Set<TopologyEdge> priorViable = findViableEdges(previous.graph);
+        for (TopologyEdge edge : viable) {
+            if (!priorViable.contains(edge)) {
+                Integer src = priorIndex.get(edge.src());
+                if (src == null || !src.equals(priorIndex.get(edge.dst()))) {
+                    return null;
+                }
+            }
+        }
+
+        Set<Integer> affected = new HashSet<>();
+        for (TopologyEdge edge : priorViable) {
+            if (!viable.contains(edge)) {
+                Integer src = priorIndex.get(edge.src());
+                if (src.equals(priorIndex.get(edge.dst()))) {
+                    affected.add(src);
+                }
+            }
+        }
+        priorIndex.forEach((vertex, i) -> {
+            if (!graph.getVertexes().contains(vertex)) {
+                affected.add(i);
+            }
+        });
+
+        // Carry over the unaffected clusters and search the affected ones
+        List<Set<TopologyVertex>> clusterVertexes = new ArrayList<>();
+        List<Set<TopologyVertex>> splits = new ArrayList<>();
+        for (int i = 0; i < prior.clusterVertexes.size(); i++) {
+            (affected.contains(i) ? splits : clusterVertexes).add(prior.clusterVertexes.get(i));
+        }
+        computeInParallel(() -> splits.parallelStream()
+                .map(this::searchForClusters)
+                .collect(Collectors.toList()))
+                .forEach(clusterVertexes::addAll);
+
+        // Added vertexes without viable links are clusters of their own
+        for (TopologyVertex vertex : graph.getVertexes()) {
+            if (!priorIndex.containsKey(vertex)) {
+                clusterVertexes.add(ImmutableSet.of(vertex));
+            }
+        }
+
+        return withClusterEdges(clusterVertexes);
+    }
+
+    // Pairs the given cluster vertexes with their edges. These are always
+    // taken from the current graph, as links may have changed since.
+    private ClusterData withClusterEdges(List<Set<TopologyVertex>> clusterVertexes) {
+        List<Set<TopologyEdge>> clusterEdges = computeInParallel(
+                () -> clusterVertexes.parallelStream()
+                        .map(this::findClusterEdges)
+                        .collect(Collectors.toList()));
+        return new ClusterData(clusterVertexes, clusterEdges);
+    }
+
+    // Finds all edges of the current graph between the specified vertexes.
+    private Set<TopologyEdge> findClusterEdges(Set<TopologyVertex> vertexes) {
+        ImmutableSet.Builder<TopologyEdge> edges = ImmutableSet.builder();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return edges.build();
+    }
+
+    // Finds all edges of the given graph which may be traversed by the
+    // cluster search.
+    private static Set<TopologyEdge> findViableEdges(TopologyGraph graph) {
+        NoIndirectLinksWeigher weigher = new NoIndirectLinksWeigher();
+        return graph.getEdges().stream()
+                .filter(edge -> weigher.weight(edge).isViable())
+                .collect(Collectors.toSet());
+    }
+
+    // Indicates whether the given topology has the same devices and the same
+    // links, in the same states, as this one.
+    private boolean hasSameGraph(DefaultTopology other) {
+        return graph.getVertexes().equals(other.graph.getVertexes()) &&
+                linkStates(graph).equals(linkStates(other.graph));
+    }
+
+    private static Map<Link, Link.State> linkStates(TopologyGraph graph) {
+        Map<Link, Link.State> states = new HashMap<>();
+        graph.getEdges().forEach(edge -> states.put(edge.link(), edge.link().state()));
+        return states;
+    }
+
+    // Runs the given computation on the topology compute pool, so that any
+    // parallel streams within it use that pool.
+    private static <T> T computeInParallel(Callable<T> computation) {
+        return COMPUTE_POOL.submit(computation).join();
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterData results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes;
+        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges;
 
         // Scan over the lists and create a cluster from the results.
-        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+        for (int i = 0, n = clusterVertexes.size(); i < n; i++) {
             Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
             Set<TopologyEdge> edgeSet = clusterEdges.get(i);
 
@@ -672,12 +1029,21 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return minVertex;
     }
 
-    // Processes a map of broadcast sets for each cluster.
+    // Processes a map of broadcast sets for each cluster; the clusters are
+    // independent of each other and so are processed in parallel.
     private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
+        // Build the device index ahead of the parallel searches using it.
+        clustersByDevice();
+        List<ImmutableSetMultimap<ClusterId, ConnectPoint>> sets = computeInParallel(
+                () -> clusters.get().values().parallelStream()
+                        .map(cluster -> {
+                            Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
+                            addClusterBroadcastSet(cluster, builder);
+                            return builder.build();
+                        })
+                        .collect(Collectors.toList()));
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
-        for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
-        }
+        sets.forEach(builder::putAll);
         return builder.build();
     }
 
@@ -743,13 +1109,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterResults.get().clusterVertexes.get(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterResults.get().clusterEdges.get(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -780,6 +1146,57 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Vertexes and edges of the SCC clusters; the lists form pairs along the
+    // same index, which is also the cluster index.
+    static final class ClusterData {
+        final List<Set<TopologyVertex>> clusterVertexes;
+        final List<Set<TopologyEdge>> clusterEdges;
+
+        ClusterData(List<Set<TopologyVertex>> clusterVertexes,
+                    List<Set<TopologyEdge>> clusterEdges) {
+            this.clusterVertexes = clusterVertexes;
+            this.clusterEdges = clusterEdges;
+        }
+    }
+
+    // Identifies a path search by its end-points, link weigher, algorithm
+    // and path limit.
+    private static final class PathKey {
+        private final DeviceId src;
+        private final DeviceId dst;
+        private final Object weigher;
+        private final Object search;
+        private final int maxPaths;
+
+        private PathKey(DeviceId src, DeviceId dst, Object weigher,
+                        Object search, int maxPaths) {
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+            this.search = search;
+            this.maxPaths = maxPaths;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst, weigher, System.identityHashCode(search), maxPaths);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathKey) {
+                PathKey other = (PathKey) obj;
+                return Objects.equals(src, other.src) && Objects.equals(dst, other.dst) &&
+                        Objects.equals(weigher, other.weigher) && search == other.search &&
+                        maxPaths == other.maxPaths;
+            }
+            return false;
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
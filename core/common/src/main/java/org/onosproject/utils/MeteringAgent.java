@@ -16,6 +16,7 @@
 package org.onosproject.utils;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.collect.Maps;
 import org.onlab.metrics.MetricsComponent;
@@ -40,6 +41,7 @@ public class MeteringAgent {
     private MetricsFeature metricsFeature;
     private final Map<String, Timer> perObjOpTimers = Maps.newConcurrentMap();
     private final Map<String, Timer> perOpTimers = Maps.newConcurrentMap();
+    private final Map<String, Meter> perObjOpMeters = Maps.newConcurrentMap();
     private Timer perPrimitiveTimer;
     private Timer perObjTimer;
     private MetricsFeature wildcard;
@@ -87,6 +89,34 @@ public class MeteringAgent {
         return new Context(currTimer.time(), op);
     }
 
+    /**
+     * Marks the occurrence of a number of events, such as bytes transferred, for a given operation.
+     *
+     * @param op Specific operation being metered
+     * @param count number of events
+     */
+    public void mark(String op, long count) {
+        if (!activated) {
+            return;
+        }
+        getObjectOperationMeter(op).mark(count);
+    }
+
+    /**
+     * Get or creates operation meter specific to this agent's object.
+     *
+     * @param operation name
+     * @return Meter
+     */
+    private Meter getObjectOperationMeter(String operation) {
+        Meter m = perObjOpMeters.get(operation);
+        if (m != null) {
+            return m;
+        }
+        return perObjOpMeters.computeIfAbsent(operation,
+                                              op -> metricsService.createMeter(metricsComponent, metricsFeature, op));
+    }
+
     /**
      * Get or creates operation timer specific to this agent's object.
      *
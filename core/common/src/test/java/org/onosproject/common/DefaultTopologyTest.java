@@ -15,6 +15,7 @@
  */
 package org.onosproject.common;
 
+import com.google.common.base.Function;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.graph.DefaultEdgeWeigher;
@@ -34,6 +35,7 @@ import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultGraphDescription;
 import org.onosproject.net.topology.DefaultTopologyVertex;
 import org.onosproject.net.topology.GraphDescription;
+import org.onosproject.net.topology.HopCountLinkWeigher;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.TopologyCluster;
 import org.onosproject.net.topology.TopologyEdge;
@@ -79,6 +81,7 @@ public class DefaultTopologyTest {
 
 
     private DefaultTopology dt;
+    private GraphDescription graphDescription;
 
     public static final ClusterId C0 = ClusterId.clusterId(0);
     public static final ClusterId C1 = ClusterId.clusterId(1);
@@ -93,7 +96,7 @@ public class DefaultTopologyTest {
                              link("3", 2, "2", 2), link("2", 2, "3", 2),
                              link("1", 3, "4", 3), link("4", 3, "1", 3),
                              link("3", 4, "4", 4), link("4", 4, "3", 4));
-        GraphDescription graphDescription =
+        graphDescription =
                 new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
 
         dt = new DefaultTopology(PID, graphDescription);
@@ -148,6 +151,119 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void cachedPathRelated() {
+        Set<Path> paths = dt.getPaths(D1, D3);
+        assertSame("paths should be cached", paths, dt.getPaths(D1, D3));
+        assertNotSame("weigher should be part of the key", paths, dt.getPaths(D1, D3, WEIGHER));
+        assertNotSame("arbitrary weighers should not be cached",
+                      dt.getPaths(D1, D3, WEIGHER), dt.getPaths(D1, D3, WEIGHER));
+        assertSame("equal weighers should share the cache",
+                   dt.getPaths(D1, D3, new HopCountLinkWeigher(10)),
+                   dt.getPaths(D1, D3, new HopCountLinkWeigher(10)));
+
+        DefaultTopology.setShortestPathTrees(true);
+        try {
+            Set<Link> links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                 link("3", 2, "2", 2), link("2", 2, "3", 2),
+                                 link("1", 3, "4", 3), link("4", 3, "1", 3),
+                                 link("3", 4, "4", 4), link("4", 4, "3", 4));
+            DefaultTopology trees = new DefaultTopology(PID, new DefaultGraphDescription(
+                    0L, 0L, of(device("1"), device("2"), device("3"),
+                               device("4"), device("5")), links));
+            for (DeviceId src : of(D1, D2, D3, D4, D5)) {
+                for (DeviceId dst : of(D1, D2, D3, D4, D5)) {
+                    assertEquals("incorrect tree paths",
+                                 dt.getPaths(src, dst), trees.getPaths(src, dst));
+                }
+            }
+        } finally {
+            DefaultTopology.setShortestPathTrees(false);
+        }
+    }
+
+    @Test
+    public void carriedOverPathRelated() {
+        Set<Path> kept = dt.getPaths(D1, D2);
+        Set<Path> dropped = dt.getPaths(D1, D3);
+        DefaultTopology next = new DefaultTopology(PID, new DefaultGraphDescription(
+                0L, 0L, of(device("1"), device("2"), device("3"),
+                           device("4"), device("5")),
+                of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("3", 2, "2", 2), link("2", 2, "3", 2),
+                   link("1", 3, "4", 3), link("4", 3, "1", 3))), null, dt);
+
+        assertSame("unaffected paths should be carried over", kept, next.getPaths(D1, D2));
+        assertNotSame("affected paths should be recomputed", dropped, next.getPaths(D1, D3));
+        assertEquals("incorrect path count", 1, next.getPaths(D1, D3).size());
+    }
+
+    @Test
+    public void incrementalRelated() {
+        Set<Device> devices = of(device("1"), device("2"), device("3"),
+                                 device("4"), device("5"));
+
+        // Removing the links of device 2 splits it off its cluster.
+        DefaultTopology split = assertIncremental(dt, devices,
+                of(link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 3, split.clusterCount());
+
+        // Adding them back merges it in again.
+        DefaultTopology merged = assertIncremental(split, devices,
+                of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("3", 2, "2", 2), link("2", 2, "3", 2),
+                   link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 2, merged.clusterCount());
+
+        // Removing device 5 only drops its cluster.
+        DefaultTopology removed = assertIncremental(merged,
+                of(device("1"), device("2"), device("3"), device("4")),
+                of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("3", 2, "2", 2), link("2", 2, "3", 2),
+                   link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 1, removed.clusterCount());
+    }
+
+    @Test
+    public void broadcastSetReuse() {
+        Function<ConnectPoint, Boolean> function = cp -> true;
+        DefaultTopology first = new DefaultTopology(PID, graphDescription, function, dt);
+        DefaultTopology second = new DefaultTopology(PID, graphDescription, function, first);
+        assertSame("broadcast set not reused", first.broadcastPoints(C0), second.broadcastPoints(C0));
+
+        DefaultTopology third = new DefaultTopology(PID, graphDescription, cp -> false, second);
+        assertNotSame("broadcast set reused", second.broadcastPoints(C0), third.broadcastPoints(C0));
+        assertEquals("incorrect broadcast set", second.broadcastPoints(C0), third.broadcastPoints(C0));
+    }
+
+    // Derives a topology from the given one and checks it against the same
+    // topology computed from scratch.
+    private DefaultTopology assertIncremental(DefaultTopology previous,
+                                              Set<Device> devices, Set<Link> links) {
+        long now = System.currentTimeMillis();
+        GraphDescription description =
+                new DefaultGraphDescription(now, now, devices, links);
+        DefaultTopology derived = new DefaultTopology(PID, description, null, previous);
+        DefaultTopology expected = new DefaultTopology(PID, description);
+
+        assertEquals("incorrect cluster count", expected.clusterCount(), derived.clusterCount());
+        for (Device device : devices) {
+            TopologyCluster dc = derived.getCluster(device.id());
+            TopologyCluster ec = expected.getCluster(device.id());
+            assertEquals("incorrect cluster root", ec.root(), dc.root());
+            assertEquals("incorrect cluster devices",
+                         expected.getClusterDevices(ec), derived.getClusterDevices(dc));
+            assertEquals("incorrect cluster links",
+                         expected.getClusterLinks(ec), derived.getClusterLinks(dc));
+            assertEquals("incorrect broadcast points",
+                         expected.broadcastPoints(ec.id()), derived.broadcastPoints(dc.id()));
+        }
+        return derived;
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
@@ -89,6 +89,11 @@ public class CoreManager implements CoreService {
             label = "Maximum number of millis an event sink has to process an event")
     private int maxEventTimeLimit = DEFAULT_EVENT_TIME;
 
+    private static final int DEFAULT_EVENT_SHARDS = 1;
+    @Property(name = "eventDispatchShards", intValue = DEFAULT_EVENT_SHARDS,
+            label = "Number of threads per event category over which events are sharded by subject")
+    private int eventDispatchShards = DEFAULT_EVENT_SHARDS;
+
     private static final boolean DEFAULT_PERFORMANCE_CHECK = false;
     @Property(name = "sharedThreadPerformanceCheck", boolValue = DEFAULT_PERFORMANCE_CHECK,
             label = "Enable queue performance check on shared pool")
@@ -174,13 +179,22 @@ public class CoreManager implements CoreService {
             log.warn("maxEventTimeLimit must be greater than or equal to 0");
         }
 
+        Integer shards = Tools.getIntegerProperty(properties, "eventDispatchShards");
+        if (shards != null && shards > 0) {
+            eventDispatchShards = shards;
+            eventDeliveryService.setDispatchShards(eventDispatchShards);
+        } else if (shards != null) {
+            log.warn("eventDispatchShards must be greater than 0");
+        }
+
         Boolean performanceCheck = Tools.isPropertyEnabled(properties, "sharedThreadPerformanceCheck");
         if (performanceCheck != null) {
             calculatePoolPerformance = performanceCheck;
             SharedExecutors.setMetricsService(calculatePoolPerformance ? metricsService : null);
         }
 
-        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, calculatePoolPerformance={}",
-                 sharedThreadPoolSize, maxEventTimeLimit, calculatePoolPerformance);
+        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, eventDispatchShards={}, " +
+                         "calculatePoolPerformance={}",
+                 sharedThreadPoolSize, maxEventTimeLimit, eventDispatchShards, calculatePoolPerformance);
     }
 }
@@ -15,40 +15,64 @@
  */
 package org.onosproject.event.impl;
 
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.Device;
+import org.onosproject.net.Host;
+import org.onosproject.net.Link;
 import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.topology.TopologyEvent;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.net.LinkKey.linkKey;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
 import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
@@ -63,49 +87,112 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private static final String TOPOLOGY = "topology";
+    private static final String PROGRAMMING = "programming";
+    private static final String DEFAULT = "default";
+    private static final List<String> CATEGORIES = ImmutableList.of(TOPOLOGY, PROGRAMMING, DEFAULT);
+
+    private static final Map<Class, String> CATEGORY_MAP =
+            new ImmutableMap.Builder<Class, String>()
+                .put(TopologyEvent.class, TOPOLOGY)
+                .put(DeviceEvent.class, TOPOLOGY)
+                .put(LinkEvent.class, TOPOLOGY)
+                .put(HostEvent.class, TOPOLOGY)
+                .put(FlowRuleEvent.class, PROGRAMMING)
+                .put(IntentEvent.class, PROGRAMMING)
+                .build();
 
-    private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
-    private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
-    private DispatchLoop defaultDispatcher = new DispatchLoop("default");
+    // Dispatch loops of each event category, one per shard
+    private volatile Map<String, List<DispatchLoop>> dispatchers =
+            createDispatchers(1, CompletableFuture.completedFuture(null));
 
-    private Map<Class, DispatchLoop> dispatcherMap =
-            new ImmutableMap.Builder<Class, DispatchLoop>()
-                .put(TopologyEvent.class, topologyDispatcher)
-                .put(DeviceEvent.class, topologyDispatcher)
-                .put(LinkEvent.class, topologyDispatcher)
-                .put(HostEvent.class, topologyDispatcher)
-                .put(FlowRuleEvent.class, programmingDispatcher)
-                .put(IntentEvent.class, programmingDispatcher)
-                .build();
+    // Guards the hand-off from one set of dispatch loops to another; posts
+    // share the read lock so that no event is queued behind a retired loop's
+    // kill-pill.
+    private final ReadWriteLock dispatchersLock = new ReentrantReadWriteLock();
 
-    private Set<DispatchLoop> dispatchers =
-            new ImmutableSet.Builder<DispatchLoop>()
-                .addAll(dispatcherMap.values())
-                .add(defaultDispatcher)
-                .build();
+    private final Map<Class, SinkMetrics> sinkMetrics = Maps.newConcurrentMap();
 
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
 
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
+    @SuppressWarnings("unchecked")
+    private static final Event RETIRE_PILL = new AbstractEvent(null, 0) {
+    };
+
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
+    private Map<String, List<DispatchLoop>> createDispatchers(int shards,
+                                                             CompletableFuture<Void> predecessors) {
+        ImmutableMap.Builder<String, List<DispatchLoop>> builder = ImmutableMap.builder();
+        for (String category : CATEGORIES) {
+            ImmutableList.Builder<DispatchLoop> loops = ImmutableList.builder();
+            for (int i = 0; i < shards; i++) {
+                loops.add(new DispatchLoop(shards == 1 ? category : category + "-" + i,
+                                           predecessors));
+            }
+            builder.put(category, loops.build());
+        }
+        return builder.build();
+    }
+
+    private void forEachDispatcher(Consumer<DispatchLoop> action) {
+        dispatchers.values().forEach(loops -> loops.forEach(action));
+    }
+
     private DispatchLoop getDispatcher(Event event) {
-        DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
-        if (dispatcher == null) {
-            dispatcher = defaultDispatcher;
+        List<DispatchLoop> loops = dispatchers.get(CATEGORY_MAP.getOrDefault(event.getClass(), DEFAULT));
+        if (loops.size() == 1) {
+            return loops.get(0);
         }
-        return dispatcher;
+        Object key = shardKey(event);
+        return loops.get(key == null ? 0 : Math.floorMod(key.hashCode(), loops.size()));
+    }
+
+    // Returns the key by which events are spread across shards; events with
+    // the same key are always handled, in order, by the same dispatch loop.
+    // Events about subjects without a stable identity, such as topology
+    // events, have no key and all go to the first shard of their category,
+    // which keeps them in order with respect to one another.
+    private static Object shardKey(Event event) {
+        Object subject = event.subject();
+        if (subject instanceof Device) {
+            return ((Device) subject).id();
+        } else if (subject instanceof Host) {
+            return ((Host) subject).id();
+        } else if (subject instanceof Link) {
+            return linkKey((Link) subject);
+        } else if (subject instanceof FlowRule) {
+            return ((FlowRule) subject).deviceId();
+        } else if (subject instanceof Intent) {
+            return ((Intent) subject).key();
+        }
+        return null;
     }
 
     @Override
     public void post(Event event) {
-
-        if (!getDispatcher(event).add(event)) {
+        SinkMetrics metrics = sinkMetrics.computeIfAbsent(event.getClass(), SinkMetrics::new);
+        metrics.queued.incrementAndGet();
+        boolean added;
+        dispatchersLock.readLock().lock();
+        try {
+            added = getDispatcher(event).add(event);
+        } finally {
+            dispatchersLock.readLock().unlock();
+        }
+        if (!added) {
+            metrics.queued.decrementAndGet();
             log.error("Unable to post event {}", event);
         }
     }
@@ -114,7 +201,7 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     public void activate() {
 
         if (maxProcessMillis != 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            forEachDispatcher(DispatchLoop::startWatchdog);
         }
 
         log.info("Started");
@@ -122,7 +209,11 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     @Deactivate
     public void deactivate() {
-        dispatchers.forEach(DispatchLoop::stop);
+        forEachDispatcher(DispatchLoop::stop);
+        // Only drop the metrics once the loops no longer use them.
+        forEachDispatcher(DispatchLoop::awaitStopped);
+        sinkMetrics.values().forEach(SinkMetrics::remove);
+        sinkMetrics.clear();
 
         log.info("Stopped");
     }
@@ -136,9 +227,9 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         maxProcessMillis = millis;
 
         if (millis == 0 && oldMillis != 0) {
-            dispatchers.forEach(DispatchLoop::stopWatchdog);
+            forEachDispatcher(DispatchLoop::stopWatchdog);
         } else if (millis != 0 && oldMillis == 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            forEachDispatcher(DispatchLoop::startWatchdog);
         }
     }
 
@@ -148,6 +239,69 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
+    @Override
+    public synchronized void setDispatchShards(int shards) {
+        checkPermission(EVENT_WRITE);
+        checkArgument(shards > 0, "Number of dispatch shards must be positive");
+        Map<String, List<DispatchLoop>> oldDispatchers = dispatchers;
+        if (shards == oldDispatchers.get(DEFAULT).size()) {
+            return;
+        }
+
+        // Switch new events over to the new loops, which hold off dispatching
+        // until the old loops have drained everything queued before the
+        // switch; this keeps events about the same subject in order even
+        // though the subject may now map to a different shard.
+        CompletableFuture<Void> retired = CompletableFuture.allOf(
+                oldDispatchers.values().stream()
+                        .flatMap(List::stream)
+                        .map(loop -> loop.terminated)
+                        .toArray(CompletableFuture[]::new));
+        Map<String, List<DispatchLoop>> newDispatchers = createDispatchers(shards, retired);
+        if (maxProcessMillis != 0) {
+            newDispatchers.values().forEach(loops -> loops.forEach(DispatchLoop::startWatchdog));
+        }
+        dispatchersLock.writeLock().lock();
+        try {
+            dispatchers = newDispatchers;
+            oldDispatchers.values().forEach(loops -> loops.forEach(DispatchLoop::retire));
+        } finally {
+            dispatchersLock.writeLock().unlock();
+        }
+        log.info("Dispatching events over {} shards per category", shards);
+    }
+
+    @Override
+    public int getDispatchShards() {
+        checkPermission(EVENT_READ);
+        return dispatchers.get(DEFAULT).size();
+    }
+
+    // Queue depth and processing time of the sink for one event class.
+    private final class SinkMetrics {
+        private final AtomicInteger queued = new AtomicInteger();
+        private MetricsComponent component;
+        private MetricsFeature feature;
+        private Timer timer;
+
+        private SinkMetrics(Class eventClass) {
+            if (metricsService != null) {
+                component = metricsService.registerComponent(METRICS_COMPONENT);
+                feature = component.registerFeature(eventClass.getSimpleName());
+                timer = metricsService.createTimer(component, feature, "processing");
+                metricsService.registerMetric(component, feature, "queueDepth",
+                                              (Gauge<Integer>) queued::get);
+            }
+        }
+
+        private void remove() {
+            if (metricsService != null) {
+                metricsService.removeMetric(component, feature, "processing");
+                metricsService.removeMetric(component, feature, "queueDepth");
+            }
+        }
+    }
+
     // Auxiliary event dispatching loop that feeds off the events queue.
     private class DispatchLoop implements Runnable {
         private final String name;
@@ -159,9 +313,13 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         private volatile Future<?> dispatchFuture;
         private final BlockingQueue<Event> eventsQueue;
         private final ExecutorService executor;
+        // Loops this one replaced; completes once they have drained
+        private final CompletableFuture<Void> predecessors;
+        private final CompletableFuture<Void> terminated = new CompletableFuture<>();
 
-        DispatchLoop(String name) {
+        DispatchLoop(String name, CompletableFuture<Void> predecessors) {
             this.name = name;
+            this.predecessors = predecessors;
             executor = newSingleThreadExecutor(
                     groupedThreads("onos/event",
                     "dispatch-" + name + "%d", log));
@@ -176,12 +334,20 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         @Override
         public void run() {
             stopped = false;
+            awaitPredecessors();
             log.info("Dispatch loop({}) initiated", name);
             while (!stopped) {
                 try {
-                    // Fetch the next event and if it is the kill-pill, bail
+                    // Fetch the next event and if it is the kill-pill, bail;
+                    // nothing is ever queued behind the retire-pill, so a
+                    // retired loop is done once it gets to it.
                     Event event = eventsQueue.take();
-                    if (event != KILL_PILL) {
+                    if (event == RETIRE_PILL) {
+                        stopWatchdog();
+                        executor.shutdown();
+                        terminated.complete(null);
+                        break;
+                    } else if (event != KILL_PILL) {
                         process(event);
                     }
                 } catch (InterruptedException e) {
@@ -193,15 +359,38 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             log.info("Dispatch loop({}) terminated", name);
         }
 
+        // Waits for the loops replaced by this one to deliver their backlog.
+        private void awaitPredecessors() {
+            while (!stopped && !predecessors.isDone()) {
+                try {
+                    predecessors.get(WATCHDOG_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    log.debug("Dispatch loop({}) waiting for retired loops", name);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    return;
+                }
+            }
+        }
+
         // Locate the sink for the event class and use it to process the event
         @SuppressWarnings("unchecked")
         private void process(Event event) {
+            // Metrics are gone if the dispatcher is being deactivated.
+            SinkMetrics metrics = sinkMetrics.get(event.getClass());
+            if (metrics != null) {
+                metrics.queued.decrementAndGet();
+            }
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
                 lastSink = sink;
+                Timer.Context context = startTimer(metrics != null ? metrics.timer : null);
                 stopwatch.start();
                 sink.process(event);
                 stopwatch.reset();
+                stopTimer(context);
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
@@ -213,9 +402,33 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             add(KILL_PILL);
         }
 
+        // Waits, for at most the sink time limit, for the loop to stop.
+        void awaitStopped() {
+            stopWatchdog();
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(DEFAULT_EXECUTE_MS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Dispatch loop({}) did not stop in time", name);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         void restart() {
             dispatchFuture.cancel(true);
-            dispatchFuture = executor.submit(this);
+            try {
+                dispatchFuture = executor.submit(this);
+            } catch (RejectedExecutionException e) {
+                // The loop has been shut down meanwhile.
+                log.debug("Dispatch loop({}) not restarted", name);
+            }
+        }
+
+        // Must be called with the dispatchers write lock held, so that the
+        // retire-pill is the last event ever queued to this loop.
+        void retire() {
+            add(RETIRE_PILL);
         }
 
         // Monitors event sinks to make sure none take too long to execute.
@@ -16,6 +16,8 @@
 package org.onosproject.net.flow.impl;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -44,6 +46,8 @@ import org.onosproject.net.driver.DriverService;
 import org.onosproject.net.flow.CompletedBatchOperation;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntryCounters;
+import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEvent;
@@ -67,16 +71,21 @@ import org.onosproject.net.provider.ProviderId;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -119,6 +128,17 @@ public class FlowRuleManager
             label = "Frequency (in seconds) for polling flow statistics via fallback provider")
     private int fallbackFlowPollFrequency = DEFAULT_POLL_FREQUENCY;
 
+    private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 0;
+    @Property(name = "maxInFlightBatches", intValue = DEFAULT_MAX_IN_FLIGHT_BATCHES,
+            label = "Maximum number of flow rule batches outstanding per device; " +
+                    "further batches are coalesced until one completes. 0 disables pipelining")
+    private volatile int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    @Property(name = "maxBatchSize", intValue = DEFAULT_MAX_BATCH_SIZE,
+            label = "Maximum number of flow rule operations coalesced into one pipelined batch")
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
@@ -134,6 +154,9 @@ public class FlowRuleManager
 
     private final Map<Long, FlowOperationsProcessor> pendingFlowOperations = new ConcurrentHashMap<>();
 
+    private final Map<DeviceId, DevicePipeline> pipelines = new ConcurrentHashMap<>();
+    private final Map<Long, CoalescedBatch> inFlightBatches = new ConcurrentHashMap<>();
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowRuleStore store;
 
@@ -224,6 +247,18 @@ public class FlowRuleManager
         } catch (NumberFormatException e) {
             fallbackFlowPollFrequency = DEFAULT_POLL_FREQUENCY;
         }
+
+        Integer newMaxInFlightBatches = Tools.getIntegerProperty(properties, "maxInFlightBatches");
+        if (newMaxInFlightBatches != null && newMaxInFlightBatches >= 0) {
+            maxInFlightBatches = newMaxInFlightBatches;
+            log.info("Configured. MaxInFlightBatches is {}", maxInFlightBatches);
+        }
+
+        Integer newMaxBatchSize = Tools.getIntegerProperty(properties, "maxBatchSize");
+        if (newMaxBatchSize != null && newMaxBatchSize > 0) {
+            maxBatchSize = newMaxBatchSize;
+            log.info("Configured. MaxBatchSize is {}", maxBatchSize);
+        }
     }
 
     @Override
@@ -452,7 +487,7 @@ public class FlowRuleManager
             checkNotNull(flowEntry, FLOW_RULE_NULL);
             checkValidity();
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
+            if (checkRuleLiveness(flowEntry.packets(), flowEntry.bytes(), store.getFlowEntry(flowEntry))) {
                 FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
                 if (event == null) {
                     log.debug("No flow store event generated.");
@@ -466,7 +501,20 @@ public class FlowRuleManager
             }
         }
 
-        private boolean checkRuleLiveness(FlowEntry swRule, FlowEntry storedRule) {
+        private void flowCountersUpdated(FlowEntry storedRule, FlowEntryCounters counters) {
+            if (checkRuleLiveness(counters.packets(), counters.bytes(), storedRule)) {
+                FlowRuleEvent event = store.updateFlowCounters(storedRule, counters);
+                if (event != null) {
+                    log.trace("Flow {} {}", storedRule, event.type());
+                    post(event);
+                }
+            } else {
+                log.debug("Removing flow rules....");
+                removeFlowRules(storedRule);
+            }
+        }
+
+        private boolean checkRuleLiveness(long packets, long bytes, FlowEntry storedRule) {
             if (storedRule == null) {
                 return false;
             }
@@ -491,7 +539,7 @@ public class FlowRuleManager
                 }
             }
 
-            if (storedRule.packets() != swRule.packets() || storedRule.bytes() != swRule.bytes()) {
+            if (storedRule.packets() != packets || storedRule.bytes() != bytes) {
                 lastSeen.put(storedRule, currentTime);
                 return true;
             }
@@ -517,11 +565,65 @@ public class FlowRuleManager
             pushFlowMetricsInternal(deviceId, flowEntries, false);
         }
 
+        @Override
+        public Set<FlowId> pushFlowCounters(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                            Iterable<FlowEntryCounters> counters) {
+            Map<FlowEntry, FlowEntry> storedRules = getStoredRules(deviceId);
+            reconcileFlowEntries(deviceId, flowEntries, storedRules);
+
+            // counters may only be applied to flows whose identifier is not shared
+            // by several of the stored entries left
+            Map<FlowId, FlowEntry> storedById = Maps.newHashMap();
+            Set<FlowId> sharedIds = Sets.newHashSet();
+            for (FlowEntry rule : storedRules.keySet()) {
+                if (storedById.putIfAbsent(rule.id(), rule) != null) {
+                    sharedIds.add(rule.id());
+                }
+            }
+
+            Set<FlowId> unresolved = Sets.newHashSet();
+            for (FlowEntryCounters flowCounters : counters) {
+                FlowId flowId = flowCounters.flowId();
+                FlowEntry storedRule = sharedIds.contains(flowId) ? null : storedById.get(flowId);
+                if (storedRule == null) {
+                    unresolved.add(flowId);
+                    continue;
+                }
+                storedRules.remove(storedRule);
+                try {
+                    flowCountersUpdated(storedRule, flowCounters);
+                } catch (Exception e) {
+                    log.warn("Can't process counters {} for device {}:{}",
+                             flowCounters, deviceId, e);
+                }
+            }
+
+            // flows behind unresolved counters are on the switch; the provider
+            // reports them in full next time
+            storedRules.keySet().removeIf(rule -> unresolved.contains(rule.id()));
+            reconcileMissingFlows(storedRules.keySet());
+            return unresolved;
+        }
+
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
+            Map<FlowEntry, FlowEntry> storedRules = getStoredRules(deviceId);
+            reconcileFlowEntries(deviceId, flowEntries, storedRules);
+
+            // DO NOT reinstall
+            if (useMissingFlow) {
+                reconcileMissingFlows(storedRules.keySet());
+            }
+        }
+
+        private Map<FlowEntry, FlowEntry> getStoredRules(DeviceId deviceId) {
             Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
             store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
+            return storedRules;
+        }
 
+        private void reconcileFlowEntries(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                                          Map<FlowEntry, FlowEntry> storedRules) {
             for (FlowEntry rule : flowEntries) {
                 try {
                     FlowEntry storedRule = storedRules.remove(rule);
@@ -546,17 +648,16 @@ public class FlowRuleManager
                              rule, deviceId, e);
                 }
             }
+        }
 
-            // DO NOT reinstall
-            if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
-                    try {
-                        // there are rules in the store that aren't on the switch
-                        log.debug("Adding the rule that is present in store but not on switch : {}", rule);
-                        flowMissing(rule, true);
-                    } catch (Exception e) {
-                        log.warn("Can't add missing flow rule:", e);
-                    }
+        private void reconcileMissingFlows(Set<FlowEntry> missingRules) {
+            for (FlowEntry rule : missingRules) {
+                try {
+                    // there are rules in the store that aren't on the switch
+                    log.debug("Adding the rule that is present in store but not on switch : {}", rule);
+                    flowMissing(rule, true);
+                } catch (Exception e) {
+                    log.warn("Can't add missing flow rule:", e);
                 }
             }
         }
@@ -618,12 +719,18 @@ public class FlowRuleManager
 
             case BATCH_OPERATION_COMPLETED:
 
+                CoalescedBatch batch = inFlightBatches.remove(event.subject().batchId());
+                if (batch != null) {
+                    batch.complete(event.result());
+                    break;
+                }
+
                 FlowOperationsProcessor fops = pendingFlowOperations.remove(
                         event.subject().batchId());
-                if (event.result().isSuccess()) {
-                    if (fops != null) {
-                        fops.satisfy(event.deviceId());
-                    }
+                if (fops == null) {
+                    log.debug("Batch {} completed with no pending operations", event.subject().batchId());
+                } else if (event.result().isSuccess()) {
+                    fops.satisfy(event.deviceId());
                 } else {
                     fops.fail(event.deviceId(), event.result().failedItems());
                 }
@@ -681,6 +788,13 @@ public class FlowRuleManager
             }
             pendingDevices.addAll(perDeviceBatches.keySet());
 
+            if (maxInFlightBatches > 0) {
+                for (DeviceId deviceId : perDeviceBatches.keySet()) {
+                    pipeline(deviceId).submit(new PendingOperations(this, perDeviceBatches.get(deviceId)));
+                }
+                return;
+            }
+
             for (DeviceId deviceId : perDeviceBatches.keySet()) {
                 long id = idGenerator.getNewId();
                 final FlowRuleBatchOperation b = new FlowRuleBatchOperation(perDeviceBatches.get(deviceId),
@@ -711,6 +825,151 @@ public class FlowRuleManager
         }
     }
 
+    private DevicePipeline pipeline(DeviceId deviceId) {
+        return pipelines.computeIfAbsent(deviceId, DevicePipeline::new);
+    }
+
+    // Operations of one flow operations stage destined for a single device.
+    private static final class PendingOperations {
+        private final FlowOperationsProcessor processor;
+        private final List<FlowRuleBatchEntry> entries;
+
+        private PendingOperations(FlowOperationsProcessor processor,
+                                  Collection<FlowRuleBatchEntry> entries) {
+            this.processor = processor;
+            this.entries = ImmutableList.copyOf(entries);
+        }
+
+        private Set<FlowRule> rules() {
+            return entries.stream().map(FlowRuleBatchEntry::target).collect(Collectors.toSet());
+        }
+    }
+
+    // Operations of several stages coalesced into a single device batch.
+    private final class CoalescedBatch {
+        private final DeviceId deviceId;
+        private final List<PendingOperations> members;
+
+        private CoalescedBatch(DeviceId deviceId, List<PendingOperations> members) {
+            this.deviceId = deviceId;
+            this.members = members;
+        }
+
+        private FlowRuleBatchOperation asBatchOperation(long id) {
+            List<FlowRuleBatchEntry> entries = new ArrayList<>();
+            members.forEach(m -> entries.addAll(m.entries));
+            return new FlowRuleBatchOperation(entries, deviceId, id);
+        }
+
+        // Reports the outcome to each stage, attributing failed rules to
+        // the stages that requested them, and opens the window again. A
+        // failure without item-level detail fails every stage with all of
+        // its own rules.
+        private void complete(CompletedBatchOperation result) {
+            try {
+                for (PendingOperations member : members) {
+                    Set<FlowRule> failures;
+                    if (result.isSuccess()) {
+                        failures = ImmutableSet.of();
+                    } else if (result.failedItems().isEmpty()) {
+                        failures = member.rules();
+                    } else {
+                        failures = ImmutableSet.copyOf(Sets.intersection(member.rules(), result.failedItems()));
+                    }
+                    if (failures.isEmpty()) {
+                        member.processor.satisfy(deviceId);
+                    } else {
+                        member.processor.fail(deviceId, failures);
+                    }
+                }
+            } finally {
+                pipeline(deviceId).completed();
+            }
+        }
+    }
+
+    /**
+     * Per-device pipeline which keeps a bounded number of batches in flight
+     * towards the device, coalescing the operations submitted meanwhile into
+     * as few batches as possible.
+     */
+    private final class DevicePipeline {
+        private final DeviceId deviceId;
+        private final Queue<PendingOperations> queued = new ArrayDeque<>();
+        private int inFlight = 0;
+
+        private DevicePipeline(DeviceId deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        void submit(PendingOperations operations) {
+            List<CoalescedBatch> ready;
+            synchronized (this) {
+                queued.add(operations);
+                ready = drain();
+            }
+            ready.forEach(this::dispatch);
+        }
+
+        void completed() {
+            List<CoalescedBatch> ready;
+            synchronized (this) {
+                inFlight = Math.max(inFlight - 1, 0);
+                ready = drain();
+            }
+            ready.forEach(this::dispatch);
+        }
+
+        // Fails all operations still held back or in flight, e.g. when the
+        // device is gone; completions of abandoned batches are ignored.
+        void purge() {
+            List<PendingOperations> purged;
+            synchronized (this) {
+                purged = new ArrayList<>(queued);
+                queued.clear();
+            }
+            inFlightBatches.forEach((id, batch) -> {
+                if (batch.deviceId.equals(deviceId) && inFlightBatches.remove(id, batch)) {
+                    purged.addAll(batch.members);
+                }
+            });
+            purged.forEach(p -> p.processor.fail(deviceId, p.rules()));
+        }
+
+        // Forms batches from the queued operations while the window allows.
+        private List<CoalescedBatch> drain() {
+            List<CoalescedBatch> ready = new ArrayList<>();
+            while (!queued.isEmpty() && inFlight < Math.max(maxInFlightBatches, 1)) {
+                List<PendingOperations> members = new ArrayList<>();
+                Set<FlowRule> targets = new HashSet<>();
+                int size = 0;
+                while (!queued.isEmpty()) {
+                    PendingOperations next = queued.peek();
+                    Set<FlowRule> rules = next.rules();
+                    // Never reorder operations on the same rule within a batch
+                    if (!members.isEmpty() &&
+                            (size + next.entries.size() > maxBatchSize ||
+                                    !Collections.disjoint(targets, rules))) {
+                        break;
+                    }
+                    members.add(queued.remove());
+                    targets.addAll(rules);
+                    size += next.entries.size();
+                }
+                inFlight++;
+                ready.add(new CoalescedBatch(deviceId, members));
+            }
+            return ready;
+        }
+
+        private void dispatch(CoalescedBatch batch) {
+            long id = idGenerator.getNewId();
+            FlowRuleBatchOperation operation = batch.asBatchOperation(id);
+            inFlightBatches.put(id, batch);
+            deviceInstallers.execute(() -> store.storeBatch(operation));
+        }
+    }
+
     @Override
     public Iterable<TableStatisticsEntry> getFlowTableStatistics(DeviceId deviceId) {
         checkPermission(FLOWRULE_READ);
@@ -730,6 +989,10 @@ public class FlowRuleManager
                 case DEVICE_AVAILABILITY_CHANGED:
                     DeviceId deviceId = event.subject().id();
                     if (!deviceService.isAvailable(deviceId)) {
+                        DevicePipeline pipeline = pipelines.remove(deviceId);
+                        if (pipeline != null) {
+                            pipeline.purge();
+                        }
                         if (purgeOnDisconnection) {
                             store.purgeFlowRule(deviceId);
                         }
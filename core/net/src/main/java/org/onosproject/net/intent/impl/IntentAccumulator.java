@@ -16,7 +16,7 @@
 package org.onosproject.net.intent.impl;
 
 import com.google.common.collect.Maps;
-import org.onlab.util.AbstractAccumulator;
+import org.onlab.util.AbstractLockFreeAccumulator;
 import org.onosproject.net.intent.IntentBatchDelegate;
 import org.onosproject.net.intent.IntentData;
 import org.onosproject.net.intent.Key;
@@ -24,22 +24,17 @@ import org.onosproject.net.intent.Key;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
 
 /**
  * An accumulator for building batches of intent operations. Only one batch should
  * be in process per instance at a time.
  */
-public class IntentAccumulator extends AbstractAccumulator<IntentData> {
+public class IntentAccumulator extends AbstractLockFreeAccumulator<IntentData> {
 
     private static final int DEFAULT_MAX_EVENTS = 1000;
     private static final int DEFAULT_MAX_IDLE_MS = 10;
     private static final int DEFAULT_MAX_BATCH_MS = 50;
 
-    // FIXME: Replace with a system-wide timer instance;
-    // TODO: Convert to use HashedWheelTimer or produce a variant of that; then decide which we want to adopt
-    private static final Timer TIMER = new Timer("onos-intent-op-batching");
-
     private final IntentBatchDelegate delegate;
 
     private volatile boolean ready;
@@ -50,7 +45,7 @@ public class IntentAccumulator extends AbstractAccumulator<IntentData> {
      * @param delegate the intent batch delegate
      */
     protected IntentAccumulator(IntentBatchDelegate delegate) {
-        super(TIMER, DEFAULT_MAX_EVENTS, DEFAULT_MAX_BATCH_MS, DEFAULT_MAX_IDLE_MS);
+        super(DEFAULT_MAX_EVENTS, DEFAULT_MAX_BATCH_MS, DEFAULT_MAX_IDLE_MS);
         this.delegate = delegate;
         // Assume that the delegate is ready for work at the start
         ready = true; //TODO validate the assumption that delegate is ready
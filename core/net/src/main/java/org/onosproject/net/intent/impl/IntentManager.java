@@ -23,6 +23,9 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
@@ -104,6 +107,11 @@ public class IntentManager
     private static final EnumSet<IntentState> WITHDRAW
             = EnumSet.of(WITHDRAW_REQ, WITHDRAWING, WITHDRAWN);
 
+    private static final String METRICS_COMPONENT = "Intent";
+    private static final String METRICS_FEATURE_ACCUMULATOR = "accumulator";
+    private static final String BATCH_SIZE = "batchSize";
+    private static final String BATCH_LATENCY = "batchLatency";
+
     private static final boolean DEFAULT_SKIP_RELEASE_RESOURCES_ON_WITHDRAWAL = false;
     @Property(name = "skipReleaseResourcesOnWithdrawal",
             boolValue = DEFAULT_SKIP_RELEASE_RESOURCES_ON_WITHDRAWAL,
@@ -146,6 +154,9 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private NetworkConfigService networkConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
@@ -160,6 +171,8 @@ public class IntentManager
     private IdGenerator idGenerator;
 
     private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
+    private MetricsComponent metricsComponent;
+    private MetricsFeature accumulatorFeature;
 
     @Activate
     public void activate() {
@@ -177,6 +190,7 @@ public class IntentManager
         Intent.unbindIdGenerator(idGenerator);
         Intent.bindIdGenerator(idGenerator);
         installCoordinator = new InstallCoordinator(installerRegistry, store);
+        registerMetrics();
         log.info("Started");
     }
 
@@ -193,9 +207,29 @@ public class IntentManager
         batchExecutor.shutdown();
         workerExecutor.shutdown();
         Intent.unbindIdGenerator(idGenerator);
+        removeMetrics();
         log.info("Stopped");
     }
 
+    // Publishes the batch size and latency distributions of the accumulator.
+    private void registerMetrics() {
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+            accumulatorFeature = metricsComponent.registerFeature(METRICS_FEATURE_ACCUMULATOR);
+            metricsService.registerMetric(metricsComponent, accumulatorFeature, BATCH_SIZE,
+                                          accumulator.batchSizes());
+            metricsService.registerMetric(metricsComponent, accumulatorFeature, BATCH_LATENCY,
+                                          accumulator.batchLatencies());
+        }
+    }
+
+    private void removeMetrics() {
+        if (metricsService != null) {
+            metricsService.removeMetric(metricsComponent, accumulatorFeature, BATCH_SIZE);
+            metricsService.removeMetric(metricsComponent, accumulatorFeature, BATCH_LATENCY);
+        }
+    }
+
     @Modified
     public void modified(ComponentContext context) {
         if (context == null) {
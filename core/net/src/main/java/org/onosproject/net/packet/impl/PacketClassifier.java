@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.ICMP;
+import org.onlab.packet.ICMP6;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip6Address;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.ArpOpCriterion;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthCriterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.IcmpTypeCriterion;
+import org.onosproject.net.flow.criteria.Icmpv6TypeCriterion;
+import org.onosproject.net.flow.criteria.PortCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+import org.onosproject.net.flow.criteria.VlanIdCriterion;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketProcessorEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of packet processors by the ethernet types of the packets they have
+ * registered for.
+ * <p>
+ * Processors are kept in their order of priority. Those registered for all
+ * packets, or for selectors not all bound to an ethernet type, are candidates
+ * for every packet, while the others are only candidates for packets of their
+ * ethernet types. Candidates are then checked against the rest of their
+ * selectors with {@link #matches(Set, InboundPacket)}.
+ * </p>
+ *
+ * @param <E> type of processor entries
+ */
+final class PacketClassifier<E extends PacketProcessorEntry> {
+
+    private final List<E> all;
+    private final List<E> anyType;
+    private final Map<Short, List<E>> byType;
+
+    /**
+     * Creates an index of the given processors.
+     *
+     * @param processors processor entries in their order of priority
+     */
+    PacketClassifier(List<E> processors) {
+        this.all = ImmutableList.copyOf(processors);
+
+        Set<Short> types = Sets.newHashSet();
+        ImmutableList.Builder<E> anyTypeBuilder = ImmutableList.builder();
+        for (E entry : all) {
+            Set<Short> entryTypes = ethTypes(entry.selectors());
+            if (entryTypes == null) {
+                anyTypeBuilder.add(entry);
+            } else {
+                types.addAll(entryTypes);
+            }
+        }
+        this.anyType = anyTypeBuilder.build();
+
+        ImmutableMap.Builder<Short, List<E>> byTypeBuilder = ImmutableMap.builder();
+        for (Short type : types) {
+            ImmutableList.Builder<E> candidates = ImmutableList.builder();
+            for (E entry : all) {
+                Set<Short> entryTypes = ethTypes(entry.selectors());
+                if (entryTypes == null || entryTypes.contains(type)) {
+                    candidates.add(entry);
+                }
+            }
+            byTypeBuilder.put(type, candidates.build());
+        }
+        this.byType = byTypeBuilder.build();
+    }
+
+    /**
+     * Returns the processors that may be given a packet, in their order of
+     * priority.
+     *
+     * @param packet inbound packet
+     * @return candidate processor entries
+     */
+    List<E> candidates(InboundPacket packet) {
+        Ethernet eth = packet.parsed();
+        if (eth == null) {
+            return all;
+        }
+        return byType.getOrDefault(eth.getEtherType(), anyType);
+    }
+
+    /**
+     * Returns whether a packet matches any of the given selectors.
+     * <p>
+     * Only the criteria on the ingress port and on the headers up to the
+     * transport layer are inspected; others, as well as all criteria of
+     * packets that could not be parsed, are deemed to match and left to the
+     * processors to check.
+     * </p>
+     *
+     * @param selectors selectors; empty for all packets
+     * @param packet inbound packet
+     * @return true if the packet matches
+     */
+    static boolean matches(Set<TrafficSelector> selectors, InboundPacket packet) {
+        if (selectors.isEmpty()) {
+            return true;
+        }
+        for (TrafficSelector selector : selectors) {
+            if (matches(selector, packet)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(TrafficSelector selector, InboundPacket packet) {
+        for (Criterion criterion : selector.criteria()) {
+            if (!matches(criterion, packet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Criterion criterion, InboundPacket packet) {
+        if (criterion.type() == Criterion.Type.IN_PORT) {
+            return ((PortCriterion) criterion).port().equals(packet.receivedFrom().port());
+        }
+        Ethernet eth = packet.parsed();
+        if (eth == null) {
+            return true;
+        }
+        IPacket l3 = eth.getPayload();
+        IPacket l4 = l3 != null ? l3.getPayload() : null;
+
+        switch (criterion.type()) {
+            case ETH_TYPE:
+                return ((EthTypeCriterion) criterion).ethType().toShort() == eth.getEtherType();
+            case ETH_SRC:
+                return matches((EthCriterion) criterion, eth.getSourceMAC());
+            case ETH_DST:
+                return matches((EthCriterion) criterion, eth.getDestinationMAC());
+            case VLAN_VID:
+                VlanId vlanId = ((VlanIdCriterion) criterion).vlanId();
+                return vlanId.equals(VlanId.ANY) ? eth.getVlanID() != Ethernet.VLAN_UNTAGGED
+                        : vlanId.toShort() == eth.getVlanID();
+            case IP_PROTO:
+                short protocol = ((IPProtocolCriterion) criterion).protocol();
+                if (l3 instanceof IPv4) {
+                    return (((IPv4) l3).getProtocol() & 0xff) == protocol;
+                }
+                return l3 instanceof IPv6 && (((IPv6) l3).getNextHeader() & 0xff) == protocol;
+            case IPV4_SRC:
+                return l3 instanceof IPv4 && ((IPCriterion) criterion).ip()
+                        .contains(Ip4Address.valueOf(((IPv4) l3).getSourceAddress()));
+            case IPV4_DST:
+                return l3 instanceof IPv4 && ((IPCriterion) criterion).ip()
+                        .contains(Ip4Address.valueOf(((IPv4) l3).getDestinationAddress()));
+            case IPV6_SRC:
+                return l3 instanceof IPv6 && ((IPCriterion) criterion).ip()
+                        .contains(Ip6Address.valueOf(((IPv6) l3).getSourceAddress()));
+            case IPV6_DST:
+                return l3 instanceof IPv6 && ((IPCriterion) criterion).ip()
+                        .contains(Ip6Address.valueOf(((IPv6) l3).getDestinationAddress()));
+            case TCP_SRC:
+                TcpPortCriterion tcpSrc = (TcpPortCriterion) criterion;
+                return l4 instanceof TCP &&
+                        matches(tcpSrc.tcpPort(), tcpSrc.mask(), ((TCP) l4).getSourcePort());
+            case TCP_DST:
+                TcpPortCriterion tcpDst = (TcpPortCriterion) criterion;
+                return l4 instanceof TCP &&
+                        matches(tcpDst.tcpPort(), tcpDst.mask(), ((TCP) l4).getDestinationPort());
+            case UDP_SRC:
+                UdpPortCriterion udpSrc = (UdpPortCriterion) criterion;
+                return l4 instanceof UDP &&
+                        matches(udpSrc.udpPort(), udpSrc.mask(), ((UDP) l4).getSourcePort());
+            case UDP_DST:
+                UdpPortCriterion udpDst = (UdpPortCriterion) criterion;
+                return l4 instanceof UDP &&
+                        matches(udpDst.udpPort(), udpDst.mask(), ((UDP) l4).getDestinationPort());
+            case ICMPV4_TYPE:
+                return l4 instanceof ICMP &&
+                        (((ICMP) l4).getIcmpType() & 0xff) == ((IcmpTypeCriterion) criterion).icmpType();
+            case ICMPV6_TYPE:
+                return l4 instanceof ICMP6 &&
+                        (((ICMP6) l4).getIcmpType() & 0xff) == ((Icmpv6TypeCriterion) criterion).icmpv6Type();
+            case ARP_OP:
+                return l3 instanceof ARP && ((ARP) l3).getOpCode() == ((ArpOpCriterion) criterion).arpOp();
+            default:
+                return true;
+        }
+    }
+
+    private static boolean matches(EthCriterion criterion, MacAddress mac) {
+        if (criterion.mask() == null) {
+            return criterion.mac().equals(mac);
+        }
+        long mask = criterion.mask().toLong();
+        return (criterion.mac().toLong() & mask) == (mac.toLong() & mask);
+    }
+
+    private static boolean matches(TpPort port, TpPort mask, int value) {
+        if (mask == null) {
+            return port.toInt() == value;
+        }
+        return (port.toInt() & mask.toInt()) == (value & mask.toInt());
+    }
+
+    // Returns the ethernet types of the given selectors or null if any type matches
+    private static Set<Short> ethTypes(Set<TrafficSelector> selectors) {
+        if (selectors.isEmpty()) {
+            return null;
+        }
+        Set<Short> types = Sets.newHashSet();
+        for (TrafficSelector selector : selectors) {
+            EthTypeCriterion criterion =
+                    (EthTypeCriterion) selector.getCriterion(Criterion.Type.ETH_TYPE);
+            if (criterion == null) {
+                return null;
+            }
+            types.add(criterion.ethType().toShort());
+        }
+        return types;
+    }
+}
@@ -15,14 +15,23 @@
  */
 package org.onosproject.net.packet.impl;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformSnapshot;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
@@ -44,6 +53,7 @@ import org.onosproject.net.flowobjective.Objective;
 import org.onosproject.net.flowobjective.ObjectiveContext;
 import org.onosproject.net.flowobjective.ObjectiveError;
 import org.onosproject.net.packet.DefaultPacketRequest;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketEvent;
@@ -59,12 +69,20 @@ import org.onosproject.net.packet.PacketStore;
 import org.onosproject.net.packet.PacketStoreDelegate;
 import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
@@ -90,6 +108,15 @@ public class PacketManager
     private static final String ERROR_NULL_APP_ID = "Application ID cannot be null";
     private static final String ERROR_NULL_DEVICE_ID = "Device ID cannot be null";
     private static final String SUPPORT_PACKET_REQUEST_PROPERTY = "supportPacketRequest";
+    private static final int DEFAULT_PROCESSOR_THREADS = 0;
+    private static final long DRAIN_TIMEOUT_MS = 5_000;
+    private static final int LATENCY_SAMPLES = 1028;
+
+    @Property(name = "processorThreads", intValue = DEFAULT_PROCESSOR_THREADS,
+            label = "Number of threads processing inbound packets, each serving a " +
+                    "shard of the ingress devices; 0 processes packets on the " +
+                    "threads of the packet providers")
+    private int processorThreads = DEFAULT_PROCESSOR_THREADS;
 
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
 
@@ -111,11 +138,17 @@ public class PacketManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowObjectiveService objectiveService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
     private ExecutorService eventHandlingExecutor;
+    private volatile ExecutorService[] processorExecutors = new ExecutorService[0];
 
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    private volatile PacketClassifier<ProcessorEntry> classifier =
+            new PacketClassifier<>(ImmutableList.of());
 
     private final PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
@@ -123,9 +156,11 @@ public class PacketManager
     private NodeId localNodeId;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         eventHandlingExecutor = Executors.newSingleThreadExecutor(
                 groupedThreads("onos/net/packet", "event-handler", log));
+        cfgService.registerProperties(getClass());
+        modified(context);
         localNodeId = clusterService.getLocalNode().id();
         appId = coreService.getAppId(CoreService.CORE_APP_NAME);
         store.setDelegate(delegate);
@@ -139,10 +174,68 @@ public class PacketManager
     public void deactivate() {
         store.unsetDelegate(delegate);
         deviceService.removeListener(deviceListener);
+        cfgService.unregisterProperties(getClass(), false);
         eventHandlingExecutor.shutdown();
+        shutdown(processorExecutors);
+        processorExecutors = new ExecutorService[0];
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        int newProcessorThreads = Tools.getIntegerProperty(context.getProperties(), "processorThreads",
+                                                           DEFAULT_PROCESSOR_THREADS);
+        if (newProcessorThreads >= 0 && newProcessorThreads != processorThreads) {
+            processorThreads = newProcessorThreads;
+            ExecutorService[] oldExecutors = processorExecutors;
+            ExecutorService[] newExecutors = createProcessorExecutors(processorThreads);
+            // Packets already queued are processed before any handed to the
+            // new executors, so that packets of a device stay in order even
+            // though the device may now map to another thread.
+            for (ExecutorService executor : newExecutors) {
+                executor.execute(() -> awaitTermination(oldExecutors));
+            }
+            processorExecutors = newExecutors;
+            shutdown(oldExecutors);
+            if (newExecutors.length == 0) {
+                awaitTermination(oldExecutors);
+            }
+            log.info("Configured. ProcessorThreads is {}", processorThreads);
+        }
+    }
+
+    private ExecutorService[] createProcessorExecutors(int threads) {
+        ExecutorService[] executors = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            executors[i] = Executors.newSingleThreadExecutor(
+                    groupedThreads("onos/net/packet", "processor-" + i, log));
+        }
+        return executors;
+    }
+
+    private void shutdown(ExecutorService[] executors) {
+        Arrays.stream(executors).forEach(ExecutorService::shutdown);
+    }
+
+    // Waits, for a bounded time, for the given executors to finish their tasks.
+    private void awaitTermination(ExecutorService[] executors) {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        try {
+            for (ExecutorService executor : executors) {
+                long remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+                if (!executor.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                    log.warn("Retired packet processor threads did not drain in time");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     protected PacketProvider defaultProvider() {
         return defaultProvider;
@@ -150,18 +243,28 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, ImmutableSet.of());
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority,
+                             Set<TrafficSelector> selectors) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
-
-        // Insert the new processor according to its priority.
-        int i = 0;
-        for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
-                break;
+        checkNotNull(selectors, ERROR_NULL_SELECTOR);
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, selectors);
+
+        synchronized (processors) {
+            // Insert the new processor according to its priority.
+            int i = 0;
+            for (; i < processors.size(); i++) {
+                if (priority < processors.get(i).priority()) {
+                    break;
+                }
             }
+            processors.add(i, entry);
+            classifier = new PacketClassifier<>(processors);
         }
-        processors.add(i, entry);
     }
 
     @Override
@@ -169,12 +272,15 @@ public class PacketManager
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
-        // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
+        synchronized (processors) {
+            // Remove the processor entry.
+            for (int i = 0; i < processors.size(); i++) {
+                if (processors.get(i).processor() == processor) {
+                    processors.remove(i);
+                    break;
+                }
             }
+            classifier = new PacketClassifier<>(processors);
         }
     }
 
@@ -364,6 +470,38 @@ public class PacketManager
         }
     }
 
+    /**
+     * Gives a packet to the processors registered for it, in their order of
+     * priority.
+     *
+     * @param context packet context
+     */
+    private void process(PacketContext context) {
+        InboundPacket packet = context.inPacket();
+        for (ProcessorEntry entry : classifier.candidates(packet)) {
+            if (!PacketClassifier.matches(entry.selectors(), packet)) {
+                continue;
+            }
+            try {
+                if (log.isTraceEnabled()) {
+                    log.trace("Starting packet processing by {}",
+                            entry.processor().getClass().getName());
+                }
+
+                long start = System.nanoTime();
+                entry.processor().process(context);
+                entry.addNanos(System.nanoTime() - start);
+
+                if (log.isTraceEnabled()) {
+                    log.trace("Finished packet processing by {}",
+                            entry.processor().getClass().getName());
+                }
+            } catch (Exception e) {
+                log.warn("Packet processor {} threw an exception", entry.processor(), e);
+            }
+        }
+    }
+
     @Override
     protected PacketProviderService createProviderService(PacketProvider provider) {
         return new InternalPacketProviderService(provider);
@@ -382,26 +520,25 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            // Packets from the same device are processed in order by the same thread
+            DeviceId deviceId = context.inPacket().receivedFrom().deviceId();
+            ExecutorService[] executors = processorExecutors;
+            while (executors.length > 0) {
                 try {
-                    if (log.isTraceEnabled()) {
-                        log.trace("Starting packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
-
-                    long start = System.nanoTime();
-                    entry.processor().process(context);
-                    entry.addNanos(System.nanoTime() - start);
-
-                    if (log.isTraceEnabled()) {
-                        log.trace("Finished packet processing by {}",
-                                entry.processor().getClass().getName());
+                    executors[Math.floorMod(deviceId.hashCode(), executors.length)]
+                            .execute(() -> process(context));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Executors have been replaced meanwhile, in which case
+                    // their successors take over, or shut down
+                    ExecutorService[] current = processorExecutors;
+                    if (current == executors) {
+                        break;
                     }
-                } catch (Exception e) {
-                    log.warn("Packet processor {} threw an exception", entry.processor(), e);
+                    executors = current;
                 }
             }
+            process(context);
         }
 
     }
@@ -491,12 +628,16 @@ public class PacketManager
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
-        private long invocations = 0;
-        private long nanos = 0;
+        private final Set<TrafficSelector> selectors;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final Histogram latencies = new Histogram(new RecentSamplesReservoir(LATENCY_SAMPLES));
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> selectors) {
             this.processor = processor;
             this.priority = priority;
+            this.selectors = ImmutableSet.copyOf(selectors);
         }
 
         @Override
@@ -509,24 +650,68 @@ public class PacketManager
             return priority;
         }
 
+        @Override
+        public Set<TrafficSelector> selectors() {
+            return selectors;
+        }
+
         @Override
         public long invocations() {
-            return invocations;
+            return invocations.sum();
         }
 
         @Override
         public long totalNanos() {
-            return nanos;
+            return nanos.sum();
         }
 
         @Override
         public long averageNanos() {
-            return invocations > 0 ? nanos / invocations : 0;
+            long count = invocations.sum();
+            return count > 0 ? nanos.sum() / count : 0;
+        }
+
+        @Override
+        public Snapshot latencySnapshot() {
+            return latencies.getSnapshot();
         }
 
         void addNanos(long nanos) {
-            this.nanos += nanos;
-            this.invocations++;
+            this.nanos.add(nanos);
+            this.invocations.increment();
+            this.latencies.update(nanos);
+        }
+    }
+
+    /**
+     * Reservoir of the most recent samples which, unlike the reservoirs of
+     * the metrics library, records samples without taking any lock.
+     */
+    private static final class RecentSamplesReservoir implements Reservoir {
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+
+        private RecentSamplesReservoir(int size) {
+            this.samples = new AtomicLongArray(size);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(count.get(), samples.length());
+        }
+
+        @Override
+        public void update(long value) {
+            samples.lazySet((int) (count.getAndIncrement() % samples.length()), value);
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            long[] values = new long[size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = samples.get(i);
+            }
+            return new UniformSnapshot(values);
         }
     }
 }
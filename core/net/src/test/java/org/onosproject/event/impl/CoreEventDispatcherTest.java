@@ -20,6 +20,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +34,7 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.device;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -88,6 +95,62 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    @Test
+    public void postShardedPreservesSubjectOrder() throws Exception {
+        dispatcher.setDispatchShards(4);
+        assertEquals("incorrect shard count", 4, dispatcher.getDispatchShards());
+
+        int count = 1000;
+        ListMultimap<DeviceId, DeviceEvent> received =
+                Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
+        CountDownLatch latch = new CountDownLatch(count);
+        dispatcher.addSink(DeviceEvent.class, event -> {
+            received.put(event.subject().id(), event);
+            latch.countDown();
+        });
+
+        ListMultimap<DeviceId, DeviceEvent> posted = ArrayListMultimap.create();
+        for (int i = 0; i < count; i++) {
+            DeviceEvent event = new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device("d" + (i % 16)));
+            posted.put(event.subject().id(), event);
+            dispatcher.post(event);
+        }
+        assertTrue("events not delivered", latch.await(5, TimeUnit.SECONDS));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        for (DeviceId deviceId : posted.keySet()) {
+            assertEquals("incorrect event order for " + deviceId, posted.get(deviceId), received.get(deviceId));
+        }
+    }
+
+    @Test
+    public void reshardPreservesSubjectOrder() throws Exception {
+        int count = 1000;
+        ListMultimap<DeviceId, DeviceEvent> received =
+                Multimaps.synchronizedListMultimap(ArrayListMultimap.create());
+        CountDownLatch latch = new CountDownLatch(count);
+        dispatcher.addSink(DeviceEvent.class, event -> {
+            received.put(event.subject().id(), event);
+            latch.countDown();
+        });
+
+        ListMultimap<DeviceId, DeviceEvent> posted = ArrayListMultimap.create();
+        for (int i = 0; i < count; i++) {
+            if (i == count / 2) {
+                dispatcher.setDispatchShards(4);
+            }
+            DeviceEvent event = new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device("d" + (i % 16)));
+            posted.put(event.subject().id(), event);
+            dispatcher.post(event);
+        }
+        assertTrue("events not delivered", latch.await(5, TimeUnit.SECONDS));
+        dispatcher.removeSink(DeviceEvent.class);
+
+        for (DeviceId deviceId : posted.keySet()) {
+            assertEquals("incorrect event order for " + deviceId, posted.get(deviceId), received.get(deviceId));
+        }
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -17,6 +17,7 @@ package org.onosproject.net.flow.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -25,6 +26,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestTools;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.ApplicationId;
@@ -39,6 +41,8 @@ import org.onosproject.net.Device;
 import org.onosproject.net.Device.Type;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.MastershipRole;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
@@ -50,10 +54,14 @@ import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowEntryCounters;
+import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.FlowRuleListener;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
 import org.onosproject.net.flow.FlowRuleProgrammable;
 import org.onosproject.net.flow.FlowRuleProvider;
 import org.onosproject.net.flow.FlowRuleProviderRegistry;
@@ -73,8 +81,10 @@ import org.onosproject.store.trivial.SimpleFlowRuleStore;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -363,6 +373,43 @@ public class FlowRuleManagerTest {
                        RULE_ADDED, RULE_ADDED, RULE_ADD_REQUESTED);
     }
 
+    @Test
+    public void flowCounters() {
+        // counters only apply to flows with an identifier of their own
+        FlowRule f1 = DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(new TestSelector(1))
+                .withTreatment(new TestTreatment(1))
+                .withPriority(11)
+                .fromApp(appId)
+                .makeTemporary(TIMEOUT)
+                .build();
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+
+        mgr.applyFlowRules(f1, f2, f3);
+
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        FlowEntryCounters c1 = new FlowEntryCounters(f1.id(), 2, TimeUnit.SECONDS, 10, 1000);
+        FlowEntryCounters unknown = new FlowEntryCounters(FlowId.valueOf(42), 2, TimeUnit.SECONDS, 10, 1000);
+
+        Set<FlowId> unresolved = providerService.pushFlowCounters(DID, Lists.newArrayList(fe2),
+                                                                  Lists.newArrayList(c1, unknown));
+        assertEquals(ImmutableSet.of(unknown.flowId()), unresolved);
+
+        assertTrue("Entries should be added.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.ADDED,
+                           f2, FlowEntryState.ADDED,
+                           f3, FlowEntryState.PENDING_ADD)));
+        FlowEntry stored = mgr.store.getFlowEntry(f1);
+        assertEquals(10, stored.packets());
+        assertEquals(1000, stored.bytes());
+
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED, RULE_ADDED, RULE_ADD_REQUESTED);
+    }
+
     @Test
     public void extraneousFlow() {
         FlowRule f1 = flowRule(1, 1);
@@ -480,6 +527,120 @@ public class FlowRuleManagerTest {
         });
     }
 
+    @Test
+    public void pipelinedBatches() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("maxInFlightBatches", "1");
+                return props;
+            }
+        });
+
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+        List<FlowRuleOperations> succeeded = new ArrayList<>();
+        List<FlowRuleOperations> failed = new ArrayList<>();
+        FlowRuleOperationsContext context = new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                succeeded.add(ops);
+            }
+
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                failed.add(ops);
+            }
+        };
+        mgr.apply(FlowRuleOperations.builder().add(f1).build(context));
+        mgr.apply(FlowRuleOperations.builder().add(f2).build(context));
+        mgr.apply(FlowRuleOperations.builder().add(f3).build(context));
+        assertEquals("only one batch should be in flight", 1, provider.batches.size());
+
+        FlowRuleBatchOperation first = provider.batches.get(0);
+        providerService.batchOperationCompleted(first.id(),
+                new CompletedBatchOperation(true, Collections.emptySet(), DID));
+        assertEquals("incorrect successes", 1, succeeded.size());
+        assertEquals("held back operations should be coalesced", 2, provider.batches.size());
+        assertEquals("incorrect coalesced batch size", 2, provider.batches.get(1).size());
+
+        providerService.batchOperationCompleted(provider.batches.get(1).id(),
+                new CompletedBatchOperation(false, ImmutableSet.of(f3), DID));
+        assertEquals("incorrect successes", 2, succeeded.size());
+        assertEquals("incorrect failures", 1, failed.size());
+        assertEquals("incorrect failed rule", f3,
+                     failed.get(0).stages().get(0).iterator().next().rule());
+    }
+
+    @Test
+    public void pipelinedBatchFailureWithoutDetail() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("maxInFlightBatches", "1");
+                return props;
+            }
+        });
+
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+        List<FlowRuleOperations> failed = new ArrayList<>();
+        FlowRuleOperationsContext context = new FlowRuleOperationsContext() {
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                failed.add(ops);
+            }
+        };
+        mgr.apply(FlowRuleOperations.builder().add(f1).build(context));
+        mgr.apply(FlowRuleOperations.builder().add(f2).build(context));
+        mgr.apply(FlowRuleOperations.builder().add(f3).build(context));
+        providerService.batchOperationCompleted(provider.batches.get(0).id(),
+                new CompletedBatchOperation(true, Collections.emptySet(), DID));
+
+        providerService.batchOperationCompleted(provider.batches.get(1).id(),
+                new CompletedBatchOperation(false, Collections.emptySet(), DID));
+        assertEquals("incorrect failures", 2, failed.size());
+        assertEquals("incorrect failed rule", f2,
+                     failed.get(0).stages().get(0).iterator().next().rule());
+        assertEquals("incorrect failed rule", f3,
+                     failed.get(1).stages().get(0).iterator().next().rule());
+    }
+
+    @Test
+    public void purgedPipeline() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("maxInFlightBatches", "1");
+                return props;
+            }
+        });
+
+        List<FlowRuleOperations> failed = new ArrayList<>();
+        FlowRuleOperationsContext context = new FlowRuleOperationsContext() {
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                failed.add(ops);
+            }
+        };
+        mgr.apply(FlowRuleOperations.builder().add(flowRule(1, 1)).build(context));
+        mgr.apply(FlowRuleOperations.builder().add(flowRule(2, 2)).build(context));
+        assertEquals("only one batch should be in flight", 1, provider.batches.size());
+
+        DeviceEvent removed = new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, DEV);
+        ((TestDeviceService) mgr.deviceService).listeners.forEach(l -> l.event(removed));
+        assertEquals("in flight and held back operations should fail", 2, failed.size());
+
+        providerService.batchOperationCompleted(provider.batches.get(0).id(),
+                new CompletedBatchOperation(true, Collections.emptySet(), DID));
+        assertEquals("abandoned batch should not complete", 2, failed.size());
+        assertEquals("no further batches expected", 1, provider.batches.size());
+    }
 
     private static class TestListener implements FlowRuleListener {
         final List<FlowRuleEvent> events = new ArrayList<>();
@@ -491,6 +652,18 @@ public class FlowRuleManagerTest {
     }
 
     private static class TestDeviceService extends DeviceServiceAdapter {
+        final List<DeviceListener> listeners = new ArrayList<>();
+
+        @Override
+        public void addListener(DeviceListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(DeviceListener listener) {
+            listeners.remove(listener);
+        }
+
         @Override
         public int getDeviceCount() {
             return 2;
@@ -530,9 +703,12 @@ public class FlowRuleManagerTest {
         public void removeRulesById(ApplicationId id, FlowRule... flowRules) {
         }
 
+        final List<FlowRuleBatchOperation> batches = new ArrayList<>();
+
         @Override
         public void executeBatch(FlowRuleBatchOperation batch) {
             // TODO: need to call batchOperationComplete
+            batches.add(batch);
         }
 
         private class TestInstallationFuture
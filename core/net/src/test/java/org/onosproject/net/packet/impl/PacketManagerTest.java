@@ -18,37 +18,67 @@ package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
+import org.onosproject.net.packet.PacketProcessorEntry;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.onosproject.net.NetTestTools.injectEventDispatcher;
 
 /**
@@ -84,8 +114,9 @@ public class PacketManagerTest {
         mgr.deviceService = new TestDeviceService();
         mgr.deviceService = new TestDeviceService();
         mgr.coreService = new TestCoreService();
+        mgr.cfgService = new ComponentConfigAdapter();
         providerRegistry = mgr;
-        mgr.activate();
+        mgr.activate(null);
 
         DriverRegistryManager driverRegistry = new DriverRegistryManager();
         driverService = new TestDriverManager(driverRegistry);
@@ -95,6 +126,11 @@ public class PacketManagerTest {
                                                    ImmutableMap.of()));
     }
 
+    @After
+    public void tearDown() {
+        mgr.deactivate();
+    }
+
     /**
      * Tests the correct usage of fallback driver provider for packets.
      */
@@ -106,6 +142,171 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are given only to the processors registered for them.
+     */
+    @Test
+    public void processorsFilteredBySelectors() {
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        TestPacketProcessor all = new TestPacketProcessor();
+        TestPacketProcessor arp = new TestPacketProcessor();
+        TestPacketProcessor http = new TestPacketProcessor();
+        mgr.addProcessor(all, PacketProcessor.director(1));
+        mgr.addProcessor(http, PacketProcessor.director(3), ImmutableSet.of(
+                DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV4)
+                        .matchIPProtocol(IPv4.PROTOCOL_TCP).matchTcpDst(TpPort.tpPort(80)).build()));
+        mgr.addProcessor(arp, PacketProcessor.director(2), ImmutableSet.of(
+                DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build()));
+
+        Ethernet arpPacket = ethernet(Ethernet.TYPE_ARP, new ARP());
+        Ethernet httpPacket = ethernet(Ethernet.TYPE_IPV4, ipv4(IPv4.PROTOCOL_TCP, new TCP().setDestinationPort(80)));
+        Ethernet udpPacket = ethernet(Ethernet.TYPE_IPV4, ipv4(IPv4.PROTOCOL_UDP, new UDP().setDestinationPort(80)));
+
+        providerService.processPacket(context(arpPacket));
+        providerService.processPacket(context(httpPacket));
+        providerService.processPacket(context(udpPacket));
+
+        assertEquals(Lists.newArrayList(arpPacket, httpPacket, udpPacket), all.packets);
+        assertEquals(Lists.newArrayList(arpPacket), arp.packets);
+        assertEquals(Lists.newArrayList(httpPacket), http.packets);
+
+        List<PacketProcessorEntry> entries = mgr.getProcessors();
+        assertEquals(3, entries.get(0).invocations());
+        assertEquals(1, entries.get(1).invocations());
+        assertEquals(1, entries.get(1).selectors().size());
+        assertEquals(1, entries.get(2).latencySnapshot().size());
+    }
+
+    /**
+     * Tests processing packets on threads sharded by ingress device.
+     *
+     * @throws InterruptedException if interrupted while waiting for the packets
+     */
+    @Test
+    public void shardedProcessing() throws InterruptedException {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("processorThreads", "2");
+                return props;
+            }
+        });
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        CountDownLatch latch = new CountDownLatch(3);
+        List<String> threads = Lists.newCopyOnWriteArrayList();
+        mgr.addProcessor(context -> {
+            threads.add(Thread.currentThread().getName());
+            latch.countDown();
+        }, PacketProcessor.director(1));
+
+        for (int i = 0; i < 3; i++) {
+            providerService.processPacket(context(ethernet(Ethernet.TYPE_ARP, new ARP())));
+        }
+
+        assertTrue("Packets not processed", latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, ImmutableSet.copyOf(threads).size());
+        assertTrue(threads.get(0).contains("processor"));
+    }
+
+    /**
+     * Tests that packets of a device stay in order across a change of the
+     * number of processing threads.
+     *
+     * @throws InterruptedException if interrupted while waiting for the packets
+     */
+    @Test
+    public void reshardedProcessingKeepsOrder() throws InterruptedException {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("processorThreads", "1");
+                return props;
+            }
+        });
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(6);
+        List<MacAddress> order = Lists.newCopyOnWriteArrayList();
+        mgr.addProcessor(context -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            order.add(context.inPacket().parsed().getSourceMAC());
+            latch.countDown();
+        }, PacketProcessor.director(1));
+
+        for (int i = 0; i < 3; i++) {
+            providerService.processPacket(context(ethernet(Ethernet.TYPE_ARP, new ARP())
+                                                          .setSourceMACAddress(MacAddress.valueOf(i))));
+        }
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("processorThreads", "3");
+                return props;
+            }
+        });
+        for (int i = 3; i < 6; i++) {
+            providerService.processPacket(context(ethernet(Ethernet.TYPE_ARP, new ARP())
+                                                          .setSourceMACAddress(MacAddress.valueOf(i))));
+        }
+        release.countDown();
+
+        assertTrue("Packets not processed", latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 6; i++) {
+            assertEquals(MacAddress.valueOf(i), order.get(i));
+        }
+    }
+
+    private static Ethernet ethernet(short ethType, IPacket payload) {
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(ethType)
+                .setSourceMACAddress(MacAddress.valueOf(1L))
+                .setDestinationMACAddress(MacAddress.BROADCAST)
+                .setPayload(payload);
+        return eth;
+    }
+
+    private static IPv4 ipv4(byte protocol, IPacket payload) {
+        IPv4 ipv4 = new IPv4();
+        ipv4.setProtocol(protocol).setPayload(payload);
+        return ipv4;
+    }
+
+    private static PacketContext context(Ethernet eth) {
+        ConnectPoint ingress = new ConnectPoint(FOO_DID, PortNumber.portNumber(1));
+        return new DefaultPacketContext(0, new DefaultInboundPacket(ingress, eth, ByteBuffer.allocate(0)),
+                                        null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private static class TestPacketProcessor implements PacketProcessor {
+        private final List<Ethernet> packets = Lists.newArrayList();
+
+        @Override
+        public void process(PacketContext context) {
+            packets.add(context.inPacket().parsed());
+        }
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(new ProviderId("of", "bar"));
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
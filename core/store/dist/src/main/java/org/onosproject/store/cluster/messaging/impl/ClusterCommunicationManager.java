@@ -15,6 +15,10 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -27,6 +31,7 @@ import java.util.stream.Collectors;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Throwables;
+import com.google.common.io.CountingOutputStream;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -41,6 +46,7 @@ import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
 import org.onosproject.store.cluster.messaging.Endpoint;
+import org.onosproject.store.cluster.messaging.MessagePriority;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.cluster.messaging.MessagingService;
 import org.onosproject.utils.MeteringAgent;
@@ -70,6 +76,7 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
     private static final String NODE_PREFIX = "node:";
     private static final String ROUND_TRIP_SUFFIX = ".rtt";
     private static final String ONE_WAY_SUFFIX = ".oneway";
+    private static final String BYTES_SUFFIX = ".bytes";
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterService clusterService;
@@ -137,6 +144,37 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
     }
 
+    @Override
+    public <M> CompletableFuture<Void> unicastStreamed(M message,
+                                                       MessageSubject subject,
+                                                       BiConsumer<M, OutputStream> encoder,
+                                                       NodeId toNodeId) {
+        checkPermission(CLUSTER_WRITE);
+        try {
+            ControllerNode node = clusterService.getNode(toNodeId);
+            checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
+            Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
+            byte[] header = ClusterMessage.headerBytes(localNodeId, subject);
+            MeteringAgent.Context context = subjectMeteringAgent.startTimer(subject.toString() + ONE_WAY_SUFFIX);
+            // the payload is written after the envelope, straight into the message buffer
+            return messagingService.sendAsync(nodeEp, subject.toString(), out -> {
+                CountingOutputStream counter = new CountingOutputStream(out);
+                MeteringAgent.Context serializing = subjectMeteringAgent.startTimer(SERIALIZING);
+                try {
+                    counter.write(header);
+                    encoder.accept(message, counter);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    serializing.stop(null);
+                }
+                subjectMeteringAgent.mark(subject.toString() + BYTES_SUFFIX, counter.getCount());
+            }).whenComplete((r, e) -> context.stop(e));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public <M> void multicast(M message,
                               MessageSubject subject,
@@ -175,6 +213,7 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         ControllerNode node = clusterService.getNode(toNodeId);
         checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
         Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
+        subjectMeteringAgent.mark(subject.toString() + BYTES_SUFFIX, payload.length);
         MeteringAgent.Context context = subjectMeteringAgent.startTimer(subject.toString() + ONE_WAY_SUFFIX);
         return messagingService.sendAsync(nodeEp, subject.toString(), payload).whenComplete((r, e) -> context.stop(e));
     }
@@ -183,6 +222,7 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         ControllerNode node = clusterService.getNode(toNodeId);
         checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
         Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
+        subjectMeteringAgent.mark(subject.toString() + BYTES_SUFFIX, payload.length);
         MeteringAgent.Context epContext = endpointMeteringAgent.
                 startTimer(NODE_PREFIX + toNodeId.toString() + ROUND_TRIP_SUFFIX);
         MeteringAgent.Context subjectContext = subjectMeteringAgent.
@@ -210,6 +250,12 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         messagingService.unregisterHandler(subject.toString());
     }
 
+    @Override
+    public void setPriority(MessageSubject subject, MessagePriority priority) {
+        checkPermission(CLUSTER_WRITE);
+        messagingService.setPriority(subject.toString(), priority);
+    }
+
     @Override
     public <M, R> void addSubscriber(MessageSubject subject,
             Function<byte[], M> decoder,
@@ -252,6 +298,17 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
                 executor);
     }
 
+    @Override
+    public <M> void addBufferSubscriber(MessageSubject subject,
+            Function<ByteBuffer, M> decoder,
+            Consumer<M> handler,
+            Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        messagingService.registerBufferHandler(subject.toString(),
+                new InternalBufferConsumer<>(decoder, handler),
+                executor);
+    }
+
     /**
      * Performs the timed function, returning the value it would while timing the operation.
      *
@@ -337,4 +394,20 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
                     apply(ClusterMessage.fromBytes(bytes).payload()));
         }
     }
+
+    private class InternalBufferConsumer<M> implements BiConsumer<Endpoint, ByteBuffer> {
+        private final Function<ByteBuffer, M> decoder;
+        private final Consumer<M> consumer;
+
+        public InternalBufferConsumer(Function<ByteBuffer, M> decoder, Consumer<M> consumer) {
+            this.decoder = decoder;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(Endpoint sender, ByteBuffer buffer) {
+            consumer.accept(timeFunction(decoder, subjectMeteringAgent, DESERIALIZING).
+                    apply(ClusterMessage.payloadOf(buffer)));
+        }
+    }
 }
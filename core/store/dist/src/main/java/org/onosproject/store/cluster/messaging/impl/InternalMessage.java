@@ -15,6 +15,10 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.buffer.ByteBuf;
 import org.onosproject.core.HybridLogicalTime;
 
 /**
@@ -65,16 +69,37 @@ public abstract class InternalMessage {
     private final int preamble;
     private final HybridLogicalTime time;
     private final long id;
-    private final byte[] payload;
+    private final ByteBuffer payload;
+    private final ByteBuf content;
+    private final AtomicBoolean released = new AtomicBoolean();
 
     protected InternalMessage(int preamble,
             HybridLogicalTime time,
             long id,
             byte[] payload) {
+        this(preamble, time, id, ByteBuffer.wrap(payload));
+    }
+
+    protected InternalMessage(int preamble,
+            HybridLogicalTime time,
+            long id,
+            ByteBuffer payload) {
         this.preamble = preamble;
         this.time = time;
         this.id = id;
-        this.payload = payload;
+        this.payload = payload.slice();
+        this.content = null;
+    }
+
+    protected InternalMessage(int preamble,
+            HybridLogicalTime time,
+            long id,
+            ByteBuf content) {
+        this.preamble = preamble;
+        this.time = time;
+        this.id = id;
+        this.payload = content.nioBuffer();
+        this.content = content;
     }
 
     public abstract Type type();
@@ -99,7 +124,60 @@ public abstract class InternalMessage {
         return id;
     }
 
+    /**
+     * Returns the message payload, copying it out of the receive buffer
+     * unless it is already backed by an array of the exact size.
+     *
+     * @return payload bytes
+     */
     public byte[] payload() {
-        return payload;
+        if (payload.hasArray() && payload.arrayOffset() == 0
+                && payload.remaining() == payload.array().length) {
+            return payload.array();
+        }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns a read-only view of the message payload.
+     * <p>
+     * For received messages and messages whose payload was written into a
+     * pooled buffer, the view is backed by that buffer and is only valid until
+     * {@link #release()} is called.
+     *
+     * @return payload buffer
+     */
+    public ByteBuffer payloadBuffer() {
+        return payload.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the length of the message payload.
+     *
+     * @return payload length in bytes
+     */
+    public int payloadLength() {
+        return payload.remaining();
+    }
+
+    /**
+     * Returns the pooled buffer backing the payload of this message, if any.
+     *
+     * @return payload buffer, or null if the payload is not pooled
+     */
+    ByteBuf content() {
+        return content;
+    }
+
+    /**
+     * Returns the pooled buffer backing this message to its pool.
+     * Safe to call more than once, and a no-op for messages without one.
+     */
+    public void release() {
+        if (content != null && released.compareAndSet(false, true)) {
+            content.release();
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
 import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 
@@ -106,6 +107,15 @@ public final class InternalReply extends InternalMessage {
         this.status = status;
     }
 
+    public InternalReply(int preamble,
+            HybridLogicalTime time,
+            long id,
+            ByteBuf content,
+            Status status) {
+        super(preamble, time, id, content);
+        this.status = status;
+    }
+
     @Override
     public Type type() {
         return Type.REPLY;
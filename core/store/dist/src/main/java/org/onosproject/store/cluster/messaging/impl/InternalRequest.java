@@ -17,6 +17,7 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
 
+import io.netty.buffer.ByteBuf;
 import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -39,6 +40,17 @@ public final class InternalRequest extends InternalMessage {
         this.subject = subject;
     }
 
+    public InternalRequest(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String subject,
+                           ByteBuf content) {
+        super(preamble, time, id, content);
+        this.sender = sender;
+        this.subject = subject;
+    }
+
     @Override
     public Type type() {
         return Type.REQUEST;
@@ -18,6 +18,7 @@ package org.onosproject.store.cluster.messaging.impl;
 import com.google.common.base.Charsets;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ReplayingDecoder;
 
@@ -49,7 +50,7 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private long logicalCounter;
     private long messageId;
     private int contentLength;
-    private byte[] content;
+    private ByteBuf content;
     private int subjectLength;
     private String subject;
     private InternalReply.Status status;
@@ -98,10 +99,13 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
             case READ_CONTENT:
                 if (contentLength > 0) {
                     //TODO Perform a sanity check on the size before allocating
-                    content = new byte[contentLength];
-                    buffer.readBytes(content);
+                    // Hand out a slice of the pooled receive buffer rather than
+                    // a copy; the message releases it once it is dispatched.
+                    // The slice pins the whole cumulation buffer until then, so
+                    // buffer handlers must neither block nor keep the payload.
+                    content = buffer.readRetainedSlice(contentLength);
                 } else {
-                    content = new byte[0];
+                    content = Unpooled.EMPTY_BUFFER;
                 }
 
                 switch (type) {
@@ -135,6 +139,7 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                                 new Endpoint(senderIp, senderPort),
                                 subject,
                                 content);
+                        content = null;
                         out.add(message);
                         checkpoint(DecoderState.READ_TYPE);
                         break;
@@ -151,6 +156,7 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                                 messageId,
                                 content,
                                 status);
+                        content = null;
                         out.add(message);
                         checkpoint(DecoderState.READ_TYPE);
                         break;
@@ -163,6 +169,15 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
         }
     }
 
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext context) throws Exception {
+        // release the payload of a partially decoded message
+        if (content != null) {
+            content.release();
+            content = null;
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext context, Throwable cause) {
         log.error("Exception inside channel handling pipeline.", cause);
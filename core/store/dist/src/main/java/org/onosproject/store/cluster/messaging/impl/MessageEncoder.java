@@ -16,11 +16,12 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -29,11 +30,20 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Encode InternalMessage out into a byte buffer.
+ * <p>
+ * Payloads already held in a pooled buffer are framed as is, between a
+ * header and a trailer, rather than copied into the frame.
+ * </p>
  */
-public class MessageEncoder extends MessageToByteEncoder<Object> {
-// Effectively MessageToByteEncoder<InternalMessage>,
+public class MessageEncoder extends MessageToMessageEncoder<Object> {
+// Effectively MessageToMessageEncoder<InternalMessage>,
 // had to specify <Object> to avoid Class Loader not being able to find some classes.
 
+    // sender endpoint and message header up to the payload
+    private static final int MAX_HEADER_LENGTH = 1 + 16 + 4 + 1 + 4 + 8 + 8 + 8 + 4;
+    // either subject length or reply status
+    private static final int MAX_TRAILER_LENGTH = 2;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final Endpoint endpoint;
@@ -50,15 +60,33 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
     protected void encode(
             ChannelHandlerContext context,
             Object rawMessage,
-            ByteBuf out) throws Exception {
-        if (rawMessage instanceof InternalRequest) {
-            encodeRequest((InternalRequest) rawMessage, out);
-        } else if (rawMessage instanceof InternalReply) {
-            encodeReply((InternalReply) rawMessage, out);
+            List<Object> out) throws Exception {
+        InternalMessage message = (InternalMessage) rawMessage;
+        byte[] subjectBytes = message instanceof InternalRequest
+                ? ((InternalRequest) message).subject().getBytes(Charsets.UTF_8) : null;
+        int trailerLength = MAX_TRAILER_LENGTH + (subjectBytes != null ? subjectBytes.length : 0);
+
+        ByteBuf content = message.content();
+        if (content == null) {
+            // Size the pooled buffer for the whole frame up front so that large
+            // payloads are not copied again as the buffer grows.
+            ByteBuf frame = context.alloc().ioBuffer(MAX_HEADER_LENGTH + message.payloadLength() + trailerLength);
+            encodeHeader(message, frame);
+            frame.writeBytes(message.payloadBuffer());
+            encodeTrailer(message, subjectBytes, frame);
+            out.add(frame);
+        } else {
+            ByteBuf header = context.alloc().ioBuffer(MAX_HEADER_LENGTH);
+            encodeHeader(message, header);
+            ByteBuf trailer = context.alloc().ioBuffer(trailerLength);
+            encodeTrailer(message, subjectBytes, trailer);
+            // the frame holds a reference of its own; the sender releases the message once it is sent
+            out.add(context.alloc().compositeDirectBuffer(3)
+                             .addComponents(true, header, content.retainedDuplicate(), trailer));
         }
     }
 
-    private void encodeMessage(InternalMessage message, ByteBuf out) {
+    private void encodeHeader(InternalMessage message, ByteBuf out) {
         // If the endpoint hasn't been written to the channel, write it.
         if (!endpointWritten) {
             IpAddress senderIp = endpoint.host();
@@ -85,33 +113,21 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         // write message id
         out.writeLong(message.id());
 
-        byte[] payload = message.payload();
-
         // write payload length
-        out.writeInt(payload.length);
-
-        // write payload.
-        out.writeBytes(payload);
-    }
-
-    private void encodeRequest(InternalRequest request, ByteBuf out) {
-        encodeMessage(request, out);
-
-        byte[] messageTypeBytes = request.subject().getBytes(Charsets.UTF_8);
-
-        // write length of message type
-        out.writeShort(messageTypeBytes.length);
-
-        // write message type bytes
-        out.writeBytes(messageTypeBytes);
-
+        out.writeInt(message.payloadLength());
     }
 
-    private void encodeReply(InternalReply reply, ByteBuf out) {
-        encodeMessage(reply, out);
+    private void encodeTrailer(InternalMessage message, byte[] subjectBytes, ByteBuf out) {
+        if (message instanceof InternalRequest) {
+            // write length of message type
+            out.writeShort(subjectBytes.length);
 
-        // write message status value
-        out.writeByte(reply.status().id());
+            // write message type bytes
+            out.writeBytes(subjectBytes);
+        } else {
+            // write message status value
+            out.writeByte(((InternalReply) message).status().id());
+        }
     }
 
     @Override
@@ -124,9 +140,9 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         context.close();
     }
 
-    // Effectively same result as one generated by MessageToByteEncoder<InternalMessage>
+    // Effectively same result as one generated by MessageToMessageEncoder<InternalMessage>
     @Override
     public final boolean acceptOutboundMessage(Object msg) throws Exception {
         return msg instanceof InternalMessage;
     }
-}
\ No newline at end of file
+}
@@ -22,7 +22,9 @@ import javax.net.ssl.TrustManagerFactory;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.OutputStream;
 import java.net.ConnectException;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.MessageDigest;
@@ -33,6 +35,7 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
@@ -47,9 +50,12 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
@@ -59,6 +65,8 @@ import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -89,6 +97,7 @@ import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.core.HybridLogicalClockService;
 import org.onosproject.store.cluster.messaging.Endpoint;
+import org.onosproject.store.cluster.messaging.MessagePriority;
 import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.cluster.messaging.MessagingService;
 import org.slf4j.Logger;
@@ -113,6 +122,9 @@ public class NettyMessagingManager implements MessagingService {
     private static final long MIN_TIMEOUT_MILLIS = 100;
     private static final long MAX_TIMEOUT_MILLIS = 15000;
     private static final int CHANNEL_POOL_SIZE = 8;
+    // Channels of each pool set apart for each priority, in the order of MessagePriority
+    private static final int[] LANE_SIZES = {2, 4, 2};
+    private static final long DEFAULT_MAX_OUTSTANDING_BYTES = 64 * 1024 * 1024;
 
     private static final byte[] EMPTY_PAYLOAD = new byte[0];
 
@@ -141,6 +153,9 @@ public class NettyMessagingManager implements MessagingService {
     private ScheduledFuture<?> timeoutFuture;
 
     private final Map<Endpoint, List<CompletableFuture<Channel>>> channels = Maps.newConcurrentMap();
+    private final Map<String, MessagePriority> priorities = Maps.newConcurrentMap();
+    // Bytes awaiting delivery to each endpoint, in the order of MessagePriority
+    private final Map<Endpoint, AtomicLongArray> outstandingBytes = Maps.newConcurrentMap();
 
     private EventLoopGroup serverGroup;
     private EventLoopGroup clientGroup;
@@ -151,6 +166,7 @@ public class NettyMessagingManager implements MessagingService {
     protected static final boolean TLS_ENABLED = true;
     protected static final boolean TLS_DISABLED = false;
     protected boolean enableNettyTls = TLS_ENABLED;
+    protected long maxOutstandingBytes = DEFAULT_MAX_OUTSTANDING_BYTES;
 
     protected TrustManagerFactory trustManager;
     protected KeyManagerFactory keyManager;
@@ -186,6 +202,8 @@ public class NettyMessagingManager implements MessagingService {
             clientGroup.shutdownGracefully();
             timeoutFuture.cancel(false);
             timeoutExecutor.shutdown();
+            channels.clear();
+            outstandingBytes.clear();
             started.set(false);
         }
         log.info("Stopped");
@@ -304,7 +322,35 @@ public class NettyMessagingManager implements MessagingService {
                 localEndpoint,
                 type,
                 payload);
-        return executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor());
+        return executeWithBackpressure(ep, type, payload.length,
+                () -> executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor()));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        checkPermission(CLUSTER_WRITE);
+        if (ep.equals(localEndpoint)) {
+            // local handlers may read the payload after the send completes
+            return MessagingService.super.sendAsync(ep, type, payloadWriter);
+        }
+        ByteBuf payload = PooledByteBufAllocator.DEFAULT.ioBuffer();
+        try {
+            payloadWriter.accept(new ByteBufOutputStream(payload));
+        } catch (RuntimeException e) {
+            payload.release();
+            throw e;
+        }
+        // the encoder frames the payload buffer as is; it is returned to its pool once sent
+        InternalRequest message = new InternalRequest(preamble,
+                clockService.timeNow(),
+                messageIdGenerator.incrementAndGet(),
+                localEndpoint,
+                type,
+                payload);
+        CompletableFuture<Void> future = executeWithBackpressure(ep, type, message.payloadLength(),
+                () -> executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor()));
+        future.whenComplete((result, error) -> message.release());
+        return future;
     }
 
     @Override
@@ -323,7 +369,64 @@ public class NettyMessagingManager implements MessagingService {
                 localEndpoint,
                 type,
                 payload);
-        return executeOnPooledConnection(ep, type, c -> c.sendAndReceive(message), executor);
+        return executeWithBackpressure(ep, type, payload.length,
+                () -> executeOnPooledConnection(ep, type, c -> c.sendAndReceive(message), executor));
+    }
+
+    @Override
+    public void setPriority(String type, MessagePriority priority) {
+        checkPermission(CLUSTER_WRITE);
+        if (priority == MessagePriority.NORMAL) {
+            priorities.remove(type);
+        } else {
+            priorities.put(type, priority);
+        }
+    }
+
+    private MessagePriority getPriority(String type) {
+        return priorities.getOrDefault(type, MessagePriority.NORMAL);
+    }
+
+    /**
+     * Sends a message unless too many bytes of its priority are already awaiting delivery to the endpoint.
+     * <p>
+     * Bytes are outstanding from the time a message is sent until it is written or, when a reply is
+     * expected, until the reply is received. Each priority has a budget of its own, so that a backlog
+     * of low priority messages never holds back messages of a higher priority. High priority messages
+     * are never refused. A message is always accepted when nothing else of its priority is outstanding.
+     * </p>
+     *
+     * @param endpoint remote endpoint
+     * @param type message type
+     * @param length payload length
+     * @param sender sends the message
+     * @param <T> result type
+     * @return future for the result of sending the message
+     */
+    private <T> CompletableFuture<T> executeWithBackpressure(
+            Endpoint endpoint,
+            String type,
+            int length,
+            Supplier<CompletableFuture<T>> sender) {
+        if (endpoint.equals(localEndpoint)) {
+            return sender.get();
+        }
+        MessagePriority priority = getPriority(type);
+        int lane = priority.ordinal();
+        AtomicLongArray outstanding = outstandingBytes.computeIfAbsent(
+                endpoint, e -> new AtomicLongArray(MessagePriority.values().length));
+        long total = outstanding.addAndGet(lane, length);
+        if (total > maxOutstandingBytes && total > length && priority != MessagePriority.HIGH) {
+            outstanding.addAndGet(lane, -length);
+            log.debug("Refusing {} message to {} with {} {} priority bytes outstanding",
+                      type, endpoint, total - length, priority);
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new MessagingException.Backpressure());
+            return future;
+        }
+        CompletableFuture<T> future = sender.get();
+        future.whenComplete((result, error) -> outstanding.addAndGet(lane, -length));
+        return future;
     }
 
     private List<CompletableFuture<Channel>> getChannelPool(Endpoint endpoint) {
@@ -337,7 +440,12 @@ public class NettyMessagingManager implements MessagingService {
     }
 
     private int getChannelOffset(String messageType) {
-        return Math.abs(messageType.hashCode() % CHANNEL_POOL_SIZE);
+        int lane = getPriority(messageType).ordinal();
+        int offset = 0;
+        for (int i = 0; i < lane; i++) {
+            offset += LANE_SIZES[i];
+        }
+        return offset + Math.abs(messageType.hashCode() % LANE_SIZES[lane]);
     }
 
     private CompletableFuture<Channel> getChannel(Endpoint endpoint, String messageType) {
@@ -347,6 +455,10 @@ public class NettyMessagingManager implements MessagingService {
         CompletableFuture<Channel> channelFuture = channelPool.get(offset);
         if (channelFuture == null || channelFuture.isCompletedExceptionally()) {
             synchronized (channelPool) {
+                if (channels.get(endpoint) != channelPool) {
+                    // The pool was torn down meanwhile.
+                    return getChannel(endpoint, messageType);
+                }
                 channelFuture = channelPool.get(offset);
                 if (channelFuture == null || channelFuture.isCompletedExceptionally()) {
                     channelFuture = openChannel(endpoint);
@@ -365,6 +477,7 @@ public class NettyMessagingManager implements MessagingService {
                         currentFuture = channelPool.get(offset);
                         if (currentFuture == finalFuture) {
                             channelPool.set(offset, null);
+                            removeChannelPoolIfEmpty(endpoint, channelPool);
                         }
                     }
 
@@ -394,12 +507,34 @@ public class NettyMessagingManager implements MessagingService {
                     future.complete(channel);
                 }
             } else {
+                synchronized (channelPool) {
+                    if (channelPool.get(offset) == finalFuture) {
+                        channelPool.set(offset, null);
+                        removeChannelPoolIfEmpty(endpoint, channelPool);
+                    }
+                }
                 future.completeExceptionally(error);
             }
         });
         return future;
     }
 
+    /**
+     * Tears down the channel pool of an endpoint once none of its channels is open or being opened.
+     * <p>
+     * The bytes outstanding to the endpoint are forgotten along with the pool, so that neither
+     * is retained for endpoints no longer communicated with. Must be called holding the pool's lock.
+     * </p>
+     *
+     * @param endpoint remote endpoint
+     * @param channelPool channel pool of the endpoint
+     */
+    private void removeChannelPoolIfEmpty(Endpoint endpoint, List<CompletableFuture<Channel>> channelPool) {
+        if (channelPool.stream().allMatch(Objects::isNull) && channels.remove(endpoint, channelPool)) {
+            outstandingBytes.remove(endpoint);
+        }
+    }
+
     private <T> CompletableFuture<T> executeOnPooledConnection(
             Endpoint endpoint,
             String type,
@@ -453,31 +588,59 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, (message, connection) -> executor.execute(() ->
-                handler.accept(message.sender(), message.payload())));
+        handlers.put(type, (message, connection) -> {
+            byte[] payload = message.payload();
+            message.release();
+            executor.execute(() -> handler.accept(message.sender(), payload));
+        });
     }
 
     @Override
-    public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, (message, connection) -> executor.execute(() -> {
-            byte[] responsePayload = null;
-            InternalReply.Status status = InternalReply.Status.OK;
+        handlers.put(type, (message, connection) -> {
             try {
-                responsePayload = handler.apply(message.sender(), message.payload());
-            } catch (Exception e) {
-                log.debug("An error occurred in a message handler: {}", e);
-                status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
+                executor.execute(() -> {
+                    try {
+                        handler.accept(message.sender(), message.payloadBuffer());
+                    } finally {
+                        message.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                message.release();
+                throw e;
             }
-            connection.reply(message, status, Optional.ofNullable(responsePayload));
-        }));
+        });
+    }
+
+    @Override
+    public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, (message, connection) -> {
+            byte[] payload = message.payload();
+            message.release();
+            executor.execute(() -> {
+                byte[] responsePayload = null;
+                InternalReply.Status status = InternalReply.Status.OK;
+                try {
+                    responsePayload = handler.apply(message.sender(), payload);
+                } catch (Exception e) {
+                    log.debug("An error occurred in a message handler: {}", e);
+                    status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
+                }
+                connection.reply(message, status, Optional.ofNullable(responsePayload));
+            });
+        });
     }
 
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
         checkPermission(CLUSTER_WRITE);
         handlers.put(type, (message, connection) -> {
-            handler.apply(message.sender(), message.payload()).whenComplete((result, error) -> {
+            byte[] payload = message.payload();
+            message.release();
+            handler.apply(message.sender(), payload).whenComplete((result, error) -> {
                 InternalReply.Status status;
                 if (error == null) {
                     status = InternalReply.Status.OK;
@@ -650,6 +813,7 @@ public class NettyMessagingManager implements MessagingService {
                 }
             } catch (RejectedExecutionException e) {
                 log.warn("Unable to dispatch message due to {}", e.getMessage());
+                message.release();
             }
         }
 
@@ -938,6 +1102,14 @@ public class NettyMessagingManager implements MessagingService {
          * @param message the message to dispatch
          */
         private void dispatch(InternalReply message) {
+            try {
+                doDispatch(message);
+            } finally {
+                message.release();
+            }
+        }
+
+        private void doDispatch(InternalReply message) {
             if (message.preamble() != preamble) {
                 log.debug("Received {} with invalid preamble", message.type());
                 return;
@@ -982,6 +1154,7 @@ public class NettyMessagingManager implements MessagingService {
         private void dispatch(InternalRequest message) {
             if (message.preamble() != preamble) {
                 log.debug("Received {} with invalid preamble from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.PROTOCOL_EXCEPTION, Optional.empty());
                 return;
             }
@@ -993,6 +1166,7 @@ public class NettyMessagingManager implements MessagingService {
                 handler.accept(message, this);
             } else {
                 log.debug("No handler for message type {} from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.ERROR_NO_HANDLER, Optional.empty());
             }
         }
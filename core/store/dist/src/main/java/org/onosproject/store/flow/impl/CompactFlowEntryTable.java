@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.Sets;
+
+/**
+ * On-heap flow table keyed by primitive flow identifiers.
+ * <p>
+ * Entries are packed into dense arrays indexed through a {@link FlowIdIndex};
+ * a slot holds either a single entry, which is the common case, or an array
+ * of entries sharing the same flow identifier. Apart from the stored entries
+ * themselves, the table allocates no per-entry objects.
+ */
+final class CompactFlowEntryTable implements FlowEntryTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FlowIdIndex index = new FlowIdIndex();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private Object[] slots = new Object[INITIAL_CAPACITY];
+    private int slotCount;
+    private int entryCount;
+
+    @Override
+    public synchronized StoredFlowEntry get(FlowRule rule) {
+        int slot = index.get(rule.id().value());
+        return slot < 0 ? null : find(slots[slot], rule);
+    }
+
+    @Override
+    public synchronized Set<FlowEntry> getAll() {
+        Set<FlowEntry> entries = Sets.newHashSetWithExpectedSize(entryCount);
+        for (int i = 0; i < slotCount; i++) {
+            Object value = slots[i];
+            if (value instanceof StoredFlowEntry[]) {
+                entries.addAll(Arrays.asList((StoredFlowEntry[]) value));
+            } else {
+                entries.add((StoredFlowEntry) value);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized void add(StoredFlowEntry entry) {
+        long id = entry.id().value();
+        int slot = index.get(id);
+        if (slot < 0) {
+            append(id, entry);
+            entryCount++;
+            return;
+        }
+        Object value = slots[slot];
+        if (value instanceof StoredFlowEntry[]) {
+            StoredFlowEntry[] entries = (StoredFlowEntry[]) value;
+            int i = indexOf(entries, entry);
+            if (i >= 0) {
+                entries[i] = entry;
+            } else {
+                StoredFlowEntry[] grown = Arrays.copyOf(entries, entries.length + 1);
+                grown[entries.length] = entry;
+                slots[slot] = grown;
+                entryCount++;
+            }
+        } else if (value.equals(entry)) {
+            slots[slot] = entry;
+        } else {
+            slots[slot] = new StoredFlowEntry[]{(StoredFlowEntry) value, entry};
+            entryCount++;
+        }
+    }
+
+    @Override
+    public synchronized void update(StoredFlowEntry entry) {
+        // entries are held by reference; in-place modifications are already visible
+    }
+
+    @Override
+    public synchronized StoredFlowEntry remove(FlowRule rule, Predicate<? super StoredFlowEntry> condition) {
+        long id = rule.id().value();
+        int slot = index.get(id);
+        if (slot < 0) {
+            return null;
+        }
+        Object value = slots[slot];
+        if (value instanceof StoredFlowEntry[]) {
+            StoredFlowEntry[] entries = (StoredFlowEntry[]) value;
+            int i = indexOf(entries, rule);
+            if (i < 0 || !condition.test(entries[i])) {
+                return null;
+            }
+            StoredFlowEntry removed = entries[i];
+            if (entries.length == 2) {
+                slots[slot] = entries[1 - i];
+            } else {
+                StoredFlowEntry[] shrunk = new StoredFlowEntry[entries.length - 1];
+                System.arraycopy(entries, 0, shrunk, 0, i);
+                System.arraycopy(entries, i + 1, shrunk, i, entries.length - i - 1);
+                slots[slot] = shrunk;
+            }
+            entryCount--;
+            return removed;
+        }
+        StoredFlowEntry stored = (StoredFlowEntry) value;
+        if (!stored.equals(rule) || !condition.test(stored)) {
+            return null;
+        }
+        release(id, slot);
+        entryCount--;
+        return stored;
+    }
+
+    @Override
+    public synchronized int size() {
+        return entryCount;
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+        ids = new long[INITIAL_CAPACITY];
+        slots = new Object[INITIAL_CAPACITY];
+        slotCount = 0;
+        entryCount = 0;
+    }
+
+    private void append(long id, StoredFlowEntry entry) {
+        if (slotCount == slots.length) {
+            ids = Arrays.copyOf(ids, slotCount << 1);
+            slots = Arrays.copyOf(slots, slotCount << 1);
+        }
+        ids[slotCount] = id;
+        slots[slotCount] = entry;
+        index.put(id, slotCount++);
+    }
+
+    private void release(long id, int slot) {
+        // move the last slot into the hole to keep the arrays dense
+        index.remove(id);
+        int last = --slotCount;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            slots[slot] = slots[last];
+            index.put(ids[slot], slot);
+        }
+        slots[last] = null;
+    }
+
+    private static StoredFlowEntry find(Object value, FlowRule rule) {
+        if (value instanceof StoredFlowEntry[]) {
+            StoredFlowEntry[] entries = (StoredFlowEntry[]) value;
+            int i = indexOf(entries, rule);
+            return i >= 0 ? entries[i] : null;
+        }
+        return value.equals(rule) ? (StoredFlowEntry) value : null;
+    }
+
+    private static int indexOf(StoredFlowEntry[] entries, FlowRule rule) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].equals(rule)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
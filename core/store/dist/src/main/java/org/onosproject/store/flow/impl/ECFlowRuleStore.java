@@ -27,7 +27,6 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Streams;
@@ -53,6 +52,7 @@ import org.onosproject.net.flow.CompletedBatchOperation;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowEntryCounters;
 import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
@@ -72,6 +72,8 @@ import org.onosproject.store.AbstractStore;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
+import org.onosproject.store.cluster.messaging.MessagePriority;
+import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.flow.ReplicaInfoEvent;
 import org.onosproject.store.flow.ReplicaInfoEventListener;
 import org.onosproject.store.flow.ReplicaInfoService;
@@ -86,10 +88,10 @@ import org.onosproject.store.service.WallClockTimestamp;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -118,11 +120,12 @@ public class ECFlowRuleStore
 
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 8;
     private static final int DEFAULT_MAX_BACKUP_COUNT = 2;
+    // share of a flow table the changes of its journal may cover before a full backup is preferred
+    private static final double FULL_BACKUP_RATIO = 0.5;
     private static final boolean DEFAULT_PERSISTENCE_ENABLED = false;
+    private static final boolean DEFAULT_OFF_HEAP_ENABLED = false;
     private static final int DEFAULT_BACKUP_PERIOD_MILLIS = 2000;
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
-    // number of devices whose flow entries will be backed up in one communication round
-    private static final int FLOW_TABLE_BACKUP_BATCH_SIZE = 1;
 
     @Property(name = "msgHandlerPoolSize", intValue = MESSAGE_HANDLER_THREAD_POOL_SIZE,
             label = "Number of threads in the message handler pool")
@@ -135,6 +138,10 @@ public class ECFlowRuleStore
             label = "Indicates whether or not changes in the flow table should be persisted to disk.")
     private boolean persistenceEnabled = DEFAULT_PERSISTENCE_ENABLED;
 
+    @Property(name = "offHeapEnabled", boolValue = DEFAULT_OFF_HEAP_ENABLED,
+            label = "Indicates whether or not flow entries should be kept serialized outside of the Java heap")
+    private boolean offHeapEnabled = DEFAULT_OFF_HEAP_ENABLED;
+
     @Property(name = "backupCount", intValue = DEFAULT_MAX_BACKUP_COUNT,
             label = "Max number of backup copies for each device")
     private volatile int backupCount = DEFAULT_MAX_BACKUP_COUNT;
@@ -180,7 +187,7 @@ public class ECFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
-    protected final Serializer serializer = Serializer.using(KryoNamespaces.API);
+    protected final Serializer serializer = Serializer.using(KryoNamespaces.API, FlowTableBackup.class);
 
     protected final KryoNamespace.Builder serializerBuilder = KryoNamespace.newBuilder()
             .register(KryoNamespaces.API)
@@ -250,6 +257,7 @@ public class ECFlowRuleStore
         int newPoolSize;
         int newBackupPeriod;
         int newBackupCount;
+        boolean newOffHeapEnabled;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -259,10 +267,14 @@ public class ECFlowRuleStore
 
             s = get(properties, "backupCount");
             newBackupCount = isNullOrEmpty(s) ? backupCount : Integer.parseInt(s.trim());
+
+            s = get(properties, "offHeapEnabled");
+            newOffHeapEnabled = isNullOrEmpty(s) ? offHeapEnabled : Boolean.parseBoolean(s.trim());
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
             newBackupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
             newBackupCount = DEFAULT_MAX_BACKUP_COUNT;
+            newOffHeapEnabled = DEFAULT_OFF_HEAP_ENABLED;
         }
 
         boolean restartBackupTask = false;
@@ -295,6 +307,10 @@ public class ECFlowRuleStore
         if (backupCount != newBackupCount) {
             backupCount = newBackupCount;
         }
+        if (offHeapEnabled != newOffHeapEnabled) {
+            offHeapEnabled = newOffHeapEnabled;
+            flowTable.reallocateFlowTables();
+        }
         logConfig("Reconfigured");
     }
 
@@ -311,6 +327,7 @@ public class ECFlowRuleStore
                 REMOVE_FLOW_ENTRY, serializer::decode, this::removeFlowRuleInternal, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
                 FLOW_TABLE_BACKUP, serializer::decode, flowTable::onBackupReceipt, serializer::encode, executor);
+        clusterCommunicator.setPriority(FLOW_TABLE_BACKUP, MessagePriority.LOW);
     }
 
     private void unregisterMessageHandlers() {
@@ -323,8 +340,8 @@ public class ECFlowRuleStore
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}",
-                 prefix, msgHandlerPoolSize, backupPeriod, backupCount);
+        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}, offHeapEnabled = {}",
+                 prefix, msgHandlerPoolSize, backupPeriod, backupCount, offHeapEnabled);
     }
 
     // This is not a efficient operation on a distributed sharded
@@ -483,6 +500,7 @@ public class ECFlowRuleStore
                             if (entry != null) {
                                 //FIXME modification of "stored" flow entry outside of flow table
                                 entry.setState(FlowEntryState.PENDING_REMOVE);
+                                flowTable.update(entry);
                                 log.debug("Setting state of rule to pending remove: {}", entry);
                                 return op;
                             }
@@ -512,6 +530,7 @@ public class ECFlowRuleStore
             if (stored != null &&
                     stored.state() != FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.PENDING_ADD);
+                flowTable.update(stored);
                 return new FlowRuleEvent(Type.RULE_UPDATED, rule);
             }
         }
@@ -534,6 +553,7 @@ public class ECFlowRuleStore
         // check if this new rule is an update to an existing entry
         StoredFlowEntry stored = flowTable.getFlowEntry(rule);
         if (stored != null) {
+            boolean changed = stored.liveType() != rule.liveType();
             //FIXME modification of "stored" flow entry outside of flow table
             stored.setBytes(rule.bytes());
             stored.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
@@ -542,8 +562,15 @@ public class ECFlowRuleStore
             stored.setLastSeen();
             if (stored.state() == FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.ADDED);
+                flowTable.update(stored);
                 return new FlowRuleEvent(Type.RULE_ADDED, rule);
             }
+            if (changed) {
+                flowTable.update(stored);
+            } else {
+                // counters alone are not worth a backup
+                flowTable.refresh(stored);
+            }
             return new FlowRuleEvent(Type.RULE_UPDATED, rule);
         }
 
@@ -553,6 +580,39 @@ public class ECFlowRuleStore
         return null;
     }
 
+    @Override
+    public FlowRuleEvent updateFlowCounters(FlowEntry entry, FlowEntryCounters counters) {
+        NodeId master = mastershipService.getMasterFor(entry.deviceId());
+        if (!Objects.equals(local, master)) {
+            log.warn("Tried to update FlowRule {} counters,"
+                             + " while the Node was not the master.", entry);
+            return null;
+        }
+
+        StoredFlowEntry stored = flowTable.getFlowEntry(entry);
+        if (stored == null) {
+            return null;
+        }
+        Type type = Type.RULE_UPDATED;
+        //FIXME modification of "stored" flow entry outside of flow table
+        stored.setLife(counters.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        stored.setPackets(counters.packets());
+        stored.setBytes(counters.bytes());
+        stored.setLastSeen();
+        if (stored.state() == FlowEntryState.PENDING_ADD) {
+            stored.setState(FlowEntryState.ADDED);
+            type = Type.RULE_ADDED;
+            flowTable.update(stored);
+        } else {
+            // counters alone are not worth a backup
+            flowTable.refresh(stored);
+        }
+        // listeners keep hold of event subjects, so hand out a snapshot of the entry
+        return new FlowRuleEvent(type, new DefaultFlowEntry(stored, stored.state(),
+                                                            stored.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS,
+                                                            stored.liveType(), stored.packets(), stored.bytes()));
+    }
+
     @Override
     public FlowRuleEvent removeFlowRule(FlowEntry rule) {
         final DeviceId deviceId = rule.deviceId();
@@ -667,12 +727,13 @@ public class ECFlowRuleStore
 
     private class InternalFlowTable implements ReplicaInfoEventListener {
 
-        //TODO replace the Map<V,V> with ExtendedSet
-        private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                flowEntries = Maps.newConcurrentMap();
+        private final Map<DeviceId, FlowEntryTable> flowEntries = Maps.newConcurrentMap();
 
-        private final Map<BackupOperation, Long> lastBackupTimes = Maps.newConcurrentMap();
-        private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
+        // flow table versions acknowledged by backup nodes, for devices mastered locally
+        private final Map<BackupOperation, Long> backedUpVersions = Maps.newConcurrentMap();
+        private final Map<DeviceId, FlowTableJournal> journals = Maps.newConcurrentMap();
+        // flow table versions received from masters, for devices backed up locally
+        private final Map<DeviceId, BackupVersion> receivedVersions = Maps.newConcurrentMap();
 
         @Override
         public void event(ReplicaInfoEvent event) {
@@ -681,50 +742,53 @@ public class ECFlowRuleStore
 
         private void handleEvent(ReplicaInfoEvent event) {
             DeviceId deviceId = event.subject();
+            if (event.type() == MASTER_CHANGED) {
+                // versions acknowledged under a previous mastership can no longer be trusted
+                backedUpVersions.keySet().removeIf(op -> op.deviceId.equals(deviceId));
+            }
             if (!mastershipService.isLocalMaster(deviceId)) {
                 return;
             }
+            receivedVersions.remove(deviceId);
             if (event.type() == MASTER_CHANGED) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
+                // backup nodes are brought up to date by a full backup, so start afresh
+                journals.put(deviceId, new FlowTableJournal(deviceId));
+            } else {
+                getJournal(deviceId);
             }
             backupSenderExecutor.schedule(this::backup, 0, TimeUnit.SECONDS);
         }
 
-        private void sendBackups(NodeId nodeId, Set<DeviceId> deviceIds) {
-            // split up the devices into smaller batches and send them separately.
-            Iterables.partition(deviceIds, FLOW_TABLE_BACKUP_BATCH_SIZE)
-                     .forEach(ids -> backupFlowEntries(nodeId, Sets.newHashSet(ids)));
-        }
-
-        private void backupFlowEntries(NodeId nodeId, Set<DeviceId> deviceIds) {
-            if (deviceIds.isEmpty()) {
-                return;
-            }
-            log.debug("Sending flowEntries for devices {} to {} for backup.", deviceIds, nodeId);
-            Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                    deviceFlowEntries = Maps.newConcurrentMap();
-            deviceIds.forEach(id -> deviceFlowEntries.put(id, getFlowTableCopy(id)));
-            clusterCommunicator.<Map<DeviceId,
-                                 Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>,
-                                 Set<DeviceId>>
-                    sendAndReceive(deviceFlowEntries,
-                                   FLOW_TABLE_BACKUP,
-                                   serializer::encode,
-                                   serializer::decode,
-                                   nodeId)
-                    .whenComplete((backedupDevices, error) -> {
-                        Set<DeviceId> devicesNotBackedup = error != null ?
-                            deviceFlowEntries.keySet() :
-                            Sets.difference(deviceFlowEntries.keySet(), backedupDevices);
-                        if (devicesNotBackedup.size() > 0) {
-                            log.warn("Failed to backup devices: {}. Reason: {}, Node: {}",
-                                     devicesNotBackedup, error != null ? error.getMessage() : "none",
-                                     nodeId);
-                        }
-                        if (backedupDevices != null) {
-                            backedupDevices.forEach(id -> {
-                                lastBackupTimes.put(new BackupOperation(nodeId, id), System.currentTimeMillis());
-                            });
+        private FlowTableJournal getJournal(DeviceId deviceId) {
+            return journals.computeIfAbsent(deviceId, FlowTableJournal::new);
+        }
+
+        private void backupFlowTable(NodeId nodeId, DeviceId deviceId, FlowTableJournal journal, long baseVersion) {
+            FlowTableBackup backup = journal.backup(local, baseVersion, () -> Iterables.transform(
+                    getFlowTable(deviceId).getAll(), StoredFlowEntry.class::cast));
+            log.debug("Sending {} to {} for backup.", backup, nodeId);
+            clusterCommunicator.<FlowTableBackup, Long>sendAndReceive(backup,
+                                                                      FLOW_TABLE_BACKUP,
+                                                                      serializer::encode,
+                                                                      serializer::decode,
+                                                                      nodeId)
+                    .whenComplete((version, error) -> {
+                        BackupOperation op = new BackupOperation(nodeId, deviceId);
+                        if (error != null
+                                && Throwables.getRootCause(error) instanceof MessagingException.Backpressure) {
+                            // the same delta is sent again on the next round
+                            log.debug("Deferred backup of device: {} to node: {}", deviceId, nodeId);
+                        } else if (error != null || version == null) {
+                            log.warn("Failed to backup device: {}. Reason: {}, Node: {}",
+                                     deviceId, error != null ? error.getMessage() : "no reply", nodeId);
+                            // force a full backup on the next round
+                            backedUpVersions.remove(op);
+                        } else if (version == FlowTableBackup.NO_VERSION) {
+                            // expected while the backup node catches up with a mastership change
+                            log.debug("Version mismatch backing up device: {} to node: {}", deviceId, nodeId);
+                            backedUpVersions.remove(op);
+                        } else {
+                            backedUpVersions.put(op, version);
                         }
                     });
         }
@@ -733,39 +797,15 @@ public class ECFlowRuleStore
          * Returns the flow table for specified device.
          *
          * @param deviceId identifier of the device
-         * @return Map representing Flow Table of given device.
+         * @return Flow Table of given device.
          */
-        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTable(DeviceId deviceId) {
-            if (persistenceEnabled) {
-                return flowEntries.computeIfAbsent(deviceId, id -> persistenceService
-                        .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
-                        .withName("FlowTable:" + deviceId.toString())
-                        .withSerializer(new Serializer() {
-                            @Override
-                            public <T> byte[] encode(T object) {
-                                return serializer.encode(object);
-                            }
-
-                            @Override
-                            public <T> T decode(byte[] bytes) {
-                                return serializer.decode(bytes);
-                            }
-
-                            @Override
-                            public <T> T copy(T object) {
-                                return serializer.copy(object);
-                            }
-                        })
-                        .build());
-            } else {
-                return flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap());
-            }
+        private FlowEntryTable getFlowTable(DeviceId deviceId) {
+            return flowEntries.computeIfAbsent(deviceId, this::createFlowTable);
         }
 
-        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTableCopy(DeviceId deviceId) {
-            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> copy = Maps.newHashMap();
+        private FlowEntryTable createFlowTable(DeviceId deviceId) {
             if (persistenceEnabled) {
-                return flowEntries.computeIfAbsent(deviceId, id -> persistenceService
+                return new MapBackedFlowEntryTable(persistenceService
                         .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
                         .withName("FlowTable:" + deviceId.toString())
                         .withSerializer(new Serializer() {
@@ -785,83 +825,82 @@ public class ECFlowRuleStore
                             }
                         })
                         .build());
+            } else if (offHeapEnabled) {
+                return new OffHeapFlowEntryTable(serializer);
             } else {
-                flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap()).forEach((k, v) -> {
-                    copy.put(k, Maps.newHashMap(v));
-                });
-                return copy;
+                return new CompactFlowEntryTable();
             }
         }
 
-        private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntriesInternal(DeviceId deviceId, FlowId flowId) {
-            return getFlowTable(deviceId).computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
+        /**
+         * Moves the flow tables of all devices into tables of the currently
+         * configured kind.
+         */
+        private void reallocateFlowTables() {
+            flowEntries.replaceAll((deviceId, table) -> {
+                FlowEntryTable reallocated = createFlowTable(deviceId);
+                if (reallocated.getClass() == table.getClass()) {
+                    return table;
+                }
+                table.getAll().forEach(entry -> reallocated.add((StoredFlowEntry) entry));
+                table.clear();
+                return reallocated;
+            });
         }
 
-        private StoredFlowEntry getFlowEntryInternal(FlowRule rule) {
-            return getFlowEntriesInternal(rule.deviceId(), rule.id()).get(rule);
+        public StoredFlowEntry getFlowEntry(FlowRule rule) {
+            return getFlowTable(rule.deviceId()).get(rule);
         }
 
-        private Set<FlowEntry> getFlowEntriesInternal(DeviceId deviceId) {
-            return getFlowTable(deviceId).values().stream()
-                        .flatMap(m -> m.values().stream())
-                        .collect(Collectors.toSet());
+        public Set<FlowEntry> getFlowEntries(DeviceId deviceId) {
+            return getFlowTable(deviceId).getAll();
         }
 
-        public StoredFlowEntry getFlowEntry(FlowRule rule) {
-            return getFlowEntryInternal(rule);
+        public void add(FlowEntry rule) {
+            getFlowTable(rule.deviceId()).add((StoredFlowEntry) rule);
+            getJournal(rule.deviceId()).recordUpdate((StoredFlowEntry) rule);
         }
 
-        public Set<FlowEntry> getFlowEntries(DeviceId deviceId) {
-            return getFlowEntriesInternal(deviceId);
+        public void update(StoredFlowEntry rule) {
+            getFlowTable(rule.deviceId()).update(rule);
+            getJournal(rule.deviceId()).recordUpdate(rule);
         }
 
-        public void add(FlowEntry rule) {
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                    .compute((StoredFlowEntry) rule, (k, stored) -> {
-                        //TODO compare stored and rule timestamps
-                        //TODO the key is not updated
-                        return (StoredFlowEntry) rule;
-                    });
-            lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
+        public void refresh(StoredFlowEntry rule) {
+            getFlowTable(rule.deviceId()).update(rule);
         }
 
         public FlowEntry remove(DeviceId deviceId, FlowEntry rule) {
-            final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
-            final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowTable = getFlowTable(deviceId);
-            flowTable.computeIfPresent(rule.id(), (flowId, flowEntries) -> {
-                flowEntries.computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
-                    if (rule instanceof DefaultFlowEntry) {
-                        DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
-                        if (stored instanceof DefaultFlowEntry) {
-                            DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
-                            if (toRemove.created() < storedEntry.created()) {
-                                log.debug("Trying to remove more recent flow entry {} (stored: {})",
-                                    toRemove, stored);
-                                // the key is not updated, removedRule remains null
-                                return stored;
-                            }
-                        }
+            final StoredFlowEntry removedRule = getFlowTable(deviceId).remove(rule, stored -> {
+                if (rule instanceof DefaultFlowEntry && stored instanceof DefaultFlowEntry) {
+                    DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
+                    if (toRemove.created() < ((DefaultFlowEntry) stored).created()) {
+                        log.debug("Trying to remove more recent flow entry {} (stored: {})",
+                                  toRemove, stored);
+                        return false;
                     }
-                    removedRule.set(stored);
-                    return null;
-                });
-                return flowEntries.isEmpty() ? null : flowEntries;
+                }
+                return true;
             });
 
-            if (removedRule.get() != null) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
-                return removedRule.get();
-            } else {
-                return null;
+            if (removedRule != null) {
+                getJournal(deviceId).recordRemoval(removedRule);
             }
+            return removedRule;
         }
 
         public void purgeFlowRule(DeviceId deviceId) {
             flowEntries.remove(deviceId);
+            journals.remove(deviceId);
+            receivedVersions.remove(deviceId);
+            backedUpVersions.keySet().removeIf(op -> op.deviceId.equals(deviceId));
         }
 
         public void purgeFlowRules() {
             flowEntries.clear();
+            journals.clear();
+            receivedVersions.clear();
+            backedUpVersions.clear();
         }
 
         private List<NodeId> getBackupNodes(DeviceId deviceId) {
@@ -873,44 +912,73 @@ public class ECFlowRuleStore
 
         private void backup() {
             try {
-                // compute a mapping from node to the set of devices whose flow entries it should backup
-                Map<NodeId, Set<DeviceId>> devicesToBackupByNode = Maps.newHashMap();
                 flowEntries.keySet().forEach(deviceId -> {
-                    List<NodeId> backupNodes = getBackupNodes(deviceId);
-                    backupNodes.forEach(backupNode -> {
-                            if (lastBackupTimes.getOrDefault(new BackupOperation(backupNode, deviceId), 0L)
-                                    < lastUpdateTimes.getOrDefault(deviceId, 0L)) {
-                                devicesToBackupByNode.computeIfAbsent(backupNode,
-                                                                      nodeId -> Sets.newHashSet()).add(deviceId);
-                            }
-                    });
+                    if (!mastershipService.isLocalMaster(deviceId)) {
+                        journals.remove(deviceId);
+                        return;
+                    }
+                    FlowTableJournal journal = getJournal(deviceId);
+                    long version = journal.version();
+                    long acknowledged = version;
+                    // send each backup node the changes it has not acknowledged yet
+                    for (NodeId backupNode : getBackupNodes(deviceId)) {
+                        long backedUp = backedUpVersions.getOrDefault(
+                                new BackupOperation(backupNode, deviceId), FlowTableBackup.NO_VERSION);
+                        if (backedUp != version) {
+                            backupFlowTable(backupNode, deviceId, journal, backedUp);
+                        }
+                        acknowledged = Math.min(acknowledged, backedUp);
+                    }
+                    journal.trim(acknowledged);
+                    // once the journal covers much of the table, a full backup is about as cheap as a delta
+                    if (journal.size() > getFlowTable(deviceId).size() * FULL_BACKUP_RATIO) {
+                        journal.trim(version);
+                    }
                 });
-                // send the device flow entries to their respective backup nodes
-                devicesToBackupByNode.forEach(this::sendBackups);
             } catch (Exception e) {
                 log.error("Backup failed.", e);
             }
         }
 
-        private Set<DeviceId> onBackupReceipt(Map<DeviceId,
-                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> flowTables) {
-            log.debug("Received flowEntries for {} to backup", flowTables.keySet());
-            Set<DeviceId> backedupDevices = Sets.newHashSet();
+        private Long onBackupReceipt(FlowTableBackup backup) {
+            log.debug("Received {} to backup", backup);
+            DeviceId deviceId = backup.deviceId();
+            // Only process those devices are that not managed by the local node.
+            if (Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
+                return FlowTableBackup.NO_VERSION;
+            }
             try {
-                flowTables.forEach((deviceId, deviceFlowTable) -> {
-                    // Only process those devices are that not managed by the local node.
-                    if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable =
-                                getFlowTable(deviceId);
-                        backupFlowTable.clear();
-                        backupFlowTable.putAll(deviceFlowTable);
-                        backedupDevices.add(deviceId);
+                BackupVersion received = receivedVersions.compute(deviceId, (id, current) -> {
+                    FlowEntryTable table = getFlowTable(deviceId);
+                    if (backup.isFull()) {
+                        table.clear();
+                        backup.updates().forEach(table::add);
+                    } else if (current != null && current.master.equals(backup.master())
+                            && current.version == backup.baseVersion()) {
+                        backup.updates().forEach(table::add);
+                        backup.removals().forEach(entry -> table.remove(entry, stored -> true));
+                    } else {
+                        // version mismatch; the master will follow up with a full backup
+                        return current;
                     }
+                    return new BackupVersion(backup.master(), backup.version());
                 });
+                return received != null && received.master.equals(backup.master())
+                        ? received.version : FlowTableBackup.NO_VERSION;
             } catch (Exception e) {
                 log.warn("Failure processing backup request", e);
+                return FlowTableBackup.NO_VERSION;
             }
-            return backedupDevices;
+        }
+    }
+
+    private static final class BackupVersion {
+        private final NodeId master;
+        private final long version;
+
+        private BackupVersion(NodeId master, long version) {
+            this.master = master;
+            this.version = version;
         }
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+/**
+ * Flow table of a single device, as held by the flow rule store.
+ * <p>
+ * Entries are grouped by flow identifier; several entries that are not
+ * equal to each other may share the same identifier. Implementations
+ * that do not hold on to the stored entry instances must be notified of
+ * in-place modifications via {@link #update(StoredFlowEntry)}.
+ */
+interface FlowEntryTable {
+
+    /**
+     * Returns the stored entry equal to the given rule.
+     *
+     * @param rule flow rule to look up
+     * @return stored flow entry or null if none
+     */
+    StoredFlowEntry get(FlowRule rule);
+
+    /**
+     * Returns a snapshot of all entries in the table.
+     *
+     * @return set of flow entries
+     */
+    Set<FlowEntry> getAll();
+
+    /**
+     * Adds the given entry, replacing any stored entry equal to it.
+     *
+     * @param entry flow entry to add
+     */
+    void add(StoredFlowEntry entry);
+
+    /**
+     * Writes back an entry that has been modified in place, if it is
+     * still present in the table.
+     *
+     * @param entry modified flow entry
+     */
+    void update(StoredFlowEntry entry);
+
+    /**
+     * Removes the stored entry equal to the given rule if it satisfies
+     * the given condition.
+     *
+     * @param rule      flow rule to remove
+     * @param condition predicate the stored entry must satisfy to be removed
+     * @return removed entry or null if nothing was removed
+     */
+    StoredFlowEntry remove(FlowRule rule, Predicate<? super StoredFlowEntry> condition);
+
+    /**
+     * Returns the number of entries in the table.
+     *
+     * @return number of flow entries
+     */
+    int size();
+
+    /**
+     * Removes all entries from the table.
+     */
+    void clear();
+}
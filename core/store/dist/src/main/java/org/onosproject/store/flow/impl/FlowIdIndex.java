@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing index from primitive flow identifiers to dense slot numbers.
+ * <p>
+ * Keys are kept in a {@code long[]} and values in an {@code int[]}, so the
+ * index itself allocates no per-entry objects. Linear probing with
+ * backward-shift deletion is used, which keeps lookups tombstone-free.
+ * Not thread-safe; callers are expected to provide synchronization.
+ */
+final class FlowIdIndex {
+
+    private static final int FREE = -1;
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    /**
+     * Creates an empty index.
+     */
+    FlowIdIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, FREE);
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slotOf(long key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    /**
+     * Returns the value bound to the given key.
+     *
+     * @param key flow identifier
+     * @return bound value or -1 if the key is not present
+     */
+    int get(long key) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values[slot] : FREE;
+    }
+
+    /**
+     * Binds the given key to the given value, replacing any previous binding.
+     *
+     * @param key   flow identifier
+     * @param value non-negative value to bind
+     */
+    void put(long key, int value) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        slot = -slot - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Removes the binding for the given key.
+     *
+     * @param key flow identifier
+     * @return previously bound value or -1 if the key was not present
+     */
+    int remove(long key) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return FREE;
+        }
+        int removed = values[slot];
+        size--;
+        // shift back subsequent entries of the probe chain into the hole
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != FREE) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = FREE;
+        return removed;
+    }
+
+    /**
+     * Returns the number of bound keys.
+     *
+     * @return number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all bindings and releases the backing arrays.
+     */
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != FREE) {
+                int slot = -slotOf(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
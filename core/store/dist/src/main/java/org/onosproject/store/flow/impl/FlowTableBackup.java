@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.ImmutableList;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Flow table backup sent by the master of a device to its backup nodes.
+ * <p>
+ * A full backup carries every entry of the device's flow table; a delta
+ * backup carries only the entries updated and removed since the base
+ * version, and may only be applied by a backup node that holds exactly
+ * that version from the same master.
+ */
+public final class FlowTableBackup {
+
+    /**
+     * Version denoting the absence of a backup.
+     */
+    public static final long NO_VERSION = -1L;
+
+    private final NodeId master;
+    private final DeviceId deviceId;
+    private final boolean full;
+    private final long baseVersion;
+    private final long version;
+    private final List<StoredFlowEntry> updates;
+    private final List<StoredFlowEntry> removals;
+
+    private FlowTableBackup(NodeId master, DeviceId deviceId, boolean full, long baseVersion, long version,
+                            Collection<StoredFlowEntry> updates, Collection<StoredFlowEntry> removals) {
+        this.master = master;
+        this.deviceId = deviceId;
+        this.full = full;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.updates = ImmutableList.copyOf(updates);
+        this.removals = ImmutableList.copyOf(removals);
+    }
+
+    /**
+     * Creates a full backup of a device's flow table.
+     *
+     * @param master   node sending the backup
+     * @param deviceId device identifier
+     * @param version  flow table version
+     * @param entries  all entries of the flow table
+     * @return full backup
+     */
+    public static FlowTableBackup full(NodeId master, DeviceId deviceId, long version,
+                                       Collection<StoredFlowEntry> entries) {
+        return new FlowTableBackup(master, deviceId, true, NO_VERSION, version,
+                                   entries, ImmutableList.of());
+    }
+
+    /**
+     * Creates a delta backup of a device's flow table.
+     *
+     * @param master      node sending the backup
+     * @param deviceId    device identifier
+     * @param baseVersion version the delta applies to
+     * @param version     flow table version after applying the delta
+     * @param updates     entries added or modified since the base version
+     * @param removals    entries removed since the base version
+     * @return delta backup
+     */
+    public static FlowTableBackup delta(NodeId master, DeviceId deviceId, long baseVersion, long version,
+                                        Collection<StoredFlowEntry> updates,
+                                        Collection<StoredFlowEntry> removals) {
+        return new FlowTableBackup(master, deviceId, false, baseVersion, version, updates, removals);
+    }
+
+    /**
+     * Returns the node that sent the backup.
+     *
+     * @return master node identifier
+     */
+    public NodeId master() {
+        return master;
+    }
+
+    /**
+     * Returns the device whose flow table is backed up.
+     *
+     * @return device identifier
+     */
+    public DeviceId deviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Returns whether this is a full backup.
+     *
+     * @return true for a full backup, false for a delta
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the version a delta backup applies to.
+     *
+     * @return base version, or {@link #NO_VERSION} for a full backup
+     */
+    public long baseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Returns the flow table version after applying this backup.
+     *
+     * @return flow table version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returns the added or modified entries.
+     *
+     * @return flow entries
+     */
+    public List<StoredFlowEntry> updates() {
+        return updates;
+    }
+
+    /**
+     * Returns the removed entries.
+     *
+     * @return flow entries
+     */
+    public List<StoredFlowEntry> removals() {
+        return removals;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("master", master)
+                .add("deviceId", deviceId)
+                .add("full", full)
+                .add("baseVersion", baseVersion)
+                .add("version", version)
+                .add("updates", updates.size())
+                .add("removals", removals.size())
+                .toString();
+    }
+}
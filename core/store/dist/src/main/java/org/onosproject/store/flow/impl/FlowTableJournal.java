@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Versioned log of the changes applied to a device's flow table, used to
+ * build delta backups.
+ * <p>
+ * Every change bumps the table version and remembers the latest state of
+ * the affected entry. Changes that all backup nodes have acknowledged are
+ * trimmed; deltas can be produced for any base version that is not older
+ * than the oldest retained change.
+ */
+final class FlowTableJournal {
+
+    private final DeviceId deviceId;
+    private final Map<FlowRule, Change> changes = Maps.newHashMap();
+    private long version;
+    private long floor;
+
+    /**
+     * Creates an empty journal.
+     *
+     * @param deviceId device whose flow table is journaled
+     */
+    FlowTableJournal(DeviceId deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    /**
+     * Returns the current flow table version.
+     *
+     * @return flow table version
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Records the addition or modification of an entry.
+     *
+     * @param entry updated flow entry
+     */
+    synchronized void recordUpdate(StoredFlowEntry entry) {
+        changes.put(entry, new Change(entry, ++version, false));
+    }
+
+    /**
+     * Records the removal of an entry.
+     *
+     * @param entry removed flow entry
+     */
+    synchronized void recordRemoval(StoredFlowEntry entry) {
+        changes.remove(entry);
+        changes.put(entry, new Change(entry, ++version, true));
+    }
+
+    /**
+     * Returns the number of retained changes.
+     *
+     * @return number of changes
+     */
+    synchronized int size() {
+        return changes.size();
+    }
+
+    /**
+     * Discards the changes up to and including the given version.
+     *
+     * @param acknowledged version acknowledged by all backup nodes
+     */
+    synchronized void trim(long acknowledged) {
+        long limit = Math.min(acknowledged, version);
+        if (limit <= floor) {
+            return;
+        }
+        changes.values().removeIf(change -> change.version <= limit);
+        floor = limit;
+    }
+
+    /**
+     * Builds a backup that brings a node holding the given version up to
+     * date, falling back to a full backup when the required changes have
+     * already been trimmed.
+     *
+     * @param master      local node identifier
+     * @param baseVersion version held by the backup node
+     * @param entries     supplier of all entries, used for full backups
+     * @return flow table backup
+     */
+    synchronized FlowTableBackup backup(NodeId master, long baseVersion,
+                                        Supplier<? extends Iterable<StoredFlowEntry>> entries) {
+        if (baseVersion < floor || baseVersion > version) {
+            return FlowTableBackup.full(master, deviceId, version, Lists.newArrayList(entries.get()));
+        }
+        List<StoredFlowEntry> updates = Lists.newArrayList();
+        List<StoredFlowEntry> removals = Lists.newArrayList();
+        changes.values().forEach(change -> {
+            if (change.version > baseVersion) {
+                (change.removed ? removals : updates).add(change.entry);
+            }
+        });
+        return FlowTableBackup.delta(master, deviceId, baseVersion, version, updates, removals);
+    }
+
+    private static final class Change {
+        private final StoredFlowEntry entry;
+        private final long version;
+        private final boolean removed;
+
+        private Change(StoredFlowEntry entry, long version, boolean removed) {
+            this.entry = entry;
+            this.version = version;
+            this.removed = removed;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import com.google.common.collect.Maps;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Flow table backed by a map of flow identifier to entries, such as a
+ * persistent map provided by the persistence service.
+ */
+final class MapBackedFlowEntryTable implements FlowEntryTable {
+
+    private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowEntries;
+
+    /**
+     * Creates a flow table on top of the given map.
+     *
+     * @param flowEntries backing map
+     */
+    MapBackedFlowEntryTable(Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowEntries) {
+        this.flowEntries = checkNotNull(flowEntries);
+    }
+
+    @Override
+    public StoredFlowEntry get(FlowRule rule) {
+        Map<StoredFlowEntry, StoredFlowEntry> entries = flowEntries.get(rule.id());
+        return entries != null ? entries.get(rule) : null;
+    }
+
+    @Override
+    public Set<FlowEntry> getAll() {
+        return flowEntries.values().stream()
+                .flatMap(m -> m.values().stream())
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void add(StoredFlowEntry entry) {
+        flowEntries.compute(entry.id(), (id, entries) -> {
+            Map<StoredFlowEntry, StoredFlowEntry> updated =
+                    entries != null ? entries : Maps.newConcurrentMap();
+            updated.remove(entry);
+            updated.put(entry, entry);
+            return updated;
+        });
+    }
+
+    @Override
+    public void update(StoredFlowEntry entry) {
+        flowEntries.computeIfPresent(entry.id(), (id, entries) -> {
+            entries.replace(entry, entry);
+            return entries;
+        });
+    }
+
+    @Override
+    public StoredFlowEntry remove(FlowRule rule, Predicate<? super StoredFlowEntry> condition) {
+        final AtomicReference<StoredFlowEntry> removed = new AtomicReference<>();
+        flowEntries.computeIfPresent(rule.id(), (id, entries) -> {
+            StoredFlowEntry stored = entries.get(rule);
+            if (stored != null && condition.test(stored)) {
+                entries.remove(rule);
+                removed.set(stored);
+            }
+            return entries.isEmpty() ? null : entries;
+        });
+        return removed.get();
+    }
+
+    @Override
+    public int size() {
+        return flowEntries.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void clear() {
+        flowEntries.clear();
+    }
+}
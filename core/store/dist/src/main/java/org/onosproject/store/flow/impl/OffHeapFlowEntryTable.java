@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.service.Serializer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Flow table that keeps its entries serialized in a direct memory arena.
+ * <p>
+ * All entries sharing a flow identifier are encoded together into one
+ * region of the arena; the on-heap footprint is limited to the primitive
+ * {@link FlowIdIndex} and one packed {@code long} location per identifier.
+ * Lookups return freshly decoded entries, so in-place modifications must be
+ * written back through {@link #update(StoredFlowEntry)}. Space released by
+ * removals and updates is reclaimed by compacting the arena when it fills up.
+ */
+final class OffHeapFlowEntryTable implements FlowEntryTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_SIZE = 64 * 1024;
+
+    private final Serializer serializer;
+    private final FlowIdIndex index = new FlowIdIndex();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] locations = new long[INITIAL_CAPACITY];
+    private int slotCount;
+    private int entryCount;
+
+    private ByteBuffer arena;
+
+    /**
+     * Creates an empty off-heap flow table.
+     *
+     * @param serializer serializer used to encode the flow entries
+     */
+    OffHeapFlowEntryTable(Serializer serializer) {
+        this.serializer = checkNotNull(serializer);
+        this.arena = ByteBuffer.allocateDirect(INITIAL_ARENA_SIZE);
+    }
+
+    @Override
+    public synchronized StoredFlowEntry get(FlowRule rule) {
+        int slot = index.get(rule.id().value());
+        if (slot < 0) {
+            return null;
+        }
+        List<StoredFlowEntry> entries = read(slot);
+        int i = entries.indexOf(rule);
+        return i >= 0 ? entries.get(i) : null;
+    }
+
+    @Override
+    public synchronized Set<FlowEntry> getAll() {
+        Set<FlowEntry> entries = Sets.newHashSetWithExpectedSize(entryCount);
+        for (int i = 0; i < slotCount; i++) {
+            entries.addAll(read(i));
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized void add(StoredFlowEntry entry) {
+        long id = entry.id().value();
+        int slot = index.get(id);
+        if (slot < 0) {
+            if (slotCount == locations.length) {
+                ids = Arrays.copyOf(ids, slotCount << 1);
+                locations = Arrays.copyOf(locations, slotCount << 1);
+            }
+            slot = slotCount++;
+            ids[slot] = id;
+            locations[slot] = 0L;
+            index.put(id, slot);
+            write(slot, Lists.newArrayList(entry));
+            entryCount++;
+            return;
+        }
+        List<StoredFlowEntry> entries = read(slot);
+        int i = entries.indexOf(entry);
+        if (i >= 0) {
+            entries.set(i, entry);
+        } else {
+            entries.add(entry);
+            entryCount++;
+        }
+        write(slot, entries);
+    }
+
+    @Override
+    public synchronized void update(StoredFlowEntry entry) {
+        int slot = index.get(entry.id().value());
+        if (slot < 0) {
+            return;
+        }
+        List<StoredFlowEntry> entries = read(slot);
+        int i = entries.indexOf(entry);
+        if (i >= 0) {
+            entries.set(i, entry);
+            write(slot, entries);
+        }
+    }
+
+    @Override
+    public synchronized StoredFlowEntry remove(FlowRule rule, Predicate<? super StoredFlowEntry> condition) {
+        long id = rule.id().value();
+        int slot = index.get(id);
+        if (slot < 0) {
+            return null;
+        }
+        List<StoredFlowEntry> entries = read(slot);
+        int i = entries.indexOf(rule);
+        if (i < 0 || !condition.test(entries.get(i))) {
+            return null;
+        }
+        StoredFlowEntry removed = entries.remove(i);
+        entryCount--;
+        if (!entries.isEmpty()) {
+            write(slot, entries);
+            return removed;
+        }
+        index.remove(id);
+        int last = --slotCount;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            locations[slot] = locations[last];
+            index.put(ids[slot], slot);
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized int size() {
+        return entryCount;
+    }
+
+    @Override
+    public synchronized void clear() {
+        index.clear();
+        ids = new long[INITIAL_CAPACITY];
+        locations = new long[INITIAL_CAPACITY];
+        slotCount = 0;
+        entryCount = 0;
+        arena = ByteBuffer.allocateDirect(INITIAL_ARENA_SIZE);
+    }
+
+    /**
+     * Returns the number of arena bytes currently in use, including space
+     * not yet reclaimed by compaction.
+     *
+     * @return number of bytes
+     */
+    synchronized int arenaBytes() {
+        return arena.position();
+    }
+
+    private static long location(int offset, int length) {
+        return ((long) offset << 32) | (length & 0xFFFFFFFFL);
+    }
+
+    private static int offset(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int length(long location) {
+        return (int) location;
+    }
+
+    private List<StoredFlowEntry> read(int slot) {
+        long location = locations[slot];
+        byte[] bytes = new byte[length(location)];
+        ByteBuffer view = arena.duplicate();
+        view.position(offset(location));
+        view.get(bytes);
+        return serializer.decode(bytes);
+    }
+
+    private void write(int slot, List<StoredFlowEntry> entries) {
+        byte[] bytes = serializer.encode(entries instanceof ArrayList ? entries : Lists.newArrayList(entries));
+        if (arena.remaining() < bytes.length) {
+            reallocate(bytes.length);
+        }
+        locations[slot] = location(arena.position(), bytes.length);
+        arena.put(bytes);
+    }
+
+    private void reallocate(int required) {
+        // copy the live regions into a fresh arena, growing it so that it is at most half full
+        int live = 0;
+        for (int i = 0; i < slotCount; i++) {
+            live += length(locations[i]);
+        }
+        int capacity = arena.capacity();
+        while (live + required > capacity / 2) {
+            capacity <<= 1;
+        }
+        ByteBuffer compacted = ByteBuffer.allocateDirect(capacity);
+        for (int i = 0; i < slotCount; i++) {
+            long location = locations[i];
+            ByteBuffer region = arena.duplicate();
+            region.position(offset(location));
+            region.limit(offset(location) + length(location));
+            locations[i] = location(compacted.position(), length(location));
+            compacted.put(region);
+        }
+        arena = compacted;
+    }
+}
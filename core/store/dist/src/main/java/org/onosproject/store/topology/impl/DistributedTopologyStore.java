@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.topology.impl;
 
+import com.google.common.base.Function;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -72,6 +73,8 @@ import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
+import static org.onlab.util.Tools.isPropertyEnabled;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.net.topology.TopologyEvent.Type.TOPOLOGY_CHANGED;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -91,7 +94,8 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT = "Settings: linkWeightFunction={}, " +
+            "pathCacheSize={}, shortestPathTrees={}";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -99,6 +103,9 @@ public class DistributedTopologyStore
                                                             Collections.emptyList(),
                                                             Collections.emptyList()));
 
+    // Shared by all topologies, so that they can tell they use the same one
+    private final Function<ConnectPoint, Boolean> broadcastFunction = this::isBroadcastPoint;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
@@ -123,6 +130,16 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    private static final int DEFAULT_PATH_CACHE_SIZE = 10_000;
+    @Property(name = "pathCacheSize", intValue = DEFAULT_PATH_CACHE_SIZE,
+            label = "Maximum number of path sets cached per topology; 0 disables caching")
+    private int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+
+    private static final boolean DEFAULT_SHORTEST_PATH_TREES = false;
+    @Property(name = "shortestPathTrees", boolValue = DEFAULT_SHORTEST_PATH_TREES,
+            label = "Compute and retain whole shortest-path trees per source device")
+    private boolean shortestPathTrees = DEFAULT_SHORTEST_PATH_TREES;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -169,7 +186,20 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeigher(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        int newPathCacheSize = getIntegerProperty(properties, "pathCacheSize", pathCacheSize);
+        if (newPathCacheSize >= 0 && newPathCacheSize != pathCacheSize) {
+            pathCacheSize = newPathCacheSize;
+            DefaultTopology.setPathCacheSize(pathCacheSize);
+        }
+
+        boolean newShortestPathTrees =
+                isPropertyEnabled(properties, "shortestPathTrees", shortestPathTrees);
+        if (newShortestPathTrees != shortestPathTrees) {
+            shortestPathTrees = newShortestPathTrees;
+            DefaultTopology.setShortestPathTrees(shortestPathTrees);
+        }
+        log.info(FORMAT, linkWeightFunction, pathCacheSize, shortestPathTrees);
     }
 
     @Override
@@ -290,9 +320,10 @@ public class DistributedTopologyStore
     public TopologyEvent updateTopology(ProviderId providerId,
                                         GraphDescription graphDescription,
                                         List<Event> reasons) {
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // deriving what it can from the current topology.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, broadcastFunction, current);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
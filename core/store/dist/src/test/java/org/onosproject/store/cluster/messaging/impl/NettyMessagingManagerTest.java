@@ -32,9 +32,15 @@ import org.onosproject.core.HybridLogicalClockService;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.cluster.messaging.Endpoint;
+import org.onosproject.store.cluster.messaging.MessagePriority;
+import org.onosproject.store.cluster.messaging.MessagingException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -49,6 +55,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -137,6 +144,98 @@ public class NettyMessagingManagerTest {
         Uninterruptibles.awaitUninterruptibly(latch2);
     }
 
+    @Test
+    public void testBufferHandler() {
+        String subject = nextSubject();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> received = new AtomicReference<>();
+        netty2.registerBufferHandler(subject, (ep, buffer) -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            received.set(new String(bytes, StandardCharsets.UTF_8));
+            latch.countDown();
+        }, MoreExecutors.directExecutor());
+
+        netty1.sendAsync(ep2, subject, "hello world".getBytes(StandardCharsets.UTF_8)).join();
+        Uninterruptibles.awaitUninterruptibly(latch);
+        assertEquals("hello world", received.get());
+    }
+
+    @Test
+    public void testSendAsyncStreamed() {
+        String subject = nextSubject();
+        byte[] payload = new byte[100000];
+        new Random(0).nextBytes(payload);
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        netty2.registerHandler(subject, (ep, data) -> {
+            received.set(data);
+            latch.countDown();
+        }, MoreExecutors.directExecutor());
+
+        netty1.sendAsync(ep2, subject, out -> {
+            try {
+                out.write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).join();
+        Uninterruptibles.awaitUninterruptibly(latch);
+        assertTrue(Arrays.equals(payload, received.get()));
+    }
+
+    @Test
+    public void testBackpressure() {
+        String subject = nextSubject();
+        String prioritySubject = nextSubject();
+        CompletableFuture<byte[]> reply = new CompletableFuture<>();
+        netty2.registerHandler(subject, (ep, data) -> reply);
+        netty2.registerHandler(prioritySubject, (ep, data) -> reply);
+        netty1.setPriority(prioritySubject, MessagePriority.HIGH);
+        netty1.maxOutstandingBytes = 100;
+
+        CompletableFuture<byte[]> first = netty1.sendAndReceive(ep2, subject, new byte[60]);
+        CompletableFuture<byte[]> refused = netty1.sendAndReceive(ep2, subject, new byte[60]);
+        assertTrue(refused.isCompletedExceptionally());
+        try {
+            refused.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof MessagingException.Backpressure);
+        }
+
+        // high priority messages are never refused
+        CompletableFuture<byte[]> priority = netty1.sendAndReceive(ep2, prioritySubject, new byte[60]);
+        assertFalse(priority.isCompletedExceptionally());
+
+        reply.complete("done".getBytes());
+        assertTrue(Arrays.equals("done".getBytes(), first.join()));
+        assertTrue(Arrays.equals("done".getBytes(), priority.join()));
+        assertTrue(Arrays.equals("done".getBytes(), netty1.sendAndReceive(ep2, subject, new byte[60]).join()));
+    }
+
+    @Test
+    public void testBackpressurePerPriority() {
+        String subject = nextSubject();
+        String lowSubject = nextSubject();
+        CompletableFuture<byte[]> reply = new CompletableFuture<>();
+        netty2.registerHandler(subject, (ep, data) -> reply);
+        netty2.registerHandler(lowSubject, (ep, data) -> reply);
+        netty1.setPriority(lowSubject, MessagePriority.LOW);
+        netty1.maxOutstandingBytes = 100;
+
+        CompletableFuture<byte[]> low = netty1.sendAndReceive(ep2, lowSubject, new byte[60]);
+        assertTrue(netty1.sendAndReceive(ep2, lowSubject, new byte[60]).isCompletedExceptionally());
+
+        // a backlog of low priority messages does not hold back normal ones
+        CompletableFuture<byte[]> normal = netty1.sendAndReceive(ep2, subject, new byte[60]);
+        assertFalse(normal.isCompletedExceptionally());
+
+        reply.complete("done".getBytes());
+        assertTrue(Arrays.equals("done".getBytes(), low.join()));
+        assertTrue(Arrays.equals("done".getBytes(), normal.join()));
+    }
+
     @Test
     @Ignore // FIXME disabled on 9/29/16 due to random failures
     public void testSendAndReceive() {
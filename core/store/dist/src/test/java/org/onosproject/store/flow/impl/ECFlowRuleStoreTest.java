@@ -35,6 +35,8 @@ import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntryCounters;
+import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
 import org.onosproject.net.intent.IntentTestsMocks;
@@ -44,6 +46,7 @@ import org.onosproject.store.service.TestStorageService;
 
 import org.onlab.packet.Ip4Address;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 import org.osgi.service.component.ComponentContext;
 
 import static org.easymock.EasyMock.createMock;
@@ -53,6 +56,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.did;
@@ -213,6 +217,37 @@ public class ECFlowRuleStoreTest {
         assertThat(flowStoreImpl.getTableStatistics(deviceId), notNullValue());
     }
 
+    /**
+     * Tests updating the counters of a flow entry.
+     */
+    @Test
+    public void testUpdateFlowCounters() {
+        Multimap<DeviceId, FlowRuleBatchEntry> perDeviceBatches = ArrayListMultimap.create();
+        perDeviceBatches.put(deviceId, new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, flowRule));
+        flowStoreImpl.storeBatch(new FlowRuleBatchOperation(perDeviceBatches.get(deviceId), deviceId, 1));
+        FlowEntry stored = flowStoreImpl.getFlowEntry(flowRule);
+
+        FlowRuleEvent event = flowStoreImpl.updateFlowCounters(
+                stored, new FlowEntryCounters(flowRule.id(), 5, TimeUnit.SECONDS, 10, 1000));
+        assertThat(event.type(), is(FlowRuleEvent.Type.RULE_ADDED));
+        assertThat(event.subject(), is(flowRule));
+        FlowEntry updated = flowStoreImpl.getFlowEntry(flowRule);
+        assertEquals("ADDED", updated.state().toString());
+        assertThat(updated.packets(), is(10L));
+        assertThat(updated.bytes(), is(1000L));
+        assertThat(updated.life(), is(5L));
+
+        event = flowStoreImpl.updateFlowCounters(
+                updated, new FlowEntryCounters(flowRule.id(), 10, TimeUnit.SECONDS, 10, 1000));
+        assertThat(event.type(), is(FlowRuleEvent.Type.RULE_UPDATED));
+        assertThat(((FlowEntry) event.subject()).life(), is(10L));
+        assertThat(flowStoreImpl.getFlowEntry(flowRule).life(), is(10L));
+
+        assertThat(flowStoreImpl.updateFlowCounters(
+                new DefaultFlowEntry(flowRule1), new FlowEntryCounters(flowRule1.id(), 1, TimeUnit.SECONDS, 1, 1)),
+                   nullValue());
+    }
+
     /**
      * Tests flow removal.
      */
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import com.google.common.collect.Maps;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Tests for the flow table implementations used by ECFlowRuleStore.
+ */
+public class FlowEntryTableTest {
+
+    private static final Serializer SERIALIZER = Serializer.using(KryoNamespaces.API);
+    private static final DeviceId DID = did("device1");
+
+    private static FlowRule rule(int priority, short ethType) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder().matchEthType(ethType).build())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(priority)
+                .makePermanent()
+                .fromApp(APP_ID)
+                .build();
+    }
+
+    private static FlowRule rule(int priority, short ethType, long id) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder().matchEthType(ethType).build())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(priority)
+                .makePermanent()
+                .withCookie(id)
+                .build();
+    }
+
+    private void checkBasicOperations(FlowEntryTable table) {
+        StoredFlowEntry e1 = new DefaultFlowEntry(rule(10, (short) 1));
+        StoredFlowEntry e2 = new DefaultFlowEntry(rule(20, (short) 2));
+
+        assertThat(table.size(), is(0));
+        assertThat(table.get(e1), nullValue());
+
+        table.add(e1);
+        table.add(e2);
+        assertThat(table.size(), is(2));
+        assertThat(table.get(e1), is(e1));
+        assertThat(table.getAll().size(), is(2));
+
+        // replacing an equal entry does not grow the table
+        StoredFlowEntry e1Added = new DefaultFlowEntry(e1, FlowEntryState.ADDED);
+        table.add(e1Added);
+        assertThat(table.size(), is(2));
+        assertThat(table.get(e1).state(), is(FlowEntryState.ADDED));
+
+        StoredFlowEntry stored = table.get(e2);
+        stored.setBytes(42);
+        table.update(stored);
+        assertThat(table.get(e2).bytes(), is(42L));
+
+        assertThat(table.remove(e1, e -> false), nullValue());
+        assertThat(table.remove(e1, e -> true), is(e1));
+        assertThat(table.get(e1), nullValue());
+        assertThat(table.remove(e1, e -> true), nullValue());
+        assertThat(table.size(), is(1));
+
+        table.clear();
+        assertThat(table.size(), is(0));
+        assertThat(table.getAll().isEmpty(), is(true));
+    }
+
+    private void checkSharedFlowIds(FlowEntryTable table) {
+        // distinct rules carrying the same cookie share a flow id
+        StoredFlowEntry e1 = new DefaultFlowEntry(rule(10, (short) 1, 7L));
+        StoredFlowEntry e2 = new DefaultFlowEntry(rule(10, (short) 2, 7L));
+        StoredFlowEntry e3 = new DefaultFlowEntry(rule(10, (short) 3, 7L));
+        assertThat(e1.id(), is(e2.id()));
+
+        table.add(e1);
+        table.add(e2);
+        table.add(e3);
+        assertThat(table.size(), is(3));
+        assertThat(table.get(e2), is(e2));
+
+        assertThat(table.getAll().size(), is(3));
+
+        assertThat(table.remove(e2, e -> true), is(e2));
+        assertThat(table.get(e1), is(e1));
+        assertThat(table.get(e2), nullValue());
+        assertThat(table.get(e3), is(e3));
+        assertThat(table.remove(e1, e -> true), is(e1));
+        assertThat(table.remove(e3, e -> true), is(e3));
+        assertThat(table.size(), is(0));
+    }
+
+    private void checkManyEntries(FlowEntryTable table) {
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            table.add(new DefaultFlowEntry(rule(10, (short) 1, i)));
+        }
+        assertThat(table.size(), is(count));
+        for (int i = 0; i < count; i += 2) {
+            assertThat(table.remove(rule(10, (short) 1, i), e -> true), notNullValue());
+        }
+        assertThat(table.size(), is(count / 2));
+        for (int i = 0; i < count; i++) {
+            assertThat(table.get(rule(10, (short) 1, i)) != null, is(i % 2 == 1));
+        }
+    }
+
+    /**
+     * Tests the compact on-heap flow table.
+     */
+    @Test
+    public void testCompactTable() {
+        checkBasicOperations(new CompactFlowEntryTable());
+        checkSharedFlowIds(new CompactFlowEntryTable());
+        checkManyEntries(new CompactFlowEntryTable());
+    }
+
+    /**
+     * Tests the off-heap flow table.
+     */
+    @Test
+    public void testOffHeapTable() {
+        checkBasicOperations(new OffHeapFlowEntryTable(SERIALIZER));
+        checkSharedFlowIds(new OffHeapFlowEntryTable(SERIALIZER));
+        checkManyEntries(new OffHeapFlowEntryTable(SERIALIZER));
+    }
+
+    /**
+     * Tests that the off-heap arena reclaims space released by updates.
+     */
+    @Test
+    public void testOffHeapCompaction() {
+        OffHeapFlowEntryTable table = new OffHeapFlowEntryTable(SERIALIZER);
+        StoredFlowEntry entry = new DefaultFlowEntry(rule(10, (short) 1));
+        table.add(entry);
+        for (int i = 0; i < 10000; i++) {
+            entry.setPackets(i);
+            table.update(entry);
+        }
+        assertThat(table.get(entry).packets(), is(9999L));
+        assertThat(table.arenaBytes() < 64 * 1024, is(true));
+    }
+
+    /**
+     * Tests the map backed flow table.
+     */
+    @Test
+    public void testMapBackedTable() {
+        checkBasicOperations(new MapBackedFlowEntryTable(Maps.newConcurrentMap()));
+        checkSharedFlowIds(new MapBackedFlowEntryTable(Maps.newConcurrentMap()));
+        checkManyEntries(new MapBackedFlowEntryTable(Maps.newConcurrentMap()));
+    }
+}
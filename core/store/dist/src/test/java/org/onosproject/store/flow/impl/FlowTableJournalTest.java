@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import com.google.common.collect.ImmutableList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Tests for the flow table journal used to build delta backups.
+ */
+public class FlowTableJournalTest {
+
+    private static final NodeId NODE = new NodeId("1");
+    private static final DeviceId DID = did("device1");
+
+    private static StoredFlowEntry entry(int priority) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.emptySelector())
+                .withPriority(priority)
+                .makePermanent()
+                .fromApp(APP_ID)
+                .build());
+    }
+
+    /**
+     * Tests that deltas only carry the changes made after the base version.
+     */
+    @Test
+    public void testDelta() {
+        FlowTableJournal journal = new FlowTableJournal(DID);
+        StoredFlowEntry e1 = entry(10);
+        StoredFlowEntry e2 = entry(20);
+        journal.recordUpdate(e1);
+        journal.recordUpdate(e2);
+        assertThat(journal.version(), is(2L));
+
+        journal.recordRemoval(e1);
+        FlowTableBackup backup = journal.backup(NODE, 2L, ImmutableList::of);
+        assertThat(backup.isFull(), is(false));
+        assertThat(backup.baseVersion(), is(2L));
+        assertThat(backup.version(), is(3L));
+        assertThat(backup.updates(), is(empty()));
+        assertThat(backup.removals(), contains(e1));
+
+        backup = journal.backup(NODE, 0L, ImmutableList::of);
+        assertThat(backup.isFull(), is(false));
+        assertThat(backup.updates(), contains(e2));
+        assertThat(backup.removals(), contains(e1));
+    }
+
+    /**
+     * Tests the fall back to full backups for trimmed or unknown versions.
+     */
+    @Test
+    public void testFullBackup() {
+        FlowTableJournal journal = new FlowTableJournal(DID);
+        StoredFlowEntry e1 = entry(10);
+        StoredFlowEntry e2 = entry(20);
+        List<StoredFlowEntry> all = ImmutableList.of(e1, e2);
+        journal.recordUpdate(e1);
+        journal.recordUpdate(e2);
+
+        FlowTableBackup backup = journal.backup(NODE, FlowTableBackup.NO_VERSION, () -> all);
+        assertThat(backup.isFull(), is(true));
+        assertThat(backup.updates(), is(all));
+
+        journal.trim(1L);
+        assertThat(journal.size(), is(1));
+        assertThat(journal.backup(NODE, 0L, () -> all).isFull(), is(true));
+        assertThat(journal.backup(NODE, 1L, () -> all).isFull(), is(false));
+        assertThat(journal.backup(NODE, 5L, () -> all).isFull(), is(true));
+    }
+
+    /**
+     * Tests that backups survive a serialization round trip.
+     */
+    @Test
+    public void testSerialization() {
+        Serializer serializer = Serializer.using(KryoNamespaces.API, FlowTableBackup.class);
+        FlowTableJournal journal = new FlowTableJournal(DID);
+        StoredFlowEntry e1 = entry(10);
+        journal.recordUpdate(e1);
+
+        FlowTableBackup backup = serializer.decode(serializer.encode(journal.backup(NODE, 0L, ImmutableList::of)));
+        assertThat(backup.master(), is(NODE));
+        assertThat(backup.deviceId(), is(DID));
+        assertThat(backup.version(), is(1L));
+        assertThat(backup.updates(), contains(e1));
+    }
+}
@@ -16,30 +16,29 @@
 
 package org.onosproject.persistence.impl;
 
-import org.mapdb.DB;
 import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.store.service.Serializer;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent maps stored in the mapDB local database via the persistence service.
+ * Default builder for persistent maps stored in the local log stores of the persistence service.
  */
 public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K, V> {
 
-    private final DB localDB;
+    private final Function<String, LogStore> stores;
 
     private String name = null;
 
     private Serializer serializer = null;
 
 
-    public DefaultPersistentMapBuilder(DB localDB) {
-        checkNotNull(localDB, "The local database cannot be null.");
-        this.localDB = localDB;
+    public DefaultPersistentMapBuilder(Function<String, LogStore> stores) {
+        this.stores = checkNotNull(stores, "The local stores cannot be null.");
     }
 
     public PersistentMapBuilder<K, V> withName(String name) {
@@ -58,6 +57,6 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The key serializer must be assigned.");
 
-        return new PersistentMap<K, V>(serializer, localDB, name);
+        return new PersistentMap<K, V>(serializer, stores.apply(name));
     }
 }
\ No newline at end of file
@@ -16,26 +16,27 @@
 
 package org.onosproject.persistence.impl;
 
-import org.mapdb.DB;
 import org.onosproject.persistence.PersistentSetBuilder;
 import org.onosproject.store.service.Serializer;
 
+import java.util.function.Function;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent sets stored in the mapDB local database via the persistence service..
+ * Default builder for persistent sets stored in the local log stores of the persistence service.
  */
 public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
 
-    private final DB localDB;
+    private final Function<String, LogStore> stores;
 
     private String name = null;
 
     private Serializer serializer = null;
 
-    public DefaultPersistentSetBuilder(DB localDB) {
-        this.localDB = checkNotNull(localDB, "The local database cannot be null.");
+    public DefaultPersistentSetBuilder(Function<String, LogStore> stores) {
+        this.stores = checkNotNull(stores, "The local stores cannot be null.");
     }
 
     public PersistentSetBuilder<E> withName(String name) {
@@ -54,6 +55,6 @@ public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The serializer must be assigned.");
 
-        return new PersistentSet<E>(serializer, localDB, name);
+        return new PersistentSet<E>(serializer, stores.apply(name));
     }
 }
\ No newline at end of file
@@ -0,0 +1,539 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Local store of binary keys and values kept in memory-mapped, append-only log segments.
+ * <p>
+ * Every update is appended to the current segment as a checksummed record, while an
+ * in-memory index tracks the latest record of each key. Segments are rolled once full
+ * and compacted once most of their records have been superseded, by moving their live
+ * records to the current segment and deleting them.
+ * </p>
+ * <p>
+ * Appended records are handed to the operating system right away and forced to disk when
+ * the store is {@link #flush() flushed}; flushes requested while another one is under way
+ * are grouped, so a single force of the segments covers all of them. On opening, the
+ * records of each segment are replayed in order up to the first one failing its checksum,
+ * which discards a record torn by a crash along with whatever follows it.
+ * </p>
+ */
+public class LogStore {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("\\d{10}\\" + SEGMENT_SUFFIX);
+
+    // Record header: body length and body checksum
+    private static final int HEADER_SIZE = 8;
+    // Body header: record type and key length, followed by the key and value
+    private static final int BODY_HEADER_SIZE = 5;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    // Segments are compacted once no more than this ratio of their records is live
+    private static final double COMPACTION_RATIO = 0.5;
+
+    private final Logger log = getLogger(getClass());
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<Key, Long> index = new HashMap<>();
+    private final Set<Segment> dirty = new HashSet<>();
+    private Segment head;
+    private long appended;
+    private boolean closed;
+
+    private final Object flushLock = new Object();
+    private long flushed;
+    private boolean flushing;
+
+    private volatile boolean syncWrites;
+
+    /**
+     * Opens the store kept in the given directory, recovering its previous contents.
+     *
+     * @param directory directory holding the log segments; created if missing
+     * @param segmentSize size in bytes of new log segments
+     * @throws PersistenceException if the store cannot be opened
+     */
+    public LogStore(Path directory, int segmentSize) {
+        checkArgument(segmentSize > HEADER_SIZE + BODY_HEADER_SIZE, "Segment size is too small");
+        this.directory = checkNotNull(directory);
+        this.segmentSize = segmentSize;
+        recover();
+    }
+
+    /**
+     * Sets whether writes wait for their records to be forced to disk.
+     *
+     * @param syncWrites true for writes to be synchronous
+     * @see #commit()
+     */
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Returns the number of keys held by the store.
+     *
+     * @return number of keys
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key key
+     * @return value of the key or null if the store does not hold it
+     */
+    public synchronized byte[] get(byte[] key) {
+        Long location = index.get(new Key(key));
+        return location == null ? null : readValue(segments.get(segmentId(location)), offset(location));
+    }
+
+    /**
+     * Passes all keys held by the store along with their values to the given consumer.
+     *
+     * @param consumer consumer of keys and values
+     */
+    public synchronized void forEach(BiConsumer<byte[], byte[]> consumer) {
+        index.forEach((key, location) ->
+                consumer.accept(key.bytes, readValue(segments.get(segmentId(location)), offset(location))));
+    }
+
+    /**
+     * Appends the given value of a key to the log.
+     * <p>
+     * The record is durable once the store is next flushed, see {@link #commit()}.
+     * </p>
+     *
+     * @param key key
+     * @param value value
+     */
+    public synchronized void put(byte[] key, byte[] value) {
+        write(PUT, checkNotNull(key), checkNotNull(value));
+    }
+
+    /**
+     * Appends the removal of a key to the log, unless the store does not hold it.
+     *
+     * @param key key
+     * @return true if the store held the key
+     */
+    public synchronized boolean remove(byte[] key) {
+        if (!index.containsKey(new Key(key))) {
+            return false;
+        }
+        write(REMOVE, key, EMPTY);
+        return true;
+    }
+
+    /**
+     * Flushes the store if writes are to be synchronous.
+     * <p>
+     * Meant to be called once a write is complete and outside of any lock, so that
+     * the writes of concurrent callers are forced to disk together.
+     * </p>
+     */
+    public void commit() {
+        if (syncWrites) {
+            flush();
+        }
+    }
+
+    /**
+     * Forces all records appended so far to disk.
+     * <p>
+     * Callers arriving while another flush is under way wait for it to complete and
+     * then share a single force of the records appended in the meantime.
+     * </p>
+     */
+    public void flush() {
+        long target;
+        synchronized (this) {
+            target = appended;
+        }
+        synchronized (flushLock) {
+            while (flushing && flushed < target) {
+                try {
+                    flushLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PersistenceException("Interrupted while flushing " + directory);
+                }
+            }
+            if (flushed >= target) {
+                return;
+            }
+            flushing = true;
+        }
+
+        long position = 0;
+        try {
+            List<Segment> toForce;
+            synchronized (this) {
+                position = appended;
+                toForce = Lists.newArrayList(dirty);
+                dirty.clear();
+            }
+            toForce.forEach(segment -> segment.buffer.force());
+        } finally {
+            synchronized (flushLock) {
+                flushing = false;
+                flushed = Math.max(flushed, position);
+                flushLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Compacts the segments most of whose records have been superseded.
+     * <p>
+     * The live records of those segments are appended to the current segment, which is
+     * forced to disk before they are deleted. Removals are carried over as long as an
+     * older segment might still hold a value they superseded.
+     * </p>
+     */
+    public synchronized void compact() {
+        if (closed) {
+            return;
+        }
+        List<Segment> candidates = segments.values().stream()
+                .filter(segment -> segment != head && segment.liveBytes <= segment.position * COMPACTION_RATIO)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        int oldestRetained = segments.values().stream()
+                .filter(segment -> !candidates.contains(segment))
+                .mapToInt(segment -> segment.id)
+                .min()
+                .orElse(Integer.MAX_VALUE);
+        for (Segment segment : candidates) {
+            int offset = 0;
+            while (offset < segment.position) {
+                byte type = segment.buffer.get(offset + HEADER_SIZE);
+                byte[] key = readKey(segment, offset);
+                Long location = index.get(new Key(key));
+                if (type == PUT && location != null && location == location(segment.id, offset)) {
+                    write(PUT, key, readValue(segment, offset));
+                } else if (type == REMOVE && location == null && oldestRetained < segment.id) {
+                    append(REMOVE, key, EMPTY);
+                }
+                offset += recordSize(segment, offset);
+            }
+        }
+        dirty.forEach(segment -> segment.buffer.force());
+
+        // Oldest first, so a removal is never deleted ahead of the value it superseded
+        for (Segment segment : candidates) {
+            segments.remove(segment.id);
+            dirty.remove(segment);
+            try {
+                Files.deleteIfExists(file(segment.id));
+            } catch (IOException e) {
+                log.warn("Unable to delete log segment {}", file(segment.id), e);
+            }
+        }
+        log.debug("Compacted {} segments of {}", candidates.size(), directory);
+    }
+
+    /**
+     * Flushes and closes the store.
+     */
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+        }
+    }
+
+    /**
+     * Closes the store and deletes all of its segments.
+     */
+    public synchronized void delete() {
+        closed = true;
+        try {
+            for (Segment segment : segments.values()) {
+                Files.deleteIfExists(file(segment.id));
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.warn("Unable to delete {}", directory, e);
+        }
+        segments.clear();
+        index.clear();
+        dirty.clear();
+    }
+
+    /**
+     * Returns the number of segments of the store.
+     *
+     * @return number of segments
+     */
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private void write(byte type, byte[] key, byte[] value) {
+        long location = append(type, key, value);
+        index(type, new Key(key), head, offset(location));
+    }
+
+    private void index(byte type, Key key, Segment segment, int offset) {
+        Long previous = type == PUT ? index.put(key, location(segment.id, offset)) : index.remove(key);
+        if (previous != null) {
+            Segment previousSegment = segments.get(segmentId(previous));
+            if (previousSegment != null) {
+                previousSegment.liveBytes -= recordSize(previousSegment, offset(previous));
+            }
+        }
+        if (type == PUT) {
+            segment.liveBytes += recordSize(segment, offset);
+        }
+    }
+
+    private long append(byte type, byte[] key, byte[] value) {
+        checkState(!closed, "Store is closed");
+        int length = BODY_HEADER_SIZE + key.length + value.length;
+        int size = HEADER_SIZE + length;
+        if (head.buffer.capacity() - head.position < size) {
+            head = newSegment(head.id + 1, Math.max(segmentSize, size));
+        }
+
+        int offset = head.position;
+        ByteBuffer body = head.buffer.duplicate();
+        body.position(offset + HEADER_SIZE);
+        body.put(type).putInt(key.length).put(key).put(value);
+        body.flip().position(offset + HEADER_SIZE);
+        CRC32 checksum = new CRC32();
+        checksum.update(body);
+        head.buffer.putInt(offset + Integer.BYTES, (int) checksum.getValue());
+        head.buffer.putInt(offset, length);
+
+        head.position += size;
+        dirty.add(head);
+        appended += size;
+        return location(head.id, offset);
+    }
+
+    private void recover() {
+        List<Integer> ids;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                ids = files.map(file -> file.getFileName().toString())
+                        .filter(name -> SEGMENT_NAME.matcher(name).matches())
+                        .map(name -> Integer.valueOf(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            for (int id : ids) {
+                Segment segment = new Segment(id, file(id), 0);
+                segments.put(id, segment);
+                replay(segment);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to open " + directory, e);
+        }
+        head = segments.isEmpty() ? newSegment(1, segmentSize) : segments.lastEntry().getValue();
+    }
+
+    private void replay(Segment segment) {
+        int offset = 0;
+        int size;
+        while ((size = validRecordSize(segment, offset)) > 0) {
+            byte type = segment.buffer.get(offset + HEADER_SIZE);
+            index(type, new Key(readKey(segment, offset)), segment, offset);
+            offset += size;
+        }
+        segment.position = offset;
+
+        // Anything past the last valid record is left over from an interrupted write
+        ByteBuffer tail = segment.buffer.duplicate();
+        tail.position(offset);
+        boolean torn = false;
+        while (tail.hasRemaining()) {
+            if (tail.get() != 0) {
+                torn = true;
+                break;
+            }
+        }
+        if (torn) {
+            log.warn("Discarding incomplete records at offset {} of {}", offset, file(segment.id));
+            tail.position(offset);
+            while (tail.hasRemaining()) {
+                tail.put((byte) 0);
+            }
+            segment.buffer.force();
+        }
+    }
+
+    private int validRecordSize(Segment segment, int offset) {
+        MappedByteBuffer buffer = segment.buffer;
+        if (buffer.capacity() - offset < HEADER_SIZE + BODY_HEADER_SIZE) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length < BODY_HEADER_SIZE || length > buffer.capacity() - offset - HEADER_SIZE) {
+            return 0;
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset + HEADER_SIZE).limit(offset + HEADER_SIZE + length);
+        CRC32 checksum = new CRC32();
+        checksum.update(body);
+        if ((int) checksum.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+            return 0;
+        }
+        byte type = buffer.get(offset + HEADER_SIZE);
+        int keyLength = buffer.getInt(offset + HEADER_SIZE + 1);
+        if ((type != PUT && type != REMOVE) || keyLength < 0 || keyLength > length - BODY_HEADER_SIZE) {
+            return 0;
+        }
+        return HEADER_SIZE + length;
+    }
+
+    private Segment newSegment(int id, int capacity) {
+        try {
+            Segment segment = new Segment(id, file(id), capacity);
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to create log segment " + file(id), e);
+        }
+    }
+
+    private Path file(int id) {
+        return directory.resolve(String.format("%010d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static int recordSize(Segment segment, int offset) {
+        return HEADER_SIZE + segment.buffer.getInt(offset);
+    }
+
+    private static byte[] readKey(Segment segment, int offset) {
+        int keyLength = segment.buffer.getInt(offset + HEADER_SIZE + 1);
+        return read(segment, offset + HEADER_SIZE + BODY_HEADER_SIZE, keyLength);
+    }
+
+    private static byte[] readValue(Segment segment, int offset) {
+        int length = segment.buffer.getInt(offset);
+        int keyLength = segment.buffer.getInt(offset + HEADER_SIZE + 1);
+        return read(segment, offset + HEADER_SIZE + BODY_HEADER_SIZE + keyLength,
+                    length - BODY_HEADER_SIZE - keyLength);
+    }
+
+    private static byte[] read(Segment segment, int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(offset);
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << Integer.SIZE) | (offset & 0xffffffffL);
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> Integer.SIZE);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    /**
+     * Log segment mapped in memory.
+     * <p>
+     * The mapping outlives the file channel and is released once garbage collected.
+     * </p>
+     */
+    private static final class Segment {
+        private final int id;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int liveBytes;
+
+        private Segment(int id, Path file, int capacity) throws IOException {
+            this.id = id;
+            try (FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), capacity));
+            }
+        }
+    }
+
+    /**
+     * Binary key comparable by content.
+     */
+    private static final class Key {
+        private final byte[] bytes;
+        private final int hash;
+
+        private Key(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(bytes, ((Key) other).bytes);
+        }
+    }
+}
@@ -19,30 +19,45 @@ package org.onosproject.persistence.impl;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
-import org.mapdb.DB;
-import org.mapdb.DBMaker;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.persistence.PersistenceService;
 import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.persistence.PersistentSetBuilder;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Dictionary;
 import java.util.Map;
-import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.PERSISTENCE_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Service that maintains local disk backed maps and sets.
+ * <p>
+ * Each map or set is kept in a {@link LogStore log store} of its own, whose records are
+ * periodically forced to disk, or as each update completes if writes are synchronous.
  * This implementation automatically deletes empty structures on shutdown.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -51,27 +66,43 @@ public class PersistenceManager implements PersistenceService {
     private static final String DATABASE_ROOT =
             System.getProperty("karaf.data") + "/db/local/";
 
-    private static final String DATABASE_PATH = "cache";
+    private static final String DATABASE_PATH = "log";
 
     static final String MAP_PREFIX = "map:";
     static final String SET_PREFIX = "set:";
 
+    private static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final boolean DEFAULT_SYNC_WRITES = false;
+
     private final Logger log = getLogger(getClass());
 
-    private DB localDB = null;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    @Property(name = "segmentSize", intValue = DEFAULT_SEGMENT_SIZE,
+            label = "Size in bytes of the log segments of persistent maps and sets")
+    private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    @Property(name = "syncWrites", boolValue = DEFAULT_SYNC_WRITES,
+            label = "Wait for updates of persistent maps and sets to be forced to disk; " +
+                    "concurrent updates are forced together")
+    private boolean syncWrites = DEFAULT_SYNC_WRITES;
 
     private static final int FLUSH_FREQUENCY_MILLIS = 3000;
 
-    private Timer timer;
+    private Path dbPath;
+
+    private final Map<String, LogStore> stores = new ConcurrentHashMap<>();
 
-    private final CommitTask commitTask = new CommitTask();
+    private ScheduledExecutorService commitExecutor;
 
     @Activate
-    public void activate() {
-        timer = new Timer();
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        modified(context);
 
         File dbFolderPath = new File(DATABASE_ROOT);
-        Path dbPath = dbFolderPath.toPath().resolve(DATABASE_PATH);
+        dbPath = dbFolderPath.toPath().resolve(DATABASE_PATH);
         log.debug("dbPath: {}", dbPath);
 
         //Make sure the directory exists, if it does not, make it.
@@ -84,66 +115,108 @@ public class PersistenceManager implements PersistenceService {
                 throw new PersistenceException("Database folder could not be created.");
             }
         }
-        //Notify if the database file does not exist.
+        //Notify if the database does not exist.
         boolean dbFound = Files.exists(dbPath);
         if (!dbFound) {
-            log.info("The database file could not be located, a new database will be constructed.");
+            log.info("The database could not be located, a new database will be constructed.");
 
         } else {
-            log.info("A previous database file has been found.");
+            log.info("A previous database has been found.");
         }
-        localDB = DBMaker.newFileDB(dbPath.toFile())
-                .asyncWriteEnable()
-                .closeOnJvmShutdown()
-                .make();
-        timer.schedule(commitTask, FLUSH_FREQUENCY_MILLIS, FLUSH_FREQUENCY_MILLIS);
+        commitExecutor = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/persistence", "commit", log));
+        commitExecutor.scheduleWithFixedDelay(this::commit, FLUSH_FREQUENCY_MILLIS,
+                                              FLUSH_FREQUENCY_MILLIS, TimeUnit.MILLISECONDS);
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
-        timer.cancel();
-        for (Map.Entry<String, Object> entry : localDB.getAll().entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            if (value instanceof Map) {
-                // This is a map implementation to be handled as such
-                Map asMap = (Map) value;
-                if (asMap.isEmpty()) {
-                    //the map is empty and may be deleted
-                    localDB.delete(key);
-                }
-            } else if (value instanceof Set) {
-                // This is a set implementation and can be handled as such
-                Set asSet = (Set) value;
-                if (asSet.isEmpty()) {
-                    //the set is empty and may be deleted
-                    localDB.delete(key);
-                }
+        cfgService.unregisterProperties(getClass(), false);
+        commitExecutor.shutdownNow();
+        stores.values().forEach(store -> {
+            if (store.size() == 0) {
+                //the map or set is empty and may be deleted
+                store.delete();
+            } else {
+                store.close();
             }
-        }
-        localDB.commit();
-        localDB.close();
+        });
+        stores.clear();
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+
+        Dictionary<?, ?> properties = context.getProperties();
+        int newSegmentSize;
+        boolean newSyncWrites;
+        try {
+            String s = get(properties, "segmentSize");
+            newSegmentSize = isNullOrEmpty(s) ? segmentSize : Integer.parseInt(s.trim());
+
+            s = get(properties, "syncWrites");
+            newSyncWrites = isNullOrEmpty(s) ? syncWrites : Boolean.parseBoolean(s.trim());
+        } catch (NumberFormatException | ClassCastException e) {
+            newSegmentSize = DEFAULT_SEGMENT_SIZE;
+            newSyncWrites = DEFAULT_SYNC_WRITES;
+        }
+
+        // Takes effect for maps and sets built from now on
+        segmentSize = newSegmentSize;
+        if (newSyncWrites != syncWrites) {
+            syncWrites = newSyncWrites;
+            stores.values().forEach(store -> store.setSyncWrites(syncWrites));
+        }
+        log.info("Settings: segmentSize={}, syncWrites={}", segmentSize, syncWrites);
+    }
+
     @Override
     public <K, V> PersistentMapBuilder<K, V> persistentMapBuilder() {
         checkPermission(PERSISTENCE_WRITE);
-        return new DefaultPersistentMapBuilder<>(localDB);
+        return new DefaultPersistentMapBuilder<>(this::store);
     }
 
     @Override
     public <E> PersistentSetBuilder<E> persistentSetBuilder() {
         checkPermission(PERSISTENCE_WRITE);
-        return new DefaultPersistentSetBuilder<>(localDB);
+        return new DefaultPersistentSetBuilder<>(this::store);
     }
 
-    private class CommitTask extends TimerTask {
+    /**
+     * Returns the log store of the given map or set, opening it if needed.
+     *
+     * @param name prefixed name of the map or set
+     * @return log store
+     */
+    private LogStore store(String name) {
+        return stores.computeIfAbsent(name, n -> {
+            LogStore store = new LogStore(dbPath.resolve(directoryName(n)), segmentSize);
+            store.setSyncWrites(syncWrites);
+            return store;
+        });
+    }
 
-        @Override
-        public void run() {
-            localDB.commit();
+    private static String directoryName(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
         }
     }
-}
\ No newline at end of file
+
+    private void commit() {
+        stores.values().forEach(store -> {
+            try {
+                store.flush();
+                store.compact();
+            } catch (RuntimeException e) {
+                log.warn("Unable to commit local store", e);
+            }
+        });
+    }
+}
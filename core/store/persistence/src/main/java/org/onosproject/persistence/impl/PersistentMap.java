@@ -13,46 +13,45 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.onosproject.persistence.impl;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import org.mapdb.DB;
-import org.mapdb.Hasher;
 import org.onosproject.store.service.Serializer;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 
 /**
- * A map implementation that stores and receives all data from a serialized internal map.
+ * A map implementation that keeps its entries in memory and logs all updates to a local store.
+ * <p>
+ * Entries are decoded once, when the map is loaded from the store, and encoded once per update,
+ * so reads never go through the serializer. Values are shared with callers rather than copied,
+ * hence a value modified in place has to be put again for the modification to be persisted.
+ * </p>
  */
 public class PersistentMap<K, V> implements Map<K, V> {
 
     private final Serializer serializer;
 
-    private final org.mapdb.DB database;
-
-    private final Map<byte[], byte[]> items;
+    private final LogStore store;
 
-    private final String name;
+    private final ConcurrentMap<K, V> items = Maps.newConcurrentMap();
 
-    public PersistentMap(Serializer serializer, DB database, String name) {
+    public PersistentMap(Serializer serializer, LogStore store) {
         this.serializer = checkNotNull(serializer);
-        this.database = checkNotNull(database);
-        this.name = checkNotNull(name);
+        this.store = checkNotNull(store);
 
-        items = database
-                .createHashMap(name)
-                .keySerializer(org.mapdb.Serializer.BYTE_ARRAY)
-                .valueSerializer(org.mapdb.Serializer.BYTE_ARRAY)
-                .hasher(Hasher.BYTE_ARRAY)
-                .makeOrGet();
+        store.forEach((keyBytes, valueBytes) ->
+                              items.put(serializer.decode(keyBytes), serializer.decode(valueBytes)));
     }
 
     /**
@@ -61,17 +60,37 @@ public class PersistentMap<K, V> implements Map<K, V> {
      * @param items the map to be populated
      */
     public void readInto(Map<K, V> items) {
-        this.items.forEach((keyBytes, valueBytes) ->
-                                   items.put(serializer.decode(keyBytes),
-                                             serializer.decode(valueBytes)));
+        items.putAll(this.items);
+    }
+
+    /**
+     * Updates the entry of a key, logging the update to the store while the entry is locked
+     * so that the log and the map agree on the order of updates.
+     */
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        V updated = items.compute(key, (k, v) -> {
+            V value = function.apply(k, v);
+            if (value != null) {
+                store.put(serializer.encode(k), serializer.encode(value));
+            } else if (v != null) {
+                store.remove(serializer.encode(k));
+            }
+            return value;
+        });
+        store.commit();
+        return updated;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V remove(Object key) {
         checkNotNull(key, "Key can not be null.");
-        V removed = get(key);
-        items.remove(serializer.encode(key));
-        return removed;
+        AtomicReference<V> removed = new AtomicReference<>();
+        update((K) key, (k, v) -> {
+            removed.set(v);
+            return null;
+        });
+        return removed.get();
     }
 
     @Override
@@ -87,83 +106,77 @@ public class PersistentMap<K, V> implements Map<K, V> {
     @Override
     public boolean containsKey(Object key) {
         checkNotNull(key, "Key cannot be null.");
-        return items.containsKey(serializer.encode(key));
+        return items.containsKey(key);
     }
 
     @Override
     public boolean containsValue(Object value) {
         checkNotNull(value, "Value cannot be null.");
-        byte[] serialized = serializer.encode(value);
-        for (byte[] compareValue : items.values()) {
-            boolean same = true;
-            if (compareValue == null) {
-                same = false;
-            } else if (compareValue.length != serialized.length) {
-                same = false;
-            } else {
-                for (int i = 0; i < serialized.length; i++) {
-                    if (serialized[i] != compareValue[i]) {
-                        same = false;
-                        break;
-                    }
-                }
-            }
-            if (same) {
-                return true;
-            }
-        }
-        return false;
+        return items.containsValue(value);
     }
 
     @Override
     public V get(Object key) {
         checkNotNull(key, "Key cannot be null.");
-        byte[] bytes = items.get(serializer.encode(key));
-        return bytes == null ? null : serializer.decode(bytes);
+        return items.get(key);
     }
 
     @Override
     public V put(K key, V value) {
         checkNotNull(key, "Key cannot be null.");
         checkNotNull(value, "Value cannot be null.");
-        byte[] prevVal = items.put(serializer.encode(key), serializer.encode(value));
-        if (prevVal == null) {
-            return null;
-        }
-        return serializer.decode(prevVal);
+        AtomicReference<V> previous = new AtomicReference<>();
+        update(key, (k, v) -> {
+            previous.set(v);
+            return value;
+        });
+        return previous.get();
     }
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
         checkNotNull(m, "The passed in map cannot be null.");
-        m.forEach((k, v) -> items.put(serializer.encode(k), serializer.encode(v)));
+        m.forEach(this::put);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkNotNull(key, "Key cannot be null.");
+        return update(key, remappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkNotNull(key, "Key cannot be null.");
+        return update(key, (k, v) -> v == null ? null : remappingFunction.apply(k, v));
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkNotNull(key, "Key cannot be null.");
+        V value = items.get(key);
+        return value != null ? value : update(key, (k, v) -> v != null ? v : mappingFunction.apply(k));
     }
 
     @Override
     public void clear() {
-        items.clear();
+        items.keySet().forEach(this::remove);
     }
 
     @Override
     public Set<K> keySet() {
-        Set<K> keys = Sets.newHashSet();
-        items.keySet().forEach(k -> keys.add(serializer.decode(k)));
-        return keys;
+        return Sets.newHashSet(items.keySet());
     }
 
     @Override
     public Collection<V> values() {
-        Collection<V> values = Sets.newHashSet();
-        items.values().forEach(v -> values.add(serializer.decode(v)));
-        return values;
+        return Sets.newHashSet(items.values());
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
         Set<Entry<K, V>> entries = Sets.newHashSet();
-        items.entrySet().
-                forEach(e -> entries.add(Maps.immutableEntry(serializer.decode(e.getKey()),
-                                                             serializer.decode(e.getValue()))));
+        items.forEach((k, v) -> entries.add(Maps.immutableEntry(k, v)));
         return entries;
     }
 
@@ -190,4 +203,4 @@ public class PersistentMap<K, V> implements Map<K, V> {
     public int hashCode() {
         return super.hashCode();
     }
-}
\ No newline at end of file
+}
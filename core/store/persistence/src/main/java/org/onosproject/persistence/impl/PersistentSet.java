@@ -13,48 +13,43 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.onosproject.persistence.impl;
 
-import com.google.common.collect.Iterators;
-import org.mapdb.DB;
-import org.mapdb.Hasher;
-import org.mapdb.Serializer;
+import com.google.common.collect.Maps;
+import org.onosproject.store.service.Serializer;
 
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * A set implementation that gets and receives all data from a serialized internal set.
+ * A set implementation that keeps its items in memory and logs all updates to a local store.
+ * <p>
+ * Items are decoded once, when the set is loaded from the store, and encoded once per update.
+ * </p>
  */
-//TODO add locking for reads and writes
 public class PersistentSet<E> implements Set<E> {
 
-    private final org.onosproject.store.service.Serializer serializer;
+    private static final byte[] PRESENT = new byte[0];
 
-    private final org.mapdb.DB database;
+    private final Serializer serializer;
 
-    private final Set<byte[]> items;
+    private final LogStore store;
 
-    private final String name;
+    private final ConcurrentMap<E, Boolean> items = Maps.newConcurrentMap();
 
-    public PersistentSet(org.onosproject.store.service.Serializer serializer, DB database, String name) {
+    public PersistentSet(Serializer serializer, LogStore store) {
         this.serializer = checkNotNull(serializer);
-        this.database = checkNotNull(database);
-        this.name = checkNotNull(name);
+        this.store = checkNotNull(store);
 
-        items = database
-                .createHashSet(name)
-                .serializer(Serializer.BYTE_ARRAY)
-                .hasher(Hasher.BYTE_ARRAY)
-                .makeOrGet();
+        store.forEach((itemBytes, present) -> items.put(serializer.decode(itemBytes), Boolean.TRUE));
     }
 
     public void readInto(Set<E> items) {
-        this.items.forEach(item -> items.add(serializer.decode(item)));
+        items.addAll(this.items.keySet());
     }
 
     @Override
@@ -70,74 +65,85 @@ public class PersistentSet<E> implements Set<E> {
     @Override
     public boolean contains(Object o) {
         checkNotNull(o, "The argument cannot be null");
-        return items.contains(serializer.encode(o));
+        return items.containsKey(o);
     }
 
     @Override
     public Iterator<E> iterator() {
-        return Iterators.transform(items.iterator(), serializer::decode);
+        Iterator<E> iterator = items.keySet().iterator();
+        return new Iterator<E>() {
+            private E current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                PersistentSet.this.remove(checkNotNull(current));
+            }
+        };
     }
 
     @Override
     public Object[] toArray() {
-        Object[] retArray = new Object[items.size()];
-        int index = 0;
-        for (byte[] item : items) {
-            retArray[index] = serializer.decode(item);
-            index++;
-        }
-        return retArray;
+        return items.keySet().toArray();
     }
 
     @Override
     public <T> T[] toArray(T[] a) {
         checkNotNull(a, "The passed in array cannot be null.");
-        int index = 0;
-        Iterator<byte[]> iterator = items.iterator();
-        T[] retArray;
-        if (a.length >= items.size()) {
-            retArray = a;
-        } else {
-            retArray = (T[]) new Object[items.size()];
-        }
-        while (iterator.hasNext()) {
-            retArray[index++] = serializer.decode(iterator.next());
-        }
-        if (retArray.length > items.size()) {
-            retArray[index] = null;
-        }
-        return retArray;
+        return items.keySet().toArray(a);
     }
 
     @Override
     public boolean add(E item) {
         checkNotNull(item, "Item to be added cannot be null.");
-        return items.add(serializer.encode(item));
+        boolean[] added = new boolean[1];
+        items.compute(item, (k, v) -> {
+            if (v == null) {
+                store.put(serializer.encode(k), PRESENT);
+                added[0] = true;
+            }
+            return Boolean.TRUE;
+        });
+        store.commit();
+        return added[0];
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public boolean remove(Object o) {
         checkNotNull(o, "Item to be removed cannot be null.");
-        return items.remove(serializer.encode(o));
+        boolean[] removed = new boolean[1];
+        items.computeIfPresent((E) o, (k, v) -> {
+            store.remove(serializer.encode(k));
+            removed[0] = true;
+            return null;
+        });
+        store.commit();
+        return removed[0];
     }
 
     @Override
     public boolean containsAll(Collection<?> c) {
         checkNotNull(c, "Collection cannot be internal.");
-        for (Object item : c) {
-            if (!items.contains(serializer.encode(item))) {
-                return false;
-            }
-        }
-        return true;
+        return items.keySet().containsAll(c);
     }
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
         checkNotNull(c, "The collection to be added cannot be null.");
         boolean changed = false;
-        for (Object item : c) {
-            changed = items.add(serializer.encode(item)) || changed;
+        for (E item : c) {
+            changed = add(item) || changed;
         }
         return changed;
     }
@@ -145,10 +151,9 @@ public class PersistentSet<E> implements Set<E> {
     @Override
     public boolean retainAll(Collection<?> c) {
         boolean changed = false;
-        for (byte[] item : items) {
-            E deserialized = serializer.decode(item);
-            if (!c.contains(deserialized)) {
-                changed = items.remove(item) || changed;
+        for (E item : items.keySet()) {
+            if (!c.contains(item)) {
+                changed = remove(item) || changed;
             }
         }
         return changed;
@@ -158,14 +163,14 @@ public class PersistentSet<E> implements Set<E> {
     public boolean removeAll(Collection<?> c) {
         boolean changed = false;
         for (Object item : c) {
-            changed = items.remove(serializer.encode(item)) || changed;
+            changed = remove(item) || changed;
         }
         return changed;
     }
 
     @Override
     public void clear() {
-        items.clear();
+        items.keySet().forEach(this::remove);
     }
 
     @Override
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test suite for the log store.
+ */
+public class LogStoreTest {
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes();
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        //Checks that the contents of the store survive reopening it
+        Path directory = tmpFolder.newFolder().toPath();
+        LogStore store = new LogStore(directory, 4096);
+        store.put(bytes("a"), bytes("1"));
+        store.put(bytes("b"), bytes("2"));
+        store.put(bytes("a"), bytes("3"));
+        assertTrue(store.remove(bytes("b")));
+        assertFalse(store.remove(bytes("b")));
+        store.close();
+
+        store = new LogStore(directory, 4096);
+        assertEquals(1, store.size());
+        assertArrayEquals(bytes("3"), store.get(bytes("a")));
+        assertNull(store.get(bytes("b")));
+        store.close();
+    }
+
+    @Test
+    public void testTornRecord() throws Exception {
+        //Checks that a record failing its checksum is discarded along with what follows it
+        Path directory = tmpFolder.newFolder().toPath();
+        LogStore store = new LogStore(directory, 4096);
+        store.put(bytes("a"), bytes("1"));
+        store.put(bytes("b"), bytes("2"));
+        store.close();
+
+        // Each record takes 15 bytes, the last of which is the value
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("0000000001.log").toFile(), "rw")) {
+            file.seek(29);
+            file.write('x');
+        }
+
+        store = new LogStore(directory, 4096);
+        assertEquals(1, store.size());
+        assertArrayEquals(bytes("1"), store.get(bytes("a")));
+        store.put(bytes("c"), bytes("3"));
+        store.close();
+
+        store = new LogStore(directory, 4096);
+        assertEquals(2, store.size());
+        assertNull(store.get(bytes("b")));
+        assertArrayEquals(bytes("3"), store.get(bytes("c")));
+        store.close();
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        //Checks that superseded records are reclaimed without losing live ones
+        Path directory = tmpFolder.newFolder().toPath();
+        LogStore store = new LogStore(directory, 256);
+        store.put(bytes("removed"), bytes("value"));
+        store.put(bytes("kept"), bytes("value"));
+        for (int i = 0; i < 100; i++) {
+            store.put(bytes("updated"), bytes("value" + i));
+        }
+        store.remove(bytes("removed"));
+        int segments = store.segmentCount();
+        assertTrue(segments > 2);
+
+        store.compact();
+        assertTrue(store.segmentCount() < segments);
+        assertEquals(2, store.size());
+        assertArrayEquals(bytes("value"), store.get(bytes("kept")));
+        assertArrayEquals(bytes("value99"), store.get(bytes("updated")));
+        store.close();
+
+        store = new LogStore(directory, 256);
+        assertEquals(2, store.size());
+        assertNull(store.get(bytes("removed")));
+        assertArrayEquals(bytes("value"), store.get(bytes("kept")));
+        assertArrayEquals(bytes("value99"), store.get(bytes("updated")));
+        store.close();
+    }
+
+    @Test
+    public void testSyncWrites() throws Exception {
+        //Checks that concurrent synchronous writes all complete
+        Path directory = tmpFolder.newFolder().toPath();
+        LogStore store = new LogStore(directory, 4096);
+        store.setSyncWrites(true);
+        List<CompletableFuture<Void>> writes = IntStream.range(0, 100)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    store.put(bytes("key" + i), bytes("value" + i));
+                    store.commit();
+                }))
+                .collect(Collectors.toList());
+        writes.forEach(CompletableFuture::join);
+        store.close();
+
+        LogStore reopened = new LogStore(directory, 4096);
+        assertEquals(100, reopened.size());
+        reopened.close();
+    }
+}
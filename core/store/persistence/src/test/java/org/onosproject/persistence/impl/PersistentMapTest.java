@@ -32,7 +32,7 @@ import static org.junit.Assert.assertTrue;
 /**
  * Test suite for Persistent Map.
  */
-public class PersistentMapTest extends MapDBTest {
+public class PersistentMapTest extends LogStoreTestBase {
 
     private PersistentMap<Integer, Integer> map = null;
 
@@ -79,7 +79,7 @@ public class PersistentMapTest extends MapDBTest {
             public <T> T copy(T object) {
                 return decode(encode(object));
             }
-        }, fakeDB, "map");
+        }, store);
     }
 
     @Test
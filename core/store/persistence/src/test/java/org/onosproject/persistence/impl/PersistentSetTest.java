@@ -35,7 +35,7 @@ import static org.junit.Assert.assertTrue;
 /**
  * Test suite for Persistent Set.
  */
-public class PersistentSetTest extends MapDBTest {
+public class PersistentSetTest extends LogStoreTestBase {
 
     private PersistentSet<Integer> set = null;
 
@@ -77,7 +77,7 @@ public class PersistentSetTest extends MapDBTest {
             public <T> T copy(T object) {
                 return decode(encode(object));
             }
-        }, fakeDB, "set");
+        }, store);
 
     }
 
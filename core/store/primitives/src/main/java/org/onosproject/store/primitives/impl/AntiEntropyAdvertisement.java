@@ -31,17 +31,33 @@ public class AntiEntropyAdvertisement<K> {
 
     private final NodeId sender;
     private final Map<K, MapValue.Digest> digest;
+    private final int[] leaves;
 
     /**
-     * Creates a new anti entropy advertisement message.
+     * Creates a new anti entropy advertisement message covering all map entries.
      *
      * @param sender the sender's node ID
      * @param digest for map entries
      */
     public AntiEntropyAdvertisement(NodeId sender,
                                     Map<K, MapValue.Digest> digest) {
+        this(sender, digest, new int[0]);
+    }
+
+    /**
+     * Creates a new anti entropy advertisement message covering the map entries
+     * of the given leaves of the digest tree.
+     *
+     * @param sender the sender's node ID
+     * @param digest for map entries of the leaves
+     * @param leaves leaves of the digest tree; empty for all map entries
+     */
+    public AntiEntropyAdvertisement(NodeId sender,
+                                    Map<K, MapValue.Digest> digest,
+                                    int[] leaves) {
         this.sender = checkNotNull(sender);
         this.digest = ImmutableMap.copyOf(checkNotNull(digest));
+        this.leaves = checkNotNull(leaves);
     }
 
     /**
@@ -62,11 +78,21 @@ public class AntiEntropyAdvertisement<K> {
         return digest;
     }
 
+    /**
+     * Returns the leaves of the digest tree whose map entries are advertised.
+     *
+     * @return leaves of the digest tree; empty if all map entries are advertised
+     */
+    public int[] leaves() {
+        return leaves;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
                 .add("sender", sender)
                 .add("totalEntries", digest.size())
+                .add("leaves", leaves.length)
                 .toString();
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+
+import org.onosproject.cluster.NodeId;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement of the hashes of some nodes of the digest tree of
+ * an eventually consistent map.
+ */
+public class AntiEntropyTreeAdvertisement {
+
+    private final NodeId sender;
+    private final int level;
+    private final int[] nodes;
+    private final long[] hashes;
+
+    /**
+     * Creates a new digest tree advertisement message.
+     *
+     * @param sender the sender's node ID
+     * @param level depth of the advertised nodes
+     * @param nodes indices of the advertised nodes within their level
+     * @param hashes hashes of the advertised nodes
+     */
+    public AntiEntropyTreeAdvertisement(NodeId sender, int level, int[] nodes, long[] hashes) {
+        checkArgument(nodes.length == hashes.length, "Nodes and hashes do not match");
+        this.sender = checkNotNull(sender);
+        this.level = level;
+        this.nodes = nodes;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the depth of the advertised nodes.
+     *
+     * @return depth within the digest tree
+     */
+    public int level() {
+        return level;
+    }
+
+    /**
+     * Returns the indices of the advertised nodes within their level.
+     *
+     * @return node indices
+     */
+    public int[] nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the hashes of the advertised nodes.
+     *
+     * @return node hashes, in the order of the node indices
+     */
+    public long[] hashes() {
+        return hashes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("level", level)
+                .add("nodes", nodes.length)
+                .toString();
+    }
+}
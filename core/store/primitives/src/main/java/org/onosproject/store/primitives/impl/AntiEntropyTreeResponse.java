@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Response to a digest tree advertisement of an eventually consistent map.
+ */
+public class AntiEntropyTreeResponse {
+
+    private final AntiEntropyResponse status;
+    private final int[] divergentNodes;
+
+    /**
+     * Creates a new digest tree response message.
+     *
+     * @param status outcome of processing the advertisement
+     * @param divergentNodes indices of the advertised nodes whose hashes differ locally
+     */
+    public AntiEntropyTreeResponse(AntiEntropyResponse status, int[] divergentNodes) {
+        this.status = checkNotNull(status);
+        this.divergentNodes = checkNotNull(divergentNodes);
+    }
+
+    /**
+     * Returns the outcome of processing the advertisement.
+     *
+     * @return anti-entropy response
+     */
+    public AntiEntropyResponse status() {
+        return status;
+    }
+
+    /**
+     * Returns the indices of the advertised nodes whose hashes differ locally.
+     *
+     * @return node indices
+     */
+    public int[] divergentNodes() {
+        return divergentNodes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("status", status)
+                .add("divergentNodes", divergentNodes.length)
+                .toString();
+    }
+}
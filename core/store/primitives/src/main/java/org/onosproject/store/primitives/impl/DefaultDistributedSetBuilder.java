@@ -76,6 +76,12 @@ public class DefaultDistributedSetBuilder<E> extends DistributedSetBuilder<E> {
         return this;
     }
 
+    @Override
+    public DistributedSetBuilder<E> withLocalReads() {
+        mapBuilder.withLocalReads();
+        return this;
+    }
+
     @Override
     public DistributedSetBuilder<E> withMeteringDisabled() {
         metering = false;
@@ -43,7 +43,7 @@ public class DefaultTransactionContext implements TransactionContext {
     public DefaultTransactionContext(TransactionId transactionId, TransactionCoordinator transactionCoordinator) {
         this.transactionId = transactionId;
         this.transactionCoordinator = transactionCoordinator;
-        this.monitor = new MeteringAgent("transactionContext", "*", true);
+        this.monitor = transactionCoordinator.monitor;
     }
 
     @Override
@@ -35,6 +35,6 @@ public class DefaultTransactionContextBuilder extends TransactionContextBuilder
     @Override
     public TransactionContext build() {
         return new DefaultTransactionContext(transactionId,
-                new TransactionCoordinator(transactionId, transactionManager));
+                new TransactionCoordinator(transactionId, transactionManager, transactionManager.monitor()));
     }
 }
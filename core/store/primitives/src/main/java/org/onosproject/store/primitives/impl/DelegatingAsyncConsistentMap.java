@@ -17,6 +17,7 @@
 package org.onosproject.store.primitives.impl;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -77,6 +78,11 @@ public class DelegatingAsyncConsistentMap<K, V>
         return delegateMap.getOrDefault(key, defaultValue);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return delegateMap.getAll(keys);
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> computeIf(K key,
             Predicate<? super V> condition,
@@ -99,6 +105,16 @@ public class DelegatingAsyncConsistentMap<K, V>
         return delegateMap.remove(key);
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return delegateMap.putAll(entries);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return delegateMap.removeAll(keys);
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return delegateMap.clear();
@@ -159,6 +175,16 @@ public class DelegatingAsyncConsistentMap<K, V>
         return delegateMap.removeListener(listener);
     }
 
+    @Override
+    public long nearCacheHitCount() {
+        return delegateMap.nearCacheHitCount();
+    }
+
+    @Override
+    public long nearCacheMissCount() {
+        return delegateMap.nearCacheMissCount();
+    }
+
     @Override
     public CompletableFuture<Version> begin(TransactionId transactionId) {
         return delegateMap.begin(transactionId);
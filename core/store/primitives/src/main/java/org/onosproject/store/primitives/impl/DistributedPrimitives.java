@@ -22,6 +22,7 @@ import org.onosproject.store.service.AsyncConsistentTreeMap;
 import org.onosproject.store.service.AsyncDistributedSet;
 import org.onosproject.store.service.AsyncDocumentTree;
 
+import java.time.Duration;
 import java.util.function.Function;
 
 /**
@@ -66,6 +67,24 @@ public final class DistributedPrimitives {
         return new CachingAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that serves reads from
+     * a near cache kept current by the map events.
+     *
+     * @param map             backing map
+     * @param maxSize         maximum number of cached entries
+     * @param expiration      cache entry expiration; {@link Duration#ZERO} for none
+     * @param meteringEnabled whether cache hits and misses are metered
+     * @return near caching map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> AsyncConsistentMap<K, V> newNearCachingMap(AsyncConsistentMap<K, V> map,
+                                                                  int maxSize, Duration expiration,
+                                                                  boolean meteringEnabled) {
+        return new NearCachingAsyncConsistentMap<>(map, maxSize, expiration, meteringEnabled);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that disallows updates.
      *
@@ -56,6 +56,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private boolean convergeFaster = false;
     private boolean persistent = false;
     private boolean persistentMap = false;
+    private boolean offHeapValues = false;
     private final PersistenceService persistenceService;
     private Supplier<List<NodeId>> peersSupplier;
     private Supplier<List<NodeId>> bootstrapPeersSupplier;
@@ -161,6 +162,12 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withOffHeapValues() {
+        offHeapValues = true;
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMap<K, V> build() {
         checkNotNull(name, "name is a mandatory parameter");
@@ -170,6 +177,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         }
         checkNotNull(serializer, "serializer is a mandatory parameter");
         checkNotNull(localNodeId, "local node id cannot be null");
+        checkArgument(!(persistent && offHeapValues), "off-heap values cannot be persisted");
 
         return new EventuallyConsistentMapImpl<>(
                 localNodeId,
@@ -187,6 +195,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                 convergeFaster,
                 persistent,
                 persistenceService,
+                offHeapValues,
                 peersSupplier,
                 bootstrapPeersSupplier
         );
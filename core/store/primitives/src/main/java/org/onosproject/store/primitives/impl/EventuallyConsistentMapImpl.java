@@ -43,6 +43,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -66,6 +67,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -89,9 +91,13 @@ public class EventuallyConsistentMapImpl<K, V>
     private static final int WINDOW_SIZE = 5;
     private static final int HIGH_LOAD_THRESHOLD = 2;
     private static final int LOAD_WINDOW = 2;
+    // Number of digest tree levels descended per anti-entropy round trip
+    private static final int TREE_LEVEL_STEP = 4;
 
     private final Map<K, MapValue<V>> items;
+    private final MapDigestTree<K> digestTree;
     private final ClusterCommunicationService clusterCommunicator;
+    private final KryoNamespace serializerNamespace;
     private final Serializer serializer;
     private final PersistenceService persistenceService;
     private final BiFunction<K, V, Timestamp> timestampProvider;
@@ -99,6 +105,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject initializeMessageSubject;
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject antiEntropyTreeSubject;
     private final MessageSubject updateRequestSubject;
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
@@ -144,6 +151,7 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param convergeFaster         make anti-entropy try to converge faster
      * @param persistent             persist data to disk
      * @param persistenceService     persistence service
+     * @param offHeapValues          keep values serialized off the heap
      * @param peersSupplier          supplier for peers
      * @param bootstrapPeersSupplier supplier for bootstrap peers
      */
@@ -164,13 +172,15 @@ public class EventuallyConsistentMapImpl<K, V>
             boolean convergeFaster,
             boolean persistent,
             PersistenceService persistenceService,
+            boolean offHeapValues,
             Supplier<List<NodeId>> peersSupplier,
             Supplier<List<NodeId>> bootstrapPeersSupplier
     ) {
         //CHECKSTYLE:ON
         this.localNodeId = localNodeId;
         this.mapName = mapName;
-        this.serializer = createSerializer(ns);
+        this.serializerNamespace = createSerializerNamespace(ns);
+        this.serializer = Serializer.using(serializerNamespace);
         this.persistenceService = persistenceService;
         this.persistent =
                 persistent;
@@ -179,9 +189,13 @@ public class EventuallyConsistentMapImpl<K, V>
                     .withName(mapName)
                     .withSerializer(this.serializer)
                     .build();
+        } else if (offHeapValues) {
+            items = new OffHeapValueMap<>(serializerNamespace);
         } else {
             items = Maps.newConcurrentMap();
         }
+        digestTree = new MapDigestTree<>(serializer::encode);
+        items.forEach((key, value) -> digestTree.update(key, null, value));
         senderPending = Maps.newConcurrentMap();
         destroyedMessage = mapName + ERROR_DESTROYED;
 
@@ -257,9 +271,10 @@ public class EventuallyConsistentMapImpl<K, V>
         );
 
         updateMessageSubject = new MessageSubject("ecm-" + mapName + "-update");
-        clusterCommunicator.addSubscriber(
+        // updates make up the bulk of gossip traffic, so decode them in place
+        clusterCommunicator.addBufferSubscriber(
                 updateMessageSubject,
-                serializer::decode,
+                serializerNamespace::deserialize,
                 this::processUpdates,
                 this.executor
         );
@@ -273,6 +288,15 @@ public class EventuallyConsistentMapImpl<K, V>
                 this.backgroundExecutor
         );
 
+        antiEntropyTreeSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-tree");
+        clusterCommunicator.addSubscriber(
+                antiEntropyTreeSubject,
+                serializer::decode,
+                this::handleAntiEntropyTreeAdvertisement,
+                serializer::encode,
+                this.backgroundExecutor
+        );
+
         updateRequestSubject = new MessageSubject("ecm-" + mapName + "-update-request");
         clusterCommunicator.addSubscriber(
                 updateRequestSubject,
@@ -281,6 +305,15 @@ public class EventuallyConsistentMapImpl<K, V>
                 this.backgroundExecutor
         );
 
+        if (offHeapValues) {
+            this.backgroundExecutor.scheduleWithFixedDelay(
+                    ((OffHeapValueMap<K, V>) items)::compact,
+                    initialDelaySec,
+                    antiEntropyPeriod,
+                    antiEntropyTimeUnit
+            );
+        }
+
         if (!tombstonesDisabled) {
             previousTombstonePurgeTime = 0;
             this.backgroundExecutor.scheduleWithFixedDelay(
@@ -298,8 +331,8 @@ public class EventuallyConsistentMapImpl<K, V>
         this.bootstrap();
     }
 
-    private Serializer createSerializer(KryoNamespace ns) {
-        return Serializer.using(KryoNamespace.newBuilder()
+    private KryoNamespace createSerializerNamespace(KryoNamespace ns) {
+        return KryoNamespace.newBuilder()
                 .register(ns)
                 // not so robust way to avoid collision with other
                 // user supplied registrations
@@ -313,7 +346,10 @@ public class EventuallyConsistentMapImpl<K, V>
                 .register(MapValue.class)
                 .register(MapValue.Digest.class)
                 .register(UpdateRequest.class)
-                .build(name() + "-ecmap"));
+                .register(AntiEntropyTreeAdvertisement.class)
+                .register(AntiEntropyTreeResponse.class)
+                .register(new OffHeapValueMap.StoredValueSerializer(), OffHeapValueMap.StoredValue.class)
+                .build(name() + "-ecmap");
     }
 
     @Override
@@ -429,6 +465,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
             if (updated.get()) {
                 previousValue.set(existing);
+                digestTree.update(k, existing, tombstone.orElse(null));
                 return tombstone.orElse(null);
             } else {
                 return existing;
@@ -457,7 +494,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 updated.set(true);
                 // We return a copy to ensure updates to peers can be serialized.
                 // This prevents replica divergence due to serialization failures.
-                return serializer.copy(newValue);
+                MapValue<V> copy = serializer.copy(newValue);
+                digestTree.update(k, mv, copy);
+                return copy;
             } else {
                 return mv;
             }
@@ -528,6 +567,7 @@ public class EventuallyConsistentMapImpl<K, V>
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                digestTree.update(k, existing, newValue);
                 return newValue;
             }
             return existing;
@@ -569,6 +609,7 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        clusterCommunicator.removeSubscriber(antiEntropyTreeSubject);
         return CompletableFuture.completedFuture(null);
     }
 
@@ -612,14 +653,16 @@ public class EventuallyConsistentMapImpl<K, V>
         return activePeers.stream().findFirst();
     }
 
+    /**
+     * Runs an anti-entropy exchange with a peer.
+     * <p>
+     * The digest trees of both replicas are compared from the root down, a few levels per
+     * round trip, and only the entries of the leaves found to diverge are then advertised.
+     * </p>
+     */
     private void sendAdvertisementToPeer(NodeId peer) {
         long adCreationTime = System.currentTimeMillis();
-        AntiEntropyAdvertisement<K> ad = createAdvertisement();
-        clusterCommunicator.sendAndReceive(ad,
-                antiEntropyAdvertisementSubject,
-                serializer::encode,
-                serializer::decode,
-                peer)
+        compareDigestTrees(peer, 0, new int[] {0})
                 .whenComplete((result, error) -> {
                     if (error != null) {
                         log.debug("Failed to send anti-entropy advertisement to {}: {}",
@@ -630,6 +673,37 @@ public class EventuallyConsistentMapImpl<K, V>
                 });
     }
 
+    private CompletableFuture<AntiEntropyResponse> compareDigestTrees(NodeId peer, int level, int[] nodes) {
+        AntiEntropyTreeAdvertisement ad = new AntiEntropyTreeAdvertisement(
+                localNodeId, level, nodes, digestTree.hashes(level, nodes));
+        return clusterCommunicator.<AntiEntropyTreeAdvertisement, AntiEntropyTreeResponse>sendAndReceive(ad,
+                antiEntropyTreeSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .thenComposeAsync(response -> {
+                    int[] divergentNodes = response.divergentNodes();
+                    if (response.status() != AntiEntropyResponse.PROCESSED || divergentNodes.length == 0) {
+                        return CompletableFuture.completedFuture(response.status());
+                    }
+                    if (level == MapDigestTree.DEPTH) {
+                        return sendLeavesAdvertisementToPeer(peer, divergentNodes);
+                    }
+                    int nextLevel = Math.min(level + TREE_LEVEL_STEP, MapDigestTree.DEPTH);
+                    return compareDigestTrees(peer, nextLevel,
+                            MapDigestTree.descendants(level, divergentNodes, nextLevel));
+                }, backgroundExecutor);
+    }
+
+    private CompletableFuture<AntiEntropyResponse> sendLeavesAdvertisementToPeer(NodeId peer, int[] leaves) {
+        AntiEntropyAdvertisement<K> ad = createAdvertisement(leaves);
+        return clusterCommunicator.sendAndReceive(ad,
+                antiEntropyAdvertisementSubject,
+                serializer::encode,
+                serializer::decode,
+                peer);
+    }
+
     private void sendUpdateRequestToPeer(NodeId peer, Set<K> keys) {
         UpdateRequest<K> request = new UpdateRequest<>(localNodeId, keys);
         clusterCommunicator.unicast(request,
@@ -644,9 +718,44 @@ public class EventuallyConsistentMapImpl<K, V>
                 });
     }
 
-    private AntiEntropyAdvertisement<K> createAdvertisement() {
+    private AntiEntropyAdvertisement<K> createAdvertisement(int[] leaves) {
         return new AntiEntropyAdvertisement<>(localNodeId,
-                ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
+                ImmutableMap.copyOf(Maps.transformValues(itemsOf(leaves), MapValue::digest)),
+                leaves);
+    }
+
+    /**
+     * Returns the entries of the given leaves of the digest tree.
+     *
+     * @param leaves leaves of the digest tree; empty for all entries
+     * @return map entries
+     */
+    private Map<K, MapValue<V>> itemsOf(int[] leaves) {
+        if (leaves.length == 0) {
+            return items;
+        }
+        BitSet leafSet = new BitSet();
+        for (int leaf : leaves) {
+            leafSet.set(leaf);
+        }
+        return Maps.filterValues(items, value -> MapDigestTree.contains(leafSet, value));
+    }
+
+    private AntiEntropyTreeResponse handleAntiEntropyTreeAdvertisement(AntiEntropyTreeAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return new AntiEntropyTreeResponse(AntiEntropyResponse.IGNORED, new int[0]);
+        }
+        try {
+            long[] localHashes = digestTree.hashes(ad.level(), ad.nodes());
+            int[] divergentNodes = IntStream.range(0, localHashes.length)
+                    .filter(i -> localHashes[i] != ad.hashes()[i])
+                    .map(i -> ad.nodes()[i])
+                    .toArray();
+            return new AntiEntropyTreeResponse(AntiEntropyResponse.PROCESSED, divergentNodes);
+        } catch (Exception e) {
+            log.warn("Error handling anti-entropy tree advertisement", e);
+            return new AntiEntropyTreeResponse(AntiEntropyResponse.FAILED, new int[0]);
+        }
     }
 
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
@@ -680,7 +789,7 @@ public class EventuallyConsistentMapImpl<K, V>
         Set<K> staleOrMissing = new HashSet<>();
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
 
-        items.forEach((key, localValue) -> {
+        itemsOf(ad.leaves()).forEach((key, localValue) -> {
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -738,7 +847,13 @@ public class EventuallyConsistentMapImpl<K, V>
                 .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                 .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> items.computeIfPresent(entry.getKey(), (k, v) -> {
+            if (!v.equals(entry.getValue())) {
+                return v;
+            }
+            digestTree.update(k, v, null);
+            return null;
+        }));
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -912,9 +1027,10 @@ public class EventuallyConsistentMapImpl<K, V>
                     item.isNewerThan(existing) ? item : existing));
             communicationExecutor.execute(() -> {
                 try {
-                    clusterCommunicator.unicast(ImmutableList.copyOf(map.values()),
+                    // updates make up the bulk of gossip traffic, so write them straight into the message
+                    clusterCommunicator.unicastStreamed(ImmutableList.copyOf(map.values()),
                             updateMessageSubject,
-                            serializer::encode,
+                            (updates, out) -> serializerNamespace.serialize(updates, out),
                             peer)
                             .whenComplete((result, error) -> {
                                 if (error != null) {
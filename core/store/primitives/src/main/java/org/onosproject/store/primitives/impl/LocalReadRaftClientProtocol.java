@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.google.common.collect.Sets;
+import io.atomix.protocols.raft.RaftError;
+import io.atomix.protocols.raft.cluster.MemberId;
+import io.atomix.protocols.raft.protocol.CloseSessionRequest;
+import io.atomix.protocols.raft.protocol.CloseSessionResponse;
+import io.atomix.protocols.raft.protocol.CommandRequest;
+import io.atomix.protocols.raft.protocol.CommandResponse;
+import io.atomix.protocols.raft.protocol.HeartbeatRequest;
+import io.atomix.protocols.raft.protocol.HeartbeatResponse;
+import io.atomix.protocols.raft.protocol.KeepAliveRequest;
+import io.atomix.protocols.raft.protocol.KeepAliveResponse;
+import io.atomix.protocols.raft.protocol.MetadataRequest;
+import io.atomix.protocols.raft.protocol.MetadataResponse;
+import io.atomix.protocols.raft.protocol.OpenSessionRequest;
+import io.atomix.protocols.raft.protocol.OpenSessionResponse;
+import io.atomix.protocols.raft.protocol.PublishRequest;
+import io.atomix.protocols.raft.protocol.QueryRequest;
+import io.atomix.protocols.raft.protocol.QueryResponse;
+import io.atomix.protocols.raft.protocol.RaftClientProtocol;
+import io.atomix.protocols.raft.protocol.RaftResponse;
+import io.atomix.protocols.raft.protocol.ResetRequest;
+import io.atomix.protocols.raft.proxy.RaftProxy;
+import io.atomix.protocols.raft.session.SessionId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Raft client protocol that sends the queries of selected sessions to the local replica.
+ * <p>
+ * Sessions opened with {@link io.atomix.protocols.raft.ReadConsistency#SEQUENTIAL sequential}
+ * read consistency have their queries evaluated by whichever server receives them, once that
+ * server has applied the session's last seen index. Queries of the sessions registered here
+ * are therefore sent to the local member rather than to the member the session is connected
+ * to, spreading reads across all the replicas of a partition. Should the local member fail
+ * to answer, the query is sent to the original member instead.
+ * </p>
+ */
+public class LocalReadRaftClientProtocol implements RaftClientProtocol {
+
+    private final RaftClientProtocol protocol;
+    private final MemberId localMemberId;
+    private final Map<RaftProxy, Long> proxies = new ConcurrentHashMap<>();
+    private final Set<Long> sessions = Sets.newConcurrentHashSet();
+
+    public LocalReadRaftClientProtocol(RaftClientProtocol protocol, MemberId localMemberId) {
+        this.protocol = checkNotNull(protocol);
+        this.localMemberId = checkNotNull(localMemberId);
+    }
+
+    /**
+     * Registers a proxy whose queries are to be sent to the local member.
+     * <p>
+     * The proxy is tracked across session changes, such as those following session
+     * recovery, until it is closed.
+     * </p>
+     *
+     * @param proxy proxy using sequential read consistency
+     * @return the given proxy
+     */
+    public RaftProxy register(RaftProxy proxy) {
+        track(proxy, proxy.getState());
+        proxy.addStateChangeListener(state -> track(proxy, state));
+        return proxy;
+    }
+
+    private synchronized void track(RaftProxy proxy, RaftProxy.State state) {
+        Long oldSession = state == RaftProxy.State.CLOSED
+                ? proxies.remove(proxy)
+                : proxies.put(proxy, proxy.sessionId().id());
+        if (oldSession != null) {
+            sessions.remove(oldSession);
+        }
+        if (state != RaftProxy.State.CLOSED) {
+            sessions.add(proxy.sessionId().id());
+        }
+    }
+
+    /**
+     * Returns whether the queries of the given session are sent to the local member.
+     *
+     * @param sessionId session identifier
+     * @return {@code true} if the session reads from the local member
+     */
+    boolean isLocal(long sessionId) {
+        return sessions.contains(sessionId);
+    }
+
+    @Override
+    public CompletableFuture<QueryResponse> query(MemberId memberId, QueryRequest request) {
+        if (memberId.equals(localMemberId) || !isLocal(request.session())) {
+            return protocol.query(memberId, request);
+        }
+        CompletableFuture<QueryResponse> future = new CompletableFuture<>();
+        protocol.query(localMemberId, request).whenComplete((response, error) -> {
+            if (error == null && !needsRetry(response)) {
+                future.complete(response);
+            } else {
+                protocol.query(memberId, request).whenComplete((r, e) -> {
+                    if (e == null) {
+                        future.complete(r);
+                    } else {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+        });
+        return future;
+    }
+
+    // Errors other than application errors are reported by the local member
+    // when it is unable to serve the query, e.g. while it is catching up.
+    private boolean needsRetry(QueryResponse response) {
+        return response.status() == RaftResponse.Status.ERROR
+                && (response.error() == null || response.error().type() != RaftError.Type.APPLICATION_ERROR);
+    }
+
+    @Override
+    public CompletableFuture<OpenSessionResponse> openSession(MemberId memberId, OpenSessionRequest request) {
+        return protocol.openSession(memberId, request);
+    }
+
+    @Override
+    public CompletableFuture<CloseSessionResponse> closeSession(MemberId memberId, CloseSessionRequest request) {
+        return protocol.closeSession(memberId, request);
+    }
+
+    @Override
+    public CompletableFuture<KeepAliveResponse> keepAlive(MemberId memberId, KeepAliveRequest request) {
+        return protocol.keepAlive(memberId, request);
+    }
+
+    @Override
+    public CompletableFuture<CommandResponse> command(MemberId memberId, CommandRequest request) {
+        return protocol.command(memberId, request);
+    }
+
+    @Override
+    public CompletableFuture<MetadataResponse> metadata(MemberId memberId, MetadataRequest request) {
+        return protocol.metadata(memberId, request);
+    }
+
+    @Override
+    public void reset(Collection<MemberId> members, ResetRequest request) {
+        protocol.reset(members, request);
+    }
+
+    @Override
+    public void registerHeartbeatHandler(Function<HeartbeatRequest, CompletableFuture<HeartbeatResponse>> handler) {
+        protocol.registerHeartbeatHandler(handler);
+    }
+
+    @Override
+    public void unregisterHeartbeatHandler() {
+        protocol.unregisterHeartbeatHandler();
+    }
+
+    @Override
+    public void registerPublishListener(SessionId sessionId, Consumer<PublishRequest> listener, Executor executor) {
+        protocol.registerPublishListener(sessionId, listener, executor);
+    }
+
+    @Override
+    public void unregisterPublishListener(SessionId sessionId) {
+        protocol.unregisterPublishListener(sessionId);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import com.google.common.hash.Hashing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Hash tree over the digests of the entries of an eventually consistent map.
+ * <p>
+ * Entries are spread across a fixed number of leaves by a hash of their serialized key. Each
+ * leaf holds the sum of the hashes of its entries' key and {@link MapValue.Digest digest}, so
+ * an update changes a single leaf in constant time, while inner nodes are summed up from their
+ * leaves on demand. Replicas comparing their trees from the root down narrow their differences
+ * to the leaves, and thereby the entries, that diverge.
+ * </p>
+ * <p>
+ * Entry hashes rely on equal timestamps having equal hash codes on all replicas. Should they not,
+ * the affected leaves merely keep being compared entry by entry.
+ * </p>
+ */
+final class MapDigestTree<K> {
+
+    /**
+     * Depth of the leaves, the root being at depth 0.
+     */
+    static final int DEPTH = 12;
+
+    private final Function<K, byte[]> keyEncoder;
+    private final AtomicLongArray leaves = new AtomicLongArray(1 << DEPTH);
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param keyEncoder encoder of keys, yielding the same bytes for equal keys on all replicas
+     */
+    MapDigestTree(Function<K, byte[]> keyEncoder) {
+        this.keyEncoder = checkNotNull(keyEncoder);
+    }
+
+    /**
+     * Accounts for the value mapped to a key changing.
+     * <p>
+     * Meant to be called while the entry is locked. The key hash carried by the previous
+     * value, if any, is handed over to the new one.
+     * </p>
+     *
+     * @param key key
+     * @param oldValue previous value or null if the key was absent
+     * @param newValue new value or null if the key is removed
+     */
+    void update(K key, MapValue<?> oldValue, MapValue<?> newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        long keyHash = oldValue != null && oldValue.keyHash() != 0 ? oldValue.keyHash() : keyHash(key);
+        long delta = 0;
+        if (oldValue != null) {
+            delta -= entryHash(keyHash, oldValue);
+        }
+        if (newValue != null) {
+            newValue.setKeyHash(keyHash);
+            delta += entryHash(keyHash, newValue);
+        }
+        leaves.addAndGet(leaf(keyHash), delta);
+    }
+
+    /**
+     * Returns the hashes of the given nodes of a level of the tree.
+     *
+     * @param level depth of the nodes
+     * @param nodes indices of the nodes within their level
+     * @return node hashes
+     */
+    long[] hashes(int level, int[] nodes) {
+        checkArgument(level >= 0 && level <= DEPTH, "Invalid level %s", level);
+        int width = 1 << (DEPTH - level);
+        long[] hashes = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            checkArgument(nodes[i] >= 0 && nodes[i] < 1 << level, "Invalid node %s", nodes[i]);
+            long hash = 0;
+            for (int leaf = nodes[i] * width; leaf < (nodes[i] + 1) * width; leaf++) {
+                hash += leaves.get(leaf);
+            }
+            hashes[i] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns the descendants of the given nodes at a deeper level of the tree.
+     *
+     * @param level depth of the nodes
+     * @param nodes indices of the nodes within their level
+     * @param descendantLevel depth of the descendants
+     * @return indices of the descendants within their level
+     */
+    static int[] descendants(int level, int[] nodes, int descendantLevel) {
+        int fanout = 1 << (descendantLevel - level);
+        int[] descendants = new int[nodes.length * fanout];
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = 0; j < fanout; j++) {
+                descendants[i * fanout + j] = nodes[i] * fanout + j;
+            }
+        }
+        return descendants;
+    }
+
+    /**
+     * Returns whether a value falls within the given set of leaves.
+     *
+     * @param value value carrying the hash of its key
+     * @param leaves set of leaves
+     * @return true if the value belongs to one of the leaves
+     */
+    static boolean contains(BitSet leaves, MapValue<?> value) {
+        return leaves.get(leaf(value.keyHash()));
+    }
+
+    private long keyHash(K key) {
+        long hash = Hashing.murmur3_128().hashBytes(keyEncoder.apply(key)).asLong();
+        // 0 stands for a value whose key hash is yet to be set
+        return hash != 0 ? hash : 1;
+    }
+
+    private static int leaf(long keyHash) {
+        return (int) (keyHash >>> (Long.SIZE - DEPTH));
+    }
+
+    private static long entryHash(long keyHash, MapValue<?> value) {
+        long hash = keyHash * 31 + value.timestamp().hashCode();
+        hash = hash * 31 + (value.isTombstone() ? 1 : 0);
+        // Finalization step of MurmurHash3, spreading hashes of similar entries
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53a2d0b6c5bL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
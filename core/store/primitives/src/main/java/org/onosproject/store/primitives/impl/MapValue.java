@@ -31,6 +31,8 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
     private final Timestamp timestamp;
     private final V value;
     private long creationTime;
+    // Hash of the serialized key mapped to this value, set by the digest tree of the map
+    private transient long keyHash;
 
     /**
      * Creates a tombstone value with the specified timestamp.
@@ -75,7 +77,7 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
      * @return MapValue copy
      */
     public MapValue<V> copy() {
-        return new MapValue<>(this.value, this.timestamp, System.currentTimeMillis());
+        return new MapValue<>(get(), this.timestamp, System.currentTimeMillis());
     }
 
     /**
@@ -146,6 +148,24 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
         return this.timestamp.isNewerThan(timestamp);
     }
 
+    /**
+     * Returns the hash of the serialized key mapped to this value.
+     *
+     * @return key hash or 0 if not set
+     */
+    long keyHash() {
+        return keyHash;
+    }
+
+    /**
+     * Sets the hash of the serialized key mapped to this value.
+     *
+     * @param keyHash key hash
+     */
+    void setKeyHash(long keyHash) {
+        this.keyHash = keyHash;
+    }
+
     /**
      * Returns summary of a MapValue for use during Anti-Entropy exchanges.
      *
@@ -162,7 +182,7 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(timestamp, value);
+        return Objects.hashCode(timestamp, get());
     }
 
     @SuppressWarnings("unchecked")
@@ -171,7 +191,7 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
         if (other instanceof MapValue) {
             MapValue<V> that = (MapValue<V>) other;
             return Objects.equal(this.timestamp, that.timestamp) &&
-                    Objects.equal(this.value, that.value);
+                    Objects.equal(this.get(), that.get());
         }
         return false;
     }
@@ -180,7 +200,7 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
                 .add("timestamp", timestamp)
-                .add("value", value)
+                .add("value", get())
                 .toString();
     }
 
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.Versioned;
+import org.onosproject.utils.MeteringAgent;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.onosproject.store.service.DistributedPrimitive.Status.INACTIVE;
+import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDED;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * {@code AsyncConsistentMap} that keeps a bounded near cache of the backing map.
+ * <p>
+ * Entries are cached as they are read and kept current by the update events
+ * of the backing map, which the map session delivers in order with the
+ * responses to its operations. A read following a completed update through
+ * this map therefore observes that update without going to the backing map.
+ * <p>
+ * Once a key, value or entry set snapshot has been read, the whole map is
+ * mirrored locally as long as it fits within the cache size, and further
+ * snapshots, size and value lookups are served from the mirror. The mirror
+ * and all cached entries are dropped when the backing map is suspended, as
+ * updates may have been missed.
+ * <p>
+ * Writes through this map invalidate the written keys and the mirror. Values
+ * read from the backing map are only cached once the update listener is in
+ * place and if no update or invalidation of the same key has been applied
+ * since the read was issued, or if they are newer than the value cached
+ * meanwhile, so that a slow read never replaces a newer value.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class NearCachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMap<K, V> {
+    private final Logger log = getLogger(getClass());
+
+    private final int maxSize;
+    private final long expirationMillis;
+    private final Cache<K, Optional<Versioned<V>>> cache;
+    private final MapEventListener<K, V> cacheUpdater;
+    private final Consumer<Status> statusListener;
+    private final CompletableFuture<Void> listening;
+
+    private volatile Mirror mirror;
+
+    // Bumped whenever the cache or mirror is updated or invalidated.
+    private final AtomicLong modifications = new AtomicLong();
+
+    // Stamps of the keys with reads of the backing map in flight.
+    private final Map<K, ReadStamp> reads = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final MeteringAgent monitor;
+
+    private static final String PRIMITIVE_NAME = "consistentMap-nearCache";
+    private static final String HIT = "hit";
+    private static final String MISS = "miss";
+
+    /**
+     * Creates a near caching map.
+     *
+     * @param backingMap a distributed, strongly consistent map for backing
+     * @param maxSize    the maximum number of cached entries
+     * @param expiration time after which cached entries are reloaded;
+     *                   {@link Duration#ZERO} if entries never expire
+     */
+    public NearCachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap,
+                                         int maxSize, Duration expiration) {
+        this(backingMap, maxSize, expiration, false);
+    }
+
+    /**
+     * Creates a near caching map.
+     *
+     * @param backingMap      a distributed, strongly consistent map for backing
+     * @param maxSize         the maximum number of cached entries
+     * @param expiration      time after which cached entries are reloaded;
+     *                        {@link Duration#ZERO} if entries never expire
+     * @param meteringEnabled whether cache hits and misses are metered
+     */
+    public NearCachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap,
+                                         int maxSize, Duration expiration,
+                                         boolean meteringEnabled) {
+        super(backingMap);
+        this.monitor = new MeteringAgent(PRIMITIVE_NAME, backingMap.name(), meteringEnabled);
+        this.maxSize = maxSize;
+        this.expirationMillis = expiration.toMillis();
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize);
+        if (expirationMillis > 0) {
+            builder.expireAfterWrite(expirationMillis, TimeUnit.MILLISECONDS);
+        }
+        cache = builder.build();
+        cacheUpdater = this::update;
+        statusListener = status -> {
+            log.debug("{} status changed to {}", this.name(), status);
+            // If the status of the underlying map is SUSPENDED or INACTIVE
+            // we can no longer guarantee that the cache will be in sync.
+            if (status == SUSPENDED || status == INACTIVE) {
+                invalidateAll();
+            }
+        };
+        listening = super.addListener(cacheUpdater);
+        super.addStatusChangeListener(statusListener);
+    }
+
+    @Override
+    public long nearCacheHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long nearCacheMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public CompletableFuture<Void> destroy() {
+        super.removeStatusChangeListener(statusListener);
+        return super.destroy().thenCompose(v -> removeListener(cacheUpdater));
+    }
+
+    private void hit() {
+        hits.incrementAndGet();
+        monitor.mark(HIT, 1);
+    }
+
+    private void miss() {
+        misses.incrementAndGet();
+        monitor.mark(MISS, 1);
+    }
+
+    // Applies an update event of the backing map to the cache and mirror.
+    private void update(MapEvent<K, V> event) {
+        modifications.incrementAndGet();
+        reads.computeIfPresent(event.key(), (k, stamp) -> stamp.modified());
+        Versioned<V> newValue = event.newValue();
+        Mirror current = mirror;
+        if (newValue == null) {
+            cache.put(event.key(), Optional.empty());
+            if (current != null) {
+                current.entries.remove(event.key());
+            }
+        } else {
+            cache.put(event.key(), Optional.of(newValue));
+            if (current != null) {
+                current.entries.put(event.key(), newValue);
+                if (current.entries.size() > maxSize) {
+                    mirror = null;
+                }
+            }
+        }
+    }
+
+    private void invalidate(K key) {
+        modifications.incrementAndGet();
+        reads.computeIfPresent(key, (k, stamp) -> stamp.modified());
+        mirror = null;
+        cache.invalidate(key);
+    }
+
+    private void invalidateAll() {
+        modifications.incrementAndGet();
+        reads.replaceAll((k, stamp) -> stamp.modified());
+        mirror = null;
+        cache.invalidateAll();
+    }
+
+    // Returns the mirror if it can still be relied on.
+    private Map<K, Versioned<V>> mirror() {
+        Mirror current = mirror;
+        if (current == null) {
+            return null;
+        }
+        if (expirationMillis > 0 && System.currentTimeMillis() - current.created > expirationMillis) {
+            mirror = null;
+            return null;
+        }
+        return current.entries;
+    }
+
+    // Mirrors the given entries unless there are more than the cache can hold
+    // or the cache has been modified since they were read.
+    private void mirror(Set<Entry<K, Versioned<V>>> entries, long readAt) {
+        if (isListening() && entries.size() <= maxSize
+                && modifications.get() == readAt) {
+            Mirror newMirror = new Mirror(entries.size());
+            entries.forEach(e -> newMirror.entries.put(e.getKey(), e.getValue()));
+            mirror = newMirror;
+            // An update applied while installing may have missed the new mirror.
+            if (modifications.get() != readAt) {
+                mirror = null;
+            }
+        }
+    }
+
+    // Returns whether the cache updater is registered with the backing map.
+    private boolean isListening() {
+        return listening.isDone() && !listening.isCompletedExceptionally();
+    }
+
+    // Records a read of the given key from the backing map and returns its
+    // generation.
+    private long startRead(K key) {
+        return reads.compute(key, (k, stamp) -> stamp == null ? new ReadStamp(1, 0) : stamp.started())
+                .generation;
+    }
+
+    // Ends a read of the given key from the backing map, caching the value
+    // read unless the key may have been updated or invalidated since the read
+    // was issued and the cached value is not older.
+    private void finishRead(K key, Versioned<V> value, boolean succeeded, long generation) {
+        reads.compute(key, (k, stamp) -> {
+            if (succeeded) {
+                if (isListening() && stamp.generation == generation) {
+                    cache.put(key, Optional.ofNullable(value));
+                } else if (value != null) {
+                    cache.asMap().computeIfPresent(key, (k2, cached) ->
+                            cached.isPresent() && cached.get().version() < value.version()
+                                    ? Optional.of(value) : cached);
+                }
+            }
+            return stamp.finished();
+        });
+    }
+
+    // Returns the cached value of the given key, if any.
+    private Optional<Versioned<V>> cached(K key) {
+        Map<K, Versioned<V>> entries = mirror();
+        if (entries != null) {
+            hit();
+            return Optional.ofNullable(entries.get(key));
+        }
+        Optional<Versioned<V>> value = cache.getIfPresent(key);
+        if (value != null) {
+            hit();
+            return value;
+        }
+        miss();
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> get(K key) {
+        Optional<Versioned<V>> value = cached(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value.orElse(null));
+        }
+        long generation = startRead(key);
+        return super.get(key).whenComplete((r, e) -> finishRead(key, r, e == null, generation));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> getOrDefault(K key, V defaultValue) {
+        Optional<Versioned<V>> value = cached(key);
+        if (value != null && value.isPresent()) {
+            return CompletableFuture.completedFuture(value.get());
+        }
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newHashMap();
+        Set<K> missing = Sets.newHashSet();
+        for (K key : keys) {
+            Optional<Versioned<V>> value = cached(key);
+            if (value == null) {
+                missing.add(key);
+            } else {
+                value.ifPresent(v -> values.put(key, v));
+            }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(values);
+        }
+        Map<K, Long> generations = Maps.newHashMap();
+        missing.forEach(key -> generations.put(key, startRead(key)));
+        return super.getAll(missing).whenComplete((fetched, e) -> generations.forEach((key, generation) ->
+                finishRead(key, e == null ? fetched.get(key) : null, e == null, generation)))
+                .thenApply(fetched -> {
+                    values.putAll(fetched);
+                    return values;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsKey(K key) {
+        return get(key).thenApply(Objects::nonNull);
+    }
+
+    @Override
+    public CompletableFuture<Integer> size() {
+        Map<K, Versioned<V>> entries = mirror();
+        if (entries != null) {
+            hit();
+            return CompletableFuture.completedFuture(entries.size());
+        }
+        miss();
+        return super.size();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isEmpty() {
+        return size().thenApply(size -> size == 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsValue(V value) {
+        Map<K, Versioned<V>> entries = mirror();
+        if (entries != null) {
+            hit();
+            return CompletableFuture.completedFuture(entries.values().stream()
+                    .anyMatch(v -> Objects.deepEquals(v.value(), value)));
+        }
+        miss();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public CompletableFuture<Set<K>> keySet() {
+        Map<K, Versioned<V>> entries = mirror();
+        if (entries != null) {
+            hit();
+            return CompletableFuture.completedFuture(ImmutableSet.copyOf(entries.keySet()));
+        }
+        return loadEntries().thenApply(set -> {
+            ImmutableSet.Builder<K> keys = ImmutableSet.builder();
+            set.forEach(e -> keys.add(e.getKey()));
+            return keys.build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Collection<Versioned<V>>> values() {
+        Map<K, Versioned<V>> entries = mirror();
+        if (entries != null) {
+            hit();
+            return CompletableFuture.completedFuture(ImmutableList.copyOf(entries.values()));
+        }
+        return loadEntries().thenApply(set -> {
+            ImmutableList.Builder<Versioned<V>> values = ImmutableList.builder();
+            set.forEach(e -> values.add(e.getValue()));
+            return values.build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Set<Entry<K, Versioned<V>>>> entrySet() {
+        Map<K, Versioned<V>> entries = mirror();
+        if (entries != null) {
+            hit();
+            ImmutableSet.Builder<Entry<K, Versioned<V>>> set = ImmutableSet.builder();
+            entries.forEach((k, v) -> set.add(Maps.immutableEntry(k, v)));
+            return CompletableFuture.completedFuture(set.build());
+        }
+        return loadEntries();
+    }
+
+    // Reads all entries from the backing map and mirrors them if possible.
+    private CompletableFuture<Set<Entry<K, Versioned<V>>>> loadEntries() {
+        miss();
+        long readAt = modifications.get();
+        return super.entrySet().whenComplete((r, e) -> {
+            if (e == null) {
+                mirror(r, readAt);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> computeIf(K key,
+            Predicate<? super V> condition,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return super.computeIf(key, condition, remappingFunction)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> put(K key, V value) {
+        return super.put(key, value)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putAndGet(K key, V value) {
+        return super.putAndGet(key, value)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putIfAbsent(K key, V value) {
+        return super.putIfAbsent(key, value)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> remove(K key) {
+        return super.remove(key)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return super.putAll(entries)
+                .whenComplete((r, e) -> entries.keySet().forEach(this::invalidate));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return super.removeAll(keys)
+                .whenComplete((r, e) -> keys.forEach(this::invalidate));
+    }
+
+    @Override
+    public CompletableFuture<Void> clear() {
+        return super.clear()
+                .whenComplete((r, e) -> invalidateAll());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(K key, V value) {
+        return super.remove(key, value)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(K key, long version) {
+        return super.remove(key, version)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> replace(K key, V value) {
+        return super.replace(key, value)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replace(K key, V oldValue, V newValue) {
+        return super.replace(key, oldValue, newValue)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replace(K key, long oldVersion, V newValue) {
+        return super.replace(key, oldVersion, newValue)
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    // Number of reads of a key in flight and the number of times the key has
+    // been updated or invalidated while they were.
+    private static final class ReadStamp {
+        private final int readers;
+        private final long generation;
+
+        private ReadStamp(int readers, long generation) {
+            this.readers = readers;
+            this.generation = generation;
+        }
+
+        private ReadStamp started() {
+            return new ReadStamp(readers + 1, generation);
+        }
+
+        private ReadStamp finished() {
+            return readers > 1 ? new ReadStamp(readers - 1, generation) : null;
+        }
+
+        private ReadStamp modified() {
+            return new ReadStamp(readers, generation + 1);
+        }
+    }
+
+    // Local copy of the whole backing map.
+    private final class Mirror {
+        private final Map<K, Versioned<V>> entries;
+        private final long created = System.currentTimeMillis();
+
+        private Mirror(int size) {
+            this.entries = new ConcurrentHashMap<>(Math.max(size, 16));
+        }
+    }
+}
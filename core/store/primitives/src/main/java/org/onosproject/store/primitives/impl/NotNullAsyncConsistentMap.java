@@ -22,6 +22,8 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.Versioned;
 
@@ -54,6 +56,13 @@ public class NotNullAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.getOrDefault(key, defaultValue).thenApply(v -> v != null && v.value() == null ? null : v);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return super.getAll(keys).thenApply(values -> values.entrySet().stream()
+                .filter(e -> e.getValue().value() != null)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> put(K key, V value) {
         if (value == null) {
@@ -62,6 +71,23 @@ public class NotNullAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.put(key, value);
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        if (entries.values().stream().noneMatch(Objects::isNull)) {
+            return super.putAll(entries);
+        }
+        Map<K, V> updates = Maps.newHashMap();
+        Set<K> removals = Sets.newHashSet();
+        entries.forEach((key, value) -> {
+            if (value == null) {
+                removals.add(key);
+            } else {
+                updates.put(key, value);
+            }
+        });
+        return CompletableFuture.allOf(super.putAll(updates), super.removeAll(removals));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> putAndGet(K key, V value) {
         if (value == null) {
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Sets;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.Timestamp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Map of eventually consistent map values keeping the values themselves serialized off the heap.
+ * <p>
+ * Each entry is held on the heap by a {@link StoredValue} carrying the timestamp and creation
+ * time of the value, so that digests, tombstones and timestamp comparisons do not involve the
+ * value. The value is written to chunks of direct memory and decoded on access, the most
+ * recently accessed values being kept decoded. Chunks are dropped once none of their values are
+ * live anymore, and {@link #compact() compaction} moves the remaining values out of mostly
+ * unused chunks.
+ * </p>
+ * <p>
+ * Updates are atomic per key as long as they go through {@code compute} and its variants. The
+ * entry views are read-only.
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class OffHeapValueMap<K, V> extends AbstractMap<K, MapValue<V>> {
+
+    static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    static final int DEFAULT_CACHE_SIZE = 1000;
+
+    // Chunks with less than this fraction of their capacity live are compacted
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    private final KryoNamespace serializer;
+    private final int chunkSize;
+    private final Map<K, StoredValue> index = new ConcurrentHashMap<>();
+    private final Cache<StoredValue, V> cache;
+
+    // guarded by this
+    private final Set<Chunk> chunks = Sets.newHashSet();
+    private Chunk current;
+
+    /**
+     * Creates an empty map using the default chunk and cache sizes.
+     *
+     * @param serializer serializer for values
+     */
+    OffHeapValueMap(KryoNamespace serializer) {
+        this(serializer, DEFAULT_CHUNK_SIZE, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param serializer serializer for values
+     * @param chunkSize size in bytes of the chunks values are written to
+     * @param cacheSize maximum number of values kept decoded
+     */
+    OffHeapValueMap(KryoNamespace serializer, int chunkSize, int cacheSize) {
+        checkArgument(chunkSize > 0, "chunkSize must be positive");
+        this.serializer = checkNotNull(serializer);
+        this.chunkSize = chunkSize;
+        // weak keys are compared by identity, so values rewritten to other chunks are decoded anew
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .weakKeys()
+                .build();
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public MapValue<V> get(Object key) {
+        return index.get(key);
+    }
+
+    @Override
+    public MapValue<V> put(K key, MapValue<V> value) {
+        checkNotNull(value);
+        AtomicReference<MapValue<V>> previous = new AtomicReference<>();
+        compute(key, (k, v) -> {
+            previous.set(v);
+            return value;
+        });
+        return previous.get();
+    }
+
+    @Override
+    public MapValue<V> remove(Object key) {
+        StoredValue previous = index.remove(key);
+        if (previous != null) {
+            previous.release();
+        }
+        return previous;
+    }
+
+    @Override
+    public MapValue<V> compute(K key,
+            BiFunction<? super K, ? super MapValue<V>, ? extends MapValue<V>> remappingFunction) {
+        return index.compute(key, (k, stored) -> {
+            MapValue<V> value = remappingFunction.apply(k, stored);
+            if (value == stored) {
+                return stored;
+            }
+            StoredValue updated = value != null ? store(value) : null;
+            if (stored != null) {
+                stored.release();
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public MapValue<V> computeIfPresent(K key,
+            BiFunction<? super K, ? super MapValue<V>, ? extends MapValue<V>> remappingFunction) {
+        return compute(key, (k, v) -> v != null ? remappingFunction.apply(k, v) : null);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super MapValue<V>> action) {
+        index.forEach(action);
+    }
+
+    @Override
+    public Set<Entry<K, MapValue<V>>> entrySet() {
+        return Collections.<K, MapValue<V>>unmodifiableMap(index).entrySet();
+    }
+
+    /**
+     * Moves the values held by mostly unused chunks to the current chunk, so that the former
+     * can be dropped.
+     */
+    void compact() {
+        Set<Chunk> sparse;
+        synchronized (this) {
+            sparse = chunks.stream()
+                    .filter(chunk -> chunk != current)
+                    .filter(chunk -> chunk.liveBytes.get() < chunk.buffer.capacity() * COMPACTION_THRESHOLD)
+                    .collect(Collectors.toSet());
+        }
+        if (sparse.isEmpty()) {
+            return;
+        }
+        index.forEach((key, value) -> {
+            if (sparse.contains(value.chunk)) {
+                index.computeIfPresent(key, (k, stored) -> {
+                    if (!sparse.contains(stored.chunk)) {
+                        return stored;
+                    }
+                    StoredValue moved = new StoredValue(stored, write(stored.chunk.read(stored.offset,
+                                                                                        stored.length)));
+                    stored.release();
+                    return moved;
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns the number of chunks currently allocated.
+     *
+     * @return number of chunks
+     */
+    synchronized int chunkCount() {
+        return chunks.size();
+    }
+
+    private StoredValue store(MapValue<V> value) {
+        if (value.isTombstone()) {
+            return new StoredValue(value, null);
+        }
+        StoredValue stored = new StoredValue(value, write(serializer.serialize(value.get())));
+        cache.put(stored, value.get());
+        return stored;
+    }
+
+    private synchronized Region write(byte[] bytes) {
+        if (current == null || current.buffer.capacity() - current.position < bytes.length) {
+            if (current != null && current.liveBytes.get() == 0) {
+                chunks.remove(current);
+            }
+            current = new Chunk(Math.max(chunkSize, bytes.length));
+            chunks.add(current);
+        }
+        Region region = new Region(current, current.position, bytes.length);
+        ByteBuffer buffer = current.buffer.duplicate();
+        buffer.position(current.position);
+        buffer.put(bytes);
+        current.position += bytes.length;
+        current.liveBytes.addAndGet(bytes.length);
+        return region;
+    }
+
+    private synchronized void release(Chunk chunk, int length) {
+        if (chunk.liveBytes.addAndGet(-length) == 0 && chunk != current) {
+            chunks.remove(chunk);
+        }
+    }
+
+    /**
+     * Chunk of direct memory values are appended to.
+     */
+    private static final class Chunk {
+        private final ByteBuffer buffer;
+        private final AtomicInteger liveBytes = new AtomicInteger();
+        // guarded by the owning map
+        private int position;
+
+        private Chunk(int capacity) {
+            this.buffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        private byte[] read(int offset, int length) {
+            byte[] bytes = new byte[length];
+            ByteBuffer region = buffer.duplicate();
+            region.position(offset);
+            region.get(bytes);
+            return bytes;
+        }
+    }
+
+    /**
+     * Location of a serialized value.
+     */
+    private static final class Region {
+        private final Chunk chunk;
+        private final int offset;
+        private final int length;
+
+        private Region(Chunk chunk, int offset, int length) {
+            this.chunk = chunk;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Map value whose value is decoded from its chunk on access.
+     */
+    final class StoredValue extends MapValue<V> {
+        private final Chunk chunk;
+        private final int offset;
+        private final int length;
+
+        private StoredValue(MapValue<V> value, Region region) {
+            super(null, value.timestamp(), value.creationTime());
+            setKeyHash(value.keyHash());
+            this.chunk = region != null ? region.chunk : null;
+            this.offset = region != null ? region.offset : 0;
+            this.length = region != null ? region.length : 0;
+        }
+
+        @Override
+        public boolean isTombstone() {
+            return chunk == null;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return chunk != null;
+        }
+
+        @Override
+        public V get() {
+            if (chunk == null) {
+                return null;
+            }
+            V value = cache.getIfPresent(this);
+            if (value == null) {
+                ByteBuffer region = chunk.buffer.duplicate();
+                region.position(offset);
+                region.limit(offset + length);
+                value = serializer.deserialize(region.slice());
+                cache.put(this, value);
+            }
+            return value;
+        }
+
+        private void release() {
+            if (chunk != null) {
+                OffHeapValueMap.this.release(chunk, length);
+            }
+        }
+    }
+
+    /**
+     * Kryo serializer writing stored values as they would be written on the heap, so that
+     * peers read them back as plain {@link MapValue}s.
+     */
+    static final class StoredValueSerializer extends Serializer<MapValue<?>> {
+
+        @Override
+        public void write(Kryo kryo, Output output, MapValue<?> value) {
+            kryo.writeClassAndObject(output, value.timestamp());
+            kryo.writeClassAndObject(output, value.get());
+            output.writeLong(value.creationTime());
+        }
+
+        @Override
+        public MapValue<?> read(Kryo kryo, Input input, Class<MapValue<?>> type) {
+            Timestamp timestamp = (Timestamp) kryo.readClassAndObject(input);
+            Object value = kryo.readClassAndObject(input);
+            return new MapValue<>(value, timestamp, input.readLong());
+        }
+    }
+}
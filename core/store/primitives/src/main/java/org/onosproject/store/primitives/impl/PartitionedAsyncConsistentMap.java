@@ -41,6 +41,7 @@ import org.onosproject.store.service.Version;
 import org.onosproject.store.service.Versioned;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
@@ -104,6 +105,15 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).getOrDefault(key, defaultValue);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        return Tools.allOf(groupByPartition(keys).entrySet().stream()
+                        .map(e -> partitions.get(e.getKey()).getAll(e.getValue()))
+                        .collect(Collectors.toList()),
+                (m1, m2) -> ImmutableMap.<K, Versioned<V>>builder().putAll(m1).putAll(m2).build(),
+                ImmutableMap.of());
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> computeIf(K key,
             Predicate<? super V> condition,
@@ -126,6 +136,23 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).remove(key);
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        Map<PartitionId, Map<K, V>> batches = Maps.newHashMap();
+        entries.forEach((key, value) ->
+                batches.computeIfAbsent(keyHasher.hash(key), p -> Maps.newHashMap()).put(key, value));
+        return CompletableFuture.allOf(batches.entrySet().stream()
+                                              .map(e -> partitions.get(e.getKey()).putAll(e.getValue()))
+                                              .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return CompletableFuture.allOf(groupByPartition(keys).entrySet().stream()
+                                              .map(e -> partitions.get(e.getKey()).removeAll(e.getValue()))
+                                              .toArray(CompletableFuture[]::new));
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return CompletableFuture.allOf(getMaps().stream()
@@ -247,6 +274,15 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return partitions.get(keyHasher.hash(key));
     }
 
+    /**
+     * Groups the specified keys by the partition to which they map.
+     * @param keys keys
+     * @return keys keyed by partition
+     */
+    private Map<PartitionId, Set<K>> groupByPartition(Set<K> keys) {
+        return keys.stream().collect(Collectors.groupingBy(keyHasher::hash, Collectors.toSet()));
+    }
+
     /**
      * Returns all the constituent maps.
      * @return collection of maps.
@@ -18,11 +18,13 @@ package org.onosproject.store.primitives.impl;
 import java.net.ConnectException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 import io.atomix.protocols.raft.RaftException;
 import io.atomix.protocols.raft.cluster.MemberId;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
+import org.onosproject.store.cluster.messaging.MessagePriority;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.service.Serializer;
@@ -44,6 +46,13 @@ public abstract class RaftCommunicator {
         this.context = checkNotNull(context, "context cannot be null");
         this.serializer = checkNotNull(serializer, "serializer cannot be null");
         this.clusterCommunicator = checkNotNull(clusterCommunicator, "clusterCommunicator cannot be null");
+        // Keep the messages sessions and leadership depend on clear of bulk transfers
+        Stream.of(context.heartbeatSubject,
+                  context.keepAliveSubject,
+                  context.pollSubject,
+                  context.voteSubject,
+                  context.appendSubject)
+                .forEach(subject -> clusterCommunicator.setPriority(subject, MessagePriority.HIGH));
     }
 
     protected <T, U> CompletableFuture<U> sendAndReceive(MessageSubject subject, T request, MemberId memberId) {
@@ -27,6 +27,7 @@ import io.atomix.protocols.raft.ReadConsistency;
 import io.atomix.protocols.raft.cluster.MemberId;
 import io.atomix.protocols.raft.protocol.RaftClientProtocol;
 import io.atomix.protocols.raft.proxy.CommunicationStrategy;
+import io.atomix.protocols.raft.proxy.RaftProxy;
 import io.atomix.protocols.raft.session.RaftSessionMetadata;
 import org.onlab.util.HexString;
 import org.onosproject.store.primitives.DistributedPrimitiveCreator;
@@ -74,6 +75,7 @@ public class StoragePartitionClient implements DistributedPrimitiveCreator, Mana
     private final StoragePartition partition;
     private final MemberId localMemberId;
     private final RaftClientProtocol protocol;
+    private final LocalReadRaftClientProtocol localReadProtocol;
     private RaftClient client;
     private final com.google.common.base.Supplier<AsyncConsistentMap<String, byte[]>> onosAtomicValuesMap =
             Suppliers.memoize(() -> newAsyncConsistentMap(ATOMIC_VALUES_CONSISTENT_MAP_NAME,
@@ -83,12 +85,13 @@ public class StoragePartitionClient implements DistributedPrimitiveCreator, Mana
         this.partition = partition;
         this.localMemberId = localMemberId;
         this.protocol = protocol;
+        this.localReadProtocol = new LocalReadRaftClientProtocol(protocol, localMemberId);
     }
 
     @Override
     public CompletableFuture<Void> open() {
         synchronized (StoragePartitionClient.this) {
-            client = newRaftClient(protocol);
+            client = newRaftClient(localReadProtocol);
         }
         return client.connect(partition.getMemberIds()).whenComplete((r, e) -> {
             if (e == null) {
@@ -106,18 +109,23 @@ public class StoragePartitionClient implements DistributedPrimitiveCreator, Mana
 
     @Override
     @SuppressWarnings("unchecked")
-    public <K, V> AsyncConsistentMap<K, V> newAsyncConsistentMap(String name, Serializer serializer) {
-        AtomixConsistentMap rawMap =
-                new AtomixConsistentMap(client.newProxyBuilder()
-                        .withName(name)
-                        .withServiceType(DistributedPrimitive.Type.CONSISTENT_MAP.name())
-                        .withReadConsistency(ReadConsistency.SEQUENTIAL)
-                        .withCommunicationStrategy(CommunicationStrategy.ANY)
-                        .withTimeout(Duration.ofSeconds(30))
-                        .withMaxRetries(MAX_RETRIES)
-                        .build()
-                        .open()
-                        .join());
+    public <K, V> AsyncConsistentMap<K, V> newAsyncConsistentMap(String name, Serializer serializer,
+                                                                 boolean localReads) {
+        RaftProxy proxy = client.newProxyBuilder()
+                .withName(name)
+                .withServiceType(DistributedPrimitive.Type.CONSISTENT_MAP.name())
+                .withReadConsistency(ReadConsistency.SEQUENTIAL)
+                .withCommunicationStrategy(CommunicationStrategy.ANY)
+                .withTimeout(Duration.ofSeconds(30))
+                .withMaxRetries(MAX_RETRIES)
+                .build()
+                .open()
+                .join();
+        // Only members of the partition hold a replica to read from.
+        if (localReads && partition.getMemberIds().contains(localMemberId)) {
+            localReadProtocol.register(proxy);
+        }
+        AtomixConsistentMap rawMap = new AtomixConsistentMap(proxy);
 
         if (serializer != null) {
             return DistributedPrimitives.newTranscodingMap(rawMap,
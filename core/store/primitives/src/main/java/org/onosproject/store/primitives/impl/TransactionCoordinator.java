@@ -25,6 +25,7 @@ import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.CommitStatus;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.TransactionalMap;
+import org.onosproject.utils.MeteringAgent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,14 +35,26 @@ import static com.google.common.base.MoreObjects.toStringHelper;
  * Transaction coordinator.
  */
 public class TransactionCoordinator {
+    private static final String PREPARE_AND_COMMIT = "prepareAndCommit";
+    private static final String PREPARE = "prepare";
+    private static final String COMMIT_PREPARED = "commitPrepared";
+    private static final String ROLLBACK = "rollback";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
     protected final TransactionId transactionId;
     protected final TransactionManager transactionManager;
+    protected final MeteringAgent monitor;
     protected final Set<TransactionParticipant> transactionParticipants = Sets.newConcurrentHashSet();
 
     public TransactionCoordinator(TransactionId transactionId, TransactionManager transactionManager) {
+        this(transactionId, transactionManager, new MeteringAgent("transactionContext", "*", false));
+    }
+
+    public TransactionCoordinator(TransactionId transactionId, TransactionManager transactionManager,
+                                  MeteringAgent monitor) {
         this.transactionId = transactionId;
         this.transactionManager = transactionManager;
+        this.monitor = monitor;
     }
 
     /**
@@ -74,11 +87,13 @@ public class TransactionCoordinator {
             return CompletableFuture.completedFuture(CommitStatus.SUCCESS);
         } else if (totalParticipants == 1) {
             log.debug("Committing transaction {} via 1 participant", transactionId);
+            MeteringAgent.Context timer = monitor.startTimer(PREPARE_AND_COMMIT);
             return transactionParticipants.stream()
                     .filter(TransactionParticipant::hasPendingUpdates)
                     .findFirst()
                     .get()
                     .prepareAndCommit()
+                    .whenComplete((r, e) -> timer.stop(e))
                     .thenApply(v -> v ? CommitStatus.SUCCESS : CommitStatus.FAILURE);
         } else {
             log.debug("Committing transaction {} via {} participants", transactionId, totalParticipants);
@@ -96,7 +111,14 @@ public class TransactionCoordinator {
                             : transactionManager.updateState(transactionId, Transaction.State.ROLLING_BACK)
                             .thenCompose(v -> rollback(transactionParticipants))
                             .thenApply(v -> CommitStatus.FAILURE));
-            return status.thenCompose(v -> transactionManager.remove(transactionId).thenApply(u -> v));
+            // The outcome is final once participants have committed or rolled back, so a failure to
+            // remove the transaction from the registry is logged rather than reported to the caller.
+            return status.thenCompose(v -> transactionManager.remove(transactionId).handle((r, e) -> {
+                if (e != null) {
+                    log.warn("Failed to remove transaction {} from the registry", transactionId, e);
+                }
+                return v;
+            }));
         }
     }
 
@@ -108,9 +130,11 @@ public class TransactionCoordinator {
      */
     protected CompletableFuture<Boolean> prepare(Set<TransactionParticipant> transactionParticipants) {
         log.trace("Preparing transaction {} via {}", transactionId, transactionParticipants);
+        MeteringAgent.Context timer = monitor.startTimer(PREPARE);
         return Tools.allOf(transactionParticipants.stream()
                 .map(TransactionParticipant::prepare)
                 .collect(Collectors.toList()))
+                .whenComplete((r, e) -> timer.stop(e))
                 .thenApply(list -> list.stream().reduce(Boolean::logicalAnd).orElse(true));
     }
 
@@ -122,9 +146,11 @@ public class TransactionCoordinator {
      */
     protected CompletableFuture<Void> commit(Set<TransactionParticipant> transactionParticipants) {
         log.trace("Committing transaction {} via {}", transactionId, transactionParticipants);
+        MeteringAgent.Context timer = monitor.startTimer(COMMIT_PREPARED);
         return CompletableFuture.allOf(transactionParticipants.stream()
                 .map(TransactionParticipant::commit)
-                .toArray(CompletableFuture[]::new));
+                .toArray(CompletableFuture[]::new))
+                .whenComplete((r, e) -> timer.stop(e));
     }
 
     /**
@@ -135,9 +161,11 @@ public class TransactionCoordinator {
      */
     protected CompletableFuture<Void> rollback(Set<TransactionParticipant> transactionParticipants) {
         log.trace("Rolling back transaction {} via {}", transactionId, transactionParticipants);
+        MeteringAgent.Context timer = monitor.startTimer(ROLLBACK);
         return CompletableFuture.allOf(transactionParticipants.stream()
                 .map(TransactionParticipant::rollback)
-                .toArray(CompletableFuture[]::new));
+                .toArray(CompletableFuture[]::new))
+                .whenComplete((r, e) -> timer.stop(e));
     }
 
     @Override
@@ -20,13 +20,17 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
+import com.google.common.base.Suppliers;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.Futures;
 import org.onosproject.cluster.PartitionId;
@@ -38,6 +42,7 @@ import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.TransactionException;
+import org.onosproject.utils.MeteringAgent;
 
 /**
  * Transaction manager for managing state shared across multiple transactions.
@@ -51,6 +56,9 @@ public class TransactionManager {
     private final long cacheSize;
     private final int buckets;
     private final Map<PartitionId, Cache<String, CachedMap>> partitionCache = Maps.newConcurrentMap();
+    private final RegistryWriter registryWriter = new RegistryWriter();
+    private final Supplier<MeteringAgent> monitor =
+            Suppliers.memoize(() -> new MeteringAgent("transactionContext", "*", true));
 
     public TransactionManager(StorageService storageService, PartitionService partitionService, int buckets) {
         this(storageService, partitionService, DEFAULT_CACHE_SIZE, buckets);
@@ -144,7 +152,7 @@ public class TransactionManager {
      * @return a completable future to be completed once the transaction state has been updated in the registry
      */
     CompletableFuture<Void> updateState(TransactionId transactionId, Transaction.State state) {
-        return transactions.put(transactionId, state).thenApply(v -> null);
+        return registryWriter.put(transactionId, state);
     }
 
     /**
@@ -154,7 +162,78 @@ public class TransactionManager {
      * @return a completable future to be completed once the transaction state has been removed from the registry
      */
     CompletableFuture<Void> remove(TransactionId transactionId) {
-        return transactions.remove(transactionId).thenApply(v -> null);
+        return registryWriter.remove(transactionId);
+    }
+
+    /**
+     * Returns the agent timing the commits of transactions.
+     *
+     * @return metering agent shared by all transactions
+     */
+    MeteringAgent monitor() {
+        return monitor.get();
+    }
+
+    /**
+     * Writer grouping the registry updates of concurrent transactions.
+     * <p>
+     * Updates made while a write is in progress are written together once it completes,
+     * with a single batch of puts and of removals spread across the registry's partitions.
+     */
+    private final class RegistryWriter {
+        private Map<TransactionId, Transaction.State> updates = Maps.newHashMap();
+        private Set<TransactionId> removals = Sets.newHashSet();
+        private CompletableFuture<Void> nextWrite = new CompletableFuture<>();
+        private boolean writing;
+
+        synchronized CompletableFuture<Void> put(TransactionId transactionId, Transaction.State state) {
+            removals.remove(transactionId);
+            updates.put(transactionId, state);
+            return schedule();
+        }
+
+        synchronized CompletableFuture<Void> remove(TransactionId transactionId) {
+            updates.remove(transactionId);
+            removals.add(transactionId);
+            return schedule();
+        }
+
+        private CompletableFuture<Void> schedule() {
+            CompletableFuture<Void> future = nextWrite;
+            if (!writing) {
+                write();
+            }
+            return future;
+        }
+
+        private void write() {
+            Map<TransactionId, Transaction.State> batchUpdates = updates;
+            Set<TransactionId> batchRemovals = removals;
+            CompletableFuture<Void> batchFuture = nextWrite;
+            updates = Maps.newHashMap();
+            removals = Sets.newHashSet();
+            nextWrite = new CompletableFuture<>();
+            writing = true;
+            CompletableFuture.allOf(
+                    batchUpdates.isEmpty()
+                            ? CompletableFuture.completedFuture(null) : transactions.putAll(batchUpdates),
+                    batchRemovals.isEmpty()
+                            ? CompletableFuture.completedFuture(null) : transactions.removeAll(batchRemovals))
+                    .whenComplete((result, error) -> {
+                        synchronized (this) {
+                            if (updates.isEmpty() && removals.isEmpty()) {
+                                writing = false;
+                            } else {
+                                write();
+                            }
+                        }
+                        if (error == null) {
+                            batchFuture.complete(null);
+                        } else {
+                            batchFuture.completeExceptionally(error);
+                        }
+                    });
+        }
     }
 
     private static class CachedMap<K, V> {
@@ -27,6 +27,9 @@ import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import io.atomix.protocols.raft.proxy.RaftProxy;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
@@ -35,9 +38,12 @@ import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsKey;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetOrDefault;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Put;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PutAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Remove;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveVersion;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Replace;
@@ -46,6 +52,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperat
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionBegin;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepare;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepareAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepareAndCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionRollback;
 import org.onosproject.store.serializers.KryoNamespaces;
@@ -67,15 +74,19 @@ import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMa
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CONTAINS_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ENTRY_SET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_OR_DEFAULT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.IS_EMPTY;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.KEY_SET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_AND_COMMIT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_AND_GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_IF_ABSENT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VERSION;
@@ -98,6 +109,7 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
             .build());
 
     private final Map<MapEventListener<String, byte[]>, Executor> mapEventListeners = new ConcurrentHashMap<>();
+    private final PrepareBatcher prepareBatcher = new PrepareBatcher();
 
     public AtomixConsistentMap(RaftProxy proxy) {
         super(proxy);
@@ -152,6 +164,18 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
                 serializer()::decode);
     }
 
+    @Override
+    public CompletableFuture<Map<String, Versioned<byte[]>>> getAll(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(ImmutableMap.of());
+        }
+        return proxy.invoke(
+                GET_ALL,
+                serializer()::encode,
+                new GetAll(keys),
+                serializer()::decode);
+    }
+
     @Override
     public CompletableFuture<Set<String>> keySet() {
         return proxy.invoke(KEY_SET, serializer()::decode);
@@ -275,6 +299,34 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
                 .thenApply(v -> v.updated());
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<String, byte[]> entries) {
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return proxy.<PutAll, MapEntryUpdateResult.Status>invoke(
+                PUT_ALL,
+                serializer()::encode,
+                new PutAll(entries),
+                serializer()::decode)
+                .whenComplete((r, e) -> throwIfLocked(r))
+                .thenApply(v -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return proxy.<RemoveAll, MapEntryUpdateResult.Status>invoke(
+                REMOVE_ALL,
+                serializer()::encode,
+                new RemoveAll(keys),
+                serializer()::decode)
+                .whenComplete((r, e) -> throwIfLocked(r))
+                .thenApply(v -> null);
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return proxy.<MapEntryUpdateResult.Status>invoke(CLEAR, serializer()::decode)
@@ -389,12 +441,7 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
 
     @Override
     public CompletableFuture<Boolean> prepare(TransactionLog<MapUpdate<String, byte[]>> transactionLog) {
-        return proxy.<TransactionPrepare, PrepareResult>invoke(
-                PREPARE,
-                serializer()::encode,
-                new TransactionPrepare(transactionLog),
-                serializer()::decode)
-                .thenApply(v -> v == PrepareResult.OK);
+        return prepareBatcher.prepare(transactionLog).thenApply(v -> v == PrepareResult.OK);
     }
 
     @Override
@@ -430,4 +477,63 @@ public class AtomixConsistentMap extends AbstractRaftPrimitive implements AsyncC
     private boolean isListening() {
         return !mapEventListeners.isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Batcher grouping the prepares of concurrent transactions.
+     * <p>
+     * Prepares requested while another is in progress are sent together once it completes,
+     * in a single command that prepares them in the order they were requested.
+     */
+    private final class PrepareBatcher {
+        private List<TransactionLog<MapUpdate<String, byte[]>>> transactionLogs = Lists.newArrayList();
+        private List<CompletableFuture<PrepareResult>> futures = Lists.newArrayList();
+        private boolean preparing;
+
+        synchronized CompletableFuture<PrepareResult> prepare(
+                TransactionLog<MapUpdate<String, byte[]>> transactionLog) {
+            CompletableFuture<PrepareResult> future = new CompletableFuture<>();
+            transactionLogs.add(transactionLog);
+            futures.add(future);
+            if (!preparing) {
+                send();
+            }
+            return future;
+        }
+
+        private void send() {
+            List<TransactionLog<MapUpdate<String, byte[]>>> batchLogs = transactionLogs;
+            List<CompletableFuture<PrepareResult>> batchFutures = futures;
+            transactionLogs = Lists.newArrayList();
+            futures = Lists.newArrayList();
+            preparing = true;
+            CompletableFuture<List<PrepareResult>> results = batchLogs.size() == 1
+                    ? proxy.<TransactionPrepare, PrepareResult>invoke(
+                            PREPARE,
+                            serializer()::encode,
+                            new TransactionPrepare(batchLogs.get(0)),
+                            serializer()::decode)
+                            .thenApply(ImmutableList::of)
+                    : proxy.invoke(
+                            PREPARE_ALL,
+                            serializer()::encode,
+                            new TransactionPrepareAll(batchLogs),
+                            serializer()::decode);
+            results.whenComplete((result, error) -> {
+                synchronized (this) {
+                    if (transactionLogs.isEmpty()) {
+                        preparing = false;
+                    } else {
+                        send();
+                    }
+                }
+                for (int i = 0; i < batchFutures.size(); i++) {
+                    if (error == null) {
+                        batchFutures.get(i).complete(result.get(i));
+                    } else {
+                        batchFutures.get(i).completeExceptionally(error);
+                    }
+                }
+            });
+        }
+    }
+}
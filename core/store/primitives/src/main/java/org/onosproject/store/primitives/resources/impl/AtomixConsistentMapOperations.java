@@ -18,6 +18,14 @@ package org.onosproject.store.primitives.resources.impl;
 import io.atomix.protocols.raft.operation.OperationId;
 import io.atomix.protocols.raft.operation.OperationType;
 import io.atomix.utils.ArraySizeHashPrinter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Match;
 import org.onosproject.store.primitives.MapUpdate;
@@ -58,7 +66,11 @@ public enum AtomixConsistentMapOperations implements OperationId {
     PREPARE(OperationType.COMMAND),
     PREPARE_AND_COMMIT(OperationType.COMMAND),
     COMMIT(OperationType.COMMAND),
-    ROLLBACK(OperationType.COMMAND);
+    ROLLBACK(OperationType.COMMAND),
+    GET_ALL(OperationType.QUERY),
+    PUT_ALL(OperationType.COMMAND),
+    REMOVE_ALL(OperationType.COMMAND),
+    PREPARE_ALL(OperationType.COMMAND);
 
     private final OperationType type;
 
@@ -107,6 +119,10 @@ public enum AtomixConsistentMapOperations implements OperationId {
             .register(MapEntryUpdateResult.Status.class)
             .register(Versioned.class)
             .register(byte[].class)
+            .register(GetAll.class)
+            .register(PutAll.class)
+            .register(RemoveAll.class)
+            .register(TransactionPrepareAll.class)
             .build("AtomixConsistentMapOperations");
 
     /**
@@ -443,6 +459,37 @@ public enum AtomixConsistentMapOperations implements OperationId {
         }
     }
 
+    /**
+     * Map command preparing several transactions in order.
+     */
+    @SuppressWarnings("serial")
+    public static class TransactionPrepareAll extends MapOperation {
+        private List<TransactionLog<MapUpdate<String, byte[]>>> transactionLogs;
+
+        public TransactionPrepareAll() {
+        }
+
+        public TransactionPrepareAll(List<TransactionLog<MapUpdate<String, byte[]>>> transactionLogs) {
+            this.transactionLogs = new ArrayList<>(checkNotNull(transactionLogs, "transactionLogs cannot be null"));
+        }
+
+        /**
+         * Returns the logs of the transactions to prepare.
+         *
+         * @return transaction logs, in the order they are prepared
+         */
+        public List<TransactionLog<MapUpdate<String, byte[]>>> transactionLogs() {
+            return transactionLogs;
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(this)
+                    .add("transactionLogs", transactionLogs)
+                    .toString();
+        }
+    }
+
     /**
      * Map prepareAndCommit command.
      */
@@ -561,4 +608,97 @@ public enum AtomixConsistentMapOperations implements OperationId {
                     .toString();
         }
     }
+
+    /**
+     * Get all query.
+     */
+    @SuppressWarnings("serial")
+    public static class GetAll extends MapOperation {
+        private Set<String> keys;
+
+        public GetAll() {
+        }
+
+        public GetAll(Set<String> keys) {
+            this.keys = new HashSet<>(checkNotNull(keys, "keys cannot be null"));
+        }
+
+        /**
+         * Returns the keys.
+         *
+         * @return the keys
+         */
+        public Set<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(this)
+                    .add("keys", keys)
+                    .toString();
+        }
+    }
+
+    /**
+     * Put all command.
+     */
+    @SuppressWarnings("serial")
+    public static class PutAll extends MapOperation {
+        private Map<String, byte[]> entries;
+
+        public PutAll() {
+        }
+
+        public PutAll(Map<String, byte[]> entries) {
+            this.entries = new HashMap<>(checkNotNull(entries, "entries cannot be null"));
+        }
+
+        /**
+         * Returns the entries.
+         *
+         * @return the keys and values to put
+         */
+        public Map<String, byte[]> entries() {
+            return entries;
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(this)
+                    .add("keys", entries.keySet())
+                    .toString();
+        }
+    }
+
+    /**
+     * Remove all command.
+     */
+    @SuppressWarnings("serial")
+    public static class RemoveAll extends MapOperation {
+        private Set<String> keys;
+
+        public RemoveAll() {
+        }
+
+        public RemoveAll(Set<String> keys) {
+            this.keys = new HashSet<>(checkNotNull(keys, "keys cannot be null"));
+        }
+
+        /**
+         * Returns the keys.
+         *
+         * @return the keys
+         */
+        public Set<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public String toString() {
+            return toStringHelper(this)
+                    .add("keys", keys)
+                    .toString();
+        }
+    }
 }
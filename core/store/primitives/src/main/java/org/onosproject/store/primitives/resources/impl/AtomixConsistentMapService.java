@@ -43,9 +43,12 @@ import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsKey;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GetOrDefault;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Put;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PutAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Remove;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.RemoveVersion;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Replace;
@@ -54,6 +57,7 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperat
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionBegin;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepare;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepareAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepareAndCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionRollback;
 import org.onosproject.store.serializers.KryoNamespaces;
@@ -72,15 +76,19 @@ import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMa
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.CONTAINS_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.ENTRY_SET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET_OR_DEFAULT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.IS_EMPTY;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.KEY_SET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_AND_COMMIT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_AND_GET;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT_IF_ABSENT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_LISTENER;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VALUE;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.REMOVE_VERSION;
@@ -135,7 +143,7 @@ public class AtomixConsistentMapService extends AbstractRaftService {
     public void snapshot(SnapshotWriter writer) {
         writer.writeObject(Sets.newHashSet(listeners.keySet()), serializer()::encode);
         writer.writeObject(preparedKeys, serializer()::encode);
-        writer.writeObject(entries(), serializer()::encode);
+        SnapshotChunks.writeMap(writer, entries(), serializer());
         writer.writeObject(activeTransactions, serializer()::encode);
         writer.writeLong(currentVersion);
     }
@@ -147,7 +155,7 @@ public class AtomixConsistentMapService extends AbstractRaftService {
             listeners.put(sessionId, sessions().getSession(sessionId));
         }
         preparedKeys = reader.readObject(serializer()::decode);
-        map = reader.readObject(serializer()::decode);
+        map = SnapshotChunks.readMap(reader, createMap(), serializer());
         activeTransactions = reader.readObject(serializer()::decode);
         currentVersion = reader.readLong();
     }
@@ -163,6 +171,7 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         executor.register(ENTRY_SET, (Commit<Void> c) -> entrySet(), serializer()::encode);
         executor.register(GET, serializer()::decode, this::get, serializer()::encode);
         executor.register(GET_OR_DEFAULT, serializer()::decode, this::getOrDefault, serializer()::encode);
+        executor.register(GET_ALL, serializer()::decode, this::getAll, serializer()::encode);
         executor.register(IS_EMPTY, (Commit<Void> c) -> isEmpty(), serializer()::encode);
         executor.register(KEY_SET, (Commit<Void> c) -> keySet(), serializer()::encode);
         executor.register(SIZE, (Commit<Void> c) -> size(), serializer()::encode);
@@ -171,9 +180,11 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         executor.register(PUT, serializer()::decode, this::put, serializer()::encode);
         executor.register(PUT_IF_ABSENT, serializer()::decode, this::putIfAbsent, serializer()::encode);
         executor.register(PUT_AND_GET, serializer()::decode, this::putAndGet, serializer()::encode);
+        executor.register(PUT_ALL, serializer()::decode, this::putAll, serializer()::encode);
         executor.register(REMOVE, serializer()::decode, this::remove, serializer()::encode);
         executor.register(REMOVE_VALUE, serializer()::decode, this::removeValue, serializer()::encode);
         executor.register(REMOVE_VERSION, serializer()::decode, this::removeVersion, serializer()::encode);
+        executor.register(REMOVE_ALL, serializer()::decode, this::removeAll, serializer()::encode);
         executor.register(REPLACE, serializer()::decode, this::replace, serializer()::encode);
         executor.register(REPLACE_VALUE, serializer()::decode, this::replaceValue, serializer()::encode);
         executor.register(REPLACE_VERSION, serializer()::decode, this::replaceVersion, serializer()::encode);
@@ -181,6 +192,7 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         executor.register(BEGIN, serializer()::decode, this::begin, serializer()::encode);
         executor.register(PREPARE, serializer()::decode, this::prepare, serializer()::encode);
         executor.register(PREPARE_AND_COMMIT, serializer()::decode, this::prepareAndCommit, serializer()::encode);
+        executor.register(PREPARE_ALL, serializer()::decode, this::prepareAll, serializer()::encode);
         executor.register(COMMIT, serializer()::decode, this::commit, serializer()::encode);
         executor.register(ROLLBACK, serializer()::decode, this::rollback, serializer()::encode);
     }
@@ -236,6 +248,23 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         }
     }
 
+    /**
+     * Handles a get all commit.
+     *
+     * @param commit get all commit
+     * @return values mapped to the keys that are present in the map
+     */
+    protected Map<String, Versioned<byte[]>> getAll(Commit<? extends GetAll> commit) {
+        Map<String, Versioned<byte[]>> values = new HashMap<>();
+        for (String key : commit.value().keys()) {
+            MapEntryValue value = entries().get(key);
+            if (!valueIsNull(value)) {
+                values.put(key, toVersioned(value));
+            }
+        }
+        return values;
+    }
+
     /**
      * Handles a size commit.
      *
@@ -516,6 +545,83 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         return removeIf(commit.index(), commit.value().key(), v -> v.version() == commit.value().version());
     }
 
+    /**
+     * Handles a putAll commit.
+     * <p>
+     * The updates are applied all together: if any of the keys has been locked by a
+     * transaction, none of them are applied. Changed entries are published as a
+     * single batch of events.
+     * </p>
+     *
+     * @param commit putAll commit
+     * @return update status
+     */
+    protected MapEntryUpdateResult.Status putAll(Commit<? extends PutAll> commit) {
+        Map<String, byte[]> updates = commit.value().entries();
+        if (updates.keySet().stream().anyMatch(preparedKeys::contains)) {
+            return MapEntryUpdateResult.Status.WRITE_LOCK;
+        }
+
+        List<MapEvent<String, byte[]>> events = Lists.newArrayList();
+        updates.forEach((key, value) -> {
+            MapEntryValue oldValue = entries().get(key);
+            MapEntryValue newValue = new MapEntryValue(MapEntryValue.Type.VALUE, commit.index(), value);
+            if (valueIsNull(oldValue)) {
+                entries().put(key, newValue);
+                events.add(new MapEvent<>(MapEvent.Type.INSERT, "", key,
+                        toVersioned(newValue), toVersioned(oldValue)));
+            } else if (!valuesEqual(oldValue, newValue)) {
+                entries().put(key, newValue);
+                events.add(new MapEvent<>(MapEvent.Type.UPDATE, "", key,
+                        toVersioned(newValue), toVersioned(oldValue)));
+            }
+        });
+        if (events.isEmpty()) {
+            return MapEntryUpdateResult.Status.NOOP;
+        }
+        publish(events);
+        return MapEntryUpdateResult.Status.OK;
+    }
+
+    /**
+     * Handles a removeAll commit.
+     * <p>
+     * The removals are applied all together: if any of the keys has been locked by a
+     * transaction, none of them are applied. Removed entries are published as a
+     * single batch of events.
+     * </p>
+     *
+     * @param commit removeAll commit
+     * @return update status
+     */
+    protected MapEntryUpdateResult.Status removeAll(Commit<? extends RemoveAll> commit) {
+        Set<String> keys = commit.value().keys();
+        if (keys.stream().anyMatch(preparedKeys::contains)) {
+            return MapEntryUpdateResult.Status.WRITE_LOCK;
+        }
+
+        List<MapEvent<String, byte[]>> events = Lists.newArrayList();
+        for (String key : keys) {
+            MapEntryValue value = entries().get(key);
+            if (valueIsNull(value)) {
+                continue;
+            }
+
+            // If no transactions are active, remove the key. Otherwise, replace it with a tombstone.
+            if (activeTransactions.isEmpty()) {
+                entries().remove(key);
+            } else {
+                entries().put(key, new MapEntryValue(MapEntryValue.Type.TOMBSTONE, commit.index(), null));
+            }
+            events.add(new MapEvent<>(MapEvent.Type.REMOVE, "", key, null, toVersioned(value)));
+        }
+        if (events.isEmpty()) {
+            return MapEntryUpdateResult.Status.NOOP;
+        }
+        publish(events);
+        return MapEntryUpdateResult.Status.OK;
+    }
+
     /**
      * Handles a replace commit.
      *
@@ -652,7 +758,7 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         TransactionScope transactionScope = activeTransactions.remove(transactionId);
         if (prepareResult == PrepareResult.OK) {
             this.currentVersion = commit.index();
-            transactionScope = transactionScope.prepared(commit);
+            transactionScope = transactionScope.prepared(commit.value().transactionLog());
             commitTransaction(transactionScope);
         }
         discardTombstones();
@@ -666,9 +772,40 @@ public class AtomixConsistentMapService extends AbstractRaftService {
      * @return prepare result
      */
     protected PrepareResult prepare(Commit<? extends TransactionPrepare> commit) {
-        try {
-            TransactionLog<MapUpdate<String, byte[]>> transactionLog = commit.value().transactionLog();
+        return prepareTransaction(commit.value().transactionLog());
+    }
 
+    /**
+     * Handles a commit preparing several transactions.
+     * <p>
+     * Transactions are prepared in order, each as if by its own prepare commit.
+     * A transaction which fails to prepare is reported as a
+     * {@link PrepareResult#PARTIAL_FAILURE} so that the transactions prepared
+     * before it still learn of their outcome and are committed or rolled back.
+     *
+     * @param commit transactions prepare commit
+     * @return prepare results, in the order of the transactions
+     */
+    protected List<PrepareResult> prepareAll(Commit<? extends TransactionPrepareAll> commit) {
+        return commit.value().transactionLogs().stream()
+                .map(transactionLog -> {
+                    try {
+                        return prepareTransaction(transactionLog);
+                    } catch (Exception e) {
+                        return PrepareResult.PARTIAL_FAILURE;
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Prepares a transaction.
+     *
+     * @param transactionLog transaction log
+     * @return prepare result
+     */
+    private PrepareResult prepareTransaction(TransactionLog<MapUpdate<String, byte[]>> transactionLog) {
+        try {
             // Iterate through records in the transaction log and perform isolation checks.
             for (MapUpdate<String, byte[]> record : transactionLog.records()) {
                 String key = record.key();
@@ -721,16 +858,16 @@ public class AtomixConsistentMapService extends AbstractRaftService {
             if (transactionScope == null) {
                 activeTransactions.put(
                         transactionLog.transactionId(),
-                        new TransactionScope(transactionLog.version(), commit.value().transactionLog()));
+                        new TransactionScope(transactionLog.version(), transactionLog));
                 return PrepareResult.PARTIAL_FAILURE;
             } else {
                 activeTransactions.put(
                         transactionLog.transactionId(),
-                        transactionScope.prepared(commit));
+                        transactionScope.prepared(transactionLog));
                 return PrepareResult.OK;
             }
         } catch (Exception e) {
-            logger().warn("Failure applying {}", commit, e);
+            logger().warn("Failure preparing {}", transactionLog, e);
             throw Throwables.propagate(e);
         }
     }
@@ -1026,13 +1163,13 @@ public class AtomixConsistentMapService extends AbstractRaftService {
         }
 
         /**
-         * Returns a new transaction scope with a prepare commit.
+         * Returns a new transaction scope with a prepared transaction log.
          *
-         * @param commit the prepare commit
-         * @return new transaction scope updated with the prepare commit
+         * @param transactionLog the prepared transaction log
+         * @return new transaction scope updated with the prepared transaction log
          */
-        TransactionScope prepared(Commit<? extends TransactionPrepare> commit) {
-            return new TransactionScope(version, commit.value().transactionLog());
+        TransactionScope prepared(TransactionLog<MapUpdate<String, byte[]>> transactionLog) {
+            return new TransactionScope(version, transactionLog);
         }
     }
 }
\ No newline at end of file
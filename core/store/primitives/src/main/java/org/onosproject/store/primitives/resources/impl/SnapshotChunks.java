@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import io.atomix.protocols.raft.storage.snapshot.SnapshotReader;
+import io.atomix.protocols.raft.storage.snapshot.SnapshotWriter;
+import org.onosproject.store.service.Serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Utilities for streaming large maps in and out of Raft snapshots.
+ * <p>
+ * Rather than encoding a whole map as a single object, a format header and
+ * the entry count are written first, followed by the entries in fixed size
+ * chunks, each encoded and flushed on its own. Neither taking nor installing
+ * a snapshot therefore needs to hold more than one encoded chunk in memory,
+ * and installation populates the target map as the chunks are read.
+ * </p>
+ * <p>
+ * Snapshots taken before chunking hold the map as a single encoded object,
+ * which is prefixed by its non-negative length; the negative format marker
+ * tells the two layouts apart, so that such snapshots can still be installed.
+ * </p>
+ */
+final class SnapshotChunks {
+
+    /**
+     * Maximum number of map entries encoded together.
+     */
+    static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Marker heading chunked map layouts; never a valid object length.
+     */
+    static final int FORMAT_MARKER = 0xC4C4C4C4;
+
+    /**
+     * Version of the chunked map layout.
+     */
+    static final int FORMAT_VERSION = 1;
+
+    // Non-instantiable
+    private SnapshotChunks() {
+    }
+
+    /**
+     * Writes the entries of the given map to the snapshot in chunks.
+     *
+     * @param writer     snapshot writer
+     * @param map        map to write
+     * @param serializer serializer for the map keys and values
+     * @param <K>        key type
+     * @param <V>        value type
+     */
+    static <K, V> void writeMap(SnapshotWriter writer, Map<K, V> map, Serializer serializer) {
+        writer.writeInt(FORMAT_MARKER);
+        writer.writeInt(FORMAT_VERSION);
+        writer.writeInt(map.size());
+        List<K> keys = new ArrayList<>(CHUNK_SIZE);
+        List<V> values = new ArrayList<>(CHUNK_SIZE);
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            keys.add(entry.getKey());
+            values.add(entry.getValue());
+            if (keys.size() == CHUNK_SIZE) {
+                writeChunk(writer, keys, values, serializer);
+            }
+        }
+        if (!keys.isEmpty()) {
+            writeChunk(writer, keys, values, serializer);
+        }
+    }
+
+    private static <K, V> void writeChunk(SnapshotWriter writer, List<K> keys, List<V> values,
+                                          Serializer serializer) {
+        writer.writeObject(keys, serializer::encode);
+        writer.writeObject(values, serializer::encode);
+        writer.flush();
+        keys.clear();
+        values.clear();
+    }
+
+    /**
+     * Reads map entries written by {@link #writeMap}, or a map written as a
+     * single object by earlier versions, into the given map.
+     *
+     * @param reader     snapshot reader
+     * @param map        map to populate
+     * @param serializer serializer for the map keys and values
+     * @param <K>        key type
+     * @param <V>        value type
+     * @param <M>        map type
+     * @return the populated map
+     */
+    static <K, V, M extends Map<K, V>> M readMap(SnapshotReader reader, M map, Serializer serializer) {
+        int header = reader.readInt();
+        if (header != FORMAT_MARKER) {
+            // Legacy layout; the header is the length of the encoded map
+            byte[] bytes = new byte[header];
+            reader.read(bytes);
+            Map<K, V> legacy = serializer.decode(bytes);
+            map.putAll(legacy);
+            return map;
+        }
+        int version = reader.readInt();
+        checkState(version == FORMAT_VERSION, "Unsupported snapshot format version %s", version);
+
+        int remaining = reader.readInt();
+        while (remaining > 0) {
+            List<K> keys = reader.readObject(serializer::decode);
+            List<V> values = reader.readObject(serializer::decode);
+            for (int i = 0; i < keys.size(); i++) {
+                map.put(keys.get(i), values.get(i));
+            }
+            remaining -= keys.size();
+        }
+        return map;
+    }
+}
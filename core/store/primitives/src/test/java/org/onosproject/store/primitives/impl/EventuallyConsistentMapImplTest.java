@@ -25,6 +25,7 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -43,6 +44,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -92,6 +94,8 @@ public class EventuallyConsistentMapImplTest {
             = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy");
     private static final MessageSubject UPDATE_REQUEST_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-update-request");
+    private static final MessageSubject ANTI_ENTROPY_TREE_MESSAGE_SUBJECT
+            = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-tree");
 
     private static final String KEY1 = "one";
     private static final String KEY2 = "two";
@@ -104,6 +108,7 @@ public class EventuallyConsistentMapImplTest {
     private Consumer<Collection<UpdateEntry<String, String>>> updateHandler;
     private Consumer<Collection<UpdateRequest<String>>> requestHandler;
     private Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse> antiEntropyHandler;
+    private Function<AntiEntropyTreeAdvertisement, AntiEntropyTreeResponse> antiEntropyTreeHandler;
     private Supplier<List<NodeId>> peersHandler = ArrayList::new;
 
     @Before
@@ -126,7 +131,7 @@ public class EventuallyConsistentMapImplTest {
                 anyObject(Function.class),
                 anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
-        clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
+        clusterCommunicator.<Object>addBufferSubscriber(anyObject(MessageSubject.class),
                 anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
         clusterCommunicator.<Object, Object>addSubscriber(anyObject(MessageSubject.class),
@@ -134,7 +139,7 @@ public class EventuallyConsistentMapImplTest {
                                                           anyObject(Function.class),
                                                           anyObject(Function.class),
                                                           anyObject(Executor.class));
-        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
+        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(2);
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
                 anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
@@ -632,6 +637,29 @@ public class EventuallyConsistentMapImplTest {
         assertTrue(entrySetsAreEqual(expectedValues, ecMap.entrySet()));
     }
 
+    @Test
+    public void testAntiEntropyTree() throws Exception {
+        expectPeerMessage(clusterCommunicator);
+        NodeId peer = NodeId.nodeId("peer");
+        int[] root = {0};
+        int[] leaves = MapDigestTree.descendants(0, root, MapDigestTree.DEPTH);
+
+        // An empty map matches an empty tree
+        AntiEntropyTreeResponse response = antiEntropyTreeHandler.apply(
+                new AntiEntropyTreeAdvertisement(peer, 0, root, new long[1]));
+        assertEquals(AntiEntropyResponse.PROCESSED, response.status());
+        assertEquals(0, response.divergentNodes().length);
+
+        ecMap.put(KEY1, VALUE1);
+        response = antiEntropyTreeHandler.apply(new AntiEntropyTreeAdvertisement(peer, 0, root, new long[1]));
+        assertArrayEquals(root, response.divergentNodes());
+
+        // A single entry diverges in a single leaf
+        response = antiEntropyTreeHandler.apply(
+                new AntiEntropyTreeAdvertisement(peer, MapDigestTree.DEPTH, leaves, new long[leaves.length]));
+        assertEquals(1, response.divergentNodes().length);
+    }
+
     private static boolean entrySetsAreEqual(Map<String, String> expectedMap, Set<Map.Entry<String, String>> actual) {
         if (expectedMap.entrySet().size() != actual.size()) {
             return false;
@@ -655,6 +683,7 @@ public class EventuallyConsistentMapImplTest {
         clusterCommunicator.removeSubscriber(UPDATE_MESSAGE_SUBJECT);
         clusterCommunicator.removeSubscriber(UPDATE_REQUEST_SUBJECT);
         clusterCommunicator.removeSubscriber(ANTI_ENTROPY_MESSAGE_SUBJECT);
+        clusterCommunicator.removeSubscriber(ANTI_ENTROPY_TREE_MESSAGE_SUBJECT);
 
         replay(clusterCommunicator);
 
@@ -765,6 +794,13 @@ public class EventuallyConsistentMapImplTest {
                     anyObject(NodeId.class)))
                 .andReturn(CompletableFuture.completedFuture(null))
                 .anyTimes();
+        expect(clusterCommunicator.<T>unicastStreamed(
+                    anyObject(),
+                    anyObject(MessageSubject.class),
+                    anyObject(BiConsumer.class),
+                    anyObject(NodeId.class)))
+                .andReturn(CompletableFuture.completedFuture(null))
+                .anyTimes();
         replay(clusterCommunicator);
     }
 
@@ -813,6 +849,8 @@ public class EventuallyConsistentMapImplTest {
                 Function<byte[], M> decoder, Function<M, R> handler, Function<R, byte[]> encoder, Executor executor) {
             if (subject.equals(ANTI_ENTROPY_MESSAGE_SUBJECT)) {
                 antiEntropyHandler = (Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse>) handler;
+            } else if (subject.equals(ANTI_ENTROPY_TREE_MESSAGE_SUBJECT)) {
+                antiEntropyTreeHandler = (Function<AntiEntropyTreeAdvertisement, AntiEntropyTreeResponse>) handler;
             } else if (!subject.equals(INITIALIZE_MESSAGE_SUBJECT)) {
                 throw new RuntimeException("Unexpected message subject " + subject.toString());
             }
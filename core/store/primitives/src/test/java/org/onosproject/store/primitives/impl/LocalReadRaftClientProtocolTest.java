@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import io.atomix.protocols.raft.RaftError;
+import io.atomix.protocols.raft.cluster.MemberId;
+import io.atomix.protocols.raft.operation.OperationId;
+import io.atomix.protocols.raft.operation.RaftOperation;
+import io.atomix.protocols.raft.protocol.QueryRequest;
+import io.atomix.protocols.raft.protocol.QueryResponse;
+import io.atomix.protocols.raft.protocol.RaftClientProtocol;
+import io.atomix.protocols.raft.protocol.RaftResponse;
+import io.atomix.protocols.raft.proxy.RaftProxy;
+import io.atomix.protocols.raft.session.SessionId;
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.mock;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.reset;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LocalReadRaftClientProtocol}.
+ */
+public class LocalReadRaftClientProtocolTest {
+
+    private static final MemberId LOCAL = MemberId.from("local");
+    private static final MemberId REMOTE = MemberId.from("remote");
+    private static final QueryRequest QUERY_1 = query(1);
+    private static final QueryRequest QUERY_2 = query(2);
+
+    private final QueryResponse ok = new QueryResponse(RaftResponse.Status.OK, null, 1, 1, new byte[0], 1);
+
+    private RaftClientProtocol protocol;
+    private LocalReadRaftClientProtocol localReads;
+
+    private static QueryRequest query(long session) {
+        return new QueryRequest(session, 1, new RaftOperation(OperationId.query("get"), new byte[0]), 1);
+    }
+
+    @Before
+    public void setUp() {
+        protocol = mock(RaftClientProtocol.class);
+        localReads = new LocalReadRaftClientProtocol(protocol, LOCAL);
+    }
+
+    /**
+     * Tests that only the queries of registered sessions are sent to the local member.
+     */
+    @Test
+    public void testRegisteredSessions() {
+        AtomicReference<Long> session = new AtomicReference<>(1L);
+        Capture<Consumer<RaftProxy.State>> listener = newCapture();
+        RaftProxy proxy = mock(RaftProxy.class);
+        expect(proxy.sessionId()).andAnswer(() -> SessionId.from(session.get())).anyTimes();
+        expect(proxy.getState()).andReturn(RaftProxy.State.CONNECTED);
+        proxy.addStateChangeListener(capture(listener));
+        expectLastCall();
+        replay(proxy);
+
+        localReads.register(proxy);
+        assertTrue(localReads.isLocal(1));
+        assertFalse(localReads.isLocal(2));
+
+        expect(protocol.query(eq(LOCAL), eq(QUERY_1))).andReturn(CompletableFuture.completedFuture(ok));
+        expect(protocol.query(eq(REMOTE), eq(QUERY_2))).andReturn(CompletableFuture.completedFuture(ok));
+        replay(protocol);
+        assertSame(ok, localReads.query(REMOTE, QUERY_1).join());
+        assertSame(ok, localReads.query(REMOTE, QUERY_2).join());
+        verify(protocol);
+
+        // Sessions recovered by the proxy replace the previous ones.
+        session.set(2L);
+        listener.getValue().accept(RaftProxy.State.CONNECTED);
+        assertFalse(localReads.isLocal(1));
+        assertTrue(localReads.isLocal(2));
+
+        listener.getValue().accept(RaftProxy.State.CLOSED);
+        assertFalse(localReads.isLocal(2));
+    }
+
+    /**
+     * Tests that queries the local member fails to serve go to the original member.
+     */
+    @Test
+    public void testFallback() {
+        RaftProxy proxy = mock(RaftProxy.class);
+        expect(proxy.sessionId()).andReturn(SessionId.from(1)).anyTimes();
+        expect(proxy.getState()).andReturn(RaftProxy.State.CONNECTED);
+        proxy.addStateChangeListener(anyObject());
+        expectLastCall();
+        replay(proxy);
+        localReads.register(proxy);
+
+        QueryResponse unavailable = new QueryResponse(RaftResponse.Status.ERROR,
+                new RaftError(RaftError.Type.ILLEGAL_MEMBER_STATE, null), 0, 0, null, 0);
+        expect(protocol.query(eq(LOCAL), eq(QUERY_1))).andReturn(CompletableFuture.completedFuture(unavailable));
+        expect(protocol.query(eq(REMOTE), eq(QUERY_1))).andReturn(CompletableFuture.completedFuture(ok));
+        replay(protocol);
+        assertSame(ok, localReads.query(REMOTE, QUERY_1).join());
+        verify(protocol);
+
+        // Application errors are genuine query results.
+        reset(protocol);
+        QueryResponse failed = new QueryResponse(RaftResponse.Status.ERROR,
+                new RaftError(RaftError.Type.APPLICATION_ERROR, null), 0, 0, null, 0);
+        expect(protocol.query(eq(LOCAL), eq(QUERY_1))).andReturn(CompletableFuture.completedFuture(failed));
+        replay(protocol);
+        assertSame(failed, localReads.query(REMOTE, QUERY_1).join());
+        verify(protocol);
+
+        reset(protocol);
+        CompletableFuture<QueryResponse> timeout = new CompletableFuture<>();
+        timeout.completeExceptionally(new IllegalStateException());
+        expect(protocol.query(eq(LOCAL), eq(QUERY_1))).andReturn(timeout);
+        expect(protocol.query(eq(REMOTE), eq(QUERY_1))).andReturn(CompletableFuture.completedFuture(ok));
+        replay(protocol);
+        assertSame(ok, localReads.query(REMOTE, QUERY_1).join());
+        verify(protocol);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.Test;
+import org.onlab.util.Tools;
+import org.onosproject.store.LogicalTimestamp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link MapDigestTree}.
+ */
+public class MapDigestTreeTest {
+
+    private static final int[] ROOT = {0};
+
+    private final MapDigestTree<String> tree1 = new MapDigestTree<>(Tools::getBytesUtf8);
+    private final MapDigestTree<String> tree2 = new MapDigestTree<>(Tools::getBytesUtf8);
+
+    private static MapValue<String> value(String value, long timestamp) {
+        return new MapValue<>(value, new LogicalTimestamp(timestamp));
+    }
+
+    private static int[] allLeaves() {
+        return MapDigestTree.descendants(0, ROOT, MapDigestTree.DEPTH);
+    }
+
+    private static int[] divergentLeaves(MapDigestTree<String> tree1, MapDigestTree<String> tree2) {
+        int[] leaves = allLeaves();
+        long[] hashes1 = tree1.hashes(MapDigestTree.DEPTH, leaves);
+        long[] hashes2 = tree2.hashes(MapDigestTree.DEPTH, leaves);
+        return Arrays.stream(leaves).filter(leaf -> hashes1[leaf] != hashes2[leaf]).toArray();
+    }
+
+    /**
+     * Tests that trees holding the same entries match regardless of the order of updates.
+     */
+    @Test
+    public void testSameEntries() {
+        for (int i = 0; i < 100; i++) {
+            tree1.update("key" + i, null, value("value" + i, i));
+        }
+        for (int i = 99; i >= 0; i--) {
+            MapValue<String> old = value("old" + i, 0);
+            tree2.update("key" + i, null, old);
+            tree2.update("key" + i, old, value("value" + i, i));
+        }
+        assertArrayEquals(tree1.hashes(0, ROOT), tree2.hashes(0, ROOT));
+        assertEquals(0, divergentLeaves(tree1, tree2).length);
+    }
+
+    /**
+     * Tests that a divergent entry is narrowed down to its leaf.
+     */
+    @Test
+    public void testDivergentEntry() {
+        for (int i = 0; i < 100; i++) {
+            tree1.update("key" + i, null, value("value" + i, i));
+            tree2.update("key" + i, null, value("value" + i, i));
+        }
+        MapValue<String> stale = value("stale", 1000);
+        MapValue<String> tombstone = MapValue.tombstone(new LogicalTimestamp(1000));
+        tree1.update("divergent", null, stale);
+        tree2.update("divergent", null, tombstone);
+        assertNotEquals(tree1.hashes(0, ROOT)[0], tree2.hashes(0, ROOT)[0]);
+
+        int[] leaves = divergentLeaves(tree1, tree2);
+        assertEquals(1, leaves.length);
+        BitSet leafSet = new BitSet();
+        leafSet.set(leaves[0]);
+        assertTrue(MapDigestTree.contains(leafSet, stale));
+        assertTrue(MapDigestTree.contains(leafSet, tombstone));
+
+        // Inner nodes covering the leaf diverge as well
+        int level = 4;
+        int[] nodes = MapDigestTree.descendants(0, ROOT, level);
+        long[] hashes1 = tree1.hashes(level, nodes);
+        long[] hashes2 = tree2.hashes(level, nodes);
+        int node = leaves[0] >> (MapDigestTree.DEPTH - level);
+        for (int i = 0; i < nodes.length; i++) {
+            assertEquals(nodes[i] != node, hashes1[i] == hashes2[i]);
+        }
+
+        tree1.update("divergent", stale, null);
+        tree2.update("divergent", tombstone, null);
+        assertArrayEquals(tree1.hashes(0, ROOT), tree2.hashes(0, ROOT));
+        assertFalse(tree1.hashes(0, ROOT)[0] == 0);
+    }
+
+    /**
+     * Tests the descendants of tree nodes.
+     */
+    @Test
+    public void testDescendants() {
+        assertArrayEquals(new int[] {4, 5, 6, 7, 12, 13, 14, 15}, MapDigestTree.descendants(1, new int[] {1, 3}, 3));
+    }
+}
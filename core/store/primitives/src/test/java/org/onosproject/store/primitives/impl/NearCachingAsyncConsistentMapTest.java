@@ -0,0 +1,214 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.collect.ImmutableSet;
+import io.atomix.protocols.raft.proxy.RaftProxy;
+import io.atomix.protocols.raft.service.RaftService;
+import org.junit.Test;
+import org.onlab.junit.TestTools;
+import org.onlab.util.Tools;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMap;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapService;
+import org.onosproject.store.primitives.resources.impl.AtomixTestBase;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.Versioned;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link NearCachingAsyncConsistentMap}.
+ */
+public class NearCachingAsyncConsistentMapTest extends AtomixTestBase<AtomixConsistentMap> {
+
+    private final byte[] fooValue = Tools.getBytesUtf8("Hello foo!");
+    private final byte[] barValue = Tools.getBytesUtf8("Hello bar!");
+
+    @Override
+    protected RaftService createService() {
+        return new AtomixConsistentMapService();
+    }
+
+    @Override
+    protected AtomixConsistentMap createPrimitive(RaftProxy proxy) {
+        return new AtomixConsistentMap(proxy);
+    }
+
+    private NearCachingAsyncConsistentMap<String, byte[]> newCachingMap(String name) {
+        NearCachingAsyncConsistentMap<String, byte[]> map =
+                new NearCachingAsyncConsistentMap<>(newPrimitive(name), 100, Duration.ZERO);
+        // Wait for the cache listener to be in place.
+        map.size().join();
+        return map;
+    }
+
+    /**
+     * Tests reads of entries following local and remote updates.
+     */
+    @Test
+    public void testReadYourWrites() throws Throwable {
+        NearCachingAsyncConsistentMap<String, byte[]> map = newCachingMap("testReadYourWrites");
+        AtomixConsistentMap other = newPrimitive("testReadYourWrites");
+
+        assertNull(map.get("foo").join());
+        assertNull(map.get("foo").join());
+        assertEquals(1, map.nearCacheHitCount());
+
+        map.put("foo", fooValue).join();
+        Versioned<byte[]> value = map.get("foo").join();
+        assertTrue(Arrays.equals(fooValue, value.value()));
+        long hits = map.nearCacheHitCount();
+        assertTrue(Arrays.equals(fooValue, map.get("foo").join().value()));
+        assertEquals(hits + 1, map.nearCacheHitCount());
+
+        other.put("foo", barValue).join();
+        TestTools.assertAfter(5000, () ->
+                assertTrue(Arrays.equals(barValue, map.get("foo").join().value())));
+
+        other.remove("foo").join();
+        TestTools.assertAfter(5000, () -> assertFalse(map.containsKey("foo").join()));
+    }
+
+    /**
+     * Tests that snapshots are served from the mirrored map.
+     */
+    @Test
+    public void testSnapshots() throws Throwable {
+        NearCachingAsyncConsistentMap<String, byte[]> map = newCachingMap("testSnapshots");
+        AtomixConsistentMap other = newPrimitive("testSnapshots");
+
+        map.put("foo", fooValue).join();
+        assertEquals(ImmutableSet.of("foo"), map.keySet().join());
+
+        long misses = map.nearCacheMissCount();
+        assertEquals(ImmutableSet.of("foo"), map.keySet().join());
+        assertEquals(1, map.values().join().size());
+        assertEquals(1, map.entrySet().join().size());
+        assertEquals(1, (int) map.size().join());
+        assertTrue(map.containsValue(fooValue).join());
+        assertEquals(misses, map.nearCacheMissCount());
+
+        other.put("bar", barValue).join();
+        TestTools.assertAfter(5000, () ->
+                assertEquals(ImmutableSet.of("foo", "bar"), map.keySet().join()));
+        assertEquals(misses, map.nearCacheMissCount());
+
+        map.clear().join();
+        assertTrue(map.isEmpty().join());
+        assertEquals(ImmutableSet.of(), map.keySet().join());
+    }
+
+    /**
+     * Tests that local writes drop the mirrored map.
+     */
+    @Test
+    public void testLocalWriteInvalidatesMirror() throws Throwable {
+        NearCachingAsyncConsistentMap<String, byte[]> map = newCachingMap("testLocalWriteInvalidatesMirror");
+
+        map.put("foo", fooValue).join();
+        assertEquals(ImmutableSet.of("foo"), map.keySet().join());
+
+        long misses = map.nearCacheMissCount();
+        map.put("bar", barValue).join();
+        assertEquals(ImmutableSet.of("foo", "bar"), map.keySet().join());
+        assertEquals(misses + 1, map.nearCacheMissCount());
+    }
+
+    /**
+     * Tests that a read completing after a newer update does not replace it.
+     */
+    @Test
+    public void testStaleReadNotCached() throws Throwable {
+        AtomixConsistentMap backing = newPrimitive("testStaleReadNotCached");
+        AtomixConsistentMap other = newPrimitive("testStaleReadNotCached");
+        CompletableFuture<Void> read = new CompletableFuture<>();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AsyncConsistentMap<String, byte[]> delayed = new DelegatingAsyncConsistentMap<String, byte[]>(backing) {
+            @Override
+            public CompletableFuture<Versioned<byte[]>> get(String key) {
+                return super.get(key).thenCompose(v -> {
+                    read.complete(null);
+                    return release.thenApply(x -> v);
+                });
+            }
+        };
+        NearCachingAsyncConsistentMap<String, byte[]> map =
+                new NearCachingAsyncConsistentMap<>(delayed, 100, Duration.ZERO);
+        map.size().join();
+
+        map.put("foo", fooValue).join();
+        CompletableFuture<Versioned<byte[]>> stale = map.get("foo");
+        read.join();
+
+        CompletableFuture<Void> updated = new CompletableFuture<>();
+        map.addListener(event -> {
+            if (event.newValue() != null && Arrays.equals(barValue, event.newValue().value())) {
+                updated.complete(null);
+            }
+        }).join();
+        other.put("foo", barValue).join();
+        updated.join();
+
+        release.complete(null);
+        assertTrue(Arrays.equals(fooValue, stale.join().value()));
+        long hits = map.nearCacheHitCount();
+        assertTrue(Arrays.equals(barValue, map.get("foo").join().value()));
+        assertEquals(hits + 1, map.nearCacheHitCount());
+    }
+
+    /**
+     * Tests that a read is cached despite updates of other keys while it is in flight.
+     */
+    @Test
+    public void testReadCachedDespiteOtherKeyUpdate() throws Throwable {
+        AtomixConsistentMap backing = newPrimitive("testReadCachedDespiteOtherKeyUpdate");
+        CompletableFuture<Void> read = new CompletableFuture<>();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AsyncConsistentMap<String, byte[]> delayed = new DelegatingAsyncConsistentMap<String, byte[]>(backing) {
+            @Override
+            public CompletableFuture<Versioned<byte[]>> get(String key) {
+                if (!key.equals("foo")) {
+                    return super.get(key);
+                }
+                return super.get(key).thenCompose(v -> {
+                    read.complete(null);
+                    return release.thenApply(x -> v);
+                });
+            }
+        };
+        backing.put("foo", fooValue).join();
+        NearCachingAsyncConsistentMap<String, byte[]> map =
+                new NearCachingAsyncConsistentMap<>(delayed, 100, Duration.ZERO);
+        map.size().join();
+
+        CompletableFuture<Versioned<byte[]>> pending = map.get("foo");
+        read.join();
+        map.put("bar", barValue).join();
+
+        release.complete(null);
+        assertTrue(Arrays.equals(fooValue, pending.join().value()));
+        long hits = map.nearCacheHitCount();
+        assertTrue(Arrays.equals(fooValue, map.get("foo").join().value()));
+        assertEquals(hits + 1, map.nearCacheHitCount());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link OffHeapValueMap}.
+ */
+public class OffHeapValueMapTest {
+
+    private static final KryoNamespace SERIALIZER = KryoNamespace.newBuilder()
+            .register(KryoNamespaces.BASIC)
+            .register(LogicalTimestamp.class)
+            .register(MapValue.class)
+            .register(new OffHeapValueMap.StoredValueSerializer(), OffHeapValueMap.StoredValue.class)
+            .build();
+
+    private static MapValue<String> value(String value, long timestamp) {
+        return new MapValue<>(value, new LogicalTimestamp(timestamp));
+    }
+
+    /**
+     * Tests that values are decoded with their timestamps and key hashes.
+     */
+    @Test
+    public void testReadWrite() {
+        OffHeapValueMap<String, String> map = new OffHeapValueMap<>(SERIALIZER, 1024, 0);
+        MapValue<String> value = value("bar", 1);
+        value.setKeyHash(42);
+        map.put("foo", value);
+
+        MapValue<String> stored = map.get("foo");
+        assertTrue(stored.isAlive());
+        assertEquals("bar", stored.get());
+        assertEquals(value.timestamp(), stored.timestamp());
+        assertEquals(value.creationTime(), stored.creationTime());
+        assertEquals(42, stored.keyHash());
+        assertEquals(value, stored);
+        assertEquals(value.digest(), stored.digest());
+
+        map.compute("foo", (k, v) -> MapValue.tombstone(new LogicalTimestamp(2)));
+        assertTrue(map.get("foo").isTombstone());
+        assertNull(map.get("foo").get());
+        // the current chunk is kept for subsequent values
+        assertEquals(1, map.chunkCount());
+        assertEquals(1, map.size());
+
+        map.remove("foo");
+        assertFalse(map.containsKey("foo"));
+    }
+
+    /**
+     * Tests that values left unchanged by a compute are not rewritten.
+     */
+    @Test
+    public void testUnchangedCompute() {
+        OffHeapValueMap<String, String> map = new OffHeapValueMap<>(SERIALIZER);
+        map.put("foo", value("bar", 1));
+        MapValue<String> stored = map.get("foo");
+        assertSame(stored, map.compute("foo", (k, v) -> v));
+        assertSame(stored, map.get("foo"));
+        assertNull(map.computeIfPresent("bar", (k, v) -> value("baz", 1)));
+        assertFalse(map.containsKey("bar"));
+    }
+
+    /**
+     * Tests that chunks are dropped once their values are released or moved away.
+     */
+    @Test
+    public void testCompaction() {
+        OffHeapValueMap<Integer, String> map = new OffHeapValueMap<>(SERIALIZER, 64, 0);
+        IntStream.range(0, 100).forEach(i -> map.put(i, value("value" + i, 1)));
+        int chunks = map.chunkCount();
+        assertTrue(chunks > 1);
+
+        IntStream.range(0, 100).filter(i -> i % 4 != 0).forEach(map::remove);
+        map.compact();
+        assertTrue(map.chunkCount() < chunks / 2);
+        IntStream.range(0, 100).filter(i -> i % 4 == 0)
+                .forEach(i -> assertEquals("value" + i, map.get(i).get()));
+
+        IntStream.range(0, 100).forEach(map::remove);
+        assertTrue(map.isEmpty());
+        assertTrue(map.chunkCount() <= 1);
+    }
+
+    /**
+     * Tests that stored values are read back by peers as plain map values.
+     */
+    @Test
+    public void testSerialization() {
+        OffHeapValueMap<String, String> map = new OffHeapValueMap<>(SERIALIZER);
+        map.put("foo", value("bar", 1));
+        MapValue<String> stored = map.get("foo");
+
+        MapValue<String> decoded = SERIALIZER.deserialize(SERIALIZER.serialize(stored));
+        assertEquals(MapValue.class, decoded.getClass());
+        assertEquals(stored, decoded);
+        assertEquals(stored.creationTime(), decoded.creationTime());
+    }
+}
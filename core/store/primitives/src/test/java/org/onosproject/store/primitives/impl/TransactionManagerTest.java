@@ -16,12 +16,15 @@
 package org.onosproject.store.primitives.impl;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.junit.Test;
 import org.onosproject.cluster.PartitionId;
@@ -38,10 +41,14 @@ import org.onosproject.store.service.StorageService;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.mock;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Transaction manager test.
@@ -99,4 +106,47 @@ public class TransactionManagerTest {
                 transactionalMap2.partitions.get(PartitionId.from(3)).transaction.transactionalObject);
     }
 
+    @Test
+    public void testRegistryWriteBatching() throws Exception {
+        TransactionId tx1 = TransactionId.from("tx1");
+        TransactionId tx2 = TransactionId.from("tx2");
+        TransactionId tx3 = TransactionId.from("tx3");
+        CompletableFuture<Void> firstWrite = new CompletableFuture<>();
+
+        AsyncConsistentMap transactions = mock(AsyncConsistentMap.class);
+        expect(transactions.putAll(eq(ImmutableMap.of(tx1, Transaction.State.PREPARING))))
+                .andReturn(firstWrite);
+        Map<TransactionId, Transaction.State> secondUpdates =
+                ImmutableMap.of(tx2, Transaction.State.PREPARING, tx3, Transaction.State.COMMITTING);
+        expect(transactions.putAll(eq(secondUpdates))).andReturn(CompletableFuture.completedFuture(null));
+        expect(transactions.removeAll(eq(ImmutableSet.of(tx1)))).andReturn(CompletableFuture.completedFuture(null));
+
+        ConsistentMapBuilder mapBuilder = mock(ConsistentMapBuilder.class);
+        expect(mapBuilder.withName(anyString())).andReturn(mapBuilder).anyTimes();
+        expect(mapBuilder.withSerializer(anyObject(Serializer.class))).andReturn(mapBuilder).anyTimes();
+        expect(mapBuilder.buildAsyncMap()).andReturn(transactions);
+        StorageService storageService = mock(StorageService.class);
+        expect(storageService.consistentMapBuilder()).andReturn(mapBuilder);
+        PartitionService partitionService = mock(PartitionService.class);
+        expect(partitionService.getAllPartitionIds()).andReturn(ImmutableSet.of(PartitionId.from(1))).anyTimes();
+        replay(storageService, partitionService, mapBuilder, transactions);
+
+        TransactionManager transactionManager = new TransactionManager(storageService, partitionService, 128);
+        CompletableFuture<Void> update1 = transactionManager.updateState(tx1, Transaction.State.PREPARING);
+
+        // Updates made while the first write is in progress are written together.
+        CompletableFuture<Void> update2 = transactionManager.updateState(tx2, Transaction.State.PREPARING);
+        CompletableFuture<Void> update3 = transactionManager.updateState(tx3, Transaction.State.PREPARING);
+        transactionManager.updateState(tx3, Transaction.State.COMMITTING);
+        CompletableFuture<Void> remove1 = transactionManager.remove(tx1);
+        assertFalse(update1.isDone());
+        assertFalse(update2.isDone());
+
+        firstWrite.complete(null);
+        assertTrue(update1.isDone());
+        assertTrue(update2.isDone());
+        assertTrue(update3.isDone());
+        assertTrue(remove1.isDone());
+        verify(transactions);
+    }
 }
@@ -24,15 +24,33 @@ import io.atomix.protocols.raft.storage.snapshot.SnapshotStore;
 import io.atomix.protocols.raft.storage.snapshot.SnapshotWriter;
 import io.atomix.storage.StorageLevel;
 import io.atomix.time.WallClockTimestamp;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
+import org.onosproject.store.primitives.MapUpdate;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.TransactionLog;
 import org.onosproject.store.service.Versioned;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 import static org.easymock.EasyMock.mock;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.BEGIN;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.GET;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PREPARE_ALL;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.PUT;
 import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.Put;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionBegin;
+import static org.onosproject.store.primitives.resources.impl.AtomixConsistentMapOperations.TransactionPrepareAll;
 
 /**
  * Consistent map service test.
@@ -75,4 +93,109 @@ public class AtomixConsistentMapServiceTest {
         assertNotNull(value);
         assertArrayEquals("Hello world!".getBytes(), value.value());
     }
+
+    @Test
+    public void testChunkedSnapshot() throws Exception {
+        SnapshotStore store = new SnapshotStore(RaftStorage.newBuilder()
+                .withPrefix("test")
+                .withStorageLevel(StorageLevel.MEMORY)
+                .build());
+        Snapshot snapshot = store.newSnapshot(2, new WallClockTimestamp());
+
+        int count = SnapshotChunks.CHUNK_SIZE * 2 + 1;
+        AtomixConsistentTreeMapService service = new AtomixConsistentTreeMapService();
+        for (int i = 0; i < count; i++) {
+            service.put(new DefaultCommit<>(
+                    2 + i,
+                    PUT,
+                    new Put("key" + i, ("value" + i).getBytes()),
+                    mock(RaftSessionContext.class),
+                    System.currentTimeMillis()));
+        }
+
+        try (SnapshotWriter writer = snapshot.openWriter()) {
+            service.snapshot(writer);
+        }
+
+        snapshot.complete();
+
+        service = new AtomixConsistentTreeMapService();
+        try (SnapshotReader reader = snapshot.openReader()) {
+            service.install(reader);
+        }
+
+        assertEquals(count, service.entries().size());
+        assertTrue(service.entries() instanceof TreeMap);
+        for (int i = 0; i < count; i++) {
+            Versioned<byte[]> value = service.get(new DefaultCommit<>(
+                    2,
+                    GET,
+                    new AtomixConsistentMapOperations.Get("key" + i),
+                    mock(RaftSessionContext.class),
+                    System.currentTimeMillis()));
+            assertNotNull(value);
+            assertArrayEquals(("value" + i).getBytes(), value.value());
+        }
+    }
+
+    @Test
+    public void testLegacySnapshot() throws Exception {
+        SnapshotStore store = new SnapshotStore(RaftStorage.newBuilder()
+                .withPrefix("test")
+                .withStorageLevel(StorageLevel.MEMORY)
+                .build());
+        Snapshot snapshot = store.newSnapshot(2, new WallClockTimestamp());
+
+        // Maps used to be written as a single object
+        Serializer serializer = Serializer.using(KryoNamespaces.BASIC);
+        Map<String, String> legacy = new HashMap<>(ImmutableMap.of("foo", "bar", "baz", "qux"));
+        try (SnapshotWriter writer = snapshot.openWriter()) {
+            writer.writeObject(legacy, serializer::encode);
+            writer.writeLong(42L);
+        }
+
+        snapshot.complete();
+
+        try (SnapshotReader reader = snapshot.openReader()) {
+            Map<String, String> map = SnapshotChunks.readMap(reader, new TreeMap<>(), serializer);
+            assertEquals(legacy, map);
+            assertEquals(42L, reader.readLong());
+        }
+    }
+
+    @Test
+    public void testPrepareAllFailure() throws Exception {
+        AtomixConsistentMapService service = new AtomixConsistentMapService();
+        TransactionId transactionId = TransactionId.from("tx1");
+        long version = service.begin(new DefaultCommit<>(
+                2,
+                BEGIN,
+                new TransactionBegin(transactionId),
+                mock(RaftSessionContext.class),
+                System.currentTimeMillis()));
+
+        TransactionLog<MapUpdate<String, byte[]>> prepared = new TransactionLog<>(transactionId, version,
+                ImmutableList.of(MapUpdate.<String, byte[]>newBuilder()
+                        .withType(MapUpdate.Type.PUT_IF_VERSION_MATCH)
+                        .withKey("foo")
+                        .withValue("Hello world!".getBytes())
+                        .withVersion(version)
+                        .build()));
+        TransactionLog<MapUpdate<String, byte[]>> broken =
+                new TransactionLog<MapUpdate<String, byte[]>>(TransactionId.from("tx2"), version,
+                                                              ImmutableList.of()) {
+            @Override
+            public List<MapUpdate<String, byte[]>> records() {
+                throw new IllegalStateException("broken log");
+            }
+        };
+
+        List<PrepareResult> results = service.prepareAll(new DefaultCommit<>(
+                3,
+                PREPARE_ALL,
+                new TransactionPrepareAll(ImmutableList.of(prepared, broken)),
+                mock(RaftSessionContext.class),
+                System.currentTimeMillis()));
+        assertEquals(ImmutableList.of(PrepareResult.OK, PrepareResult.PARTIAL_FAILURE), results);
+    }
 }
@@ -18,12 +18,17 @@ package org.onosproject.store.primitives.resources.impl;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import io.atomix.protocols.raft.proxy.RaftProxy;
 import io.atomix.protocols.raft.service.RaftService;
@@ -116,6 +121,63 @@ public class AtomixConsistentMapTest extends AtomixTestBase<AtomixConsistentMap>
         }).join();
     }
 
+    /**
+     * Tests batched multi-key operations.
+     */
+    @Test
+    public void testBatchOperations() throws Throwable {
+        final byte[] rawFooValue = Tools.getBytesUtf8("Hello foo!");
+        final byte[] rawBarValue = Tools.getBytesUtf8("Hello bar!");
+
+        AtomixConsistentMap map = newPrimitive("testBatchOperations");
+
+        assertTrue(map.getAll(ImmutableSet.of("foo", "bar")).join().isEmpty());
+
+        map.putAll(ImmutableMap.of("foo", rawFooValue, "bar", rawBarValue)).join();
+        Map<String, Versioned<byte[]>> values = map.getAll(ImmutableSet.of("foo", "bar", "baz")).join();
+        assertEquals(ImmutableSet.of("foo", "bar"), values.keySet());
+        assertArrayEquals(rawFooValue, values.get("foo").value());
+        assertArrayEquals(rawBarValue, values.get("bar").value());
+        assertEquals(values.get("foo").version(), values.get("bar").version());
+
+        // Unchanged values are left alone.
+        long fooVersion = values.get("foo").version();
+        map.putAll(ImmutableMap.of("foo", rawFooValue, "bar", rawFooValue)).join();
+        values = map.getAll(ImmutableSet.of("foo", "bar")).join();
+        assertEquals(fooVersion, values.get("foo").version());
+        assertArrayEquals(rawFooValue, values.get("bar").value());
+
+        map.removeAll(ImmutableSet.of("foo", "baz")).join();
+        assertEquals(ImmutableSet.of("bar"), map.keySet().join());
+
+        // Batches touching a key locked by a transaction are rejected as a whole.
+        TransactionId transactionId = TransactionId.from("tx1");
+        Version lock = map.begin(transactionId).join();
+        MapUpdate<String, byte[]> update = MapUpdate.<String, byte[]>newBuilder()
+                .withType(MapUpdate.Type.LOCK)
+                .withKey("bar")
+                .withVersion(lock.value())
+                .build();
+        assertTrue(map.prepare(new TransactionLog<>(transactionId, lock.value(), Arrays.asList(update))).join());
+        try {
+            map.putAll(ImmutableMap.of("foo", rawFooValue, "bar", rawBarValue)).join();
+            fail();
+        } catch (CompletionException e) {
+            assertEquals(ConcurrentModificationException.class, e.getCause().getClass());
+        }
+        try {
+            map.removeAll(ImmutableSet.of("bar")).join();
+            fail();
+        } catch (CompletionException e) {
+            assertEquals(ConcurrentModificationException.class, e.getCause().getClass());
+        }
+        assertEquals(ImmutableSet.of("bar"), map.keySet().join());
+        map.rollback(transactionId).join();
+
+        map.removeAll(ImmutableSet.of("bar")).join();
+        assertTrue(map.isEmpty().join());
+    }
+
     /**
      * Tests map event notifications.
      */
@@ -132,6 +194,34 @@ public class AtomixConsistentMapTest extends AtomixTestBase<AtomixConsistentMap>
         transactionPrepareTests();
     }
 
+    /**
+     * Tests concurrent prepares, which are sent together while one is in progress.
+     */
+    @Test
+    public void testConcurrentTransactionPrepares() throws Throwable {
+        AtomixConsistentMap map = newPrimitive("testConcurrentPreparesMap");
+
+        List<CompletableFuture<Boolean>> results = Lists.newArrayList();
+        for (String[] transaction : new String[][] {{"tx1", "foo"}, {"tx2", "foo"}, {"tx3", "bar"}}) {
+            TransactionId transactionId = TransactionId.from(transaction[0]);
+            Version lock = map.begin(transactionId).join();
+            MapUpdate<String, byte[]> update = MapUpdate.<String, byte[]>newBuilder()
+                    .withType(MapUpdate.Type.LOCK)
+                    .withKey(transaction[1])
+                    .withVersion(lock.value())
+                    .build();
+            results.add(map.prepare(new TransactionLog<>(transactionId, lock.value(), Arrays.asList(update))));
+        }
+
+        // Prepares are applied in the order they were requested.
+        assertTrue(results.get(0).join());
+        assertFalse(results.get(1).join());
+        assertTrue(results.get(2).join());
+        map.rollback(TransactionId.from("tx2")).join();
+        map.commit(TransactionId.from("tx1")).join();
+        map.commit(TransactionId.from("tx3")).join();
+    }
+
     /**
      * Tests map transaction commit.
      */
@@ -122,6 +122,20 @@ public interface OpenFlowController {
      */
     void removeEventListener(OpenFlowEventListener listener);
 
+    /**
+     * Register a listener for the parts of statistics replies.
+     *
+     * @param listener the listener to notify
+     */
+    void addStatsListener(OpenFlowStatsListener listener);
+
+    /**
+     * Unregister a listener.
+     *
+     * @param listener the listener to unregister
+     */
+    void removeStatsListener(OpenFlowStatsListener listener);
+
     /**
      * Send a message to a particular switch.
      * @param dpid the switch to send to.
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller;
+
+import org.projectfloodlight.openflow.protocol.OFStatsReply;
+
+/**
+ * Notifies providers about the parts of statistics replies as they arrive.
+ */
+public interface OpenFlowStatsListener {
+
+    /**
+     * Handles a part of a statistics reply.
+     * <p>
+     * Parts other than the last one of a reply carry the {@code REPLY_MORE} flag.
+     * Invoked on the thread dispatching the messages of the switch, hence
+     * implementations should not block.
+     * </p>
+     *
+     * @param dpid switch data path identifier
+     * @param reply part of the reply
+     */
+    void handleStatsReply(Dpid dpid, OFStatsReply reply);
+}
@@ -103,4 +103,12 @@ public class OpenflowControllerAdapter implements OpenFlowController {
     @Override
     public void removeEventListener(OpenFlowEventListener listener) {
     }
+
+    @Override
+    public void addStatsListener(OpenFlowStatsListener listener) {
+    }
+
+    @Override
+    public void removeStatsListener(OpenFlowStatsListener listener) {
+    }
 }
@@ -16,8 +16,10 @@
 
 package org.onosproject.openflow.controller.impl;
 
+import com.codahale.metrics.Histogram;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -28,6 +30,9 @@ import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.driver.DefaultDriverData;
@@ -59,6 +64,7 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -77,6 +83,12 @@ public class Controller {
 
     private static final boolean TLS_DISABLED = false;
     private static final short MIN_KS_LENGTH = 6;
+    private static final int DEFAULT_FLUSH_BATCH_BYTES = 64 * 1024;
+
+    private static final String METRICS_COMPONENT = "OpenFlowController";
+    private static final String METRICS_FEATURE = "ChannelFlush";
+    private static final String MESSAGES_PER_FLUSH = "messagesPerFlush";
+    private static final String BYTES_PER_FLUSH = "bytesPerFlush";
 
     protected HashMap<String, String> controllerNodeIPsCache;
 
@@ -85,6 +97,8 @@ public class Controller {
     // Configuration options
     protected List<Integer> openFlowPorts = ImmutableList.of(6633, 6653);
     protected int workerThreads = 0;
+    protected int flushBatchBytes = DEFAULT_FLUSH_BATCH_BYTES;
+    protected int flushDelayMicros = 0;
 
     // Start time of the controller
     protected long systemStartTime;
@@ -106,6 +120,13 @@ public class Controller {
     private DriverService driverService;
     private boolean enableOfTls = TLS_DISABLED;
 
+    private MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+    private volatile Histogram messagesPerFlush;
+    private volatile Histogram bytesPerFlush;
+    private final ConcurrentMap<Dpid, OFChannelMetrics> channelMetrics = Maps.newConcurrentMap();
+
     // **************
     // Initialization
     // **************
@@ -185,6 +206,17 @@ public class Controller {
             this.workerThreads = Integer.parseInt(threads);
         }
         log.debug("Number of worker threads set to {}", this.workerThreads);
+
+        String batchBytes = get(properties, "flushBatchBytes");
+        if (!Strings.isNullOrEmpty(batchBytes)) {
+            this.flushBatchBytes = Integer.parseInt(batchBytes);
+        }
+        String delayMicros = get(properties, "flushDelayMicros");
+        if (!Strings.isNullOrEmpty(delayMicros)) {
+            this.flushDelayMicros = Integer.parseInt(delayMicros);
+        }
+        log.debug("Channel flushes batched up to {} bytes and {} us",
+                  this.flushBatchBytes, this.flushDelayMicros);
     }
 
     /**
@@ -317,10 +349,95 @@ public class Controller {
         return ofSwitchDriver;
     }
 
+    /**
+     * Records the messages and bytes written to a switch channel by a flush.
+     *
+     * @param messages number of OpenFlow messages
+     * @param bytes number of bytes
+     */
+    void recordFlush(int messages, int bytes) {
+        Histogram messageHistogram = messagesPerFlush;
+        Histogram byteHistogram = bytesPerFlush;
+        if (messageHistogram != null && byteHistogram != null) {
+            messageHistogram.update(messages);
+            byteHistogram.update(bytes);
+        }
+    }
+
+    /**
+     * Registers the codec metrics of the channel of a switch, replacing those
+     * of any previous channel of the same switch.
+     *
+     * @param dpid switch datapath id
+     * @param metrics metrics of the switch channel
+     */
+    synchronized void registerChannelMetrics(Dpid dpid, OFChannelMetrics metrics) {
+        MetricsComponent component = metricsComponent;
+        OFChannelMetrics previous = channelMetrics.put(dpid, metrics);
+        if (metricsService == null || component == null) {
+            return;
+        }
+        MetricsFeature feature = component.registerFeature(dpid.toString());
+        // A reconnecting switch may register before its old channel is gone.
+        if (previous != null) {
+            removeChannelMetrics(feature);
+        }
+        metricsService.registerMetric(component, feature, OFChannelMetrics.DECODED_MESSAGES,
+                                      metrics.decodedMessages());
+        metricsService.registerMetric(component, feature, OFChannelMetrics.DECODED_BYTES,
+                                      metrics.decodedBytes());
+        metricsService.registerMetric(component, feature, OFChannelMetrics.ENCODED_MESSAGES,
+                                      metrics.encodedMessages());
+        metricsService.registerMetric(component, feature, OFChannelMetrics.ENCODED_BYTES,
+                                      metrics.encodedBytes());
+    }
+
+    /**
+     * Unregisters the codec metrics of the channel of a switch, unless they
+     * were replaced by those of another channel of the same switch.
+     *
+     * @param dpid switch datapath id
+     * @param metrics metrics of the switch channel
+     */
+    synchronized void removeChannelMetrics(Dpid dpid, OFChannelMetrics metrics) {
+        MetricsComponent component = metricsComponent;
+        if (!channelMetrics.remove(dpid, metrics)
+                || metricsService == null || component == null) {
+            return;
+        }
+        removeChannelMetrics(component.registerFeature(dpid.toString()));
+    }
+
+    private void removeChannelMetrics(MetricsFeature feature) {
+        metricsService.removeMetric(metricsComponent, feature, OFChannelMetrics.DECODED_MESSAGES);
+        metricsService.removeMetric(metricsComponent, feature, OFChannelMetrics.DECODED_BYTES);
+        metricsService.removeMetric(metricsComponent, feature, OFChannelMetrics.ENCODED_MESSAGES);
+        metricsService.removeMetric(metricsComponent, feature, OFChannelMetrics.ENCODED_BYTES);
+    }
+
     public void start(OpenFlowAgent ag, DriverService driverService) {
+        start(ag, driverService, null);
+    }
+
+    /**
+     * Starts the controller, recording channel flush and codec metrics if a metrics
+     * service is given.
+     *
+     * @param ag agent of the switches
+     * @param driverService driver service
+     * @param metricsService metrics service or null
+     */
+    public void start(OpenFlowAgent ag, DriverService driverService, MetricsService metricsService) {
         log.info("Starting OpenFlow IO");
         this.agent = ag;
         this.driverService = driverService;
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+            metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+            messagesPerFlush = metricsService.createHistogram(metricsComponent, metricsFeature, MESSAGES_PER_FLUSH);
+            bytesPerFlush = metricsService.createHistogram(metricsComponent, metricsFeature, BYTES_PER_FLUSH);
+        }
         this.init();
         this.run();
     }
@@ -330,6 +447,16 @@ public class Controller {
         log.info("Stopping OpenFlow IO");
         cg.close();
 
+        if (metricsService != null) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, MESSAGES_PER_FLUSH);
+            metricsService.removeMetric(metricsComponent, metricsFeature, BYTES_PER_FLUSH);
+            channelMetrics.keySet().forEach(dpid -> removeChannelMetrics(
+                    metricsComponent.registerFeature(dpid.toString())));
+            messagesPerFlush = null;
+            bytesPerFlush = null;
+        }
+        channelMetrics.clear();
+
         // Shut down all event loops to terminate all threads.
         bossGroup.shutdownGracefully();
         workerGroup.shutdownGracefully();
@@ -520,6 +520,11 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
                 // Here is where we differentiate between different kinds of switches
                 h.sw = h.controller.getOFSwitchInstance(h.thisdpid, drep, h.ofVersion);
 
+                OFChannelMetrics metrics = OFChannelMetrics.of(h.channel);
+                if (metrics != null) {
+                    h.controller.registerChannelMetrics(new Dpid(h.thisdpid), metrics);
+                }
+
                 h.sw.setOFVersion(h.ofVersion);
                 h.sw.setFeaturesReply(h.featuresReply);
                 h.sw.setPortDescReplies(h.portDescReplies);
@@ -1268,6 +1273,10 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         }
 
          if (thisdpid != 0) {
+             OFChannelMetrics metrics = OFChannelMetrics.of(ctx.channel());
+             if (metrics != null) {
+                 controller.removeChannelMetrics(new Dpid(thisdpid), metrics);
+             }
              if (!duplicateDpidFound) {
                  // if the disconnected switch (on this ChannelHandler)
                  // was not one with a duplicate-dpid, it is safe to remove all
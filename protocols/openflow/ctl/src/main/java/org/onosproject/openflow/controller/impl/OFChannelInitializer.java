@@ -57,6 +57,8 @@ public class OFChannelInitializer
 
         OFChannelHandler handler = new OFChannelHandler(controller);
 
+        OFChannelMetrics.attach(ch);
+
         ChannelPipeline pipeline = ch.pipeline();
         if (sslContext != null) {
             log.info("OpenFlow SSL enabled.");
@@ -73,6 +75,9 @@ public class OFChannelInitializer
         } else {
             log.debug("OpenFlow SSL disabled.");
         }
+        pipeline.addLast("ofmessageflush", new OFFlushConsolidator(controller,
+                                                                   controller.flushBatchBytes,
+                                                                   controller.flushDelayMicros));
         pipeline.addLast("ofmessageencoder", OFMessageEncoder.getInstance());
         pipeline.addLast("ofmessagedecoder", OFMessageDecoder.getInstance());
 
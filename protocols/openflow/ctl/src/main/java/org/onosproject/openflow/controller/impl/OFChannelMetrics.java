@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.codahale.metrics.Meter;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+/**
+ * Rates and byte counts of the openflow messages decoded from and encoded
+ * to a switch channel.
+ */
+final class OFChannelMetrics {
+
+    private static final AttributeKey<OFChannelMetrics> KEY =
+            AttributeKey.valueOf(OFChannelMetrics.class.getName());
+
+    static final String DECODED_MESSAGES = "decodedMessages";
+    static final String DECODED_BYTES = "decodedBytes";
+    static final String ENCODED_MESSAGES = "encodedMessages";
+    static final String ENCODED_BYTES = "encodedBytes";
+
+    private final Meter decodedMessages = new Meter();
+    private final Meter decodedBytes = new Meter();
+    private final Meter encodedMessages = new Meter();
+    private final Meter encodedBytes = new Meter();
+
+    /**
+     * Attaches new metrics to a channel.
+     *
+     * @param channel switch channel
+     * @return metrics of the channel
+     */
+    static OFChannelMetrics attach(Channel channel) {
+        OFChannelMetrics metrics = new OFChannelMetrics();
+        channel.attr(KEY).set(metrics);
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics attached to a channel.
+     *
+     * @param channel switch channel
+     * @return metrics of the channel or null if none are attached
+     */
+    static OFChannelMetrics of(Channel channel) {
+        return channel.hasAttr(KEY) ? channel.attr(KEY).get() : null;
+    }
+
+    /**
+     * Records messages decoded from the channel.
+     *
+     * @param messages number of messages
+     * @param bytes number of bytes
+     */
+    void decoded(int messages, int bytes) {
+        if (messages > 0) {
+            decodedMessages.mark(messages);
+            decodedBytes.mark(bytes);
+        }
+    }
+
+    /**
+     * Records messages encoded to the channel.
+     *
+     * @param messages number of messages
+     * @param bytes number of bytes
+     */
+    void encoded(int messages, int bytes) {
+        encodedMessages.mark(messages);
+        encodedBytes.mark(bytes);
+    }
+
+    Meter decodedMessages() {
+        return decodedMessages;
+    }
+
+    Meter decodedBytes() {
+        return decodedBytes;
+    }
+
+    Meter encodedMessages() {
+        return encodedMessages;
+    }
+
+    Meter encodedBytes() {
+        return encodedBytes;
+    }
+}
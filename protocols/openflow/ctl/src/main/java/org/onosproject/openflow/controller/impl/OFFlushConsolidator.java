@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the flushes of an openflow channel, for use in a netty pipeline
+ * after the message encoder.
+ * <p>
+ * Rather than issuing a system call for every message sent to the switch,
+ * writes are flushed together once per iteration of the event loop, or after
+ * the given delay, unless the bytes pending exceed the given budget.
+ * </p>
+ */
+final class OFFlushConsolidator extends ChannelOutboundHandlerAdapter {
+
+    // length of an openflow header, and offset of the message length in it
+    private static final int HEADER_LENGTH = 8;
+    private static final int LENGTH_OFFSET = 2;
+
+    private final Controller controller;
+    private final int maxPendingBytes;
+    private final long flushDelayMicros;
+
+    private ChannelHandlerContext context;
+    private final Runnable flushTask = this::scheduledFlush;
+    private boolean flushScheduled;
+    private int pendingBytes;
+    private int pendingMessages;
+
+    /**
+     * Creates a flush consolidator.
+     *
+     * @param controller controller recording flush metrics
+     * @param maxPendingBytes number of bytes beyond which writes are flushed right away
+     * @param flushDelayMicros maximum delay of a flush in microseconds, 0 for the
+     *                         end of the current event loop iteration
+     */
+    OFFlushConsolidator(Controller controller, int maxPendingBytes, long flushDelayMicros) {
+        this.controller = controller;
+        this.maxPendingBytes = maxPendingBytes;
+        this.flushDelayMicros = flushDelayMicros;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.context = ctx;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            pendingBytes += buf.readableBytes();
+            pendingMessages += countMessages(buf);
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (pendingBytes >= maxPendingBytes) {
+            flushNow(ctx);
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            if (flushDelayMicros > 0) {
+                ctx.executor().schedule(flushTask, flushDelayMicros, TimeUnit.MICROSECONDS);
+            } else {
+                ctx.executor().execute(flushTask);
+            }
+        }
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) {
+        // messages such as errors are usually sent right before disconnecting
+        flushNow(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
+        flushNow(ctx);
+        ctx.close(promise);
+    }
+
+    private void scheduledFlush() {
+        if (flushScheduled) {
+            flushNow(context);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        flushScheduled = false;
+        if (pendingBytes > 0) {
+            controller.recordFlush(pendingMessages, pendingBytes);
+            pendingBytes = 0;
+            pendingMessages = 0;
+        }
+        ctx.flush();
+    }
+
+    /**
+     * Returns the number of openflow messages encoded in a buffer.
+     *
+     * @param buf buffer of encoded messages
+     * @return number of messages
+     */
+    static int countMessages(ByteBuf buf) {
+        int count = 0;
+        int index = buf.readerIndex();
+        while (index + HEADER_LENGTH <= buf.writerIndex()) {
+            int length = buf.getUnsignedShort(index + LENGTH_OFFSET);
+            if (length < HEADER_LENGTH) {
+                break;
+            }
+            index += length;
+            count++;
+        }
+        return count;
+    }
+}
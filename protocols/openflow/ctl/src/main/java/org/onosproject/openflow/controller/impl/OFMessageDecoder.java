@@ -65,11 +65,19 @@ public final class OFMessageDecoder extends ByteToMessageDecoder {
         // The performance *may or may not* not be as good as before.
         OFMessageReader<OFMessage> reader = OFFactories.getGenericReader();
 
+        int start = byteBuf.readerIndex();
+        int count = 0;
         OFMessage message = reader.readFrom(byteBuf);
         while (message != null) {
             out.add(message);
+            count++;
             message = reader.readFrom(byteBuf);
         }
+
+        OFChannelMetrics metrics = OFChannelMetrics.of(ctx.channel());
+        if (metrics != null) {
+            metrics.decoded(count, byteBuf.readerIndex() - start);
+        }
     }
 
 }
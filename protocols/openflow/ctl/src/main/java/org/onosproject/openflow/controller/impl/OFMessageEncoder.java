@@ -45,11 +45,16 @@ public final class OFMessageEncoder extends ChannelOutboundHandlerAdapter {
 
     private OFMessageEncoder() {}
 
-    protected final void encode(ChannelHandlerContext ctx,
+    protected final int encode(ChannelHandlerContext ctx,
                           Iterable<OFMessage> msgs,
                           ByteBuf out) {
 
-        msgs.forEach(msg -> msg.writeTo(out));
+        int count = 0;
+        for (OFMessage msg : msgs) {
+            msg.writeTo(out);
+            count++;
+        }
+        return count;
     }
 
     // MessageToByteEncoder without dependency to TypeParameterMatcher
@@ -65,8 +70,12 @@ public final class OFMessageEncoder extends ChannelOutboundHandlerAdapter {
                 Iterable<OFMessage> ofmsgs =  (Iterable<OFMessage>) msg;
                 buf = ctx.alloc().ioBuffer();
 
-                encode(ctx, ofmsgs, buf);
+                int count = encode(ctx, ofmsgs, buf);
 
+                OFChannelMetrics metrics = OFChannelMetrics.of(ctx.channel());
+                if (metrics != null) {
+                    metrics.encoded(count, buf.readableBytes());
+                }
                 if (buf.isReadable()) {
                     ctx.write(buf, promise);
                 } else {
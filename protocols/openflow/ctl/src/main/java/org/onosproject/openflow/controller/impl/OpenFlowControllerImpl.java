@@ -26,6 +26,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.device.DeviceEvent;
@@ -39,6 +40,7 @@ import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowMessageListener;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.OpenFlowStatsListener;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
 import org.onosproject.openflow.controller.RoleState;
@@ -65,7 +67,6 @@ import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFQueueStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFQueueStatsReply;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
-import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
 import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
 import org.projectfloodlight.openflow.protocol.action.OFActionOutput;
@@ -100,6 +101,8 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String APP_ID = "org.onosproject.openflow-base";
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 0;
+    private static final int DEFAULT_FLUSH_BATCH_BYTES = 64 * 1024;
+    private static final int DEFAULT_FLUSH_DELAY_MICROS = 0;
     protected static final String SCHEME = "of";
 
     private static final Logger log =
@@ -117,6 +120,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
 
     @Property(name = "openflowPorts", value = DEFAULT_OFPORT,
             label = "Port numbers (comma separated) used by OpenFlow protocol; default is 6633,6653")
@@ -126,6 +132,15 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             label = "Number of controller worker threads")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    @Property(name = "flushBatchBytes", intValue = DEFAULT_FLUSH_BATCH_BYTES,
+            label = "Number of bytes pending on a switch channel beyond which they are flushed right away")
+    private int flushBatchBytes = DEFAULT_FLUSH_BATCH_BYTES;
+
+    @Property(name = "flushDelayMicros", intValue = DEFAULT_FLUSH_DELAY_MICROS,
+            label = "Maximum delay (in microseconds) of flushing writes to a switch channel; "
+                    + "0 flushes them at the end of the current event loop iteration")
+    private int flushDelayMicros = DEFAULT_FLUSH_DELAY_MICROS;
+
     protected ExecutorService executorMsgs =
         Executors.newFixedThreadPool(32, groupedThreads("onos/of", "event-stats-%d", log));
 
@@ -161,28 +176,15 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     protected Set<OpenFlowMessageListener> ofMessageListener = new CopyOnWriteArraySet<>();
 
-    protected Multimap<Dpid, OFFlowStatsEntry> fullFlowStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFFlowLightweightStatsEntry> fullFlowLightweightStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFTableStatsEntry> fullTableStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFGroupStatsEntry> fullGroupStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFGroupDescStatsEntry> fullGroupDescStats =
-            ArrayListMultimap.create();
-
     // deprecated in 1.11.0, no longer referenced from anywhere
     @Deprecated
     protected Multimap<Dpid, OFPortStatsEntry> fullPortStats =
             ArrayListMultimap.create();
 
-    protected Multimap<Dpid, OFQueueStatsEntry> fullQueueStats =
-            ArrayListMultimap.create();
+    protected Set<OpenFlowStatsListener> ofStatsListener = new CopyOnWriteArraySet<>();
+
+    // Reassembly of multipart statistics replies, each confined to the dispatching thread of its switch
+    private final ConcurrentMap<Dpid, StatsReplyAssembler> statsAssemblers = new ConcurrentHashMap<>();
 
     private final Controller ctrl = new Controller();
     private InternalDeviceListener listener = new InternalDeviceListener();
@@ -193,7 +195,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         cfgService.registerProperties(getClass());
         deviceService.addListener(listener);
         ctrl.setConfigParams(context.getProperties());
-        ctrl.start(agent, driverService);
+        ctrl.start(agent, driverService, metricsService);
     }
 
     private void cleanup() {
@@ -217,7 +219,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     public void modified(ComponentContext context) {
         ctrl.stop();
         ctrl.setConfigParams(context.getProperties());
-        ctrl.start(agent, driverService);
+        ctrl.start(agent, driverService, metricsService);
     }
 
     @Override
@@ -292,6 +294,16 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         ofEventListener.remove(listener);
     }
 
+    @Override
+    public void addStatsListener(OpenFlowStatsListener listener) {
+        ofStatsListener.add(listener);
+    }
+
+    @Override
+    public void removeStatsListener(OpenFlowStatsListener listener) {
+        ofStatsListener.remove(listener);
+    }
+
     @Override
     public void write(Dpid dpid, OFMessage msg) {
         this.getSwitch(dpid).sendMsg(msg);
@@ -403,6 +415,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     }
 
     private void processStatsReply(Dpid dpid, OFStatsReply reply) {
+        for (OpenFlowStatsListener l : ofStatsListener) {
+            l.handleStatsReply(dpid, reply);
+        }
         switch (reply.getStatsType()) {
             case QUEUE:
                 Collection<OFQueueStatsEntry> queueStatsEntries = publishQueueStats(dpid, (OFQueueStatsReply) reply);
@@ -538,63 +553,34 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         }
     }
 
-    private synchronized Collection<OFFlowStatsEntry> publishFlowStats(Dpid dpid,
-                                                                       OFFlowStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullFlowStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullFlowStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFFlowStatsEntry> publishFlowStats(Dpid dpid, OFFlowStatsReply reply) {
+        return assembleStats(dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFFlowLightweightStatsEntry> publishFlowStatsLightweight(
+    private Collection<OFFlowLightweightStatsEntry> publishFlowStatsLightweight(
             Dpid dpid,
             OFFlowLightweightStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullFlowLightweightStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullFlowLightweightStats.removeAll(dpid);
-        }
-        return null;
+        return assembleStats(dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFTableStatsEntry> publishTableStats(Dpid dpid,
-                                                                       OFTableStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullTableStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullTableStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFTableStatsEntry> publishTableStats(Dpid dpid, OFTableStatsReply reply) {
+        return assembleStats(dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFGroupStatsEntry> publishGroupStats(Dpid dpid,
-                                                                      OFGroupStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFGroupStatsEntry> publishGroupStats(Dpid dpid, OFGroupStatsReply reply) {
+        return assembleStats(dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFGroupDescStatsEntry> publishGroupDescStats(Dpid dpid,
-                                                                  OFGroupDescStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupDescStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupDescStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFGroupDescStatsEntry> publishGroupDescStats(Dpid dpid, OFGroupDescStatsReply reply) {
+        return assembleStats(dpid, reply, reply.getEntries());
     }
 
-    private synchronized Collection<OFQueueStatsEntry> publishQueueStats(Dpid dpid, OFQueueStatsReply reply) {
-        fullQueueStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullQueueStats.removeAll(dpid);
-        }
-        return null;
+    private Collection<OFQueueStatsEntry> publishQueueStats(Dpid dpid, OFQueueStatsReply reply) {
+        return assembleStats(dpid, reply, reply.getEntries());
+    }
+
+    private <E> Collection<E> assembleStats(Dpid dpid, OFStatsReply reply, List<E> entries) {
+        return statsAssemblers.computeIfAbsent(dpid, k -> new StatsReplyAssembler()).add(reply, entries);
     }
 
     @Override
@@ -777,6 +763,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         @Override
         public void removeConnectedSwitch(Dpid dpid) {
             connectedSwitches.remove(dpid);
+            statsAssemblers.remove(dpid);
             OpenFlowSwitch sw = activeMasterSwitches.remove(dpid);
             if (sw == null) {
                 log.debug("sw was null for {}", dpid);
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFStatsType;
+
+/**
+ * Reassembles the multipart statistics replies of a switch.
+ * <p>
+ * Entries are accumulated per statistics type until the last part of a reply arrives.
+ * An assembler is only used by the thread dispatching the messages of its switch, so it
+ * needs no locking.
+ * </p>
+ */
+final class StatsReplyAssembler {
+
+    private final Map<OFStatsType, List<Object>> pending = new EnumMap<>(OFStatsType.class);
+
+    /**
+     * Adds the entries of a part of a statistics reply.
+     *
+     * @param reply part of the reply
+     * @param entries entries of the part
+     * @param <E> entry type
+     * @return all entries of the reply if this is its last part, null otherwise
+     */
+    @SuppressWarnings("unchecked")
+    <E> List<E> add(OFStatsReply reply, List<E> entries) {
+        boolean last = !reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE);
+        List<E> previous = (List<E>) pending.get(reply.getStatsType());
+        if (previous == null) {
+            if (last) {
+                // single part replies are passed through as they are
+                return entries;
+            }
+            pending.put(reply.getStatsType(), new ArrayList<>(entries));
+            return null;
+        }
+        previous.addAll(entries);
+        if (last) {
+            pending.remove(reply.getStatsType());
+            return previous;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for the OpenFlow channel flush consolidator.
+ */
+public class OFFlushConsolidatorTest {
+
+    private final List<Integer> flushedMessages = new ArrayList<>();
+    private final Controller controller = new Controller() {
+        @Override
+        void recordFlush(int messages, int bytes) {
+            flushedMessages.add(messages);
+        }
+    };
+    private EmbeddedChannel channel;
+
+    @After
+    public void tearDown() {
+        if (channel != null) {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private static ByteBuf messages(int count) {
+        ByteBuf buf = Unpooled.buffer();
+        for (int i = 0; i < count; i++) {
+            // openflow 1.3 hello
+            buf.writeByte(4).writeByte(0).writeShort(8).writeInt(i);
+        }
+        return buf;
+    }
+
+    /**
+     * Tests that writes are flushed together once the event loop is done.
+     */
+    @Test
+    public void testCoalescing() {
+        channel = new EmbeddedChannel(new OFFlushConsolidator(controller, 1024, 0));
+        channel.pipeline().writeAndFlush(messages(1));
+        channel.pipeline().writeAndFlush(messages(2));
+        assertThat(channel.outboundMessages(), is(empty()));
+
+        channel.runPendingTasks();
+        assertThat(channel.outboundMessages().size(), is(2));
+        assertThat(flushedMessages, contains(3));
+    }
+
+    /**
+     * Tests that writes beyond the byte budget are flushed right away.
+     */
+    @Test
+    public void testByteBudget() {
+        channel = new EmbeddedChannel(new OFFlushConsolidator(controller, 16, 0));
+        channel.pipeline().writeAndFlush(messages(1));
+        assertThat(channel.outboundMessages(), is(empty()));
+
+        channel.pipeline().writeAndFlush(messages(1));
+        assertThat(channel.outboundMessages().size(), is(2));
+        assertThat(flushedMessages, contains(2));
+
+        channel.runPendingTasks();
+        assertThat(flushedMessages, contains(2));
+    }
+
+    /**
+     * Tests that pending writes are flushed before the channel is closed.
+     */
+    @Test
+    public void testFlushOnClose() {
+        channel = new EmbeddedChannel(new OFFlushConsolidator(controller, 1024, 0));
+        channel.pipeline().writeAndFlush(messages(1));
+        channel.pipeline().close();
+        assertThat(flushedMessages, contains(1));
+    }
+
+    /**
+     * Tests counting the messages of an encoded buffer.
+     */
+    @Test
+    public void testCountMessages() {
+        ByteBuf buf = messages(3);
+        assertThat(OFFlushConsolidator.countMessages(buf), is(3));
+        assertThat(OFFlushConsolidator.countMessages(Unpooled.EMPTY_BUFFER), is(0));
+        buf.release();
+    }
+}
@@ -25,7 +25,9 @@ import org.projectfloodlight.openflow.protocol.OFHello;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -90,6 +92,26 @@ public class OFMessageDecoderTest {
         assertThat(out.get(0), instanceOf(OFHello.class));
     }
 
+    /**
+     * Tests that decoded messages are accounted to the channel metrics.
+     */
+    @Test
+    public void testDecodeMetrics() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        OFChannelMetrics metrics = OFChannelMetrics.attach(channel);
+        channel.pipeline().addLast(OFMessageDecoder.getInstance());
+
+        byte[] hello = {0x1, 0x0, 0x0, 0x8, 0x0, 0x0, 0x0, 0x0};
+        channel.writeInbound(Unpooled.wrappedBuffer(hello));
+        channel.writeInbound(Unpooled.wrappedBuffer(hello));
+
+        assertThat(channel.readInbound(), instanceOf(OFHello.class));
+        assertThat(channel.readInbound(), instanceOf(OFHello.class));
+        assertThat(metrics.decodedMessages().getCount(), is(2L));
+        assertThat(metrics.decodedBytes().getCount(), is(16L));
+        channel.finish();
+    }
+
     public class ActiveChannelHandlerContextAdapter
             extends ChannelHandlerContextAdapter {
 
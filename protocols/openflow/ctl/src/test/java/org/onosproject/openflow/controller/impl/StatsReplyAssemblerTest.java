@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFQueueStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link StatsReplyAssembler}.
+ */
+public class StatsReplyAssemblerTest {
+
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_13);
+    private static final Set<OFStatsReplyFlags> MORE = ImmutableSet.of(OFStatsReplyFlags.REPLY_MORE);
+
+    private final StatsReplyAssembler assembler = new StatsReplyAssembler();
+
+    private static OFTableStatsReply tableStats(Set<OFStatsReplyFlags> flags, long... activeCounts) {
+        ImmutableList.Builder<OFTableStatsEntry> entries = ImmutableList.builder();
+        for (long activeCount : activeCounts) {
+            entries.add(FACTORY.buildTableStatsEntry().setActiveCount(activeCount).build());
+        }
+        return FACTORY.buildTableStatsReply().setFlags(flags).setEntries(entries.build()).build();
+    }
+
+    private static List<Long> activeCounts(List<OFTableStatsEntry> entries) {
+        return entries.stream().map(OFTableStatsEntry::getActiveCount).collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Tests that single part replies are passed through.
+     */
+    @Test
+    public void testSinglePart() {
+        OFTableStatsReply reply = tableStats(ImmutableSet.of(), 1, 2);
+        assertSame(reply.getEntries(), assembler.add(reply, reply.getEntries()));
+    }
+
+    /**
+     * Tests that the parts of a reply are joined once the last one arrives.
+     */
+    @Test
+    public void testMultipart() {
+        OFTableStatsReply first = tableStats(MORE, 1, 2);
+        OFTableStatsReply second = tableStats(MORE, 3);
+        OFTableStatsReply last = tableStats(ImmutableSet.of(), 4);
+        assertNull(assembler.add(first, first.getEntries()));
+        assertNull(assembler.add(second, second.getEntries()));
+
+        // parts of other statistics types are kept apart
+        OFQueueStatsReply queueStats = FACTORY.buildQueueStatsReply().build();
+        assertSame(queueStats.getEntries(), assembler.add(queueStats, queueStats.getEntries()));
+
+        assertEquals(ImmutableList.of(1L, 2L, 3L, 4L), activeCounts(assembler.add(last, last.getEntries())));
+
+        // the next reply starts afresh
+        OFTableStatsReply next = tableStats(ImmutableSet.of(), 5);
+        assertEquals(ImmutableList.of(5L), activeCounts(assembler.add(next, next.getEntries())));
+    }
+}
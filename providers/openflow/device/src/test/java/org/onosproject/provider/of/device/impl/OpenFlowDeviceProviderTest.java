@@ -41,6 +41,7 @@ import org.onosproject.openflow.controller.OpenFlowController;
 import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowMessageListener;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.OpenFlowStatsListener;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
 import org.onosproject.openflow.controller.RoleState;
@@ -314,6 +315,14 @@ public class OpenFlowDeviceProviderTest {
         public void removeEventListener(OpenFlowEventListener listener) {
         }
 
+        @Override
+        public void addStatsListener(OpenFlowStatsListener listener) {
+        }
+
+        @Override
+        public void removeStatsListener(OpenFlowStatsListener listener) {
+        }
+
         @Override
         public void write(Dpid dpid, OFMessage msg) {
         }
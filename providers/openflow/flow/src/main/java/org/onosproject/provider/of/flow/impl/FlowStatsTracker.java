@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntryCounters;
+import org.onosproject.net.flow.FlowId;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.U64;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Tracks the flow statistics entries last reported by a switch.
+ * <p>
+ * Entries the core has already been given in full are passed on as counters
+ * keyed by the flow ID carried in their cookie, as long as nothing but their
+ * counters changed on the switch, sparing the decoding of their match and
+ * instructions into flow entries on every poll.
+ * </p>
+ */
+class FlowStatsTracker {
+
+    // entries of the last reply by cookie, for those that may be reported by counters
+    private Map<U64, OFFlowStatsEntry> known = Maps.newHashMap();
+    private final Set<U64> excluded = Sets.newHashSet();
+
+    /**
+     * Splits the entries of a flow statistics reply into flow entries and
+     * counters.
+     *
+     * @param entries entries of the reply
+     * @param decoder decoder of entries into flow entries
+     * @return entries to report in full and counters of the others
+     */
+    synchronized Update update(List<OFFlowStatsEntry> entries,
+                               Function<OFFlowStatsEntry, FlowEntry> decoder) {
+        Map<U64, OFFlowStatsEntry> current = Maps.newHashMapWithExpectedSize(entries.size());
+        Set<U64> duplicates = Sets.newHashSet();
+        for (OFFlowStatsEntry entry : entries) {
+            if (current.put(entry.getCookie(), entry) != null) {
+                duplicates.add(entry.getCookie());
+            }
+        }
+
+        Update update = new Update();
+        for (OFFlowStatsEntry entry : entries) {
+            U64 cookie = entry.getCookie();
+            if (duplicates.contains(cookie) || excluded.contains(cookie)) {
+                current.remove(cookie);
+                update.addFlowEntry(decoder.apply(entry));
+            } else if (sameRule(known.get(cookie), entry)) {
+                update.counters.add(new FlowEntryCounters(FlowId.valueOf(cookie.getValue()),
+                                                          entry.getDurationSec(), TimeUnit.SECONDS,
+                                                          entry.getPacketCount().getValue(),
+                                                          entry.getByteCount().getValue()));
+            } else {
+                update.addFlowEntry(decoder.apply(entry));
+            }
+        }
+        // entries missing from the reply are reported in full once they are back
+        known = current;
+        // flows gone from the switch without notice are no longer excluded
+        excluded.removeIf(cookie -> !current.containsKey(cookie) && !duplicates.contains(cookie));
+        return update;
+    }
+
+    /**
+     * Reports the given flows in full from now on.
+     *
+     * @param flowIds flow identifiers
+     */
+    synchronized void exclude(Collection<FlowId> flowIds) {
+        flowIds.forEach(flowId -> {
+            U64 cookie = U64.of(flowId.value());
+            known.remove(cookie);
+            excluded.add(cookie);
+        });
+    }
+
+    /**
+     * Reports the given flow in full on the next poll, such as after it
+     * has been modified on the switch.
+     *
+     * @param flowId flow identifier
+     */
+    synchronized void invalidate(FlowId flowId) {
+        known.remove(U64.of(flowId.value()));
+    }
+
+    /**
+     * Forgets the given flow once it has been removed from the switch.
+     *
+     * @param flowId flow identifier
+     */
+    synchronized void remove(FlowId flowId) {
+        U64 cookie = U64.of(flowId.value());
+        known.remove(cookie);
+        excluded.remove(cookie);
+    }
+
+    private static boolean sameRule(OFFlowStatsEntry previous, OFFlowStatsEntry entry) {
+        if (previous == null || entry.getVersion().getWireVersion() >= OFVersion.OF_15.getWireVersion()) {
+            // counters of OpenFlow 1.5 entries come as statistics fields
+            return false;
+        }
+        return previous.getVersion() == entry.getVersion()
+                && previous.getPriority() == entry.getPriority()
+                && previous.getIdleTimeout() == entry.getIdleTimeout()
+                && previous.getHardTimeout() == entry.getHardTimeout()
+                && Objects.equals(previous.getTableId(), entry.getTableId())
+                && Objects.equals(previous.getMatch(), entry.getMatch())
+                && (entry.getVersion() == OFVersion.OF_10
+                ? Objects.equals(previous.getActions(), entry.getActions())
+                : Objects.equals(previous.getInstructions(), entry.getInstructions()));
+    }
+
+    /**
+     * Flow entries and counters of a flow statistics reply.
+     */
+    static final class Update {
+
+        private final List<FlowEntry> flowEntries = Lists.newArrayList();
+        private final List<FlowEntryCounters> counters = Lists.newArrayList();
+
+        private void addFlowEntry(FlowEntry flowEntry) {
+            // entries the switch reports but which cannot be decoded are left out
+            if (flowEntry != null) {
+                flowEntries.add(flowEntry);
+            }
+        }
+
+        /**
+         * Returns the entries to report in full.
+         *
+         * @return flow entries
+         */
+        List<FlowEntry> flowEntries() {
+            return flowEntries;
+        }
+
+        /**
+         * Returns the counters of the entries reported by flow ID.
+         *
+         * @return flow entry counters
+         */
+        List<FlowEntryCounters> counters() {
+            return counters;
+        }
+    }
+}
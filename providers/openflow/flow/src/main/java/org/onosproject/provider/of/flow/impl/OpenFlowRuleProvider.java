@@ -44,6 +44,7 @@ import org.onosproject.net.driver.DriverService;
 import org.onosproject.net.flow.CompletedBatchOperation;
 import org.onosproject.net.flow.DefaultTableStatisticsEntry;
 import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
@@ -156,6 +157,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
     private final Map<Dpid, NewAdaptiveFlowStatsCollector> afsCollectors = Maps.newConcurrentMap();
     private final Map<Dpid, TableStatisticsCollector> tableStatsCollectors = Maps.newConcurrentMap();
 
+    private final Map<Dpid, FlowStatsTracker> statsTrackers = Maps.newConcurrentMap();
+
     /**
      * Creates an OpenFlow host provider.
      */
@@ -307,6 +310,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
         if (sw == null) {
             return;
         }
+        invalidateStats(dpid, flowRule);
 
         FlowRuleExtPayLoad flowRuleExtPayLoad = flowRule.payLoad();
         if (hasPayload(flowRuleExtPayLoad)) {
@@ -332,6 +336,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
         if (sw == null) {
             return;
         }
+        forgetStats(dpid, flowRule.id());
 
         FlowRuleExtPayLoad flowRuleExtPayLoad = flowRule.payLoad();
         if (hasPayload(flowRuleExtPayLoad)) {
@@ -366,6 +371,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
         pendingBatches.put(batch.id(), new InternalCacheEntry(batch));
         OFFlowMod mod;
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
+            invalidateStats(dpid, fbe.target());
             // flow is the third party privacy flow
 
             FlowRuleExtPayLoad flowRuleExtPayLoad = fbe.target().payLoad();
@@ -383,6 +389,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     mod = builder.buildFlowAdd();
                     break;
                 case REMOVE:
+                    forgetStats(dpid, fbe.target().id());
                     mod = builder.buildFlowDel();
                     break;
                 case MODIFY:
@@ -400,6 +407,22 @@ public class OpenFlowRuleProvider extends AbstractProvider
         sw.sendMsg(builder.build());
     }
 
+    // flows being modified on the switch are reported in full on the next poll
+    private void invalidateStats(Dpid dpid, FlowRule flowRule) {
+        FlowStatsTracker tracker = statsTrackers.get(dpid);
+        if (tracker != null) {
+            tracker.invalidate(flowRule.id());
+        }
+    }
+
+    // flows removed from the switch no longer need to be reported in full
+    private void forgetStats(Dpid dpid, FlowId flowId) {
+        FlowStatsTracker tracker = statsTrackers.get(dpid);
+        if (tracker != null) {
+            tracker.remove(flowId);
+        }
+    }
+
     private boolean hasPayload(FlowRuleExtPayLoad flowRuleExtPayLoad) {
         return flowRuleExtPayLoad != null &&
                 flowRuleExtPayLoad.payLoad() != null &&
@@ -422,6 +445,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+            statsTrackers.remove(dpid);
         }
 
         @Override
@@ -445,6 +469,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     OFFlowRemoved removed = (OFFlowRemoved) msg;
 
                     FlowEntry fr = new FlowEntryBuilder(deviceId, removed, getDriver(deviceId)).build();
+                    forgetStats(dpid, fr.id());
                     providerService.flowRemoved(fr);
                     break;
                 case STATS_REPLY:
@@ -653,12 +678,17 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     providerService.pushFlowMetricsWithoutFlowMissing(did, flowEntries);
                 }
             } else {
-                List<FlowEntry> flowEntries = replies.getEntries().stream()
-                        .map(entry -> new FlowEntryBuilder(did, entry, handler).build())
-                        .collect(Collectors.toList());
-
-                // call existing entire flow stats update with flowMissing synchronization
-                providerService.pushFlowMetrics(did, flowEntries);
+                // entries the core already knows are only decoded into counters
+                FlowStatsTracker tracker = statsTrackers.computeIfAbsent(dpid, k -> new FlowStatsTracker());
+                FlowStatsTracker.Update update = tracker.update(
+                        replies.getEntries(), entry -> new FlowEntryBuilder(did, entry, handler).build());
+
+                // entire flow stats update with flowMissing synchronization
+                Set<FlowId> unresolved = providerService.pushFlowCounters(did, update.flowEntries(),
+                                                                          update.counters());
+                if (!unresolved.isEmpty()) {
+                    tracker.exclude(unresolved);
+                }
             }
         }
 
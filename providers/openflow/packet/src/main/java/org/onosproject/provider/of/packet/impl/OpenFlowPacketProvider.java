@@ -156,16 +156,18 @@ public class OpenFlowPacketProvider extends AbstractProvider implements PacketPr
         @Override
         public void handlePacket(OpenFlowPacketContext pktCtx) {
             DeviceId id = DeviceId.deviceId(Dpid.uri(pktCtx.dpid().value()));
+            // The inbound and outbound packets share a single copy of the frame
+            byte[] unparsed = pktCtx.unparsed();
 
             DefaultInboundPacket inPkt = new DefaultInboundPacket(
                     new ConnectPoint(id, PortNumber.portNumber(pktCtx.inPort())),
-                    pktCtx.parsed(), ByteBuffer.wrap(pktCtx.unparsed()),
+                    pktCtx.parsed(), ByteBuffer.wrap(unparsed),
                     pktCtx.cookie());
 
             DefaultOutboundPacket outPkt = null;
             if (!pktCtx.isBuffered()) {
                 outPkt = new DefaultOutboundPacket(id, null,
-                        ByteBuffer.wrap(pktCtx.unparsed()));
+                        ByteBuffer.wrap(unparsed));
             }
 
             OpenFlowCorePacketContext corePktCtx =
@@ -43,6 +43,7 @@ import org.onosproject.openflow.controller.OpenFlowEventListener;
 import org.onosproject.openflow.controller.OpenFlowMessageListener;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.OpenFlowStatsListener;
 import org.onosproject.openflow.controller.OpenFlowSwitchListener;
 import org.onosproject.openflow.controller.PacketListener;
 import org.onosproject.openflow.controller.RoleState;
@@ -324,6 +325,14 @@ public class OpenFlowPacketProviderTest {
         public void removeEventListener(OpenFlowEventListener listener) {
         }
 
+        @Override
+        public void addStatsListener(OpenFlowStatsListener listener) {
+        }
+
+        @Override
+        public void removeStatsListener(OpenFlowStatsListener listener) {
+        }
+
         @Override
         public void write(Dpid dpid, OFMessage msg) {
         }
@@ -26,9 +26,33 @@ import java.util.Set;
 public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         extends AbstractGraphPathSearch<V, E> {
 
+    /**
+     * Searches the graph for the shortest paths from the source to all other
+     * vertexes, without building the paths themselves. The returned result
+     * carries the costs and all equal-cost parent edges of every reachable
+     * vertex, from which the shortest paths to any of them can be built.
+     *
+     * @param graph   graph to be searched
+     * @param src     source vertex
+     * @param weigher optional edge weigher
+     * @return search result with no paths
+     */
+    public Result<V, E> searchTree(Graph<V, E> graph, V src, EdgeWeigher<V, E> weigher) {
+        checkArguments(graph, src, null);
+        return search(graph, src, null,
+                      weigher != null ? weigher : new DefaultEdgeWeigher<>(),
+                      ALL_PATHS, false);
+    }
+
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
+        return search(graph, src, dst, weigher, maxPaths, true);
+    }
+
+    private Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                                EdgeWeigher<V, E> weigher, int maxPaths,
+                                boolean buildPaths) {
 
         // Use the default result to remember cumulative costs and parent
         // edges to each each respective vertex.
@@ -38,7 +62,9 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         result.updateVertex(src, null, weigher.getInitialWeight(), false);
 
         if (graph.getEdges().isEmpty()) {
-            result.buildPaths();
+            if (buildPaths) {
+                result.buildPaths();
+            }
             return result;
         }
 
@@ -69,7 +95,9 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         }
 
         // Now construct a set of paths from the results.
-        result.buildPaths();
+        if (buildPaths) {
+            result.buildPaths();
+        }
         return result;
     }
 
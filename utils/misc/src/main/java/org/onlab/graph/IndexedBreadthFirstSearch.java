@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+/**
+ * Implementation of the BFS algorithm over an {@link IndexedGraph}, using an
+ * array-based queue and array-based search results.
+ * <p>
+ * Graphs other than an {@link IndexedGraph} are indexed for each search.
+ * Weighers not producing {@link ScalarWeight scalar weights} are served by
+ * {@link BreadthFirstSearch}.
+ * </p>
+ */
+public class IndexedBreadthFirstSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    private final BreadthFirstSearch<V, E> fallback = new BreadthFirstSearch<>();
+
+    @Override
+    protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                          EdgeWeigher<V, E> weigher, int maxPaths) {
+        IndexedGraph<V, E> indexed = IndexedGraph.of(graph);
+        double[] weights = indexed.weights(weigher);
+        Weight initial = weigher.getInitialWeight();
+        if (weights == null || !(initial instanceof ScalarWeight)) {
+            return fallback.internalSearch(graph, src, dst, weigher, maxPaths);
+        }
+
+        int s = indexed.index(src);
+        int t = dst != null ? indexed.index(dst) : -1;
+        IndexedSearchResult<V, E> result = new IndexedSearchResult<>(indexed, s, t, maxPaths);
+        result.setCost(s, ((ScalarWeight) initial).value());
+
+        // Vertexes are visited in the order they are reached, which keeps
+        // the frontiers of consecutive hop counts in sequence.
+        int[] queue = new int[indexed.vertexCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = s;
+        while (head < tail) {
+            int vertex = queue[head++];
+            double cost = result.cost(vertex);
+            for (int e = indexed.egressStart(vertex), end = indexed.egressEnd(vertex); e < end; e++) {
+                int next = indexed.dst(e);
+                if (!result.reached(next)) {
+                    result.setCost(next, cost + weights[e]);
+                    result.addParent(next, e, true);
+                    if (next == t) {
+                        result.buildPaths();
+                        return result;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        result.buildPaths();
+        return result;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.math.DoubleMath;
+
+/**
+ * Dijkstra shortest-path graph search algorithm over an {@link IndexedGraph},
+ * finding all shortest paths between the source and destinations just like
+ * {@link DijkstraGraphSearch}. Vertex costs, parent edges and the priority
+ * queue are kept in arrays, so the search does not allocate per vertex or
+ * per edge.
+ * <p>
+ * Graphs other than an {@link IndexedGraph} are indexed for each search, so
+ * callers searching the same graph repeatedly should index it up front.
+ * Weighers not producing {@link ScalarWeight scalar weights} are served by
+ * {@link DijkstraGraphSearch}.
+ * </p>
+ */
+public class IndexedDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    private final DijkstraGraphSearch<V, E> fallback = new DijkstraGraphSearch<>();
+
+    @Override
+    protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                          EdgeWeigher<V, E> weigher, int maxPaths) {
+        IndexedGraph<V, E> indexed = IndexedGraph.of(graph);
+        double[] weights = indexed.weights(weigher);
+        Weight initial = weigher.getInitialWeight();
+        if (weights == null || !(initial instanceof ScalarWeight)) {
+            return fallback.internalSearch(graph, src, dst, weigher, maxPaths);
+        }
+
+        int s = indexed.index(src);
+        int t = dst != null ? indexed.index(dst) : -1;
+        IndexedSearchResult<V, E> result = new IndexedSearchResult<>(indexed, s, t, maxPaths);
+        result.setCost(s, ((ScalarWeight) initial).value());
+
+        double threshold = ScalarWeight.samenessThreshold();
+        MinQueue queue = new MinQueue(result, indexed.vertexCount());
+        queue.insert(s);
+        while (!queue.isEmpty()) {
+            int nearest = queue.extract();
+            if (nearest == t) {
+                break;
+            }
+
+            // Relax all egress edges of the nearest vertex.
+            double cost = result.cost(nearest);
+            for (int e = indexed.egressStart(nearest), end = indexed.egressEnd(nearest); e < end; e++) {
+                double hopCost = weights[e];
+                if (hopCost == Double.POSITIVE_INFINITY || hopCost < 0) {
+                    continue;
+                }
+                double newCost = cost + hopCost;
+                int v = indexed.dst(e);
+                if (!result.reached(v)) {
+                    result.setCost(v, newCost);
+                    result.addParent(v, e, true);
+                    queue.insert(v);
+                } else if (DoubleMath.fuzzyEquals(newCost, result.cost(v), threshold)) {
+                    result.addParent(v, e, false);
+                } else if (newCost < result.cost(v)) {
+                    result.setCost(v, newCost);
+                    result.addParent(v, e, true);
+                    queue.decreased(v);
+                }
+            }
+        }
+
+        result.buildPaths();
+        return result;
+    }
+
+    /**
+     * Binary min-heap of vertex indexes ordered by their current cost.
+     */
+    private static final class MinQueue {
+        private final IndexedSearchResult<?, ?> result;
+        private final int[] heap;
+        private final int[] positions;
+        private int size;
+
+        private MinQueue(IndexedSearchResult<?, ?> result, int capacity) {
+            this.result = result;
+            this.heap = new int[capacity];
+            this.positions = new int[capacity];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void insert(int v) {
+            heap[size] = v;
+            positions[v] = size;
+            siftUp(size++);
+        }
+
+        private void decreased(int v) {
+            siftUp(positions[v]);
+        }
+
+        private int extract() {
+            int top = heap[0];
+            size--;
+            if (size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (result.cost(heap[parent]) <= result.cost(v)) {
+                    break;
+                }
+                move(heap[parent], i);
+                i = parent;
+            }
+            move(v, i);
+        }
+
+        private void siftDown(int i) {
+            int v = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && result.cost(heap[child + 1]) < result.cost(heap[child])) {
+                    child++;
+                }
+                if (result.cost(v) <= result.cost(heap[child])) {
+                    break;
+                }
+                move(heap[child], i);
+                i = child;
+            }
+            move(v, i);
+        }
+
+        private void move(int v, int i) {
+            heap[i] = v;
+            positions[v] = i;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph snapshot in compressed sparse row form. Vertexes and edges
+ * are numbered consecutively, with the egress edges of each vertex occupying
+ * a contiguous range of edge indexes, so that searches can work over plain
+ * int and double arrays rather than maps and sets.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public final class IndexedGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    // Per-thread buffer for edge weights, reused across searches
+    private static final ThreadLocal<double[]> WEIGHTS = ThreadLocal.withInitial(() -> new double[0]);
+
+    private final Object[] vertexes;
+    private final Object[] edges;
+    private final Map<V, Integer> indexes;
+
+    private final int[] sources;
+    private final int[] destinations;
+    private final int[] egressOffsets;
+    private final int[] ingressOffsets;
+    private final int[] ingressEdges;
+
+    private final Set<V> vertexSet;
+    private final Supplier<Set<E>> edgeSet;
+
+    /**
+     * Creates a graph snapshot comprising of the specified vertexes and edges.
+     *
+     * @param vertexes set of graph vertexes
+     * @param edges    set of graph edges
+     */
+    public IndexedGraph(Set<V> vertexes, Set<E> edges) {
+        checkNotNull(vertexes, "Vertex set cannot be null");
+        checkNotNull(edges, "Edge set cannot be null");
+
+        int n = vertexes.size();
+        int m = edges.size();
+        this.vertexes = vertexes.toArray();
+        this.indexes = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            indexes.put(vertex(i), i);
+        }
+
+        // Count the egress and ingress edges of each vertex, then place each
+        // edge into the range of its source vertex.
+        int[] srcOf = new int[m];
+        int[] dstOf = new int[m];
+        this.egressOffsets = new int[n + 1];
+        this.ingressOffsets = new int[n + 1];
+        int k = 0;
+        for (E edge : edges) {
+            Integer src = indexes.get(edge.src());
+            Integer dst = indexes.get(edge.dst());
+            checkArgument(src != null, "Edge source not in the vertex set");
+            checkArgument(dst != null, "Edge destination not in the vertex set");
+            srcOf[k] = src;
+            dstOf[k] = dst;
+            egressOffsets[src + 1]++;
+            ingressOffsets[dst + 1]++;
+            k++;
+        }
+        for (int i = 0; i < n; i++) {
+            egressOffsets[i + 1] += egressOffsets[i];
+            ingressOffsets[i + 1] += ingressOffsets[i];
+        }
+
+        this.edges = new Object[m];
+        this.sources = new int[m];
+        this.destinations = new int[m];
+        this.ingressEdges = new int[m];
+        int[] egressFill = Arrays.copyOf(egressOffsets, n);
+        int[] ingressFill = Arrays.copyOf(ingressOffsets, n);
+        k = 0;
+        for (E edge : edges) {
+            int e = egressFill[srcOf[k]]++;
+            this.edges[e] = edge;
+            sources[e] = srcOf[k];
+            destinations[e] = dstOf[k];
+            k++;
+        }
+        for (int e = 0; e < m; e++) {
+            ingressEdges[ingressFill[destinations[e]]++] = e;
+        }
+
+        // The set views required by the graph interface are derived from the
+        // arrays only when asked for, as the indexed searches never use them.
+        this.vertexSet = Collections.unmodifiableSet(indexes.keySet());
+        this.edgeSet = Suppliers.memoize(() -> ImmutableSet.copyOf(IndexedGraph.<E>asList(this.edges)));
+    }
+
+    /**
+     * Returns the given graph as an indexed graph snapshot, creating one
+     * unless the graph already is one.
+     *
+     * @param graph graph to index
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return indexed graph
+     */
+    public static <V extends Vertex, E extends Edge<V>> IndexedGraph<V, E> of(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        if (graph instanceof IndexedGraph) {
+            return (IndexedGraph<V, E>) graph;
+        }
+        return new IndexedGraph<>(graph.getVertexes(), graph.getEdges());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(Object[] array) {
+        return (List<T>) Arrays.asList(array);
+    }
+
+    /**
+     * Returns the number of vertexes.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return edge count
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the index of the specified vertex.
+     *
+     * @param vertex vertex
+     * @return vertex index; -1 if the vertex is not in the graph
+     */
+    public int index(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the vertex with the specified index.
+     *
+     * @param index vertex index
+     * @return vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertex(int index) {
+        return (V) vertexes[index];
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     *
+     * @param index edge index
+     * @return edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edge(int index) {
+        return (E) edges[index];
+    }
+
+    /**
+     * Returns the index of the source vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return source vertex index
+     */
+    public int src(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return destination vertex index
+     */
+    public int dst(int edge) {
+        return destinations[edge];
+    }
+
+    /**
+     * Returns the index of the first egress edge of the specified vertex; the
+     * egress edges of a vertex are numbered consecutively.
+     *
+     * @param vertex vertex index
+     * @return index of the first egress edge
+     */
+    public int egressStart(int vertex) {
+        return egressOffsets[vertex];
+    }
+
+    /**
+     * Returns the index following that of the last egress edge of the
+     * specified vertex.
+     *
+     * @param vertex vertex index
+     * @return index past the last egress edge
+     */
+    public int egressEnd(int vertex) {
+        return egressOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the position of the first ingress edge of the specified vertex
+     * for use with {@link #ingressEdge(int)}.
+     *
+     * @param vertex vertex index
+     * @return position of the first ingress edge
+     */
+    public int ingressStart(int vertex) {
+        return ingressOffsets[vertex];
+    }
+
+    /**
+     * Returns the position following that of the last ingress edge of the
+     * specified vertex.
+     *
+     * @param vertex vertex index
+     * @return position past the last ingress edge
+     */
+    public int ingressEnd(int vertex) {
+        return ingressOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the index of the ingress edge at the specified position.
+     *
+     * @param position ingress edge position
+     * @return edge index
+     */
+    public int ingressEdge(int position) {
+        return ingressEdges[position];
+    }
+
+    /**
+     * Returns the weights of all edges, indexed by edge, as given by the
+     * specified weigher. Non-viable edges have infinite weight.
+     * <p>
+     * The weights are placed in a buffer owned by the calling thread, which
+     * may be longer than the number of edges and which is overwritten by the
+     * next call on the same thread.
+     * </p>
+     *
+     * @param weigher edge weigher
+     * @return edge weights; null if the weigher does not produce
+     * {@link ScalarWeight scalar weights}
+     */
+    public double[] weights(EdgeWeigher<V, E> weigher) {
+        double[] weights = WEIGHTS.get();
+        if (weights.length < edges.length) {
+            weights = new double[edges.length];
+            WEIGHTS.set(weights);
+        }
+        for (int e = 0; e < edges.length; e++) {
+            Weight weight = weigher.weight(edge(e));
+            if (!(weight instanceof ScalarWeight)) {
+                return null;
+            }
+            weights[e] = weight.isViable() ? ((ScalarWeight) weight).value()
+                    : Double.POSITIVE_INFINITY;
+        }
+        return weights;
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return vertexSet;
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return edgeSet.get();
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        int index = index(src);
+        if (index < 0) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<E> builder = ImmutableSet.builder();
+        for (int e = egressStart(index), end = egressEnd(index); e < end; e++) {
+            builder.add(edge(e));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        int index = index(dst);
+        if (index < 0) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<E> builder = ImmutableSet.builder();
+        for (int i = ingressStart(index), end = ingressEnd(index); i < end; i++) {
+            builder.add(edge(ingressEdge(i)));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vertexSet, getEdges());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof IndexedGraph) {
+            IndexedGraph that = (IndexedGraph) obj;
+            return this.getClass() == that.getClass() &&
+                    Objects.equals(this.vertexSet, that.vertexSet) &&
+                    Objects.equals(this.getEdges(), that.getEdges());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexSet)
+                .add("edges", getEdges())
+                .toString();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+/**
+ * K shortest paths search which indexes the graph once and finds each spur
+ * path with {@link IndexedDijkstraGraphSearch} over that index.
+ */
+public class IndexedKShortestPathsSearch<V extends Vertex, E extends Edge<V>>
+        extends KShortestPathsSearch<V, E> {
+
+    /**
+     * Creates a k-shortest paths search over indexed graphs.
+     */
+    public IndexedKShortestPathsSearch() {
+        super(new IndexedDijkstraGraphSearch<>());
+    }
+
+    @Override
+    protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                          EdgeWeigher<V, E> weigher, int maxPaths) {
+        return super.internalSearch(IndexedGraph.of(graph), src, dst, weigher, maxPaths);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Path search result over an {@link IndexedGraph}, which keeps the vertex
+ * costs and parent edges in arrays indexed by vertex and edge. The cost and
+ * parent maps of the result interface are only produced on demand.
+ */
+final class IndexedSearchResult<V extends Vertex, E extends Edge<V>>
+        implements GraphPathSearch.Result<V, E> {
+
+    private static final int NONE = -1;
+
+    private final IndexedGraph<V, E> graph;
+    private final int src;
+    private final int dst;
+    private final int maxPaths;
+
+    private final double[] costs;
+    private final boolean[] reached;
+    private final int[] parentHead;
+    private final int[] parentCount;
+    private final int[] nextParent;
+
+    private final Set<Path<V, E>> paths = new HashSet<>();
+
+    /**
+     * Creates a search result for the given source and optional destination.
+     *
+     * @param graph    graph being searched
+     * @param src      source vertex index
+     * @param dst      destination vertex index; -1 for all destinations
+     * @param maxPaths limit on the number of parents and paths;
+     *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     */
+    IndexedSearchResult(IndexedGraph<V, E> graph, int src, int dst, int maxPaths) {
+        this.graph = graph;
+        this.src = src;
+        this.dst = dst;
+        this.maxPaths = maxPaths;
+
+        int n = graph.vertexCount();
+        this.costs = new double[n];
+        this.reached = new boolean[n];
+        this.parentHead = new int[n];
+        this.parentCount = new int[n];
+        this.nextParent = new int[graph.edgeCount()];
+        Arrays.fill(parentHead, NONE);
+    }
+
+    /**
+     * Indicates whether the specified vertex has been reached.
+     *
+     * @param v vertex index
+     * @return true if the vertex has a cost
+     */
+    boolean reached(int v) {
+        return reached[v];
+    }
+
+    /**
+     * Returns the cost accrued to reach the specified vertex.
+     *
+     * @param v vertex index
+     * @return vertex cost
+     */
+    double cost(int v) {
+        return costs[v];
+    }
+
+    /**
+     * Sets the cost to reach the specified vertex.
+     *
+     * @param v    vertex index
+     * @param cost new cost
+     */
+    void setCost(int v, double cost) {
+        costs[v] = cost;
+        reached[v] = true;
+    }
+
+    /**
+     * Records the specified edge as a parent of its destination vertex.
+     *
+     * @param v       vertex index
+     * @param edge    edge index
+     * @param replace true to drop any previously recorded parents
+     */
+    void addParent(int v, int edge, boolean replace) {
+        if (replace) {
+            parentHead[v] = NONE;
+            parentCount[v] = 0;
+        }
+        if (maxPaths == ALL_PATHS || parentCount[v] < maxPaths) {
+            nextParent[edge] = parentHead[v];
+            parentHead[v] = edge;
+            parentCount[v]++;
+        }
+    }
+
+    /**
+     * Builds the paths to the destination, or to all reached vertexes if
+     * there is no destination, by walking back along the parent edges.
+     */
+    void buildPaths() {
+        int n = graph.vertexCount();
+        int[] vertexAt = new int[n];
+        int[] cursor = new int[n];
+        int[] pathEdges = new int[n];
+        boolean[] onPath = new boolean[n];
+        if (dst != NONE) {
+            buildPaths(dst, vertexAt, cursor, pathEdges, onPath);
+        } else {
+            for (int v = 0; v < n && !full(); v++) {
+                buildPaths(v, vertexAt, cursor, pathEdges, onPath);
+            }
+        }
+    }
+
+    private boolean full() {
+        return maxPaths != ALL_PATHS && paths.size() >= maxPaths;
+    }
+
+    // Walks back from the target along all parent edges, using explicit
+    // stacks rather than recursion, and emits each path reaching the source.
+    private void buildPaths(int target, int[] vertexAt, int[] cursor,
+                            int[] pathEdges, boolean[] onPath) {
+        if (target == src || !reached[target]) {
+            return;
+        }
+        int depth = 0;
+        vertexAt[0] = target;
+        cursor[0] = parentHead[target];
+        onPath[target] = true;
+        while (depth >= 0 && !full()) {
+            int edge = cursor[depth];
+            if (edge == NONE) {
+                onPath[vertexAt[depth]] = false;
+                depth--;
+                continue;
+            }
+            cursor[depth] = nextParent[edge];
+            pathEdges[depth] = edge;
+
+            int previous = graph.src(edge);
+            if (previous == src) {
+                List<E> edges = new ArrayList<>(depth + 1);
+                for (int i = depth; i >= 0; i--) {
+                    edges.add(graph.edge(pathEdges[i]));
+                }
+                paths.add(new DefaultPath<>(edges, new ScalarWeight(costs[target])));
+            } else if (!onPath[previous]) {
+                depth++;
+                vertexAt[depth] = previous;
+                cursor[depth] = parentHead[previous];
+                onPath[previous] = true;
+            }
+        }
+        // Clear what is left on the stack if the walk was cut short.
+        for (; depth >= 0; depth--) {
+            onPath[vertexAt[depth]] = false;
+        }
+    }
+
+    @Override
+    public V src() {
+        return graph.vertex(src);
+    }
+
+    @Override
+    public V dst() {
+        return dst != NONE ? graph.vertex(dst) : null;
+    }
+
+    @Override
+    public Set<Path<V, E>> paths() {
+        return paths;
+    }
+
+    @Override
+    public Map<V, Set<E>> parents() {
+        ImmutableMap.Builder<V, Set<E>> builder = ImmutableMap.builder();
+        for (int v = 0; v < parentHead.length; v++) {
+            if (parentHead[v] != NONE) {
+                ImmutableSet.Builder<E> edges = ImmutableSet.builder();
+                for (int e = parentHead[v]; e != NONE; e = nextParent[e]) {
+                    edges.add(graph.edge(e));
+                }
+                builder.put(graph.vertex(v), edges.build());
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Map<V, Weight> costs() {
+        ImmutableMap.Builder<V, Weight> builder = ImmutableMap.builder();
+        for (int v = 0; v < costs.length; v++) {
+            if (reached[v]) {
+                builder.put(graph.vertex(v), new ScalarWeight(costs[v]));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -39,6 +39,26 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
 
     private final Logger log = getLogger(getClass());
 
+    private final AbstractGraphPathSearch<V, E> shortestPathSearch;
+
+    /**
+     * Creates a k-shortest paths search using Dijkstra to find the shortest
+     * spur paths.
+     */
+    public KShortestPathsSearch() {
+        this(new DijkstraGraphSearch<>());
+    }
+
+    /**
+     * Creates a k-shortest paths search using the given search to find the
+     * shortest spur paths.
+     *
+     * @param shortestPathSearch shortest path search
+     */
+    protected KShortestPathsSearch(AbstractGraphPathSearch<V, E> shortestPathSearch) {
+        this.shortestPathSearch = checkNotNull(shortestPathSearch);
+    }
+
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst, EdgeWeigher<V, E> weigher, int maxPaths) {
         //The modified edge weigher removes any need to modify the original graph
@@ -53,7 +73,7 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
         ArrayList<Path<V, E>> resultPaths = new ArrayList<>(maxPaths);
         ArrayList<Path<V, E>> potentialPaths = Lists.newArrayList();
 
-        DijkstraGraphSearch<V, E> dijkstraSearch = new DijkstraGraphSearch<>();
+        AbstractGraphPathSearch<V, E> dijkstraSearch = shortestPathSearch;
         Set<Path<V, E>> dijkstraResults = dijkstraSearch.search(originalGraph, src, dst, modifiedWeighter, 1).paths();
         //Checks if the dst was reachable
         if (dijkstraResults.isEmpty()) {
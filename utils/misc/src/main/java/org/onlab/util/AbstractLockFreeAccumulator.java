@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Item accumulator backed by a hashed-wheel timer, with the same triggering
+ * thresholds as {@link AbstractAccumulator}: item inter-arrival time, maximum
+ * batch life and maximum batch size.
+ * <p>
+ * Adding an item does not take a lock and does not schedule or cancel timer
+ * tasks; at most one idle/batch age check is outstanding per accumulator and
+ * it re-arms itself from the recorded arrival times. Batches are processed on
+ * the timer thread and hold at most {@code maxItems} items.
+ * </p>
+ */
+public abstract class AbstractLockFreeAccumulator<T> implements Accumulator<T> {
+
+    // fine enough for idle thresholds of ten millis, unlike the 100 ms
+    // default of the org.onlab.util.Timer wheel
+    private static final long TICK_MILLIS = 5;
+
+    private static final Supplier<Timer> DEFAULT_TIMER = Suppliers.memoize(
+            () -> new HashedWheelTimer(groupedThreads("onos/accumulator", "timer-%d"),
+                                       TICK_MILLIS, TimeUnit.MILLISECONDS));
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Timer timer;
+    private final int maxItems;
+    private final int maxBatchMillis;
+    private final int maxIdleMillis;
+
+    private final Queue<T> items = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile long firstItemNanos;
+    private volatile long lastItemNanos;
+
+    private final AtomicBoolean checkScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final Histogram batchSizes = new Histogram(new ExponentiallyDecayingReservoir());
+    private final Histogram batchLatencies = new Histogram(new ExponentiallyDecayingReservoir());
+
+    /**
+     * Creates an item accumulator capable of triggering on the specified
+     * thresholds, using a hashed-wheel timer shared by all accumulators.
+     *
+     * @param maxItems       maximum number of items to accumulate before
+     *                       processing is triggered
+     * @param maxBatchMillis maximum number of millis allowed since the first
+     *                       item before processing is triggered
+     * @param maxIdleMillis  maximum number millis between items before
+     *                       processing is triggered
+     */
+    protected AbstractLockFreeAccumulator(int maxItems, int maxBatchMillis, int maxIdleMillis) {
+        this(DEFAULT_TIMER.get(), maxItems, maxBatchMillis, maxIdleMillis);
+    }
+
+    /**
+     * Creates an item accumulator capable of triggering on the specified
+     * thresholds.
+     *
+     * @param timer          timer to use for scheduling check-points
+     * @param maxItems       maximum number of items to accumulate before
+     *                       processing is triggered
+     * @param maxBatchMillis maximum number of millis allowed since the first
+     *                       item before processing is triggered
+     * @param maxIdleMillis  maximum number millis between items before
+     *                       processing is triggered
+     */
+    protected AbstractLockFreeAccumulator(Timer timer, int maxItems,
+                                          int maxBatchMillis, int maxIdleMillis) {
+        this.timer = checkNotNull(timer, "Timer cannot be null");
+
+        checkArgument(maxItems > 1, "Maximum number of items must be > 1");
+        checkArgument(maxBatchMillis > 0, "Maximum millis must be positive");
+        checkArgument(maxIdleMillis > 0, "Maximum idle millis must be positive");
+
+        this.maxItems = maxItems;
+        this.maxBatchMillis = maxBatchMillis;
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    @Override
+    public void add(T item) {
+        items.add(item);
+        long now = System.nanoTime();
+        lastItemNanos = now;
+        int sizeAtTimeOfAdd = size.incrementAndGet();
+
+        if (sizeAtTimeOfAdd == 1) {
+            firstItemNanos = now;
+            scheduleCheck(Math.min(maxIdleMillis, maxBatchMillis));
+        }
+        if (sizeAtTimeOfAdd >= maxItems && flushScheduled.compareAndSet(false, true)) {
+            timer.newTimeout(timeout -> flush(), 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Arms the idle/batch age check unless one is already outstanding.
+    private void scheduleCheck(long delayMillis) {
+        if (checkScheduled.compareAndSet(false, true)) {
+            timer.newTimeout(timeout -> check(), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Processes full batches as soon as the size threshold is crossed.
+    private void flush() {
+        flushScheduled.set(false);
+        processBatches(false);
+    }
+
+    // Processes the pending items once they have become too old or idle and
+    // otherwise re-arms itself for the earliest of the two deadlines.
+    private void check() {
+        long now = System.nanoTime();
+        long batchDeadline = firstItemNanos + TimeUnit.MILLISECONDS.toNanos(maxBatchMillis);
+        long idleDeadline = lastItemNanos + TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        long deadline = Math.min(batchDeadline, idleDeadline);
+
+        long delayMillis;
+        if (deadline - now > 0) {
+            // round up so that the check does not fire before the deadline
+            delayMillis = TimeUnit.NANOSECONDS.toMillis(deadline - now) + 1;
+        } else {
+            processBatches(true);
+            delayMillis = maxIdleMillis;
+        }
+
+        // Release the check before looking at the size, so that an item added
+        // concurrently either sees it released or is picked up below.
+        checkScheduled.set(false);
+        if (size.get() > 0) {
+            scheduleCheck(delayMillis);
+        }
+    }
+
+    /**
+     * Processes the accumulated items in batches of at most maxItems while
+     * the accumulator is ready.
+     *
+     * @param expired true if the pending items have exceeded their idle or
+     *                batch age, in which case a partial batch is processed too
+     */
+    private void processBatches(boolean expired) {
+        try {
+            int pending = size.get();
+            while (pending > 0 && (expired || pending >= maxItems) && isReady()) {
+                long batchStart = firstItemNanos;
+                List<T> batch = finalizeCurrentBatch(Math.min(pending, maxItems));
+                batchSizes.update(batch.size());
+                batchLatencies.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart));
+                processItems(batch);
+                pending = size.get();
+            }
+        } catch (Exception e) {
+            log.warn("Unable to process batch due to", e);
+        }
+    }
+
+    /**
+     * Removes the specified number of oldest items and returns them as an
+     * immutable list.
+     *
+     * @param count number of items to remove
+     * @return list of removed items
+     */
+    private List<T> finalizeCurrentBatch(int count) {
+        ImmutableList.Builder<T> batch = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            // the counter is only bumped after an item is queued, so it is
+            // always there to be taken
+            batch.add(items.poll());
+        }
+        if (size.addAndGet(-count) > 0) {
+            // what remains starts a new batch
+            firstItemNanos = System.nanoTime();
+        }
+        return batch.build();
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Returns the backing timer.
+     *
+     * @return backing timer
+     */
+    public Timer timer() {
+        return timer;
+    }
+
+    /**
+     * Returns the maximum number of items allowed to accumulate before
+     * processing is triggered.
+     *
+     * @return max number of items
+     */
+    public int maxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Returns the maximum number of millis allowed to expire since the first
+     * item before processing is triggered.
+     *
+     * @return max number of millis a batch is allowed to last
+     */
+    public int maxBatchMillis() {
+        return maxBatchMillis;
+    }
+
+    /**
+     * Returns the maximum number of millis allowed to expire since the last
+     * item arrival before processing is triggered.
+     *
+     * @return max number of millis since the last item
+     */
+    public int maxIdleMillis() {
+        return maxIdleMillis;
+    }
+
+    /**
+     * Returns the distribution of the sizes of processed batches.
+     *
+     * @return batch size histogram
+     */
+    public Histogram batchSizes() {
+        return batchSizes;
+    }
+
+    /**
+     * Returns the distribution of the number of millis between the start of
+     * a batch and its processing.
+     *
+     * @return batch latency histogram
+     */
+    public Histogram batchLatencies() {
+        return batchLatencies;
+    }
+}
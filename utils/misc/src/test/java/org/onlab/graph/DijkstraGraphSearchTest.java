@@ -26,6 +26,7 @@ import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test of the Dijkstra algorithm.
@@ -121,6 +122,22 @@ public class DijkstraGraphSearchTest extends BreadthFirstSearchTest {
         executeSearch(graphSearch(), graph, D, A, weigher, 0, null);
     }
 
+    @Test
+    public void shortestPathTree() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D, E),
+                of(new TestEdge(A, B, W1),
+                        new TestEdge(A, C, W1),
+                        new TestEdge(B, D, W1),
+                        new TestEdge(C, D, W1),
+                        new TestEdge(D, E, W1)));
+        GraphPathSearch.Result<TestVertex, TestEdge> tree =
+                new DijkstraGraphSearch<TestVertex, TestEdge>().searchTree(graph, A, weigher);
+        assertTrue("no paths expected", tree.paths().isEmpty());
+        assertEquals("incorrect cost", W2, tree.costs().get(D));
+        assertEquals("incorrect cost", W3, tree.costs().get(E));
+        assertEquals("incorrect parent count", 2, tree.parents().get(D).size());
+    }
+
 
     @Test
     public void manualDoubleWeights() {
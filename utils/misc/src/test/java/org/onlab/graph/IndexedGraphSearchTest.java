@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.testing.EqualsTester;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Tests of the indexed graph and of the searches over it, checking them
+ * against their map-based counterparts.
+ */
+public class IndexedGraphSearchTest extends GraphTest {
+
+    private static final ScalarWeight S1 = new ScalarWeight(1);
+    private static final ScalarWeight S2 = new ScalarWeight(2);
+    private static final ScalarWeight S3 = new ScalarWeight(3);
+
+    private final EdgeWeigher<TestVertex, TestEdge> scalarWeigher =
+            new EdgeWeigher<TestVertex, TestEdge>() {
+                @Override
+                public Weight weight(TestEdge edge) {
+                    return edge.weight();
+                }
+
+                @Override
+                public Weight getInitialWeight() {
+                    return new ScalarWeight(0);
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return ScalarWeight.NON_VIABLE_WEIGHT;
+                }
+            };
+
+    private Set<TestVertex> vertexes;
+    private Set<TestEdge> edges;
+
+    @Before
+    public void setUp() {
+        // Random graph with few distinct weights, so that there are plenty of
+        // equal-cost paths.
+        Random random = new Random(42);
+        vertexes = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            vertexes.add(new TestVertex("V" + i));
+        }
+        List<TestVertex> list = vertexes.stream().collect(Collectors.toList());
+        edges = new HashSet<>();
+        ScalarWeight[] weights = {S1, S1, S2, S3, ScalarWeight.NON_VIABLE_WEIGHT};
+        for (int i = 0; i < 90; i++) {
+            TestVertex src = list.get(random.nextInt(list.size()));
+            TestVertex dst = list.get(random.nextInt(list.size()));
+            if (!src.equals(dst)) {
+                edges.add(new TestEdge(src, dst, weights[random.nextInt(weights.length)]));
+            }
+        }
+    }
+
+    @Test
+    public void graphBasics() {
+        AdjacencyListsGraph<TestVertex, TestEdge> lists = new AdjacencyListsGraph<>(vertexes, edges);
+        IndexedGraph<TestVertex, TestEdge> indexed = IndexedGraph.of(lists);
+        assertEquals("incorrect vertexes", lists.getVertexes(), indexed.getVertexes());
+        assertEquals("incorrect edges", lists.getEdges(), indexed.getEdges());
+        assertEquals("incorrect vertex count", vertexes.size(), indexed.vertexCount());
+        assertEquals("incorrect edge count", edges.size(), indexed.edgeCount());
+        for (TestVertex v : vertexes) {
+            assertEquals("incorrect egress", lists.getEdgesFrom(v), indexed.getEdgesFrom(v));
+            assertEquals("incorrect ingress", lists.getEdgesTo(v), indexed.getEdgesTo(v));
+
+            int index = indexed.index(v);
+            assertEquals("incorrect vertex", v, indexed.vertex(index));
+            for (int e = indexed.egressStart(index); e < indexed.egressEnd(index); e++) {
+                assertEquals("incorrect edge source", index, indexed.src(e));
+                assertEquals("incorrect edge source", v, indexed.edge(e).src());
+            }
+            for (int i = indexed.ingressStart(index); i < indexed.ingressEnd(index); i++) {
+                assertEquals("incorrect edge destination", v,
+                             indexed.edge(indexed.ingressEdge(i)).dst());
+            }
+        }
+        assertEquals("snapshot should be reused", indexed, IndexedGraph.of(indexed));
+        assertEquals("unknown vertex has no index", -1, indexed.index(Z));
+
+        new EqualsTester()
+                .addEqualityGroup(indexed, new IndexedGraph<>(vertexes, edges))
+                .addEqualityGroup(new IndexedGraph<>(vertexes, ImmutableSet.of()))
+                .testEquals();
+    }
+
+    @Test
+    public void dijkstraMatches() {
+        IndexedGraph<TestVertex, TestEdge> indexed = new IndexedGraph<>(vertexes, edges);
+        DijkstraGraphSearch<TestVertex, TestEdge> expected = new DijkstraGraphSearch<>();
+        IndexedDijkstraGraphSearch<TestVertex, TestEdge> actual = new IndexedDijkstraGraphSearch<>();
+        for (TestVertex src : vertexes) {
+            for (TestVertex dst : vertexes) {
+                assertEquals("incorrect paths",
+                             expected.search(indexed, src, dst, scalarWeigher, ALL_PATHS).paths(),
+                             actual.search(indexed, src, dst, scalarWeigher, ALL_PATHS).paths());
+            }
+            GraphPathSearch.Result<TestVertex, TestEdge> all =
+                    expected.search(indexed, src, null, scalarWeigher, ALL_PATHS);
+            GraphPathSearch.Result<TestVertex, TestEdge> allIndexed =
+                    actual.search(indexed, src, null, scalarWeigher, ALL_PATHS);
+            assertEquals("incorrect paths", all.paths(), allIndexed.paths());
+            assertEquals("incorrect costs", all.costs(), allIndexed.costs());
+            assertEquals("incorrect parents", all.parents(), allIndexed.parents());
+        }
+    }
+
+    @Test
+    public void dijkstraFallback() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        Set<Path<TestVertex, TestEdge>> paths = new IndexedDijkstraGraphSearch<TestVertex, TestEdge>()
+                .search(graph, A, H, weigher, ALL_PATHS).paths();
+        assertEquals("incorrect paths",
+                     new DijkstraGraphSearch<TestVertex, TestEdge>()
+                             .search(graph, A, H, weigher, ALL_PATHS).paths(),
+                     paths);
+    }
+
+    @Test
+    public void breadthFirstMatches() {
+        IndexedGraph<TestVertex, TestEdge> indexed = new IndexedGraph<>(vertexes, edges);
+        BreadthFirstSearch<TestVertex, TestEdge> expected = new BreadthFirstSearch<>();
+        IndexedBreadthFirstSearch<TestVertex, TestEdge> actual = new IndexedBreadthFirstSearch<>();
+        for (TestVertex src : vertexes) {
+            for (TestVertex dst : vertexes) {
+                Set<Path<TestVertex, TestEdge>> paths =
+                        expected.search(indexed, src, dst, hopCounts(), ALL_PATHS).paths();
+                Set<Path<TestVertex, TestEdge>> indexedPaths =
+                        actual.search(indexed, src, dst, hopCounts(), ALL_PATHS).paths();
+                assertEquals("incorrect path count", paths.size(), indexedPaths.size());
+                if (!paths.isEmpty()) {
+                    Path<TestVertex, TestEdge> path = indexedPaths.iterator().next();
+                    assertEquals("incorrect hop count",
+                                 paths.iterator().next().edges().size(), path.edges().size());
+                    assertEquals("incorrect source", src, path.src());
+                    assertEquals("incorrect destination", dst, path.dst());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void kShortestMatches() {
+        KShortestPathsSearch<TestVertex, TestEdge> expected = new KShortestPathsSearch<>();
+        IndexedKShortestPathsSearch<TestVertex, TestEdge> actual = new IndexedKShortestPathsSearch<>();
+        AdjacencyListsGraph<TestVertex, TestEdge> lists = new AdjacencyListsGraph<>(vertexes, edges);
+        for (TestVertex src : vertexes) {
+            for (TestVertex dst : vertexes) {
+                if (src.equals(dst)) {
+                    continue;
+                }
+                List<Weight> costs = expected.search(lists, src, dst, scalarWeigher, 5).paths()
+                        .stream().map(Path::cost).collect(Collectors.toList());
+                List<Weight> indexedCosts = actual.search(lists, src, dst, scalarWeigher, 5).paths()
+                        .stream().map(Path::cost).collect(Collectors.toList());
+                // Equal-cost paths may be picked in a different order, which
+                // can change the later candidates, but not the shortest ones.
+                assertEquals("incorrect path presence", costs.isEmpty(), indexedCosts.isEmpty());
+                if (!costs.isEmpty()) {
+                    assertEquals("incorrect shortest cost", costs.get(0), indexedCosts.get(0));
+                }
+                for (int i = 1; i < indexedCosts.size(); i++) {
+                    assertTrue("paths out of order",
+                               indexedCosts.get(i - 1).compareTo(indexedCosts.get(i)) <= 0);
+                }
+            }
+        }
+    }
+
+    // Hop-count weigher producing scalar weights.
+    private EdgeWeigher<TestVertex, TestEdge> hopCounts() {
+        return new DefaultEdgeWeigher<>();
+    }
+}
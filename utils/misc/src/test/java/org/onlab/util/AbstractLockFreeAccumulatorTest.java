@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onlab.junit.TestTools.delay;
+
+/**
+ * Tests the operation of the lock-free accumulator.
+ */
+public class AbstractLockFreeAccumulatorTest {
+
+    @Test
+    public void basics() {
+        TestAccumulator accumulator = new TestAccumulator();
+        assertNotNull("missing timer", accumulator.timer());
+        assertEquals("incorrect max events", 5, accumulator.maxItems());
+        assertEquals("incorrect max ms", 400, accumulator.maxBatchMillis());
+        assertEquals("incorrect idle ms", 200, accumulator.maxIdleMillis());
+    }
+
+    @Test
+    public void eventTrigger() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.add(new TestItem("a"));
+        accumulator.add(new TestItem("b"));
+        accumulator.add(new TestItem("c"));
+        accumulator.add(new TestItem("d"));
+        assertTrue("should not have fired yet", accumulator.batch.isEmpty());
+        accumulator.add(new TestItem("e"));
+        assertAfter(100, () -> assertEquals("incorrect batch", "abcde", accumulator.batch));
+    }
+
+    @Test
+    public void idleTrigger() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.add(new TestItem("a"));
+        accumulator.add(new TestItem("b"));
+        delay(50);
+        assertTrue("should not have fired yet", accumulator.batch.isEmpty());
+        assertAfter(500, () -> assertEquals("incorrect batch", "ab", accumulator.batch));
+    }
+
+    @Test
+    public void timeTrigger() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.add(new TestItem("a"));
+        delay(100);
+        accumulator.add(new TestItem("b"));
+        delay(100);
+        accumulator.add(new TestItem("c"));
+        delay(100);
+        accumulator.add(new TestItem("d"));
+        assertAfter(300, () -> assertEquals("incorrect batch", "abcd", accumulator.batch));
+        assertEquals("incorrect batch count", 1, accumulator.batchCount);
+    }
+
+    @Test
+    public void readyIdleTrigger() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.ready = false;
+        accumulator.add(new TestItem("a"));
+        accumulator.add(new TestItem("b"));
+        delay(300);
+        assertTrue("should not have fired yet", accumulator.batch.isEmpty());
+        accumulator.ready = true;
+        assertAfter(500, () -> assertEquals("incorrect batch", "ab", accumulator.batch));
+    }
+
+    @Test
+    public void readyMaxTrigger() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.ready = false;
+        IntStream.range(0, 7).forEach(i -> accumulator.add(new TestItem(String.valueOf((char) ('a' + i)))));
+        delay(50);
+        assertTrue("should not have fired yet", accumulator.batch.isEmpty());
+        accumulator.ready = true;
+        accumulator.add(new TestItem("h"));
+        assertAfter(100, () -> assertEquals("incorrect batch", "abcde", accumulator.batch));
+        assertAfter(500, () -> assertEquals("incorrect batch", "abcdefgh", accumulator.batch));
+        assertEquals("incorrect batch count", 2, accumulator.batchCount);
+    }
+
+    @Test
+    public void stormTest() {
+        TestAccumulator accumulator = new TestAccumulator();
+        IntStream.range(0, 1000).forEach(i -> accumulator.add(new TestItem("#" + i)));
+        assertAfter(1000, () -> assertEquals("wrong item count", 1000, accumulator.itemCount));
+        assertEquals("wrong batch count", 200, accumulator.batchCount);
+        assertEquals("wrong batch size count", 200, accumulator.batchSizes().getCount());
+        assertEquals("wrong max batch size", 5, accumulator.batchSizes().getSnapshot().getMax());
+        assertEquals("wrong batch latency count", 200, accumulator.batchLatencies().getCount());
+    }
+
+    private class TestItem {
+        private final String s;
+
+        public TestItem(String s) {
+            this.s = s;
+        }
+    }
+
+    private class TestAccumulator extends AbstractLockFreeAccumulator<TestItem> {
+
+        volatile String batch = "";
+        volatile boolean ready = true;
+        volatile int batchCount = 0;
+        volatile int itemCount = 0;
+
+        protected TestAccumulator() {
+            super(5, 400, 200);
+        }
+
+        @Override
+        public void processItems(List<TestItem> items) {
+            batchCount++;
+            itemCount += items.size();
+            StringBuilder sb = new StringBuilder(batch);
+            for (TestItem item : items) {
+                sb.append(item.s);
+            }
+            batch = sb.toString();
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+    }
+}